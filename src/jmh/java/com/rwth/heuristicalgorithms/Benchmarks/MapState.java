@@ -0,0 +1,151 @@
+package com.rwth.heuristicalgorithms.Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Benchmark state holding a map and sample positions of a random game on it.
+ * Every benchmark using this state is run for every map in maps/ and maps/reserve/.
+ * JMH forks a new JVM for every parameter combination, so the static attributes of PlayingField always belong to the map of this state.
+ */
+@State(Scope.Benchmark)
+public class MapState {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Seed of the random games, so that every run benchmarks the same positions.
+     */
+    static final long SEED = 5;
+
+    /**
+     * Maximum number of plies of the random game the sample positions are taken from.
+     */
+    private static final int SAMPLE_PLIES = 32;
+
+    /**
+     * Path of the map, relative to the project directory.
+     */
+    @Param({
+        "maps/2023_comp_5_2p.map",
+        "maps/2023_comp_5_4p.map",
+        "maps/2023_comp_5_8p.map",
+        "maps/reserve/Map_3v3_17x17_#3xReversi.map",
+        "maps/reserve/Map_4v4_9x9_#01.map",
+        "maps/reserve/Map_8v8_32x32_#MassiveNoBomb.map",
+        "maps/reserve/group1_donut.map",
+        "maps/reserve/group2_chaos.map",
+        "maps/reserve/group2_emap.map",
+        "maps/reserve/group4_map01.map",
+        "maps/reserve/group4_map02.map",
+        "maps/reserve/group4_map03.map",
+        "maps/reserve/group7_map3.map",
+        "maps/reserve/group8_davidmellert.map",
+        "maps/reserve/group8_seerinnitsche.map"
+    })
+    public String map;
+
+    /**
+     * Content of the map file.
+     */
+    String mapString;
+
+    /**
+     * Start position of the map.
+     */
+    PlayingField start;
+
+    /**
+     * Positions of a random game in the building phase, starting with the start position.
+     */
+    PlayingField[] positions;
+
+    /**
+     * positionPlayers[i] is the player whose turn it is in positions[i].
+     */
+    byte[] positionPlayers;
+
+    /**
+     * The positions in the elimination phase.
+     */
+    PlayingField[] eliminationPositions;
+
+    /**
+     * Tiles of the possible moves in the positions, as the calls of getEnclosedStones in the move generation.
+     * tiles[i] = {index of the position, y, x}.
+     */
+    int[][] tiles;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Reads the map and plays a random game to collect the sample positions.
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, TimeoutException{
+        mapString = Files.readString(Path.of(map));
+        start = PlayingField.readMap(mapString);
+
+        Random rand = new Random(SEED);
+        List<PlayingField> fields = new ArrayList<>();
+        List<Byte> players = new ArrayList<>();
+        List<int[]> moveTiles = new ArrayList<>();
+        PlayingField pf = start.copy();
+        byte player = 1;
+        int passes = 0;
+        while(fields.size() < SAMPLE_PLIES && passes < pf.getPlayerCount()){
+            List<Move> moves = Minimax.getAllPossibleMoves(pf, player);
+            if(moves == null){
+                passes++;
+                player = Minimax.getNextPlayer(pf, player);
+                continue;
+            }
+            passes = 0;
+            for(Move move : moves){
+                moveTiles.add(new int[]{fields.size(), move.getY(), move.getX()});
+            }
+            fields.add(pf.copy());
+            players.add(player);
+            pf.executeMove(moves.get(rand.nextInt(moves.size())), player);
+            player = Minimax.getNextPlayer(pf, player);
+        }
+
+        positions = fields.toArray(new PlayingField[0]);
+        positionPlayers = new byte[players.size()];
+        eliminationPositions = new PlayingField[positions.length];
+        for(int i = 0; i < positions.length; i++){
+            positionPlayers[i] = players.get(i);
+            eliminationPositions[i] = positions[i].copy();
+            eliminationPositions[i].startEliminationPhase();
+        }
+        tiles = moveTiles.toArray(new int[0][]);
+        if(positions.length == 0) throw new IllegalStateException(map + " has no possible moves");
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,94 @@
+package com.rwth.heuristicalgorithms.Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.MoveHeuristic;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+
+/**
+ * Benchmarks the move generation and the heuristics.
+ * Every invocation uses the next sample position of the MapState.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinimaxBenchmark {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Index of the next sample position.
+     */
+    private int next;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * @param state the map
+     * @return index of the next sample position
+     */
+    private int nextPosition(MapState state){
+        next = next + 1 == state.positions.length ? 0 : next + 1;
+        return next;
+    }
+
+    /**
+     * Computes all possible moves in the building phase.
+     * @param state the map
+     * @return the moves
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Benchmark
+    public List<Move> getAllPossibleMoves(MapState state) throws TimeoutException{
+        int i = nextPosition(state);
+        return Minimax.getAllPossibleMoves(state.positions[i], state.positionPlayers[i]);
+    }
+
+    /**
+     * Evaluates a position of the building phase.
+     * @param state the map
+     * @return the heuristic value
+     */
+    @Benchmark
+    public int evalBoard_Building(MapState state){
+        int i = nextPosition(state);
+        return MoveHeuristic.evalBoard_Building(state.positions[i], state.positionPlayers[i]);
+    }
+
+    /**
+     * Evaluates a position of the elimination phase.
+     * @param state the map
+     * @return the heuristic value
+     */
+    @Benchmark
+    public int evalBoard_Elimination(MapState state){
+        int i = nextPosition(state);
+        return MoveHeuristic.evalBoard_Elimination(state.eliminationPositions[i], state.positionPlayers[i]);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,201 @@
+package com.rwth.heuristicalgorithms.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.MoveType;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Benchmarks executing the moves of one move type, on a copy (executeMove) and with make/unmake.
+ * The moves are collected from random games. Override moves are made possible by giving the player an override stone,
+ * bomb moves by switching to the elimination phase and giving the player a bomb.
+ * Maps without tiles for a move type (e.g. without choice tiles) fail the setup of that move type with an IllegalStateException;
+ * JMH reports the error and continues with the next parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Number of moves that are benchmarked.
+     */
+    private static final int POOL_SIZE = 64;
+
+    /**
+     * Maximum number of random games played to collect the moves.
+     */
+    private static final int MAX_GAMES = 8;
+
+    /**
+     * Maximum number of plies of a random game.
+     */
+    private static final int MAX_PLIES = 400;
+
+    /**
+     * Move type that is benchmarked.
+     */
+    @Param({"DEFAULT", "OVERRIDE", "CHOICE", "BONUS", "BOMB"})
+    public MoveType moveType;
+
+    /**
+     * Positions the moves are executed in.
+     */
+    private PlayingField[] positions;
+
+    /**
+     * players[i] is the player making moves[i].
+     */
+    private byte[] players;
+
+    /**
+     * The moves of the move type.
+     */
+    private Move[] moves;
+
+    /**
+     * Index of the next move.
+     */
+    private int next;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Collects the moves of the move type from random games.
+     * @param state the map
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Setup(Level.Trial)
+    public void setUp(MapState state) throws TimeoutException{
+        Random rand = new Random(MapState.SEED);
+        List<PlayingField> fields = new ArrayList<>();
+        List<Byte> movePlayers = new ArrayList<>();
+        List<Move> pool = new ArrayList<>();
+
+        for(int game = 0; game < MAX_GAMES && pool.size() < POOL_SIZE; game++){
+            PlayingField pf = state.start.copy();
+            byte player = 1;
+            int passes = 0;
+            for(int ply = 0; ply < MAX_PLIES && pool.size() < POOL_SIZE && passes < pf.getPlayerCount(); ply++){
+                PlayingField position = preparePosition(pf, player);
+                List<Move> possible = Minimax.getAllPossibleMoves(position, player);
+                if(possible != null){
+                    PlayingField saved = position == pf ? pf.copy() : position;
+                    for(Move move : possible){
+                        if(move.getMoveType() == moveType && pool.size() < POOL_SIZE && rand.nextInt(4) == 0){
+                            fields.add(saved);
+                            movePlayers.add(player);
+                            pool.add(move);
+                        }
+                    }
+                }
+
+                List<Move> own = position == pf ? possible : Minimax.getAllPossibleMoves(pf, player);
+                if(own == null){
+                    passes++;
+                } else {
+                    passes = 0;
+                    pf.executeMove(own.get(rand.nextInt(own.size())), player);
+                }
+                player = Minimax.getNextPlayer(pf, player);
+            }
+        }
+        if(pool.isEmpty()) throw new IllegalStateException(state.map + " has no " + moveType + " moves");
+
+        positions = fields.toArray(new PlayingField[0]);
+        players = new byte[movePlayers.size()];
+        for(int i = 0; i < players.length; i++){
+            players[i] = movePlayers.get(i);
+        }
+        moves = pool.toArray(new Move[0]);
+    }
+
+    /**
+     * Makes the moves of the move type possible for the player.
+     * @param pf position of the random game
+     * @param player player whose turn it is
+     * @return a prepared copy for override and bomb moves, pf itself otherwise
+     */
+    private PlayingField preparePosition(PlayingField pf, byte player){
+        if(moveType == MoveType.OVERRIDE){
+            PlayingField position = pf.copy();
+            if(position.getPlayerOverrideStoneCount(player) == 0) position.changePlayerOverrideStoneCount(player, (byte)1);
+            return position;
+        }
+        if(moveType == MoveType.BOMB){
+            PlayingField position = pf.copy();
+            position.startEliminationPhase();
+            if(position.getPlayerBombCount(player) == 0) position.changePlayerBombCount(player, (byte)1);
+            return position;
+        }
+        return pf;
+    }
+
+    /**
+     * @return index of the next move
+     */
+    private int nextMove(){
+        next = next + 1 == moves.length ? 0 : next + 1;
+        return next;
+    }
+
+    /**
+     * Executes a move on a copy of its position, as done by the search without make/unmake. Includes the time of the copy.
+     * @return the position after the move
+     */
+    @Benchmark
+    public PlayingField executeMove(){
+        int i = nextMove();
+        PlayingField pf = positions[i].copy();
+        pf.executeMove(moves[i], players[i]);
+        return pf;
+    }
+
+    /**
+     * Makes a move and takes it back, as done by the search with make/unmake.
+     * @return the hash after the move
+     */
+    @Benchmark
+    public long makeUnmake(){
+        int i = nextMove();
+        PlayingField pf = positions[i];
+        pf.makeMove(moves[i], players[i]);
+        long hash = pf.getHash();
+        pf.unmakeMove();
+        return hash;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,96 @@
+package com.rwth.heuristicalgorithms.Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Benchmarks reading, copying and the flip computation of the PlayingField.
+ * Every invocation uses the next sample position of the MapState, so that the results do not depend on a single position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayingFieldBenchmark {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Index of the next sample position.
+     */
+    private int next;
+
+    /**
+     * Buffer for the stones flipped by getEnclosedStones.
+     */
+    private int[] buffer;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Creates the flip buffer for the map of the state.
+     * @param state the map
+     */
+    @Setup(Level.Trial)
+    public void setUp(MapState state){
+        buffer = new int[state.start.getFlipBufferSize()];
+    }
+
+    /**
+     * Parses the map, including the transitions and the precomputed tables.
+     * @param state the map
+     * @return the PlayingField
+     */
+    @Benchmark
+    public PlayingField readMap(MapState state){
+        return PlayingField.readMap(state.mapString);
+    }
+
+    /**
+     * Copies a PlayingField, as done for every move of the search without make/unmake.
+     * @param state the map
+     * @return the copy
+     */
+    @Benchmark
+    public PlayingField copy(MapState state){
+        next = next + 1 == state.positions.length ? 0 : next + 1;
+        return state.positions[next].copy();
+    }
+
+    /**
+     * Computes the stones a move of the move generation would flip.
+     * @param state the map
+     * @return number of flipped stones
+     */
+    @Benchmark
+    public int getEnclosedStones(MapState state){
+        next = next + 1 == state.tiles.length ? 0 : next + 1;
+        int[] tile = state.tiles[next];
+        return state.positions[tile[0]].getEnclosedStones((byte) tile[1], (byte) tile[2], state.positionPlayers[tile[0]], buffer);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
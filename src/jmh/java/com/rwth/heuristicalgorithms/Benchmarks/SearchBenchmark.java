@@ -0,0 +1,69 @@
+package com.rwth.heuristicalgorithms.Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+
+/**
+ * Benchmarks the fixed-depth search with alpha-beta pruning and move sorting.
+ * The search uses the default settings of SearchContext, i.e., one thread and no transposition table,
+ * so every invocation searches the whole tree of the next sample position of the MapState again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Depth of the search.
+     */
+    @Param({"2", "3"})
+    public int depth;
+
+    /**
+     * Index of the next sample position.
+     */
+    private int next;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Searches the next sample position to the given depth.
+     * @param state the map
+     * @return the best move
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Benchmark
+    public Move alphaBeta_getBestMove(MapState state) throws TimeoutException{
+        next = next + 1 == state.positions.length ? 0 : next + 1;
+        return Minimax.alphaBeta_getBestMove(state.positions[next], state.positionPlayers[next], depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
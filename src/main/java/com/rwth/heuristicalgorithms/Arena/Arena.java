@@ -0,0 +1,261 @@
+package com.rwth.heuristicalgorithms.Arena;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Self-play arena: plays many engine-vs-engine games (see ArenaGame) in parallel on a thread pool sized to the cores
+ * and reports the win rate, average depth and nodes per second of every engine (see EngineConfig).
+ *
+ * Every game has its own PlayingField (with the MapTopology of its map) and a SearchContext per engine, so the games of all maps run in parallel.
+ * The engines rotate through the seats, so every engine starts equally often. Every rotation starts from a different random opening (see ArenaGame),
+ * which is played once in every seating, so the win rates compare the engines and not the seats of a single repeated game.
+ * The switches of the search (e.g. pvs, tt, mu) are set per engine. Both engines of a game play on the same PlayingField,
+ * so its representation (-bb of the Client) is left at its default.
+ *
+ * Usage: java -cp swp2023_group5.jar com.rwth.heuristicalgorithms.Arena.Arena -e "full:time=100" -e "asp:time=100,asp=0.5" -g 20
+ */
+public class Arena {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Configurations of the engines.
+     */
+    @Parameter(names = { "--engine", "-e" }, description = "Engine as name:key=value,... with the keys time, depth, sort, asp, pvs, tt, mu, threads, history and pvreuse. Can be used multiple times.")
+    public List<String> engineSpecs = new ArrayList<>();
+
+    /**
+     * Map files to play on. All maps in maps/ and maps/reserve/ if empty.
+     */
+    @Parameter(names = { "--map", "-m" }, description = "Map file to play on. Can be used multiple times. All maps in maps/ and maps/reserve/ if not set.")
+    public List<String> maps = new ArrayList<>();
+
+    /**
+     * Number of games per map.
+     */
+    @Parameter(names = { "--games", "-g" }, description = "Number of games per map.")
+    public int gamesPerMap = 4;
+
+    /**
+     * Number of games played in parallel.
+     */
+    @Parameter(names = { "--threads", "-t" }, description = "Number of games played in parallel. Defaults to the number of cores.")
+    public int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of random plies at the start of every game.
+     */
+    @Parameter(names = { "--opening", "-o" }, description = "Number of random plies at the start of every game, so that the games differ.")
+    public int openingPlies = 4;
+
+    /**
+     * Seed of the random openings.
+     */
+    @Parameter(names = { "--seed" }, description = "Seed of the random openings.")
+    public long seed = 2023;
+
+    /**
+     * Is true when the help is displayed. Set by -h or --help flag.
+     */
+    @Parameter(names = { "--help", "-h" }, description = "Displays help.", help = true)
+    public boolean showHelp = false;
+
+    /**
+     * results.get(m)[e] are the results of engine e on map m.
+     */
+    private final List<EngineStats[]> results = new ArrayList<>();
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Plays all games and prints the results of every map.
+     * @throws IOException if a map can not be read
+     */
+    public void run() throws IOException{
+        List<EngineConfig> engines = getEngines();
+        List<String> mapFiles = maps.isEmpty() ? listMaps() : maps;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try{
+            long start = System.nanoTime();
+            List<List<Future<EngineStats[]>>> games = new ArrayList<>();
+            for(String map : mapFiles){
+                games.add(submitGames(map, engines, pool));
+            }
+            for(int m = 0; m < mapFiles.size(); m++){
+                EngineStats[] mapStats = collectGames(mapFiles.get(m), games.get(m), engines.size());
+                results.add(mapStats);
+                StringBuilder sb = new StringBuilder("[ARENA] ").append(mapFiles.get(m)).append(": ").append(gamesPerMap).append(" games finished after ")
+                    .append((System.nanoTime() - start) / 1_000_000).append("ms, win rates");
+                for(int e = 0; e < engines.size(); e++){
+                    sb.append(String.format(Locale.ROOT, " %s %.1f%%", engines.get(e).getName(), 100 * mapStats[e].getWinRate()));
+                }
+                System.out.println(sb);
+            }
+        } finally{
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads a map and submits all of its games to the pool.
+     * @param map path of the map file
+     * @param engines the engines
+     * @param pool pool the games are played on
+     * @return the results of the games, stats[e] for engine e
+     * @throws IOException if the map can not be read
+     */
+    private List<Future<EngineStats[]>> submitGames(String map, List<EngineConfig> engines, ExecutorService pool) throws IOException{
+        PlayingField start = PlayingField.readMap(Files.readString(Path.of(map)));
+
+        List<Future<EngineStats[]>> games = new ArrayList<>();
+        for(int g = 0; g < gamesPerMap; g++){
+            int[] seats = new int[start.getPlayerCount()];
+            for(int p = 0; p < seats.length; p++){
+                seats[p] = (p + g) % engines.size();
+            }
+            //the games of one rotation of the seats share their opening
+            ArenaGame game = new ArenaGame(start, seats, engines, seed + g / engines.size(), openingPlies);
+            games.add(pool.submit(game::play));
+        }
+        return games;
+    }
+
+    /**
+     * Waits for the games of a map and adds up their results.
+     * @param map path of the map file
+     * @param games the submitted games of the map
+     * @param engines number of engines
+     * @return the results of every engine on the map
+     */
+    private static EngineStats[] collectGames(String map, List<Future<EngineStats[]>> games, int engines){
+        EngineStats[] mapStats = newStats(engines);
+        for(Future<EngineStats[]> game : games){
+            try{
+                EngineStats[] gameStats = game.get();
+                for(int e = 0; e < mapStats.length; e++){
+                    mapStats[e].add(gameStats[e]);
+                }
+            } catch(ExecutionException e){
+                throw new IllegalStateException("a game on " + map + " failed", e.getCause());
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while playing " + map, e);
+            }
+        }
+        return mapStats;
+    }
+
+    /**
+     * @return the configured engines. A single default engine if none is configured
+     */
+    public List<EngineConfig> getEngines(){
+        List<EngineConfig> engines = new ArrayList<>();
+        for(String spec : engineSpecs){
+            engines.add(EngineConfig.parse(spec));
+        }
+        if(engines.isEmpty()) engines.add(new EngineConfig("default"));
+        return engines;
+    }
+
+    /**
+     * @return all map files in maps/ and maps/reserve/, sorted by their path
+     * @throws IOException if a directory can not be read
+     */
+    private static List<String> listMaps() throws IOException{
+        List<String> files = new ArrayList<>();
+        for(String directory : new String[]{"maps", "maps/reserve"}){
+            try(var paths = Files.list(Path.of(directory))){
+                paths.map(Path::toString).filter(p -> p.endsWith(".map")).sorted().forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @param count number of engines
+     * @return empty statistics for every engine
+     */
+    private static EngineStats[] newStats(int count){
+        EngineStats[] stats = new EngineStats[count];
+        for(int i = 0; i < count; i++){
+            stats[i] = new EngineStats();
+        }
+        return stats;
+    }
+
+    /**
+     * @return the results of every engine over all maps played by run
+     */
+    public EngineStats[] getTotal(){
+        EngineStats[] total = newStats(getEngines().size());
+        for(EngineStats[] mapStats : results){
+            for(int e = 0; e < total.length; e++){
+                total[e].add(mapStats[e]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return table of the win rate, average depth and nodes per second of every engine over all maps
+     */
+    public String getReport(){
+        List<EngineConfig> engines = getEngines();
+        EngineStats[] total = getTotal();
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%-40s %6s %9s %9s %12s%n", "engine", "games", "win rate", "avg depth", "nodes/s"));
+        for(int e = 0; e < total.length; e++){
+            sb.append(String.format(Locale.ROOT, "%-40s %6d %8.1f%% %9.2f %12.0f%n", engines.get(e), total[e].getGames(),
+                100 * total[e].getWinRate(), total[e].getAverageDepth(), total[e].getNodesPerSecond()));
+        }
+        return sb.toString();
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+
+
+
+    // -------------------------------------------------
+    // MAIN START
+
+    /**
+     * Plays the games and prints the report.
+     * @param args command line arguments, see --help
+     * @throws IOException if a map can not be read
+     */
+    public static void main(String[] args) throws IOException{
+        Arena arena = new Arena();
+        JCommander jct = JCommander.newBuilder().addObject(arena).build();
+        jct.parse(args);
+        if(arena.showHelp){
+            jct.usage();
+            return;
+        }
+        arena.run();
+        System.out.print(arena.getReport());
+    }
+
+    // MAIN END
+    // -------------------------------------------------
+}
@@ -0,0 +1,225 @@
+package com.rwth.heuristicalgorithms.Arena;
+
+import java.util.List;
+import java.util.Random;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchContext;
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchWorker;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * One game of the Arena, played directly on a PlayingField without sockets. Every player is an engine that searches with iterative deepening.
+ * Every engine has its own SearchContext in every game, with the switches of its EngineConfig, its transposition table and its move ordering.
+ * So the engines of a game share nothing but the PlayingField, and games can run in parallel in the same JVM.
+ * The game starts with a few random plies (the opening), so that games with the same seats do not repeat each other move for move.
+ * The game follows the rules of the GameServer: players without a possible move are skipped, the building phase ends when no player can move
+ * and the elimination phase ends when no player can bomb. The players with the most stones win.
+ */
+public class ArenaGame {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * State of the game. A copy of the start position of the map.
+     */
+    private final PlayingField pf;
+
+    /**
+     * seats[p-1] is the index of the engine of player p.
+     */
+    private final int[] seats;
+
+    /**
+     * The engines of the Arena.
+     */
+    private final List<EngineConfig> engines;
+
+    /**
+     * contexts[e] contains the settings, time limit and counters of the searches of engine e in this game.
+     */
+    private final SearchContext[] contexts;
+
+    /**
+     * Seed of the random moves of the opening.
+     */
+    private final long seed;
+
+    /**
+     * Number of random plies before the engines take over.
+     */
+    private final int openingPlies;
+
+    /**
+     * stats[e] are the results of engine e in this game.
+     */
+    private final EngineStats[] stats;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates a game.
+     * @param start start position of the map. Is not changed
+     * @param seats seats[p-1] is the index of the engine of player p
+     * @param engines the engines of the Arena
+     * @param seed seed of the random moves of the opening
+     * @param openingPlies number of random plies before the engines take over. 0 lets the engines play from the start position
+     */
+    public ArenaGame(PlayingField start, int[] seats, List<EngineConfig> engines, long seed, int openingPlies){
+        this.pf = start.copy();
+        this.seats = seats;
+        this.engines = engines;
+        this.seed = seed;
+        this.openingPlies = openingPlies;
+        this.stats = new EngineStats[engines.size()];
+        this.contexts = new SearchContext[engines.size()];
+        for(int i = 0; i < stats.length; i++){
+            stats[i] = new EngineStats();
+            contexts[i] = engines.get(i).createContext();
+        }
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Plays the game until the end of the elimination phase.
+     * @return stats[e] are the results of engine e in this game. Engines without a seat have played no game
+     */
+    public EngineStats[] play(){
+        byte current = playOpening();
+        while(true){
+            byte mover = findMover(current);
+            if(mover != 0){
+                Move move = search(mover);
+                pf.executeMove(move, mover);
+                current = Minimax.getNextPlayer(pf, mover);
+            } else if(!pf.getIsEliminationPhase()){
+                pf.startEliminationPhase();
+            } else {
+                break;
+            }
+        }
+        recordWinners();
+        for(SearchContext context : contexts){
+            context.shutdown();
+        }
+        return stats;
+    }
+
+    /**
+     * Plays the random moves of the opening. They are not counted in the results of the engines.
+     * @return the player whose turn it is after the opening
+     */
+    private byte playOpening(){
+        Random random = new Random(seed);
+        byte current = 1;
+        for(int ply = 0; ply < openingPlies; ply++){
+            byte mover = findMover(current);
+            if(mover == 0) break;
+            List<Move> moves = Minimax.getAllPossibleMoves(pf, mover);
+            pf.executeMove(moves.get(random.nextInt(moves.size())), mover);
+            current = Minimax.getNextPlayer(pf, mover);
+        }
+        return current;
+    }
+
+    /**
+     * @return the state of the game. The final position after play
+     */
+    public PlayingField getPlayingField(){
+        return pf;
+    }
+
+    /**
+     * Finds the next player with a possible move.
+     * @param player the first player to check
+     * @return the first player from the given player on that has a possible move. 0 if no player can move
+     */
+    private byte findMover(byte player){
+        byte current = player;
+        for(int i = 0; i < pf.getPlayerCount(); i++){
+            if(Minimax.getAllPossibleMoves(pf, current) != null) return current;
+            current = Minimax.getNextPlayer(pf, current);
+        }
+        return 0;
+    }
+
+    /**
+     * Searches the move of a player with iterative deepening until the time or depth limit of its engine.
+     * @param player player whose turn it is. Has to have a possible move
+     * @return the best move of the last completed iteration. The first possible move if no iteration was completed
+     */
+    private Move search(byte player){
+        EngineConfig engine = engines.get(seats[player - 1]);
+        SearchContext context = contexts[seats[player - 1]];
+        SearchWorker worker = new SearchWorker(0, context);
+        long start = System.nanoTime();
+        context.setDeadline(engine.getTimeLimit() > 0 ? start/1_000_000 + engine.getTimeLimit() : Long.MAX_VALUE);
+
+        Move best = null;
+        int depth = 0;
+        try{
+            for(int d = 1; d <= engine.getDepthLimit(); d++){
+                Move move;
+                if(engine.getAspiration() > 0 && best != null){
+                    int delta = (int) Math.max(1, Math.abs(best.value) * engine.getAspiration());
+                    move = Minimax.alphaBeta_aspiration(pf, player, d, best.value, delta, engine.getMoveSorting(), worker);
+                } else {
+                    move = Minimax.alphaBeta_getBestMove(pf, player, d, Integer.MIN_VALUE, Integer.MAX_VALUE, engine.getMoveSorting(), worker);
+                }
+                if(move == null) break;
+                best = move;
+                depth = d;
+            }
+        } catch(TimeoutException e){
+            //the time is up, the last completed iteration is used
+        }
+
+        stats[seats[player - 1]].addMove(depth, worker.getNodes(), System.nanoTime() - start);
+        return best != null ? best : Minimax.selectFirstMove(pf, player);
+    }
+
+    /**
+     * Records the played game for every engine with a seat. The players with the most stones share the win.
+     */
+    private void recordWinners(){
+        int best = Integer.MIN_VALUE;
+        int winners = 0;
+        for(byte player = 1; player <= pf.getPlayerCount(); player++){
+            int stones = pf.getStoneCount(player);
+            if(stones > best){
+                best = stones;
+                winners = 1;
+            } else if(stones == best){
+                winners++;
+            }
+        }
+        double[] wins = new double[stats.length];
+        boolean[] seated = new boolean[stats.length];
+        for(byte player = 1; player <= pf.getPlayerCount(); player++){
+            seated[seats[player - 1]] = true;
+            if(pf.getStoneCount(player) == best) wins[seats[player - 1]] += 1.0 / winners;
+        }
+        for(int e = 0; e < stats.length; e++){
+            if(seated[e]) stats[e].addGame(wins[e]);
+        }
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,207 @@
+package com.rwth.heuristicalgorithms.Arena;
+
+import java.util.Locale;
+
+import com.rwth.heuristicalgorithms.Client.Client;
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchContext;
+import com.rwth.heuristicalgorithms.MoveChoosing.TranspositionTable;
+
+/**
+ * Configuration of an engine playing in the Arena. The switches of the search are applied to the SearchContext of the engine (see createContext),
+ * so engines with different switches can play against each other.
+ *
+ * A configuration is written as name:key=value,key=value with the keys
+ * time (time per move in ms, 0 for no time limit), depth (depth limit), sort (move sorting, true or false),
+ * asp (half width of the aspiration windows as a fraction of the previous value, 0 for full windows),
+ * pvs (principal variation search), tt (size of the transposition table in MB, 0 disables it), mu (make/unmake),
+ * threads (threads of the parallel root search), history (killer moves and history table) and pvreuse (principal variation reuse),
+ * e.g. "asp25:time=200,asp=0.25,tt=16". Keys that are not given keep their default, which is the default of the Client.
+ */
+public class EngineConfig {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Name of the engine in the report.
+     */
+    private final String name;
+
+    /**
+     * Time per move in ms. 0 for no time limit.
+     */
+    private int timeLimit = 100;
+
+    /**
+     * Depth limit of the iterative deepening.
+     */
+    private int depthLimit = Client.maxDepth_TL;
+
+    /**
+     * Is true when the moves are sorted.
+     */
+    private boolean moveSorting = true;
+
+    /**
+     * Half width of the aspiration windows as a fraction of the value of the previous iteration. 0 searches with full windows.
+     */
+    private double aspiration = 0;
+
+    /**
+     * Is true when principal variation search is used.
+     */
+    private boolean pvs = false;
+
+    /**
+     * Size of the transposition table in MB. 0 disables it.
+     */
+    private int transpositionTableSize = 0;
+
+    /**
+     * Is true when the search executes moves in place and takes them back.
+     */
+    private boolean makeUnmake = false;
+
+    /**
+     * Number of threads of the parallel root search. 1 searches sequentially.
+     */
+    private int threads = 1;
+
+    /**
+     * Is true when killer moves and the history table are used for move sorting.
+     */
+    private boolean history = true;
+
+    /**
+     * Is true when the principal variation and the root values of the previous iteration are searched first.
+     */
+    private boolean pvReuse = true;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates a configuration with the default settings.
+     * @param name name of the engine in the report
+     */
+    public EngineConfig(String name){
+        this.name = name;
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Parses a configuration.
+     * @param spec configuration as name:key=value,key=value. The settings are optional
+     * @return the configuration
+     * @throws IllegalArgumentException if a key is unknown or a value is invalid
+     */
+    public static EngineConfig parse(String spec){
+        int colon = spec.indexOf(':');
+        String name = colon < 0 ? spec : spec.substring(0, colon);
+        if(name.isBlank()) throw new IllegalArgumentException("engine without name: " + spec);
+        EngineConfig config = new EngineConfig(name.trim());
+        if(colon < 0) return config;
+
+        for(String setting : spec.substring(colon + 1).split(",")){
+            if(setting.isBlank()) continue;
+            String[] keyValue = setting.split("=", 2);
+            if(keyValue.length != 2) throw new IllegalArgumentException("setting without value: " + setting);
+            String value = keyValue[1].trim();
+            try{
+                switch(keyValue[0].trim()){
+                    case "time" -> config.timeLimit = Integer.parseInt(value);
+                    case "depth" -> config.depthLimit = Integer.parseInt(value);
+                    case "sort" -> config.moveSorting = Boolean.parseBoolean(value);
+                    case "asp" -> config.aspiration = Double.parseDouble(value);
+                    case "pvs" -> config.pvs = Boolean.parseBoolean(value);
+                    case "tt" -> config.transpositionTableSize = Integer.parseInt(value);
+                    case "mu" -> config.makeUnmake = Boolean.parseBoolean(value);
+                    case "threads" -> config.threads = Integer.parseInt(value);
+                    case "history" -> config.history = Boolean.parseBoolean(value);
+                    case "pvreuse" -> config.pvReuse = Boolean.parseBoolean(value);
+                    default -> throw new IllegalArgumentException("unknown setting " + keyValue[0] + " in " + spec);
+                }
+            } catch(NumberFormatException e){
+                throw new IllegalArgumentException("invalid value " + value + " in " + spec);
+            }
+        }
+        if(config.timeLimit < 0 || config.depthLimit < 1 || config.aspiration < 0 || config.transpositionTableSize < 0 || config.threads < 1){
+            throw new IllegalArgumentException("invalid settings in " + spec);
+        }
+        return config;
+    }
+
+    /**
+     * @return name of the engine in the report
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * @return time per move in ms. 0 for no time limit
+     */
+    public int getTimeLimit(){
+        return timeLimit;
+    }
+
+    /**
+     * @return depth limit of the iterative deepening
+     */
+    public int getDepthLimit(){
+        return depthLimit;
+    }
+
+    /**
+     * @return true if the moves are sorted
+     */
+    public boolean getMoveSorting(){
+        return moveSorting;
+    }
+
+    /**
+     * @return half width of the aspiration windows as a fraction of the previous value. 0 for full windows
+     */
+    public double getAspiration(){
+        return aspiration;
+    }
+
+    /**
+     * Creates the state of the searches of this engine in one game, with the switches of this configuration and an empty transposition table.
+     * @return a new context. Its pool has to be shut down at the end of the game (see SearchContext.shutdown)
+     */
+    public SearchContext createContext(){
+        SearchContext context = new SearchContext();
+        context.setPVS(pvs);
+        context.setTranspositionTable(transpositionTableSize > 0 ? new TranspositionTable(transpositionTableSize) : null);
+        context.setMakeUnmake(makeUnmake);
+        context.setThreads(threads);
+        context.setHistory(history);
+        context.setPVReuse(pvReuse);
+        return context;
+    }
+
+    /**
+     * @return the configuration in the format of parse
+     */
+    @Override
+    public String toString(){
+        return String.format(Locale.ROOT, "%s:time=%d,depth=%d,sort=%b,asp=%s,pvs=%b,tt=%d,mu=%b,threads=%d,history=%b,pvreuse=%b",
+            name, timeLimit, depthLimit, moveSorting, aspiration, pvs, transpositionTableSize, makeUnmake, threads, history, pvReuse);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,129 @@
+package com.rwth.heuristicalgorithms.Arena;
+
+/**
+ * Results of an engine in the Arena: the won games and the depth, nodes and time of its searches.
+ * Every game collects its own statistics, which are added up by the Arena, so no synchronization is needed.
+ */
+public class EngineStats {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Number of games the engine played.
+     */
+    private int games;
+
+    /**
+     * Won games. A win shared by k players counts 1/k for each of them.
+     */
+    private double wins;
+
+    /**
+     * Number of moves the engine searched.
+     */
+    private long moves;
+
+    /**
+     * Sum of the depths of the last completed iteration of every move.
+     */
+    private long depthSum;
+
+    /**
+     * Number of nodes searched, including the aborted iterations.
+     */
+    private long nodes;
+
+    /**
+     * Time of the searches in ns.
+     */
+    private long time;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Records a searched move.
+     * @param depth depth of the last completed iteration. 0 if no iteration was completed
+     * @param moveNodes number of nodes searched for the move
+     * @param moveTime time of the search in ns
+     */
+    void addMove(int depth, long moveNodes, long moveTime){
+        moves++;
+        depthSum += depth;
+        nodes += moveNodes;
+        time += moveTime;
+    }
+
+    /**
+     * Records a played game.
+     * @param win share of the win, 0 for a lost game
+     */
+    void addGame(double win){
+        games++;
+        wins += win;
+    }
+
+    /**
+     * Adds the statistics of another game or map to this one.
+     * @param other the statistics to add
+     */
+    void add(EngineStats other){
+        games += other.games;
+        wins += other.wins;
+        moves += other.moves;
+        depthSum += other.depthSum;
+        nodes += other.nodes;
+        time += other.time;
+    }
+
+    /**
+     * @return number of games the engine played
+     */
+    public int getGames(){
+        return games;
+    }
+
+    /**
+     * @return won games, shared wins count partially
+     */
+    public double getWins(){
+        return wins;
+    }
+
+    /**
+     * @return fraction of the games the engine won. 0 if it played no game
+     */
+    public double getWinRate(){
+        return games == 0 ? 0 : wins / games;
+    }
+
+    /**
+     * @return number of moves the engine searched
+     */
+    public long getMoves(){
+        return moves;
+    }
+
+    /**
+     * @return average depth of the last completed iteration of the moves
+     */
+    public double getAverageDepth(){
+        return moves == 0 ? 0 : depthSum / (double) moves;
+    }
+
+    /**
+     * @return number of nodes searched per second
+     */
+    public double getNodesPerSecond(){
+        return time == 0 ? 0 : nodes / (time / 1e9);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
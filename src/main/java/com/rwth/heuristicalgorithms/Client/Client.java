@@ -7,13 +7,20 @@ import java.nio.charset.StandardCharsets;
 import java.io.*;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
+import com.rwth.heuristicalgorithms.MoveChoosing.LazySMP;
 import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.Pondering;
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchContext;
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchWorker;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeManager;
 import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+import com.rwth.heuristicalgorithms.MoveChoosing.TranspositionTable;
 import com.rwth.heuristicalgorithms.PlayingField.Move;
 import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
 
 /**
- * Class for handling the Client-Side of the network protocol
+ * Class for handling the Client-Side of the network protocol.
+ * Every instance plays one game with its own options, SearchContext and TimeManager, so several Clients can run in the same JVM (see GameServer).
  */
 public class Client {
 
@@ -54,74 +61,137 @@ public class Client {
      * Is true when minimax is to be used instead of alpha-beta pruning, set by -np or --nopruning flag
      */
     @Parameter(names = { "--nopruning", "-np" }, description = "Disables alpha-beta pruning")
-    public static boolean chooseNoPruning = false;
+    public boolean chooseNoPruning = false;
 
     /**
      * is true when moves ar to be sorted
      */
     @Parameter(names = { "--nomovesorting", "-nm" }, description = "Disables alpha-beta move sorting")
-    public static boolean chooseNoMoveSorting = false;
+    public boolean chooseNoMoveSorting = false;
+
+    /**
+     * Is true when the inner nodes of alpha-beta pruning are only to be sorted by move type, without killer moves and history table. Set by -nh or --nohistory flag
+     */
+    @Parameter(names = { "--nohistory", "-nh" }, description = "Disables killer moves and the history table for move sorting")
+    public boolean chooseNoHistory = false;
+
+    /**
+     * Is true when the principal variation and the root values of the previous iteration are not to be searched first. Set by -npv or --nopvreuse flag
+     */
+    @Parameter(names = { "--nopvreuse", "-npv" }, description = "Disables searching the principal variation of the previous iteration first")
+    public boolean chooseNoPVReuse = false;
 
     /**
      * Is true when minimax and alpha-betapruning are to be compared. May be used differently in the future, 
      * set by -d or --debug flag
      */
     @Parameter(names = { "--debug", "-d" }, description = "Toggles debug mode")
-    public static boolean debug = false;
+    public boolean debug = false;
 
     /**
      * Is true when the time is to be measured. Also counts number of states evaluated. Set by -mt or --measureTime flag
      */
     @Parameter(names = { "--measureTime",
             "-mt" }, description = "When enabled measures time differnce between minimax and alpha-beta pruning")
-    public static boolean measureTime = false;
+    public boolean measureTime = false;
 
     /**
      * IF true extends the ouptut for manual debugging. Set by -v or --verbose flag
      */
     @Parameter(names = { "--verbose", "-v" }, description = "When enabled expands output.")
-    public static boolean verbose = false;
+    public boolean verbose = false;
+
+    /**
+     * Selects aspiration windows around the value of the previous iteration (see Minimax.alphaBeta_aspiration).
+     * 1, 2 and 3 start with a window of +-50%, +-25% and +-75% of that value. 0 searches every iteration with the full window.
+     */
+    @Parameter(names = { "--experimental", "-exp" }, description = "Uses aspiration windows of +-50% (1), +-25% (2) or +-75% (3) of the previous value.")
+    public int experimental = 0;
+
+    /**
+     * Is true when principal variation search (NegaScout) is to be used instead of plain alpha-beta pruning. Set by -pvs or --pvs flag
+     */
+    @Parameter(names = { "--pvs", "-pvs" }, description = "Uses principal variation search (null windows for all but the first move) instead of plain alpha-beta pruning")
+    public boolean usePVS = false;
+
+    /**
+     * Is true when bitboards are to be used for move generation. Set by -bb or --bitboard flag
+     */
+    @Parameter(names = { "--bitboard", "-bb" }, description = "Uses bitboards for move generation.")
+    public boolean useBitBoard = false;
+
+    /**
+     * Is true when the search executes moves in place and takes them back instead of copying the PlayingField for every node.
+     * Set by -mu or --makeunmake flag
+     */
+    @Parameter(names = { "--makeunmake", "-mu" }, description = "Uses make/unmake instead of copying the map for every node.")
+    public boolean useMakeUnmake = false;
+
+    /**
+     * Is true when the incremental position hash is to be compared to a recomputed hash after every move (debugging).
+     * Set by -vh or --verifyhash flag
+     */
+    @Parameter(names = { "--verifyhash", "-vh" }, description = "Recomputes and checks the position hash after every move.")
+    public boolean verifyHash = false;
+
+    /**
+     * Size of the transposition table in megabytes. The table is disabled if this is 0. Set by -tt or --ttsize flag
+     */
+    @Parameter(names = { "--ttsize", "-tt" }, description = "Size of the transposition table in MB. 0 disables it.")
+    public int transpositionTableSize = 0;
 
     /**
-     * Is true for experimental feature. 
+     * Number of threads that search the moves at the root in parallel. Set by -t or --threads flag
      */
-    @Parameter(names = { "--experimental", "-exp" }, description = "When enabled uses experimental feature.")
-    public static int experimental = 0;
+    @Parameter(names = { "--threads", "-t" }, description = "Number of threads for the parallel root search. 1 searches sequentially.")
+    public int threads = 1;
+
+    /**
+     * Is true when the threads are used for a Lazy SMP search instead of the parallel root search. Set by -smp or --lazysmp flag
+     */
+    @Parameter(names = { "--lazysmp", "-smp" }, description = "Uses the threads for a Lazy SMP search. Needs a transposition table (--ttsize).")
+    public boolean useLazySMP = false;
+
+    /**
+     * Is true when we search on the time of the other players (see Pondering). Set by -pd or --ponder flag
+     */
+    @Parameter(names = { "--ponder", "-pd" }, description = "Searches the predicted position of our next move while the other players are moving. The sequential, parallel root and Lazy SMP searches continue with the pondered iterations, -mt and -dbg only use its transposition table entries. Works best with a transposition table (--ttsize).")
+    public boolean usePondering = false;
 
     /**
      * stores the active Playing field
      */
-    private static PlayingField pf;
+    private PlayingField pf;
 
     /**
      * Socket used for the connection to the server, the game is running on.
      * Used for receiving and sending messages.
      */
-    private static Socket connection;
+    private Socket connection;
 
     /**
      * Internet Address of the corresponding serverside socket.
      */
-    private static InetSocketAddress server;
+    private InetSocketAddress server;
 
     /**
      * This is InputStream is used for actually receiving the messages.
      * It will be "provided" by the socket.
      * Note: Unbuffered
      */
-    private static InputStream input;
+    private InputStream input;
 
     /**
      * This OutputStream is used for sending messages.
      * it will be "provided" by the sockete.
      * Note: Unbuffered
      */
-    private static OutputStream outputU;
+    private OutputStream outputU;
 
     /**
      * Extends the OutputStream with a buffer.
      */
-    private static BufferedOutputStream output;
+    private BufferedOutputStream output;
 
     /**
      * private static BufferedInputStream input; would also add a buffer to the
@@ -133,7 +203,7 @@ public class Client {
     /**
      * Used for storing the received Message's Payload (excluding header)
      */
-    private static byte[] msg;
+    private byte[] msg;
 
     /**
      * Used for storing The Answer to a move request and then handing it over to the
@@ -147,38 +217,39 @@ public class Client {
      * 2 Bytes Y coordinate
      * 1 Byte addition information for choice and bonus tiles
      */
-    private static byte[] ans = new byte[10];
+    private byte[] ans = new byte[10];
 
     /**
      * Used for Storing the 5 Byte header of incoming messages
      */
-    private static byte[] header = new byte[5];
+    private byte[] header = new byte[5];
 
     /**
      * Used for stopping the program once the game is over and the connection is
      * closed
      */
-    private static boolean run = true;
+    private boolean run = true;
 
     /**
      * used to keep track of the number of moves
      */
-    public static int movenr = 0;
+    public int movenr = 0;
 
     /**
-     * Used to counting the number of states evaluated when pruning. Primarly for -mt
+     * Settings, time limit and counters (evaluated states, timeouts, aspiration re-searches, pondering hits) of the searches for our game.
+     * The counters are printed at the end of the game.
      */
-    public static int prunedEvalCount;
+    public final SearchContext searchContext = new SearchContext();
 
     /**
-     * Used to counting the number of states evaluated when not pruning. Primarly for -mt
+     * Searches on the time of the other players if usePondering is set. Uses searchContext
      */
-    public static int unprunedEvalCount;
+    private final Pondering pondering = new Pondering(searchContext);
 
     /**
-     * used to keep track of the time when we want to throw a TimeoutException
+     * Everything the Client prints goes here. Default: System.out
      */
-    public static long returnTime = 0;
+    private PrintStream out = System.out;
 
     /**
      * When only receiving a time limit, this depth limit will apply on top of the time limit.
@@ -188,36 +259,29 @@ public class Client {
     /**
      * Keeps track of our player number to detect disqualifications
      */
-    public static byte ourPlayerNumber = -1;
+    public byte ourPlayerNumber = -1;
 
-    
-    /**
-     * Logs the number of timeout exceptions. Value is printed at the end of the game.
-     */
-    public static int numTimeoutExceptions = 0;
 
     /**
-     * Logs the number of cases where our estimation stopped us from going into the next depth. 
-     * Value is printed at the end of the game.
+     * Logs the time limit of the last move. Value is printed at the end of the game.
      */
-    public static int numEstimationAborted = 0;
+    public int lastTimeLimit = 0;
 
     /**
-     * Logs the time limit of the last move. Value is printed at the end of the game.
+     * Depth limit of the last move. Used as the depth limit of the pondering
      */
-    public static int lastTimeLimit = 0;
+    private int lastDepthLimit = maxDepth_TL;
     
 
     /**
-     * used to keep track previous (potentially insufficient) times
+     * Decides how deep the iterative deepening search goes. Learns the branching factor over the whole game
      */
-    public static int[] prevTime = new int[maxDepth_TL];
-
-    private static int pAlpha = Integer.MIN_VALUE;
+    public final TimeManager timeManager = new TimeManager(searchContext);
 
-    private static int pBeta = Integer.MAX_VALUE;
-
-    private static int prevValue =0;
+    /**
+     * Value of the best move of the previous iteration. Center of the aspiration window
+     */
+    private int prevValue =0;
 
     // ATTRIBUTES END
     // -------------------------------------------------
@@ -225,6 +289,46 @@ public class Client {
     // -------------------------------------------------
     // METHODS START
 
+    /**
+     * Redirects the output of the Client and its searches, e.g., into the log file of a game hosted by the GameServer.
+     * @param out the new output
+     */
+    public void setOutput(PrintStream out) {
+        this.out = out;
+        searchContext.setLog(out);
+    }
+
+    /**
+     * Applies the search options to searchContext and creates an empty transposition table. Called when the map is received.
+     */
+    private void configureSearch() {
+        searchContext.setMakeUnmake(useMakeUnmake);
+        searchContext.setPVS(usePVS);
+        searchContext.setHistory(!chooseNoHistory);
+        searchContext.setPVReuse(!chooseNoPVReuse);
+        searchContext.setThreads(threads);
+        searchContext.setLazySMP(useLazySMP);
+        searchContext.setVerbose(verbose);
+        searchContext.setTranspositionTable(transpositionTableSize > 0 ? new TranspositionTable(transpositionTableSize) : null);
+    }
+
+    /**
+     * Decides if the search of our move continues with the worker of the pondering. If so, counts the pondering hit
+     * and records the iterations the pondering has completed, since the time prediction of the next iteration needs them.
+     * @param pondered the worker of the pondering, null if the pondering did not search this position
+     * @param dl depth limit of the move
+     * @return the worker to continue with. Null if the search has to start at depth 1
+     */
+    private SearchWorker continuePondering(SearchWorker pondered, int dl) {
+        if (pondered == null || pondered.getCompletedDepth() > dl) return null;
+        searchContext.numPonderHits++;
+        for (int d = 1; d <= pondered.getCompletedDepth(); d++) {
+            timeManager.completeIteration(d, pondered.getIterationNodes(d), pondered.getIterationTime(d));
+        }
+        out.println("Pondering hit, continuing with depth " + (pondered.getCompletedDepth() + 1));
+        return pondered;
+    }
+
     /**
      * calculates the next move
      * 
@@ -234,65 +338,66 @@ public class Client {
      * @param dl           depthlimit
      * @return the calculated move
      */
-    public static Move calcMove(PlayingField pf, int playerNumber, int tl, int dl) {
+    public Move calcMove(PlayingField pf, int playerNumber, int tl, int dl) {
+        //the pondering has to be stopped before the time limit of this search is set
+        SearchWorker pondered = usePondering ? pondering.takeResult(pf, (byte) playerNumber) : null;
         //buffer = 1% + 1000ms
-        returnTime = System.nanoTime() / 1_000_000 + (long) (0.99*tl) - 1000;
+        timeManager.startMove(pf, (byte) playerNumber, tl);
         //best move so far
         Move res = null;
+        //entries of earlier moves are kept, but replaced first
+        TranspositionTable tt = searchContext.getTranspositionTable();
+        if(tt != null){
+            tt.newSearch();
+            tt.resetStatistics();
+        }
         //default case
 
-        if(experimental == 2) {
-            pAlpha = Integer.MIN_VALUE;
-            pBeta = Integer.MAX_VALUE;
+        if (!debug && !measureTime && useLazySMP && threads > 1 && !chooseNoPruning) {
+            out.println("\nOur Move: " + movenr);
+            return LazySMP.search(pf, (byte) playerNumber, dl, threads, !chooseNoMoveSorting, timeManager, continuePondering(pondered, dl));
         }
 
         if (!debug && !measureTime) {
-            System.out.println("\nOur Move: " + movenr);
-            for (int i = 1; i <= dl; i++) {
-                System.out.println("Entering Depth: " + i);
-                prunedEvalCount = 0;
-                long start = System.nanoTime()/1_000_000;
-                try {                       
-                    if(i>1 && prevTime[i-1]>(returnTime-start)) {
-                        numEstimationAborted++;
+            out.println("\nOur Move: " + movenr);
+            //the same worker for all depths, so that every iteration starts with the principal variation of the previous one
+            SearchWorker worker = new SearchWorker(0, searchContext);
+            int firstDepth = 1;
+            //the pondering has already searched this position, continue with its next iteration
+            pondered = continuePondering(pondered, dl);
+            if (pondered != null) {
+                worker = pondered;
+                res = pondered.getBestMove();
+                prevValue = res.value;
+                firstDepth = pondered.getCompletedDepth() + 1;
+            }
+            for (int i = firstDepth; i <= dl; i++) {
+                out.println("Entering Depth: " + i);
+                searchContext.prunedEvalCount.reset();
+                long nodes = worker.getNodes();
+                try {
+                    if(!timeManager.startIteration(i)) {
+                        searchContext.numEstimationAborted++;
                         return res;
                     }
-                    if(experimental == 0 || i == 1){
+                    if(experimental == 0 || res == null || chooseNoPruning){
                         res = Minimax.selectBestMove(pf, (byte) playerNumber, i,Integer.MIN_VALUE,Integer.MAX_VALUE, tl, 
-                                        !chooseNoPruning, !chooseNoMoveSorting);
-                        prevValue = res.value;
+                                        !chooseNoPruning, !chooseNoMoveSorting, worker);
                     } else {
-                        int newA = pAlpha;
-                        int newB = pBeta;
-                        switch(experimental){
-                            case 1:     newA = (int) (prevValue - Math.abs(prevValue)*0.5 - Math.abs(pAlpha)/2);//(prevValue/2)+(pAlpha/2);
-                                        newB = (int) (prevValue + Math.abs(prevValue)*0.5 + Math.abs(pBeta)/2);//(int)(prevValue*1.5)+(pBeta/2);
-                                        break;
-                            case 2:     newA = (int) (prevValue - Math.abs(prevValue)*0.5 - Math.abs(pAlpha)/2);//(prevValue/2)+(pAlpha/2);
-                                        newB = (int) (prevValue + Math.abs(prevValue)*0.5 + Math.abs(pBeta)/2);//(int)(prevValue*1.5)+(pBeta/2);
-                                        break;
-                            case 3:     newA = (int)(prevValue - (Math.abs(prevValue)*(0.75)));
-                                        newB = (int) (prevValue + (Math.abs(prevValue)*(0.75)));
-                                        break;
-                            default:    break;            
-                        }
-                        System.out.println("Aspiration Window: "+newA+" <-> " + newB);
-                        res = Minimax.selectBestMove(pf, (byte) playerNumber, i,newA,newB, tl, !chooseNoPruning, !chooseNoMoveSorting);
-                        if(res == null){
-                            res = Minimax.selectFirstMove(pf, (byte) playerNumber);
-                            System.out.println("[ERROR] couldnt find move due to aspiration windows, using first move instead");
-                        }else{
-                            prevValue = res.value;
-                            pAlpha = newA;
-                            pBeta = newB;
-                        }
+                        double fraction = switch(experimental){
+                            case 2 -> 0.25;
+                            case 3 -> 0.75;
+                            default -> 0.5;
+                        };
+                        int delta = (int) Math.max(1, Math.abs(prevValue) * fraction);
+                        res = Minimax.alphaBeta_aspiration(pf, (byte) playerNumber, i, prevValue, delta, !chooseNoMoveSorting, worker);
                     }
-                    long end = System.nanoTime()/1_000_000;
-                    prevTime[i-1] = (int)(end-start);
-                    System.out.println("Move Value: " + prevValue + " States Evaluated: " + prunedEvalCount);
+                    if(res == null) return Minimax.selectFirstMove(pf, (byte) playerNumber);
+                    prevValue = res.value;
+                    timeManager.completeIteration(i, worker.getNodes() - nodes);
+                    out.println("Move Value: " + prevValue + " States Evaluated: " + searchContext.prunedEvalCount.sum() + " Time: " + timeManager.getIterationTime(i) + "ms");
                 } catch (TimeoutException e) {
-                    numTimeoutExceptions++;
-                    prevTime[i-1] = (int)(System.nanoTime()/1_000_000-start);
+                    searchContext.numTimeoutExceptions++;
                     if(res == null) return Minimax.selectFirstMove(pf, (byte) playerNumber);
                     return res;
                 }
@@ -309,12 +414,12 @@ public class Client {
             rep += unprunedTotal;
 
             Move pruned = null;
-            unprunedEvalCount = 0;
-            prunedEvalCount = 0;
+            searchContext.unprunedEvalCount = 0;
+            searchContext.prunedEvalCount.reset();
             for (int i = 0; i < rep; i++) {
                 long prunedStart = System.nanoTime();
                 try {
-                    pruned = Minimax.selectBestMove(pf, (byte) playerNumber, dl,Integer.MIN_VALUE,Integer.MAX_VALUE, tl, !chooseNoPruning, !chooseNoMoveSorting);
+                    pruned = Minimax.selectBestMove(pf, (byte) playerNumber, dl,Integer.MIN_VALUE,Integer.MAX_VALUE, tl, !chooseNoPruning, !chooseNoMoveSorting, new SearchWorker(0, searchContext));
                 } catch (TimeoutException e) {
                     return res;
                 }
@@ -328,33 +433,32 @@ public class Client {
             }
             prunedTotal /= rep;
             unprunedTotal /= rep;
-            prunedEvalCount /= rep;
-            unprunedEvalCount /= rep;
-            System.out.println(
+            searchContext.unprunedEvalCount /= rep;
+            out.println(
                     "[TESTS] Performance Comparison Between Minimax and alpha-beta pruning. Time consumed with minimax: "
                             + "N/A" + " Time consumed with alpha-beta pruning: " + prunedTotal);
-            System.out.println(
+            out.println(
                     "[TESTS] Performance Comparison Between Minimax and alpha-beta pruning. States Evaluated with minimax: "
-                            + "N/A" + " States Evaluated with alpha-beta pruning: " + prunedEvalCount);
-            System.out.println("");
+                            + "N/A" + " States Evaluated with alpha-beta pruning: " + searchContext.prunedEvalCount.sum()/rep);
+            out.println("");
 
             return pruned;
 
         // for comparing alpha beta and minimax
         } else if (debug) {
             try {
-                Move pruned = Minimax.selectBestMove(pf, (byte) playerNumber, dl,Integer.MIN_VALUE,Integer.MAX_VALUE, tl, true, !chooseNoMoveSorting);
-                Move unpruned = Minimax.selectBestMove(pf, (byte) playerNumber, dl,Integer.MIN_VALUE,Integer.MAX_VALUE, tl, false, false);
+                Move pruned = Minimax.selectBestMove(pf, (byte) playerNumber, dl,Integer.MIN_VALUE,Integer.MAX_VALUE, tl, true, !chooseNoMoveSorting, new SearchWorker(0, searchContext));
+                Move unpruned = Minimax.selectBestMove(pf, (byte) playerNumber, dl,Integer.MIN_VALUE,Integer.MAX_VALUE, tl, false, false, new SearchWorker(0, searchContext));
 
                 PlayingField prunedPF = Move.simulateMove(pruned, (byte) playerNumber, pf);
                 PlayingField unprunedPF = Move.simulateMove(unpruned, (byte) playerNumber, pf);
 
                 int prunedValue = Minimax.minimaxValue(prunedPF, (byte) playerNumber,
-                        Minimax.getNextPlayer(prunedPF, (byte) playerNumber), dl - 1);
+                        Minimax.getNextPlayer(prunedPF, (byte) playerNumber), dl - 1, searchContext);
                 int unprunedValue = Minimax.minimaxValue(unprunedPF, (byte) playerNumber,
-                        Minimax.getNextPlayer(unprunedPF, (byte) playerNumber), dl - 1);
+                        Minimax.getNextPlayer(unprunedPF, (byte) playerNumber), dl - 1, searchContext);
                 if (prunedValue != unprunedValue) {
-                    System.out.println("alpha-beta pruning and minimax returned non-equivalent moves");
+                    out.println("alpha-beta pruning and minimax returned non-equivalent moves");
                 }
                 return unpruned;
             } catch (TimeoutException e) {
@@ -372,11 +476,13 @@ public class Client {
      * 
      * @param data encoded Map
      */
-    private static void rcvMap(byte[] data) {
+    private void rcvMap(byte[] data) {
         String s = new String(data, StandardCharsets.UTF_8);
-        pf = PlayingField.readMap(s);
+        pf = PlayingField.readMap(s, useBitBoard, true);
+        pf.setHashVerification(verifyHash);
+        configureSearch();
         if (!measureTime)
-            System.out.println("Map received: \n" + s);
+            out.println("Map received: \n" + s);
     }
 
     /**
@@ -384,11 +490,10 @@ public class Client {
      * 
      * @param data received Playernumber
      */
-    private static void rcvPlayerNumber(byte[] data) {
-        PlayingField.setOurPlayerNum(data[0]);
+    private void rcvPlayerNumber(byte[] data) {
         ourPlayerNumber = data[0];
         if (!measureTime)
-            System.out.println("Our player number:" + PlayingField.getOurPlayerNum());
+            out.println("Our player number:" + ourPlayerNumber);
     }
 
     /**
@@ -398,7 +503,7 @@ public class Client {
      * @param data 32 Bit Time Limit and 8 Bit maximum search depth
      * @throws IOException when an issue with the socket conenction occurs
      */
-    private static void rcvMoveRequest(byte[] data) throws IOException {
+    private void rcvMoveRequest(byte[] data) throws IOException {
         int timelimit = ByteBuffer.wrap(data, 0, 4).getInt();
         int depthlimit = data[4];
 
@@ -408,7 +513,7 @@ public class Client {
 
         long start = System.nanoTime();
 
-        System.out.println("Move request received with depth limit " + depthlimit + " and time limit " + timelimit + "ms.");
+        out.println("Move request received with depth limit " + depthlimit + " and time limit " + timelimit + "ms.");
 
         // incase we get no time or depth limit
         if (timelimit == 0) {
@@ -417,8 +522,9 @@ public class Client {
         if (depthlimit == 0) {
             depthlimit = maxDepth_TL;
         }
+        lastDepthLimit = depthlimit;
 
-        Move m = calcMove(pf, PlayingField.getOurPlayerNum(), timelimit, depthlimit);
+        Move m = calcMove(pf, ourPlayerNumber, timelimit, depthlimit);
 
         if (m == null) {
             throw new IllegalStateException("[ERROR] in rcvMoveRequest: calcMove yielded null.");
@@ -451,9 +557,12 @@ public class Client {
         long time = (long)((end-start)/1_000_000.0);
 
         if(time > timelimit){
-            System.out.print("[ERROR] ");
+            out.print("[ERROR] ");
+        }
+        out.println("Move was sent. Time limit was " + timelimit + "ms and we used up " + time + "ms.");
+        if(searchContext.getTranspositionTable() != null){
+            out.println(searchContext.getTranspositionTable().getStatistics());
         }
-        System.out.println("Move was sent. Time limit was " + timelimit + "ms and we used up " + time + "ms.");
     }
 
     /**
@@ -462,7 +571,7 @@ public class Client {
      * @param data containing the move specifications(see -> ans) and the player who
      *             made the move
      */
-    private static void rcvMoveAnnouncement(byte[] data) {
+    private void rcvMoveAnnouncement(byte[] data) {
         Move m;
         //convert the received move into our move format
         if (pf.getIsEliminationPhase()) {
@@ -485,13 +594,16 @@ public class Client {
 
         //update map
         pf.executeMove(m, data[5]);
+        if (usePondering && !chooseNoPruning) {
+            pondering.moveAnnounced(pf, m, data[5], ourPlayerNumber, lastDepthLimit, !chooseNoMoveSorting);
+        }
 
         //print some information
         movenr++;
         if (!measureTime && experimental == 0)
-            System.out.println("Move " + movenr + " by Player " + data[5] + ": X:" + m.getX() + " Y:" + m.getY());
+            out.println("Move " + movenr + " by Player " + data[5] + ": X:" + m.getX() + " Y:" + m.getY());
         if (verbose) {
-            System.out.println(pf.toString());
+            out.println(pf.toString());
         }
     }
 
@@ -500,11 +612,13 @@ public class Client {
      * 
      * @param data the player who got Disqualified
      */
-    private static void rcvDisqualification(byte[] data) {
+    private void rcvDisqualification(byte[] data) {
+        //the order of the players changes, so the predicted moves are wrong
+        pondering.stop();
         pf.disqualify(data[0]);
         if(data[0] == ourPlayerNumber){
-            System.out.println("[ERROR] We were disqualified!");
-            System.out.println("""
+            out.println("[ERROR] We were disqualified!");
+            out.println("""
                 _       
                 (_)      
             _ __ _ _ __  
@@ -514,41 +628,48 @@ public class Client {
                   | |    
                   |_|
                     """);
-            System.out.println("Terminating now.");
+            out.println("Terminating now.");
             run = false;
         } else {
-            System.out.println("Player " + data[0] + " was disqualified.");
+            out.println("Player " + data[0] + " was disqualified.");
         }
     }
 
     /**
      * Called when the server announces the end of the First phase
      */
-    private static void rcvFirstEnd() {
+    private void rcvFirstEnd() {
         if (!measureTime)
-            System.out.println("Starting Elimination Phase");
+            out.println("Starting Elimination Phase");
+        //the pondering searches a position of the building phase
+        pondering.stop();
         pf.startEliminationPhase();
-
-        //Reset estimated times
-        prevTime = new int[maxDepth_TL];
     }
 
     /**
      * Called when the server announces the end of the Second phase and therefore
      * the end of the game.
      */
-    private static void rcvSecondEnd() {
+    private void rcvSecondEnd() {
         if (!measureTime)
-            System.out.println("Game has ended.");
+            out.println("Game has ended.");
         run = false;
+        pondering.stop();
 
         //Print some metrics to analyse our estimation
-        System.out.println("------------------------------");
-        System.out.println("Estimation Test results: #Exceptions: " + numTimeoutExceptions 
-            + ", #EstimationAborts: " + numEstimationAborted + ". Fraction (timeout/sum): " 
-            + (((double)numTimeoutExceptions) / (numTimeoutExceptions + numEstimationAborted)) 
+        out.println("------------------------------");
+        out.println("Estimation Test results: #Exceptions: " + searchContext.numTimeoutExceptions 
+            + ", #EstimationAborts: " + searchContext.numEstimationAborted + ". Fraction (timeout/sum): " 
+            + (((double)searchContext.numTimeoutExceptions) / (searchContext.numTimeoutExceptions + searchContext.numEstimationAborted)) 
             + ". Last time limit " + lastTimeLimit + "ms.");
-        System.out.println("------------------------------");
+        if(usePondering){
+            out.println("Pondering: #Hits: " + searchContext.numPonderHits + ".");
+        }
+        if(experimental != 0){
+            out.println("Aspiration windows: #Searches: " + searchContext.numAspirationSearches + ", #FailLow: " + searchContext.numAspirationFailLow
+                + ", #FailHigh: " + searchContext.numAspirationFailHigh + ".");
+        }
+        out.println("------------------------------");
 
     }
 
@@ -558,14 +679,14 @@ public class Client {
      * 
      * @throws IOException when an issue occurs with the socket connection
      */
-    private static void messageHandler() throws IOException {
+    private void messageHandler() throws IOException {
         // the read method blocks until data is available, and returns -1 when the
         // connection is closed
 
         // read message type
         int readLen = input.read(header, 0, 1);
         if (readLen == -1) {
-            System.out.println("closed");
+            out.println("closed");
             run = false;
             return;
         }
@@ -573,7 +694,7 @@ public class Client {
         // read message length
         readLen = input.read(header, 1, 4);
         if (readLen == -1) {
-            System.out.println("closed");
+            out.println("closed");
             run = false;
             return;
         }
@@ -584,7 +705,7 @@ public class Client {
             msg = new byte[msgLength];
             readLen = input.read(msg, 0, msgLength);
             if (readLen == -1) {
-                System.out.println("closed");
+                out.println("closed");
                 run = false;
                 return;
             }
@@ -656,9 +777,20 @@ public class Client {
             outputU.close();
 
         } catch (IOException ex) {
-            ex.printStackTrace();
+            ex.printStackTrace(out);
         } catch (NumberFormatException ex) {
-            ex.printStackTrace();
+            ex.printStackTrace(out);
+        } finally {
+            //a Client hosted by the GameServer must not leave its connection or threads open after an error
+            pondering.stop();
+            searchContext.shutdown();
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (IOException ex) {
+                    //already closed
+                }
+            }
         }
 
     }
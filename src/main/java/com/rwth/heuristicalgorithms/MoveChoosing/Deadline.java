@@ -0,0 +1,99 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time limit of a search. A timer thread sets a flag when the return time is reached,
+ * so that the search only has to read the flag instead of calling System.nanoTime in every node.
+ * Every time limit has its own instance (see SearchContext.setDeadline), so a timer that fires late can never expire a newer time limit.
+ * All deadlines of the JVM share one timer thread.
+ */
+public class Deadline {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Daemon thread that expires the deadlines, so that it never keeps the JVM alive.
+     */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "deadline-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Time in ms (System.nanoTime()/1_000_000) at which the search has to stop. Long.MAX_VALUE for no time limit.
+     */
+    private final long returnTime;
+
+    /**
+     * Timer task of this deadline. Null if the deadline was already expired when it was started or has no time limit.
+     */
+    private final ScheduledFuture<?> task;
+
+    /**
+     * Is true when the time of this deadline is up.
+     */
+    private volatile boolean expired;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates a deadline and starts its timer.
+     * @param returnTime time in ms (System.nanoTime()/1_000_000) at which the search has to stop. Long.MAX_VALUE for no time limit
+     */
+    public Deadline(long returnTime){
+        this.returnTime = returnTime;
+        long delay = returnTime - System.nanoTime()/1_000_000;
+        if(delay <= 0){
+            expired = true;
+            task = null;
+        } else if(returnTime != Long.MAX_VALUE){
+            task = TIMER.schedule(() -> { expired = true; }, delay, TimeUnit.MILLISECONDS);
+        } else {
+            task = null;
+        }
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Cancels the timer of this deadline, so that it never expires. Called when the deadline is replaced.
+     */
+    public void cancel(){
+        if(task != null) task.cancel(false);
+    }
+
+    /**
+     * @return true if the time of this deadline is up
+     */
+    public boolean isExpired(){
+        return expired;
+    }
+
+    /**
+     * @return time in ms (System.nanoTime()/1_000_000) at which the search has to stop. Long.MAX_VALUE for no time limit
+     */
+    public long getReturnTime(){
+        return returnTime;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,117 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Lazy SMP search: several threads run the iterative deepening loop of Client.calcMove on the same position at the same time.
+ * The threads only communicate through the shared transposition table (see SearchContext.setTranspositionTable), which is lock-free.
+ * The main thread decides when to stop, like the sequential search. Helper threads search the root moves in a different order
+ * and every second helper searches one ply deeper, so they fill the table with results that the other threads can use.
+ * Without a transposition table, the helpers can not help.
+ */
+public class LazySMP {
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Computes the best move with Lazy SMP.
+     * Uses the deadlines and the time prediction of the given time manager, like Client.calcMove. TimeManager.startMove has to be called before.
+     * The workers search with the settings of the context of the time manager.
+     * @param pf The PlayingField. Is not changed
+     * @param player to compute the best move for
+     * @param maxDepth depth limit
+     * @param threads number of threads, including the calling thread
+     * @param activateMoveSorting true if moves will be sorted
+     * @param timeManager decides when the main thread stops
+     * @param pondered worker of the pondering that has searched this position (see Pondering.takeResult), whose iterations the time manager already knows.
+     * The main thread continues with its next iteration. Null to start at depth 1
+     * @return the best move of the deepest search that was completed by any of the threads. Null if no move is possible
+     */
+    public static Move search(PlayingField pf, byte player, int maxDepth, int threads, boolean activateMoveSorting, TimeManager timeManager, SearchWorker pondered){
+        SearchContext context = timeManager.getContext();
+        SearchWorker[] workers = new SearchWorker[threads];
+        Thread[] helpers = new Thread[threads - 1];
+        long start = System.nanoTime();
+        for(int i = 0; i < threads; i++){
+            workers[i] = i == 0 && pondered != null ? pondered : new SearchWorker(i, context);
+            if(i > 0){
+                SearchWorker helper = workers[i];
+                PlayingField copy = pf.copy();
+                helpers[i-1] = new Thread(() -> iterate(copy, player, maxDepth, activateMoveSorting, helper, null), "lazysmp-helper-" + i);
+                helpers[i-1].setDaemon(true);
+                helpers[i-1].start();
+            }
+        }
+
+        iterate(pf, player, maxDepth, activateMoveSorting, workers[0], timeManager);
+
+        for(int i = 1; i < threads; i++){
+            workers[i].stop();
+        }
+        for(Thread helper : helpers){
+            try{
+                helper.join();
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        long time = System.nanoTime() - start;
+
+        //the deepest completed search is the best one. The main thread wins ties
+        SearchWorker best = workers[0];
+        for(SearchWorker worker : workers){
+            context.getLog().println("Lazy SMP thread " + worker.getId() + ": depth " + worker.getCompletedDepth() + ", " + worker.getNodes() + " nodes, "
+                + (long)(worker.getNodes() * 1e9 / Math.max(1, time)) + " nodes/s");
+            if(worker.getCompletedDepth() > best.getCompletedDepth()){
+                best = worker;
+            }
+        }
+        if(best.getBestMove() == null) return Minimax.selectFirstMove(pf, player);
+        return best.getBestMove();
+    }
+
+    /**
+     * Iterative deepening loop of a single thread.
+     * The main thread (id 0) starts after the depth its worker has already completed and stops if the next depth is estimated to take too long.
+     * Helpers search until they are stopped or the time is up.
+     * @param pf The PlayingField. Is not changed
+     * @param player to compute the best move for
+     * @param maxDepth depth limit
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the thread. The results of the completed iterations are recorded here
+     * @param timeManager decides when the main thread stops. Null for helpers
+     */
+    private static void iterate(PlayingField pf, byte player, int maxDepth, boolean activateMoveSorting, SearchWorker worker, TimeManager timeManager){
+        boolean main = worker.getId() == 0;
+        //every second helper is one ply ahead
+        int offset = worker.getId() % 2;
+        for(int i = main ? worker.getCompletedDepth() + 1 : 1; i + offset <= maxDepth; i++){
+            int depth = i + offset;
+            long nodes = worker.getNodes();
+            long start = System.nanoTime();
+            if(main && !timeManager.startIteration(depth)){
+                worker.getContext().numEstimationAborted++;
+                return;
+            }
+            try{
+                Move move = Minimax.alphaBeta_getBestMove(pf, player, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, activateMoveSorting, worker);
+                if(move == null) return;
+                worker.completeIteration(move, depth, worker.getNodes() - nodes, System.nanoTime() - start);
+            } catch(TimeoutException e){
+                if(main){
+                    worker.getContext().numTimeoutExceptions++;
+                }
+                return;
+            }
+            if(main){
+                timeManager.completeIteration(depth, worker.getNodes() - nodes);
+                worker.getContext().getLog().println("Depth: " + depth + " Move Value: " + worker.getBestMove().value + " Nodes: " + worker.getNodes() + " Time: " + timeManager.getIterationTime(depth) + "ms");
+            }
+        }
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -1,20 +1,26 @@
 package com.rwth.heuristicalgorithms.MoveChoosing;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.rwth.heuristicalgorithms.Client.Client;
+import com.rwth.heuristicalgorithms.PlayingField.BitBoard;
 import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.MoveCandidates;
+import com.rwth.heuristicalgorithms.PlayingField.MoveList;
+import com.rwth.heuristicalgorithms.PlayingField.MoveType;
 import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
 import com.rwth.heuristicalgorithms.PlayingField.Tile;
 
 /**
  * Contains all minimax related functionality for choosing the next move.
+ * The settings of a search (make/unmake, principal variation search, threads, transposition table, ...) are taken from the SearchContext of its worker.
  */
 public class Minimax {
+
     /**
      * Selects the best move according to our heuristic for a given playing field
      * @param pf The PlayingField
@@ -29,165 +35,269 @@ public class Minimax {
      * @throws TimeoutException signals imminient timeout. 
      */
     public static Move selectBestMove(PlayingField pf, byte player, int depth, int pAlpha, int pBeta, int timeLimit, boolean prune, boolean activateMoveSorting) throws TimeoutException{
-        return prune ? alphaBeta_getBestMove(pf, player, depth,pAlpha,pBeta, activateMoveSorting):minimax_getBestMove(pf, player, depth);
+        return selectBestMove(pf, player, depth, pAlpha, pBeta, timeLimit, prune, activateMoveSorting, new SearchWorker(0));
     }
 
     /**
-     * Returns the first valid move the method finds.
-     * The heuristic can fall back to this method if the time limit is almost exceeded to avoid disqualification.
+     * Selects the best move according to our heuristic for a given playing field.
+     * Iterative deepening passes the same worker to all iterations, so that the principal variation of the last iteration is searched first.
      * @param pf The PlayingField
-     * @param player to execute the move for.
-     * @return a Move object, null if no moves are possbile
+     * @param player to select the move for
+     * @param depth maximal depth that minimax will use
+     * @param pAlpha starting value for alpha bound
+     * @param pBeta starting value for beta bound
+     * @param timeLimit will not be exceeded 
+     * @param prune whether to use alpha-beta pruning or minimax
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the thread executing the search
+     * @return a Move object, null if no moves are possible
+     * @throws TimeoutException signals imminient timeout. 
      */
-    public static Move selectFirstMove(PlayingField pf, byte player){ 
-        if(!pf.getIsEliminationPhase()){
-            return selectFirstMove_BuildingPhase(pf, player);
-        } else {
-            return selectFirstMove_EliminationPhase(pf, player);
-        }
+    public static Move selectBestMove(PlayingField pf, byte player, int depth, int pAlpha, int pBeta, int timeLimit, boolean prune, boolean activateMoveSorting, SearchWorker worker) throws TimeoutException{
+        return prune ? alphaBeta_getBestMove(pf, player, depth,pAlpha,pBeta, activateMoveSorting, worker):minimax_getBestMove(pf, player, depth, worker.getContext());
     }
 
     /**
-     * Returns the first valid move the method finds for the building phase.
+     * Returns the first valid move the method finds.
+     * The heuristic can fall back to this method if the time limit is almost exceeded to avoid disqualification.
      * @param pf The PlayingField
      * @param player to execute the move for.
      * @return a Move object, null if no moves are possbile
      */
-    private static Move selectFirstMove_BuildingPhase(PlayingField pf, byte player){
-        List<Move> moves = null;
+    public static Move selectFirstMove(PlayingField pf, byte player){ 
+        MoveList moves = new MoveList();
         try{
-            moves = getAllPossibleMoves_Building(pf, player, false);
+            generateMoves(pf, player, null, moves);
         } catch (TimeoutException e){
-            System.out.println("[ERROR] TimeoutException caught in selectFirstMove_EliminationPhase. This should NOT happen");
+            System.out.println("[ERROR] TimeoutException caught in selectFirstMove. This should NOT happen");
             e.printStackTrace();
             System.exit(0);
         }
-
-        return moves == null ? null : moves.get(0);
+        return moves.isEmpty() ? null : Move.unpack(pf.getTopology(), moves.get(0));
     }
 
-
     /**
-     * Returns the first valid move the method finds for the elimination phase.
+     * Computes all the possible moves <i>player</i> can make without a time limit.
+     * Works for both phases of the game.
      * @param pf The PlayingField
-     * @param player to execute the move for.
-     * @return a Move object, null if no moves are possbile
-     */
-    private static Move selectFirstMove_EliminationPhase(PlayingField pf, byte player){
-        List<Move> moves = null;
+     * @param player to compute all possible moves for.
+     * @return a List of Moves. Null if no moves are possible
+     */ 
+    public static List<Move> getAllPossibleMoves(PlayingField pf, byte player){
         try{
-            moves = getAllPossibleMoves_Elimination(pf, player, false);
-        } catch (TimeoutException e){
-            System.out.println("[ERROR] TimeoutException caught in selectFirstMove_EliminationPhase. This should NOT happen");
-            e.printStackTrace();
-            System.exit(0);
+            return getAllPossibleMoves(pf, player, (SearchContext) null);
+        } catch(TimeoutException e){
+            //not possible without a time limit
+            throw new IllegalStateException(e);
         }
-        return moves == null ? null : moves.get(0);
     }
 
     /**
      * Computes all the possible moves <i>player</i> can make.
-     * Works for both phases of the game.
+     * Works for both phases of the game. Creates a Move object for every move, the search uses generateMoves instead.
      * @param pf The PlayingField
      * @param player to compute all possible moves for.
-     * @param checkForTime is this is set to true, the method will pay attention to and not exceed the time limit set in Client
+     * @param context the method will pay attention to and not exceed the time limit of this context. Null for no time limit
      * @return a List of Moves. Null if no moves are possible
      * @throws TimeoutException incase the time limit is reached
-     */ 
-    public static List<Move> getAllPossibleMoves(PlayingField pf, byte player, boolean checkForTime) throws TimeoutException{
-        return pf.getIsEliminationPhase() ? getAllPossibleMoves_Elimination(pf, player, checkForTime) : getAllPossibleMoves_Building(pf, player, checkForTime);
+     */
+    public static List<Move> getAllPossibleMoves(PlayingField pf, byte player, SearchContext context) throws TimeoutException{
+        MoveList moves = new MoveList();
+        generateMoves(pf, player, context, moves);
+        return moves.isEmpty() ? null : moves.toMoves(pf.getTopology());
+    }
+
+    /**
+     * Computes all the possible moves <i>player</i> can make as packed moves (see Move.pack), in the same order as getAllPossibleMoves.
+     * Works for both phases of the game.
+     * @param pf The PlayingField
+     * @param player to compute all possible moves for.
+     * @param context the method will pay attention to and not exceed the time limit of this context. Null for no time limit
+     * @param moves the list the moves are written to. Is cleared first
+     * @return the number of moves. 0 if no moves are possible
+     * @throws TimeoutException incase the time limit is reached
+     */
+    public static int generateMoves(PlayingField pf, byte player, SearchContext context, MoveList moves) throws TimeoutException{
+        moves.clear();
+        if(pf.getIsEliminationPhase()){
+            generateMoves_Elimination(pf, player, context, moves);
+        } else {
+            generateMoves_Building(pf, player, context, moves);
+        }
+        return moves.size();
     }
 
     
     /**
      * Computes all the possible moves <i>player</i> can make in the building phase.
-     * Works for both phases of the game.
      * @param pf The PlayingField
      * @param player to compute all possible moves for.
-     * @param checkForTime is this is set to true, the method will pay attention to and not exceed the time limit set in Client
-     * @return a List of Moves. Null if no moves are possible
+     * @param context the method will pay attention to and not exceed the time limit of this context. Null for no time limit
+     * @param moves the list the moves are added to
+     * @throws TimeoutException incase the time limit is reached
      */
-    private static List<Move> getAllPossibleMoves_Building(PlayingField pf, byte player, boolean checkForTime) throws TimeoutException{
+    private static void generateMoves_Building(PlayingField pf, byte player, SearchContext context, MoveList moves) throws TimeoutException{
         //This method is a variant of the calcWeightedSumMoves. However, this is NOT redundant code. 
         //For calcWeightedSumMoves, bonus and choice moves only have to be counted once.
 
-        List<Move> moves = new ArrayList<>();
+        if(pf.getBitBoard() != null){
+            generateMoves_BuildingBitBoard(pf, player, context, moves);
+            return;
+        }
+        if(pf.getMoveCandidates() != null){
+            generateMoves_BuildingCandidates(pf, player, context, moves);
+            return;
+        }
 
         //check ov. stone count
         boolean overrideAvailable = pf.getPlayerOverrideStoneCount(player) > 0;
 
         //traverse the whole map:
-        for(byte y = 0; y < PlayingField.getMapHeight(); y++){
+        for(byte y = 0; y < pf.getMapHeight(); y++){
 
             //check for time
-            if(checkForTime && System.nanoTime()/1_000_000 >= Client.returnTime){
-                throw new TimeoutException();
+            if(context != null && context.isExpired()){
+                throw TimeoutException.INSTANCE;
             }
 
-            for(byte x = 0; x < PlayingField.getMapWidth(); x++){
+            for(byte x = 0; x < pf.getMapWidth(); x++){
                 Tile tile = pf.getMapTile(y, x);
                 //first, check if the tile is empty. If yes, a non-override move can be performed.
                 if(!tile.equals(Tile.HOLE) && (tile.equals(Tile.EMPTY) || tile.equals(Tile.BONUS) || tile.equals(Tile.CHOICE) || tile.equals(Tile.INVERSION))){ //hole check first for more efficiency
-                    //check if a foreign stone would be enclosed in any direction
-                    List<byte[]> enclosed = pf.getEnclosedStones(y, x, player);
-                    if(enclosed != null){
-                        //add possible move
-                        switch(tile){
-                            case EMPTY -> moves.add(Move.createDefaultMove(y, x));
-                            case BONUS -> {moves.add(Move.createBonusMove(y, x, false)); moves.add(Move.createBonusMove(y, x, true));}
-                            case INVERSION -> moves.add(Move.createDefaultMove(y, x));
-                            case CHOICE -> {
-                                for(byte i = 1; i <= PlayingField.getPlayerCount(); i++){
-                                    //we can only swap with non-disqualified players
-                                    if(!pf.isDisqualified(i)) moves.add(Move.createChoiceMove(y, x, i));
-                                }
-                            }
-                            default -> throw new IllegalStateException();
-                        }
+                    //check if a foreign stone would be enclosed in any direction. Stops at the first enclosed stone
+                    if(pf.hasEnclosedStones(y, x, player)){
+                        addMoves(pf, moves, pf.getTileIndex(y, x), tile);
                     }
                     
                 } else if(!tile.equals(Tile.HOLE) && overrideAvailable){//in any other case that is not a hole, the tile is occupied and an override move can potentially be performed.
-                    List<byte[]> enclosed = pf.getEnclosedStones(y, x, player);
-                    if(enclosed != null || tile.equals(Tile.EXPANSION)){//expansion moves do not have to enclose a stone
-                        moves.add(Move.createOverrideMove(y, x));
+                    if(tile.equals(Tile.EXPANSION) || pf.hasEnclosedStones(y, x, player)){//expansion moves do not have to enclose a stone
+                        addMoves(pf, moves, pf.getTileIndex(y, x), tile);
                     }
                 }
             }
         }
+    }
+
+    /**
+     * Variant of generateMoves_Building that uses the bitboard of the PlayingField.
+     * The bitboard yields all legal tiles with directional shifts. Rays that use special transitions are checked by the PlayingField.
+     * The moves are added in the same order as in generateMoves_Building.
+     * @param pf The PlayingField. Has to have a bitboard.
+     * @param player to compute all possible moves for.
+     * @param context the method will pay attention to and not exceed the time limit of this context. Null for no time limit
+     * @param moves the list the moves are added to
+     * @throws TimeoutException incase the time limit is reached
+     */
+    private static void generateMoves_BuildingBitBoard(PlayingField pf, byte player, SearchContext context, MoveList moves) throws TimeoutException{
+        //check for time
+        if(context != null && context.isExpired()){
+            throw TimeoutException.INSTANCE;
+        }
+
+        boolean overrideAvailable = pf.getPlayerOverrideStoneCount(player) > 0;
+        BitBoard bitBoard = pf.getBitBoard();
+        long[] candidates = bitBoard.getMoveCandidates(pf, player, overrideAvailable);
+
+        //bit indices are ordered row by row, so the moves are ordered like in the full scan
+        for(int w = 0; w < candidates.length; w++){
+            long bits = candidates[w];
+            while(bits != 0){
+                int index = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                byte y = bitBoard.getY(index);
+                byte x = bitBoard.getX(index);
+                addMoves(pf, moves, pf.getTileIndex(y, x), pf.getMapTile(y, x));
+            }
+        }
+    }
+
+    /**
+     * Variant of generateMoves_Building that only checks the move candidates of the PlayingField (see MoveCandidates),
+     * i.e., the empty tiles next to an occupied tile and, if override stones are available, the occupied tiles.
+     * The moves are added in the same order as in generateMoves_Building.
+     * @param pf The PlayingField. Has to have move candidates.
+     * @param player to compute all possible moves for.
+     * @param context the method will pay attention to and not exceed the time limit of this context. Null for no time limit
+     * @param moves the list the moves are added to
+     * @throws TimeoutException incase the time limit is reached
+     */
+    private static void generateMoves_BuildingCandidates(PlayingField pf, byte player, SearchContext context, MoveList moves) throws TimeoutException{
+        //check for time
+        if(context != null && context.isExpired()){
+            throw TimeoutException.INSTANCE;
+        }
+
+        boolean overrideAvailable = pf.getPlayerOverrideStoneCount(player) > 0;
+        MoveCandidates candidates = pf.getMoveCandidates();
+
+        //bit indices are packed tile indices, so the moves are ordered like in the full scan
+        for(int w = 0; w < candidates.getWords(); w++){
+            long bits = candidates.getCandidates(w, overrideAvailable);
+            while(bits != 0){
+                int index = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                byte y = pf.getTileIndexY(index);
+                byte x = pf.getTileIndexX(index);
+                Tile tile = pf.getMapTile(y, x);
+                //expansion stones can be overridden without enclosing a stone
+                if(tile.equals(Tile.EXPANSION) || pf.hasEnclosedStones(y, x, player)){
+                    addMoves(pf, moves, index, tile);
+                }
+            }
+        }
+    }
 
-        return moves.size() == 0 ? null : moves;
+    /**
+     * Adds all moves for a tile that is known to be a legal target.
+     * Empty tiles yield default, bonus or choice moves. Occupied tiles yield override moves.
+     * The moves of a tile are added in ascending order, so the packed moves of a position ascend in the generated order (see Move).
+     * @param pf The PlayingField
+     * @param moves the list to add the packed moves to
+     * @param index packed index of the tile (see PlayingField.getTileIndex)
+     * @param tile the tile
+     */
+    private static void addMoves(PlayingField pf, MoveList moves, int index, Tile tile){
+        switch(tile){
+            case EMPTY -> moves.add(Move.pack(index, MoveType.DEFAULT, 0));
+            case BONUS -> {moves.add(Move.pack(index, MoveType.BONUS, 0)); moves.add(Move.pack(index, MoveType.BONUS, 1));}
+            case INVERSION -> moves.add(Move.pack(index, MoveType.DEFAULT, 0));
+            case CHOICE -> {
+                for(byte i = 1; i <= pf.getPlayerCount(); i++){
+                    //we can only swap with non-disqualified players
+                    if(!pf.isDisqualified(i)) moves.add(Move.pack(index, MoveType.CHOICE, i));
+                }
+            }
+            case HOLE -> throw new IllegalStateException();
+            default -> moves.add(Move.pack(index, MoveType.OVERRIDE, 0));
+        }
     }
 
     /**
      * Computes all the possible moves <i>player</i> can make in the elimination phase.
      * @param pf The PlayingField
      * @param player to compute all possible moves for.
-     * @param checkForTime is this is set to true, the method will pay attention to and not exceed the time limit set in Client.
-     * @return a List of Moves. Null if no moves are possible
+     * @param context the method will pay attention to and not exceed the time limit of this context. Null for no time limit
+     * @param moves the list the moves are added to
+     * @throws TimeoutException incase the time limit is reached
      */
-    private static List<Move> getAllPossibleMoves_Elimination(PlayingField pf, byte player, boolean checkForTime) throws TimeoutException{
-        List<Move> moves = new ArrayList<>();
-
+    private static void generateMoves_Elimination(PlayingField pf, byte player, SearchContext context, MoveList moves) throws TimeoutException{
         //player has to have bombs left
         if(pf.getPlayerBombCount((byte)(player)) > 0){
             //all holes can be bombed
-            for(byte y = 0; y < PlayingField.getMapHeight(); y++){
+            for(byte y = 0; y < pf.getMapHeight(); y++){
 
                 //check for time
-                if(checkForTime && System.nanoTime()/1_000_000 >= Client.returnTime){
-                    throw new TimeoutException();
+                if(context != null && context.isExpired()){
+                    throw TimeoutException.INSTANCE;
                 }
 
-                for(byte x = 0; x < PlayingField.getMapWidth(); x++){
+                for(byte x = 0; x < pf.getMapWidth(); x++){
                     if(!pf.getMapTile(y, x).equals(Tile.HOLE)){
-                        moves.add(Move.createBombMove(y, x));
+                        moves.add(Move.pack(pf.getTileIndex(y, x), MoveType.BOMB, 0));
                     }
                 }
             }
         }   
-        
-        //return null if no moves are possible
-        return moves.size() == 0 ? null : moves;
     }
 
     /**
@@ -197,42 +307,48 @@ public class Minimax {
      * @param pf The PlayingField
      * @param player to compute the best move for
      * @param depth maximal depth the algorithm will use. Depth = 0 means that only the next possible move of <i>player</i> is considered. For depth = 1, the move of the player after that will also be considered, ... 
+     * @param context settings and counters of the search
      * @return a Move object. Null if no move is possible
      */
-    private static Move minimax_getBestMove(PlayingField pf, byte player, int depth){
+    private static Move minimax_getBestMove(PlayingField pf, byte player, int depth, SearchContext context){
+        //make/unmake works on a private copy so that the given PlayingField is never left in an intermediate state
+        if(context.getMakeUnmake()) pf = pf.copy();
+
         //Get all possible moves
-        List<Move> moves = null;
+        MoveList moves = new MoveList();
         try{
-            moves = getAllPossibleMoves(pf, player, false);
+            generateMoves(pf, player, null, moves);
         } catch(TimeoutException e){
-            System.out.println("[ERROR] TimeoutException caught in selectFirstMove_EliminationPhase. This should NOT happen");
+            System.out.println("[ERROR] TimeoutException caught in minimax_getBestMove. This should NOT happen");
             e.printStackTrace();
             System.exit(0);
         }
         
-        if(moves == null) return null;
+        if(moves.isEmpty()) return null;
 
 
-        Move bestMove = null;
+        int bestMove = Move.NO_MOVE;
         int bestMoveValue = 0;
 
         //Calculate turn of next player
         byte next_player = getNextPlayer(pf, player);
 
         //Test for all possible moves and pick the best one
-        for(Move move : moves){
-            PlayingField move_pf = Move.simulateMove(move, player, pf);
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            PlayingField move_pf = doMove(move, player, pf, context);
             if(move_pf == null){
                 throw new IllegalStateException("[ERROR] in minmax: Heuristic.getAllPossibleMoves yielded a move that is illegal according to Move.simulateMove");
             }
-            int move_value = minimaxValue(move_pf, player, next_player, depth-1);
+            int move_value = minimaxValue(move_pf, player, next_player, depth-1, context);
+            undoMove(move_pf, context);
 
-            if(bestMove == null || move_value > bestMoveValue){
+            if(bestMove == Move.NO_MOVE || move_value > bestMoveValue){
                 bestMoveValue = move_value;
                 bestMove = move;
             }
         }
-        return bestMove;
+        return Move.unpack(pf.getTopology(), bestMove);
     }
 
     /**
@@ -245,8 +361,22 @@ public class Minimax {
      * @return the heuristic rating of the PlayingField by simulating <i>depth</i> moves into the future.
      */
     public static int minimaxValue(PlayingField pf, byte player, byte currentPlayer, int depth){
+        return minimaxValue(pf, player, currentPlayer, depth, new SearchContext());
+    }
+
+    /**
+     * Uses the miximax algorithm to determine the heuristic value of a given playingfield by simulating <i>depth</i> moves into the future.
+     * This version uses the PARANOID assumption (i.e., every player tries to minimize the heuristic value of <i>player</i>)
+     * @param pf The PlayingField.
+     * @param player to compute the best move for.
+     * @param currentPlayer player whose turn it is in the state of PlayingField.
+     * @param depth maximal depht the method will use.
+     * @param context settings of the search. The evaluated states are counted in its unprunedEvalCount
+     * @return the heuristic rating of the PlayingField by simulating <i>depth</i> moves into the future.
+     */
+    public static int minimaxValue(PlayingField pf, byte player, byte currentPlayer, int depth, SearchContext context){
         if(depth <= 0){
-            if(Client.measureTime) Client.unprunedEvalCount++;
+            context.unprunedEvalCount++;
             //since this is paranoid, we will consider the heuristic rating for player (not currentPlayer)
             return pf.getIsEliminationPhase() ? MoveHeuristic.evalBoard_Elimination(pf, player) : MoveHeuristic.evalBoard_Building(pf, player);
         }
@@ -254,12 +384,12 @@ public class Minimax {
         //it is a max move if the specified player is the player whose turn it is. Min move otherwise
         boolean isMax = player == currentPlayer;
 
-        //Get all possible moves
-        List<Move> moves = null;
+        //Get all possible moves. Every node needs its own list, since the children are searched while it is iterated
+        MoveList moves = new MoveList();
         try{
-            moves = getAllPossibleMoves(pf, player, false);
+            generateMoves(pf, player, null, moves);
         } catch(TimeoutException e){
-            System.out.println("[ERROR] TimeoutException caught in selectFirstMove_EliminationPhase. This should NOT happen");
+            System.out.println("[ERROR] TimeoutException caught in minimaxValue. This should NOT happen");
             e.printStackTrace();
             System.exit(0);
         }
@@ -270,30 +400,34 @@ public class Minimax {
 
 
         //incase no move is possible, we consider the next player since currentPlayer will be skipped
-        if(moves == null){
-            return minimaxValue(pf, player, next_player, depth-1);
+        if(moves.isEmpty()){
+            return minimaxValue(pf, player, next_player, depth-1, context);
         }
 
         int currentMoveValue = 0;
-        Move bestMove = null;
+        int bestMove = Move.NO_MOVE;
 
         //Test for all possible moves and pick the worst/best one, depending on mix/max
-        for(Move move : moves){
-            PlayingField move_pf = Move.simulateMove(move, currentPlayer, pf);
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            PlayingField move_pf = doMove(move, currentPlayer, pf, context);
             if(move_pf == null){
                 throw new IllegalStateException("[ERROR] in minmax: Heuristic.getAllPossibleMoves yielded a move that is illegal according to Move.simulateMove");
             }
-            int move_value = minimaxValue(move_pf, player, next_player, depth-1);
+            int move_value = minimaxValue(move_pf, player, next_player, depth-1, context);
+            undoMove(move_pf, context);
 
             if(isMax){
                 //we maximize the value
-                if(bestMove == null || move_value > currentMoveValue){
+                if(bestMove == Move.NO_MOVE || move_value > currentMoveValue){
                     currentMoveValue = move_value;
+                    bestMove = move;
                 }
             } else {
                 //we minimize the value
-                if(bestMove == null || move_value < currentMoveValue){
+                if(bestMove == Move.NO_MOVE || move_value < currentMoveValue){
                     currentMoveValue = move_value;
+                    bestMove = move;
                 }
             }
         }
@@ -313,70 +447,263 @@ public class Minimax {
      * @throws TimeoutException when our time expires. Is catched in calMove. Simply a means to exit the recursive stack
      */
     public static Move alphaBeta_getBestMove(PlayingField pf, byte player, int depth, int pAlpha, int pBeta,boolean activateMoveSorting) throws TimeoutException{
+        return alphaBeta_getBestMove(pf, player, depth, pAlpha, pBeta, activateMoveSorting, new SearchWorker(0));
+    }
+
+    /**
+     * Uses alpha-beta pruning to compute the best move for the specified player. 
+     * works analogously to minimax
+     * @param pf The PlayingField
+     * @param player to compute the best move for
+     * @param depth maximal depth the algorithm will use. Depth = 0 means that only the next possible move of <i>player</i> is considered. For depth = 1, the move of the player after that will also be considered, ...
+     * @param pAlpha current value for alpha
+     * @param pBeta current value for beta 
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the thread executing the search
+     * @return a Move object. Null if no move is possible
+     * @throws TimeoutException when our time expires or the worker was stopped. Is catched in calMove. Simply a means to exit the recursive stack
+     */
+    public static Move alphaBeta_getBestMove(PlayingField pf, byte player, int depth, int pAlpha, int pBeta,boolean activateMoveSorting, SearchWorker worker) throws TimeoutException{
         
-        if(System.nanoTime()/1_000_000 >= Client.returnTime){
-            throw new TimeoutException();
+        if(worker.isStopped() || worker.getContext().isExpired()){
+            throw TimeoutException.INSTANCE;
         }
+        SearchContext context = worker.getContext();
+        //make/unmake works on a private copy so that the given PlayingField is never left in an intermediate state (e.g., after a timeout)
+        if(context.getMakeUnmake()) pf = pf.copy();
+
         //initialize tiht +infinity and -infinity
         int alpha = pAlpha;
         int beta = pBeta;
 
-        //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, player, true);
-
-        if(moves == null) return null;
-
+        //Get all possible moves. The list of the root depth is not used by any other node of the search
+        MoveList moves = worker.getMoveList(depth);
+        if(generateMoves(pf, player, context, moves) == 0) return null;
+
+        //the best move of an earlier search of this position is searched first
+        TranspositionTable tt = context.getTranspositionTable();
+        long key = 0;
+        int hashMove = Move.NO_MOVE;
+        if(tt != null){
+            key = TranspositionTable.key(pf.getHash(), player, player);
+            hashMove = getHashMove(tt.probe(key), moves);
+        }
+        //the generated order is needed for the values of the root moves
+        worker.startIteration(pf, depth, moves);
+        boolean reusePV = activateMoveSorting && context.getPVReuse();
 
-        //PlayingFields generated when simulating each possible move
-        Map<Move,PlayingField> fields = new HashMap<Move,PlayingField>();
+        //killers of the previous search belong to other positions
+        if(activateMoveSorting && context.getHistory()) worker.getOrdering(pf).newSearch();
 
         //only do move sorting when depth >= 3
         boolean doMoveSorting = depth >= 3 && activateMoveSorting;
         if(doMoveSorting){
-            //this map contains the value used for move sorting; high value -> branch this move first
-            Map<Move,Integer> val = new HashMap<Move,Integer>();
-            for(Move m : moves){
-                fields.put(m, Move.simulateMove(m,player,pf));
-                val.put(m,MoveSortHeuristic.evaluateMove_MoveSorting(m));
-            }
-            moves.sort((m1,m2)->(val.get(m1).compareTo(val.get(m2))));        
-            Collections.reverse(moves); 
-            
+            //high value -> branch this move first
+            MoveOrdering.sortStatic(moves, true);
         }
 
-        
-
-        Move bestMove = null;
+        int bestMove = Move.NO_MOVE;
         int bestMoveValue = 0;
 
         //Calculate turn of next player
         byte next_player = Minimax.getNextPlayer(pf, player);
-        Move[] dummy = {};
-        Move[] moveArray = moves.toArray(dummy);
-        moves = null;
+        //the values of the last iteration are a better guess than the move types. The move of the principal variation comes first
+        int pvIndex = -1;
+        if(reusePV){
+            worker.sortRootMoves(moves);
+        }
+        moves.moveToFront(moves.indexOf(hashMove));
+        if(reusePV){
+            pvIndex = moves.indexOf(worker.getPVMove(depth));
+            moves.moveToFront(pvIndex);
+        }
+        worker.perturbRootMoves(moves);
+
+        //Lazy SMP uses the threads for whole searches instead
+        if(context.isParallelRoot() && moves.size() > 1){
+            return alphaBeta_getBestMoveParallel(pf, player, depth, alpha, beta, moves, activateMoveSorting, worker, pvIndex >= 0, key);
+        }
 
         //Test for all possible moves and pick the best one
-        for(int i = 0; i< moveArray.length; i++){
-            PlayingField move_pf = doMoveSorting ? fields.get(moveArray[i]) : Move.simulateMove(moveArray[i],player,pf);
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            PlayingField move_pf = doMove(move, player, pf, context);
             if(move_pf == null){
                 throw new IllegalStateException("[ERROR] in minmax: Heuristic.getAllPossibleMoves yielded a move that is illegal according to Move.simulateMove");
             }
-            int move_value = alphaBeta_value(move_pf, player, next_player, depth-1, alpha, beta, activateMoveSorting);
+            worker.followPV = i == 0 && pvIndex >= 0;
+            int move_value = alphaBeta_childValue(move_pf, player, next_player, depth-1, alpha, beta, true, i, activateMoveSorting, worker);
+            undoMove(move_pf, context);
+            worker.setRootValue(move, move_value);
             if(move_value>alpha) {
                 alpha = move_value;
             }
 
-            if(bestMove == null || move_value > bestMoveValue){
+            if(bestMove == Move.NO_MOVE || move_value > bestMoveValue){
                 bestMoveValue = move_value;
-                bestMove = moveArray[i];
-                bestMove.value = bestMoveValue;
+                bestMove = move;
+                worker.updatePV(depth, bestMove);
             }
-            moveArray[i] = null;
+            //the value is above the aspiration window, the other moves do not matter before the search is repeated with a wider window
+            if(bestMoveValue > beta) break;
+        }
+        if(tt != null){
+            tt.store(key, depth, getBound(bestMoveValue, pAlpha, pBeta), bestMoveValue, moves.generatedIndexOf(bestMove));
         }
-        moveArray = null;
-        return bestMove;
+        worker.storeIteration();
+        return toMove(pf, bestMove, bestMoveValue);
     } 
     
+    /**
+     * Uses alpha-beta pruning with an aspiration window to compute the best move for the specified player.
+     * The search starts with the window [previousValue - delta, previousValue + delta]. If the value of the best move is outside of the window,
+     * it is only a bound (fail low: below alpha, fail high: above beta). Then the window is widened on that side, by twice the last
+     * widening each time, and the depth is searched again until the value is inside of the window.
+     * The number of searches and re-searches is counted in the SearchContext of the worker.
+     * @param pf The PlayingField
+     * @param player to compute the best move for
+     * @param depth maximal depth the algorithm will use
+     * @param previousValue value of the best move of the previous iteration, the center of the window
+     * @param delta half of the width of the first window, at least 1
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the thread executing the search
+     * @return a Move object with its exact value. Null if no move is possible
+     * @throws TimeoutException when our time expires or the worker was stopped
+     */
+    public static Move alphaBeta_aspiration(PlayingField pf, byte player, int depth, int previousValue, int delta, boolean activateMoveSorting, SearchWorker worker) throws TimeoutException{
+        long width = Math.max(1, delta);
+        int alpha = clamp(previousValue - width);
+        int beta = clamp(previousValue + width);
+        worker.getContext().numAspirationSearches++;
+        while(true){
+            Move move = alphaBeta_getBestMove(pf, player, depth, alpha, beta, activateMoveSorting, worker);
+            if(move == null) return null;
+            if(move.value < alpha){
+                worker.getContext().numAspirationFailLow++;
+                width *= 2;
+                alpha = clamp(move.value - width);
+            } else if(move.value > beta){
+                worker.getContext().numAspirationFailHigh++;
+                width *= 2;
+                beta = clamp(move.value + width);
+            } else {
+                return move;
+            }
+            if(worker.getContext().isVerbose()) worker.getContext().getLog().println("Aspiration window failed, searching again with: " + alpha + " <-> " + beta);
+        }
+    }
+
+    /**
+     * @param value a value that may exceed the range of int
+     * @return the value limited to the range of int. The limits are the unbounded window of alpha-beta pruning
+     */
+    private static int clamp(long value){
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Parallel variant of the loop over the root moves in alphaBeta_getBestMove (root splitting).
+     * The first move is searched alone to get a good alpha. The other moves are searched in parallel on the ForkJoinPool.
+     * The workers share alpha through an atomic integer: every move is searched with the best value found so far and raises it if it is better.
+     * A move that fails low returns a value below the best value, so the best move and its value are the same as in the sequential search.
+     * @param pf The PlayingField. Is not changed
+     * @param player to compute the best move for
+     * @param depth maximal depth the algorithm will use
+     * @param alpha current value for alpha
+     * @param beta current value for beta
+     * @param moves all possible moves in the order they are to be searched. At least two moves
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the calling thread. Searches the first move, the other moves are searched by new workers
+     * @param followPV true if the first move is the move of the principal variation of the last iteration
+     * @param key transposition table key of the root (see TranspositionTable.key). Not used if the table is disabled
+     * @return the best move
+     * @throws TimeoutException when our time expires. Is thrown after all workers stopped
+     */
+    private static Move alphaBeta_getBestMoveParallel(PlayingField pf, byte player, int depth, int alpha, int beta, MoveList moves, boolean activateMoveSorting, SearchWorker worker, boolean followPV, long key) throws TimeoutException{
+        byte next_player = Minimax.getNextPlayer(pf, player);
+        AtomicInteger sharedAlpha = new AtomicInteger(alpha);
+        //the list belongs to the calling worker, the other workers get the moves as a copy
+        int[] rootMoves = moves.toArray();
+        int[] values = new int[rootMoves.length];
+
+        worker.followPV = followPV;
+        values[0] = alphaBeta_rootMoveValue(pf, player, next_player, depth, rootMoves[0], sharedAlpha, beta, activateMoveSorting, worker);
+        //the principal variation of the first move is kept if it stays the best. The other workers do not record theirs
+        worker.updatePV(depth, rootMoves[0]);
+
+        ForkJoinPool workers = worker.getContext().getPool();
+        List<ForkJoinTask<Integer>> tasks = new ArrayList<>(rootMoves.length - 1);
+        for(int i = 1; i < rootMoves.length; i++){
+            int move = rootMoves[i];
+            tasks.add(workers.submit(() -> alphaBeta_rootMoveValue(pf, player, next_player, depth, move, sharedAlpha, beta, activateMoveSorting, new SearchWorker(0, worker.getContext()))));
+        }
+
+        //wait for all workers, even if one of them failed, so that no worker is still running when the next search starts
+        Throwable failure = null;
+        for(int i = 1; i < rootMoves.length; i++){
+            try{
+                values[i] = tasks.get(i-1).get();
+            } catch(ExecutionException e){
+                if(failure == null) failure = e.getCause();
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                if(failure == null) failure = TimeoutException.INSTANCE;
+            }
+        }
+        if(failure instanceof TimeoutException){
+            throw (TimeoutException) failure;
+        } else if(failure instanceof RuntimeException){
+            throw (RuntimeException) failure;
+        } else if(failure != null){
+            throw new IllegalStateException(failure);
+        }
+
+        //the first of the best moves is chosen, like in the sequential search
+        int best = 0;
+        for(int i = 1; i < values.length; i++){
+            if(values[i] > values[best]) best = i;
+        }
+        for(int i = 0; i < rootMoves.length; i++){
+            worker.setRootValue(rootMoves[i], values[i]);
+        }
+        if(best != 0){
+            worker.clearPV(depth - 1);
+            worker.updatePV(depth, rootMoves[best]);
+        }
+        //the next iteration and the next move start with the root hash move, like in the sequential search
+        TranspositionTable tt = worker.getContext().getTranspositionTable();
+        if(tt != null){
+            tt.store(key, depth, getBound(values[best], alpha, beta), values[best], moves.generatedIndexOf(rootMoves[best]));
+        }
+        worker.storeIteration();
+        return toMove(pf, rootMoves[best], values[best]);
+    }
+
+    /**
+     * Searches a single root move for alphaBeta_getBestMoveParallel.
+     * @param pf The PlayingField before the move. Is not changed
+     * @param player to compute the best move for
+     * @param next_player player whose turn it is after the move
+     * @param depth maximal depth of the root search
+     * @param move the packed move to search
+     * @param sharedAlpha alpha shared by all workers
+     * @param beta current value for beta
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the thread executing the search
+     * @return the value of the move
+     * @throws TimeoutException when our time expires
+     */
+    private static int alphaBeta_rootMoveValue(PlayingField pf, byte player, byte next_player, int depth, int move, AtomicInteger sharedAlpha, int beta, boolean activateMoveSorting, SearchWorker worker) throws TimeoutException{
+        //every worker needs its own PlayingField
+        PlayingField move_pf = pf.copy();
+        if(!move_pf.executeMove(move, player)){
+            throw new IllegalStateException("[ERROR] in minmax: Heuristic.getAllPossibleMoves yielded a move that is illegal according to Move.simulateMove");
+        }
+        int move_value = alphaBeta_value(move_pf, player, next_player, depth-1, sharedAlpha.get(), beta, activateMoveSorting, worker);
+        sharedAlpha.accumulateAndGet(move_value, Math::max);
+        return move_value;
+    }
+
     /**
      * Uses alpha-beta pruning to determine the heuristic value of a given playingfield by simulating <i>depth</i> moves into the future.
      * This version uses the PARANOID assumption (i.e., every player tries to minimize the heuristic value of <i>player</i>)
@@ -392,91 +719,257 @@ public class Minimax {
      * @throws TimeoutException when our time expires. Is catched in calMove. Simply a means to exit the recursive stack
      */
     public static int alphaBeta_value(PlayingField pf, byte player, byte currentPlayer, int depth, int pAlpha, int pBeta,boolean activateMoveSorting) throws TimeoutException{
-        
-        if(System.nanoTime()/1_000_000 >= Client.returnTime){
-            throw new TimeoutException();
+        return alphaBeta_value(pf, player, currentPlayer, depth, pAlpha, pBeta, activateMoveSorting, new SearchWorker(0));
+    }
+
+    /**
+     * Uses alpha-beta pruning to determine the heuristic value of a given playingfield by simulating <i>depth</i> moves into the future.
+     * This version uses the PARANOID assumption (i.e., every player tries to minimize the heuristic value of <i>player</i>)
+     * Works anlogously to minimax
+     * @param pf The PlayingField.
+     * @param player to compute the best move for.
+     * @param currentPlayer player whose turn it is in the state of PlayingField.
+     * @param depth maximal depht the method will use.
+     * @param pAlpha current value for alpha
+     * @param pBeta current value for beta
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the thread executing the search
+     * @return the heuristic rating of the PlayingField by simulating <i>depth</i> moves into the future.
+     * @throws TimeoutException when our time expires or the worker was stopped. Is catched in calMove. Simply a means to exit the recursive stack
+     */
+    public static int alphaBeta_value(PlayingField pf, byte player, byte currentPlayer, int depth, int pAlpha, int pBeta,boolean activateMoveSorting, SearchWorker worker) throws TimeoutException{
+        //only the child that is searched right after the flag was set lies on the principal variation
+        boolean pvNode = worker.followPV;
+        worker.followPV = false;
+
+        if(worker.shouldStop()){
+            throw TimeoutException.INSTANCE;
         }
+        worker.nodes++;
 
         if(depth <= 0){
-            Client.prunedEvalCount++;
+            worker.getContext().prunedEvalCount.increment();
             //since this is paranoid, we will consider the heuristic rating for player (not currentPlayer)
             return pf.getIsEliminationPhase() ? MoveHeuristic.evalBoard_Elimination(pf, player) : MoveHeuristic.evalBoard_Building(pf, player);
         }
        
         int alpha = pAlpha;
         int beta = pBeta;
+        worker.clearPV(depth);
+
+        SearchContext context = worker.getContext();
+        TranspositionTable tt = context.getTranspositionTable();
+        long key = 0;
+        long entry = 0;
+        if(tt != null){
+            key = TranspositionTable.key(pf.getHash(), player, currentPlayer);
+            entry = tt.probe(key);
+            //a result of an at least as deep search can be used if it is exact or a bound outside of the window
+            if(entry != 0 && TranspositionTable.getDepth(entry) >= depth){
+                int score = TranspositionTable.getScore(entry);
+                int bound = TranspositionTable.getBound(entry);
+                if(bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score > beta) || (bound == TranspositionTable.UPPER && score < alpha)){
+                    tt.countCutoff();
+                    return score;
+                }
+            }
+        }
 
         boolean isMax = player == currentPlayer;
 
-        //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, currentPlayer, true);
+        //Get all possible moves. The children use the lists of lower depths, so the list stays valid while they are searched
+        MoveList moves = worker.getMoveList(depth);
+        Minimax.generateMoves(pf, currentPlayer, context, moves);
          
 
         //Calculate turn of next player
         byte next_player = Minimax.getNextPlayer(pf, player);
 
         //incase no move is possible, we consider the next player since currentPlayer will be skipped
-        if(moves == null){
-            return alphaBeta_value(pf, player, next_player, depth-1, alpha, beta, activateMoveSorting);
+        if(moves.isEmpty()){
+            worker.followPV = pvNode;
+            int value = alphaBeta_value(pf, player, next_player, depth-1, alpha, beta, activateMoveSorting, worker);
+            worker.updatePV(depth, Move.NO_MOVE);
+            return value;
         }
-        
-        //only do move sorting for depths >= 3
-        if(depth >= 3 && activateMoveSorting) {
-            
-            Map<Move,Integer> val = new HashMap<Move,Integer>();
-            for(Move m : moves){
-                val.put(m,MoveSortHeuristic.evaluateMove_MoveSorting(m));
-            }
-            moves.sort((m1,m2)->(val.get(m1).compareTo(val.get(m2))));
-            if(isMax){
-                Collections.reverse(moves);
-            }        
+
+        //the index of the table refers to the generated order
+        int hashMove = tt != null ? getHashMove(entry, moves) : Move.NO_MOVE;
+
+        //killers and history are cheap, so they are used for all depths. Sorting only by move type is done for depths >= 3
+        MoveOrdering ordering = activateMoveSorting && context.getHistory() ? worker.getOrdering(pf) : null;
+        if(ordering != null){
+            ordering.sort(moves, currentPlayer, depth, isMax);
+        } else if(depth >= 3 && activateMoveSorting){
+            MoveOrdering.sortStatic(moves, isMax);
         }
-             
 
         int currentMoveValue = 0;
-        Move bestMove = null;
-
-        Move[] dummy = {};
-        Move[] moveArray = moves.toArray(dummy);
-        moves = null;
+        int bestMove = Move.NO_MOVE;
+        moves.moveToFront(moves.indexOf(hashMove));
+        int pvIndex = pvNode ? moves.indexOf(worker.getPVMove(depth)) : -1;
+        moves.moveToFront(pvIndex);
 
         //Test for all possible moves and pick the worst/best one, depending on mix/max
-        for(int i = 0; i< moveArray.length; i++){
-            PlayingField move_pf = Move.simulateMove(moveArray[i], currentPlayer, pf);
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            PlayingField move_pf = doMove(move, currentPlayer, pf, context);
             if(move_pf == null){
                 throw new IllegalStateException("[ERROR] in alpha-beta-pruning: Heuristic.getAllPossibleMoves yielded a move that is illegal according to Move.simulateMove");
             }
-            int move_value = alphaBeta_value(move_pf, player, next_player, depth-1, alpha, beta, activateMoveSorting);
+            worker.followPV = i == 0 && pvIndex >= 0;
+            int move_value = alphaBeta_childValue(move_pf, player, next_player, depth-1, alpha, beta, isMax, i, activateMoveSorting, worker);
+            undoMove(move_pf, context);
 
             if(isMax){
                 //we maximize the value
-                if(bestMove == null || move_value > currentMoveValue){
+                if(bestMove == Move.NO_MOVE || move_value > currentMoveValue){
                     currentMoveValue = move_value;
+                    bestMove = move;
+                    worker.updatePV(depth, bestMove);
                 }
 
-                if(move_value>beta || (Client.experimental != 0 && move_value < alpha)){
+                if(move_value>beta){
+                    recordCutoff(worker, ordering, move, currentPlayer, depth, i);
                     break;
                 }else if(move_value>alpha) {
                     alpha = move_value;
                 }
             } else {
                 //we minimize the value
-                if(bestMove == null || move_value < currentMoveValue){
+                if(bestMove == Move.NO_MOVE || move_value < currentMoveValue){
                     currentMoveValue = move_value;
+                    bestMove = move;
+                    worker.updatePV(depth, bestMove);
                 }
-                if(move_value<alpha|| (Client.experimental != 0 && move_value > beta)){
+                if(move_value<alpha){
+                    recordCutoff(worker, ordering, move, currentPlayer, depth, i);
                     break;
                 }else if(move_value<beta) {
                     beta = move_value;
                 }
             }
-            moveArray[i] = null;
         }
-        moveArray = null;
+        if(tt != null){
+            tt.store(key, depth, getBound(currentMoveValue, pAlpha, pBeta), currentMoveValue, moves.generatedIndexOf(bestMove));
+        }
         return currentMoveValue;
     }
 
+    /**
+     * Searches a child of a node of alpha-beta pruning.
+     * If principal variation search is enabled in the context of the worker, only the first child is searched with the window [alpha, beta].
+     * The other children are searched with the null window [alpha, alpha] (max nodes) or [beta, beta] (min nodes), which only tells whether
+     * the child is better than the best child so far. Only if it is better and not outside of [alpha, beta], it is searched again with the whole window.
+     * With a good move order, most children are not better than the first one, so the narrow windows save more than the re-searches cost.
+     * @param pf The PlayingField with the move executed
+     * @param player to compute the best move for
+     * @param next_player player whose turn it is in the child
+     * @param depth remaining depth of the child
+     * @param alpha current value for alpha of the node
+     * @param beta current value for beta of the node
+     * @param isMax true if the node maximizes the value
+     * @param index position of the child in the searched order
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the thread executing the search
+     * @return the value of the child, like alphaBeta_value with the window [alpha, beta]
+     * @throws TimeoutException when our time expires or the worker was stopped
+     */
+    private static int alphaBeta_childValue(PlayingField pf, byte player, byte next_player, int depth, int alpha, int beta, boolean isMax, int index, boolean activateMoveSorting, SearchWorker worker) throws TimeoutException{
+        if(!worker.getContext().getPVS() || index == 0){
+            return alphaBeta_value(pf, player, next_player, depth, alpha, beta, activateMoveSorting, worker);
+        }
+        int bound = isMax ? alpha : beta;
+        int value = alphaBeta_value(pf, player, next_player, depth, bound, bound, activateMoveSorting, worker);
+        //a value outside of [alpha, beta] is a bound that causes the same cutoff as the exact value
+        if(isMax ? (value > alpha && value <= beta) : (value < beta && value >= alpha)){
+            worker.researches++;
+            value = alphaBeta_value(pf, player, next_player, depth, alpha, beta, activateMoveSorting, worker);
+        }
+        return value;
+    }
+
+    /**
+     * Counts a cutoff of alpha-beta pruning and stores the move in the killer moves and the history table.
+     * @param worker state of the thread executing the search
+     * @param ordering killer moves and history table, null if they are disabled
+     * @param move the packed move that caused the cutoff
+     * @param player player who executed the move
+     * @param depth remaining depth of the node
+     * @param index position of the move in the searched order
+     */
+    private static void recordCutoff(SearchWorker worker, MoveOrdering ordering, int move, byte player, int depth, int index){
+        worker.cutoffs++;
+        if(index == 0) worker.firstMoveCutoffs++;
+        if(ordering != null) ordering.recordCutoff(move, player, depth);
+    }
+
+    /**
+     * Determines what a value returned by alpha-beta pruning tells about the exact value.
+     * A value below the window is an upper bound, a value above the window is a lower bound and a value inside the window (including its limits) is exact.
+     * @param value the returned value
+     * @param alpha alpha at the start of the search
+     * @param beta beta at the start of the search
+     * @return the bound type (see TranspositionTable)
+     */
+    private static int getBound(int value, int alpha, int beta){
+        if(value < alpha) return TranspositionTable.UPPER;
+        if(value > beta) return TranspositionTable.LOWER;
+        return TranspositionTable.EXACT;
+    }
+
+    /**
+     * @param entry data word of a transposition table entry, 0 if there is none
+     * @param moves the generated moves, in the order they were generated
+     * @return the packed best move stored in the entry, Move.NO_MOVE if there is none
+     */
+    private static int getHashMove(long entry, MoveList moves){
+        if(entry == 0) return Move.NO_MOVE;
+        int index = TranspositionTable.getBestMoveIndex(entry);
+        return index < moves.size() ? moves.get(index) : Move.NO_MOVE;
+    }
+
+    /**
+     * Creates the Move object of the result of a search.
+     * @param pf The PlayingField the move belongs to
+     * @param move the packed move
+     * @param value the value of the move
+     * @return the move with its value
+     */
+    private static Move toMove(PlayingField pf, int move, int value){
+        Move result = Move.unpack(pf.getTopology(), move);
+        result.value = value;
+        return result;
+    }
+
+    /**
+     * Executes a move during the search.
+     * If make/unmake is enabled in the context, the move is executed in place. Otherwise, the PlayingField is copied (see Move.simulateMove).
+     * @param move the packed move to execute
+     * @param player player executing the move
+     * @param pf The PlayingField
+     * @param context settings of the search
+     * @return the PlayingField with the move executed. Null if the move is illegal
+     */
+    private static PlayingField doMove(int move, byte player, PlayingField pf, SearchContext context){
+        if(context.getMakeUnmake()){
+            return pf.makeMove(move, player) ? pf : null;
+        }
+        PlayingField copy = pf.copy();
+        return copy.executeMove(move, player) ? copy : null;
+    }
+
+    /**
+     * Takes back a move executed with doMove. Does nothing if make/unmake is disabled in the context, since the move was executed on a copy.
+     * @param pf The PlayingField returned by doMove
+     * @param context settings of the search
+     */
+    private static void undoMove(PlayingField pf, SearchContext context){
+        if(context.getMakeUnmake()){
+            pf.unmakeMove();
+        }
+    }
+
     /**
      * Computes the player whose turn it is after the specified player
      * @param pf The PlayingField
@@ -486,7 +979,7 @@ public class Minimax {
     public static byte getNextPlayer(PlayingField pf, byte player){
         byte next_player = player;
         do{
-            next_player = (next_player+1) == PlayingField.getPlayerCount()+1 ? (byte)1 : (byte)(next_player+1);
+            next_player = (next_player+1) == pf.getPlayerCount()+1 ? (byte)1 : (byte)(next_player+1);
         } while (pf.isDisqualified(next_player));
 
         return next_player;
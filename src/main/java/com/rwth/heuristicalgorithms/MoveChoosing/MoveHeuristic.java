@@ -189,10 +189,10 @@ public class MoveHeuristic {
         if(!calc)return pf.getTileScore(player);
         int sumOccupiedTiles = 0;
          //iterate over whole map
-         for (byte y = 0; y < PlayingField.getMapHeight(); y++) {
-            for (byte x = 0; x < PlayingField.getMapWidth(); x++) {
-                if (pf.getMapTile(y, x) == pf.TILE_ENCODING[player]) {
-                    sumOccupiedTiles += switch(PlayingField.getTileType(y, x)){
+         for (byte y = 0; y < pf.getMapHeight(); y++) {
+            for (byte x = 0; x < pf.getMapWidth(); x++) {
+                if (pf.getMapTile(y, x) == PlayingField.TILE_ENCODING[player]) {
+                    sumOccupiedTiles += switch(pf.getTileType(y, x)){
                         case DEFAULT -> RATING_OCCUPIED_DEFAULT_TILE;
                         case EDGE -> RATING_OCCUPIED_EGDE_TILE;
                         case CORNER -> RATING_OCCUPIED_CORNER_TILE;
@@ -230,60 +230,54 @@ public class MoveHeuristic {
 
     
 
+    /**
+     * Comparators of an optimal sorting network for 8 values (19 compare-exchanges), see sortNetwork8.
+     */
+    private static final int[] SORTING_NETWORK_8 = {
+        0,2, 1,3, 4,6, 5,7,
+        0,4, 1,5, 2,6, 3,7,
+        0,1, 2,3, 4,5, 6,7,
+        2,4, 3,5,
+        1,4, 3,6,
+        1,2, 3,4, 5,6
+    };
+
     /**
      * Evaluates a given board in the elimination phase for the given player.
      * Counts the stones of each player. Stones of players "close" to the specified player 
      * (i.e., similar #stones) are weighted more  
+     * The stone counts are maintained by the PlayingField, so this takes O(playerCount) instead of a scan of the map.
      * 
      * @param pf the board to be evaluated
      * @param player the player to evaluate the board for
      * @return the value
      */
     public static int evalBoard_Elimination(PlayingField pf, byte player){
-        //step 1: count stones for each player
-        //the specified player (us) is not saved in the array but in a variable
-        short ourPlayerStonesCount = 0;
-        //this array will contain one 0 entry (count for our stones)
-        short[] stones_player = new short[PlayingField.getPlayerCount()];
-        //iterate over map
-        for(byte y = 0; y < PlayingField.getMapHeight(); y++){
-            for(byte x = 0; x < PlayingField.getMapWidth(); x++){
-                Tile t = pf.getMapTile(y, x);
-                if(Tile.isTileOccupiedByPlayer(t)){
-                    if(t.equals(pf.TILE_ENCODING[player])){
-                        ourPlayerStonesCount++;
-                    }
-                    else {
-                        stones_player[pf.TILE_DECODING.get(t)-1]++;
-                    }
-                }
-            }
+        int playerCount = pf.getPlayerCount();
+        //step 1: stone count of each player
+        int ourPlayerStonesCount = pf.getStoneCount(player);
+        //unused entries are larger than all counts, so they stay behind the first playerCount entries when sorting
+        int[] stones_player = new int[8];
+        Arrays.fill(stones_player, playerCount, 8, Integer.MAX_VALUE);
+        for(byte p = 1; p <= playerCount; p++){
+            //remove diaqualified players
+            stones_player[p-1] = pf.isDisqualified(p) ? 0 : pf.getStoneCount(p);
         }
 
-        //step 2: determine our position
-        int pos = stones_player.length;
-
-        //add our count to the array and then sort
-        stones_player[player-1] = ourPlayerStonesCount;
-
-        //remove diaqualified players
-        for(byte p = 1; p <= PlayingField.getPlayerCount(); p++){
-            if(pf.isDisqualified(p)) stones_player[p-1] = 0;
-        }
-
-        //sort the stones_player array (ascending order; place 1 is in stones_player[stones_player.length-1])
-        Arrays.sort(stones_player);
-        //find our value in the array. The index will tell us our position 
+        //step 2: sort the stones_player array (ascending order; place 1 is in stones_player[playerCount-1]) and determine our position.
+        //the position is the number of players with fewer stones than us
         //(if there is another player with the same #stones as us, we choose the lower position)
-        while(pos > 0 && ourPlayerStonesCount <= stones_player[pos-1]){
-            pos--;
+        sortNetwork8(stones_player);
+        int pos = 0;
+        while(pos < playerCount && stones_player[pos] < ourPlayerStonesCount){
+            pos++;
         }
 
         //weigh the number of tiles (see constant definitions at the top for an example)
         int weightedSum = ourPlayerStonesCount * WEIGHT_ELIM_OUR_STONES;
 
         //players with more stones than us
-        for(int i = 1; i+pos < stones_player.length; i++){
+        for(int i = 1; i+pos < playerCount; i++){
             int factor = (WEIGHT_ELIM_PREDECESSOR + (i-1) * CONST_ELIM_PREDECESSOR);
             if(factor > 0) factor = 0;
             weightedSum += stones_player[pos+i] * factor;
@@ -298,6 +292,23 @@ public class MoveHeuristic {
 
         return weightedSum;
     }
+
+    /**
+     * Sorts 8 values in ascending order with a fixed sorting network (see SORTING_NETWORK_8).
+     * Much cheaper than Arrays.sort for arrays this small.
+     * @param values array of length 8
+     */
+    private static void sortNetwork8(int[] values){
+        for(int c = 0; c < SORTING_NETWORK_8.length; c += 2){
+            int i = SORTING_NETWORK_8[c];
+            int j = SORTING_NETWORK_8[c+1];
+            if(values[i] > values[j]){
+                int tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        }
+    }
     
 
 
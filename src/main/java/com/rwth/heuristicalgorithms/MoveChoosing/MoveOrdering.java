@@ -0,0 +1,197 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.util.Arrays;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.MoveList;
+import com.rwth.heuristicalgorithms.PlayingField.MoveType;
+import com.rwth.heuristicalgorithms.PlayingField.MapTopology;
+
+/**
+ * Dynamic move ordering for the inner nodes of alpha-beta pruning: killer moves and a history table.
+ * A move that caused a beta cutoff is stored as a killer for its depth and is searched first in the other nodes of the same depth.
+ * The history table counts for every player, tile and move type how often such a move caused a cutoff, weighted by depth*depth.
+ * Moves that are no killers are ordered by the static heuristic (see MoveSortHeuristic) first and by their history value second.
+ *
+ * The tables are filled during the whole game, so every thread of an engine has its own instance (see SearchContext.getOrdering).
+ * Engines never share an instance, even if they search on the same thread, e.g., the two engines of an ArenaGame.
+ */
+public class MoveOrdering {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Number of killer moves per depth.
+     */
+    private static final int KILLER_SLOTS = 2;
+
+    /**
+     * Score of the killer in slot 0. The killer in slot 1 gets half of it. All other scores are below.
+     */
+    private static final int KILLER_SCORE = 1 << 30;
+
+    /**
+     * The static rank of a move (0-2) is stored above this bit, the history value below it.
+     */
+    private static final int RANK_SHIFT = 24;
+
+    /**
+     * All history values are halved when one of them exceeds this value, so they stay below 1 &lt;&lt; RANK_SHIFT.
+     */
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    /**
+     * Number of move types (see MoveType).
+     */
+    private static final int TYPES = MoveType.values().length;
+
+    /**
+     * killers[depth*KILLER_SLOTS + slot] contains the packed killer move (see Move.pack) plus 1. 0 if the slot is empty.
+     */
+    private int[] killers = new int[0];
+
+    /**
+     * history[((player-1)*tiles + tileIndex)*TYPES + type] is the history value of a move.
+     */
+    private int[] history = new int[0];
+
+    /**
+     * The map the history table was created for. Null before the first use.
+     */
+    private MapTopology topology;
+
+    /**
+     * Number of tiles of the map the history table was created for.
+     */
+    private int tiles;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Creates new tables if the map has changed since the tables were created.
+     * A thread of a pool can search for games on different maps one after another, the tables are only kept as long as the map stays the same.
+     * @param newTopology the map that is searched
+     */
+    void fitMap(MapTopology newTopology){
+        if(newTopology != topology){
+            topology = newTopology;
+            tiles = newTopology.getMapHeight() * newTopology.getMapWidth();
+            history = new int[newTopology.getPlayerCount() * tiles * TYPES];
+            Arrays.fill(killers, 0);
+        }
+    }
+
+    /**
+     * Prepares the tables for a new search from the root.
+     * Killers are only valid for the positions of one search and are cleared. The history values are halved, so that older cutoffs count less.
+     */
+    public void newSearch(){
+        Arrays.fill(killers, 0);
+        for(int i = 0; i < history.length; i++){
+            history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Records a move that caused a cutoff.
+     * @param move the packed move
+     * @param player player who executed the move
+     * @param depth remaining depth of the node
+     */
+    public void recordCutoff(int move, byte player, int depth){
+        int index = getHistoryIndex(move, player);
+        history[index] += depth * depth;
+        if(history[index] > HISTORY_LIMIT){
+            for(int i = 0; i < history.length; i++){
+                history[i] >>= 1;
+            }
+        }
+
+        ensureDepth(depth);
+        int key = move + 1;
+        int first = depth * KILLER_SLOTS;
+        if(killers[first] != key){
+            killers[first + 1] = killers[first];
+            killers[first] = key;
+        }
+    }
+
+    /**
+     * Sorts the moves of a node: killers first, then by static rank and history value. Moves with the same score keep their order.
+     * @param moves the moves of the node. Are sorted in place, the scores of the list are overwritten
+     * @param player player whose turn it is
+     * @param depth remaining depth of the node
+     * @param isMax true if the node maximizes the value
+     */
+    public void sort(MoveList moves, byte player, int depth, boolean isMax){
+        ensureDepth(depth);
+        int killer0 = killers[depth * KILLER_SLOTS];
+        int killer1 = killers[depth * KILLER_SLOTS + 1];
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            int key = move + 1;
+            if(key == killer0){
+                moves.setScore(i, KILLER_SCORE);
+            } else if(key == killer1){
+                moves.setScore(i, KILLER_SCORE >> 1);
+            } else {
+                moves.setScore(i, (getRank(move, isMax) << RANK_SHIFT) + history[getHistoryIndex(move, player)]);
+            }
+        }
+        moves.sortByScore();
+    }
+
+    /**
+     * Sorts moves only with the static heuristic, in the same order as sorting ascending by MoveSortHeuristic.evaluateMove_MoveSorting
+     * with a stable sort and reversing the result for max nodes.
+     * @param moves the moves. Are sorted in place, the scores of the list are overwritten
+     * @param isMax true if the node maximizes the value
+     */
+    public static void sortStatic(MoveList moves, boolean isMax){
+        if(isMax) moves.reverse();
+        for(int i = 0; i < moves.size(); i++){
+            moves.setScore(i, getRank(moves.get(i), isMax));
+        }
+        moves.sortByScore();
+    }
+
+    /**
+     * @param move the packed move
+     * @param isMax true if the node maximizes the value
+     * @return rank of the move by the static heuristic, 0-2. Higher rank -> move will be branched first
+     */
+    private static int getRank(int move, boolean isMax){
+        int value = MoveSortHeuristic.evaluateMove_MoveSorting(move);
+        return isMax ? value + 1 : 1 - value;
+    }
+
+    /**
+     * Makes sure that the killer table has an entry for the given depth.
+     * @param depth remaining depth
+     */
+    private void ensureDepth(int depth){
+        if(depth * KILLER_SLOTS >= killers.length){
+            int length = Math.max(depth + 1, killers.length / KILLER_SLOTS * 2);
+            killers = Arrays.copyOf(killers, length * KILLER_SLOTS);
+        }
+    }
+
+    /**
+     * @param move the packed move
+     * @param player player who executes the move
+     * @return index of the move in the history table
+     */
+    private int getHistoryIndex(int move, byte player){
+        return ((player - 1) * tiles + Move.getPackedTileIndex(move)) * TYPES + Move.getPackedType(move).ordinal();
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
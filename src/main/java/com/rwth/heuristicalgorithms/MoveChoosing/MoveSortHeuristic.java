@@ -8,11 +8,11 @@ import com.rwth.heuristicalgorithms.PlayingField.Move;
 public class MoveSortHeuristic {
     /**
      * Evaluates a move for move sorting by putting choice moves first and override moves last.
-     * @param m The Move
+     * @param move the packed move (see Move.pack)
      * @return value for move sorting. Higher value -> move will be branched first
      */
-    static int evaluateMove_MoveSorting(Move m){
-        return switch(m.getMoveType()){
+    static int evaluateMove_MoveSorting(int move){
+        return switch(Move.getPackedType(move)){
             case CHOICE -> 1;
             case OVERRIDE -> -1;
             default -> 0;
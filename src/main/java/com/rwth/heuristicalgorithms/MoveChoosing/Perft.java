@@ -0,0 +1,426 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.MoveList;
+import com.rwth.heuristicalgorithms.PlayingField.MoveType;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Perft (performance test): counts the leaf nodes of the game tree up to a fixed depth with Minimax.generateMoves and PlayingField.executeMove.
+ * The counts verify that a changed move generation still generates exactly the same moves (see the table in maps/perft.txt),
+ * and the time of the count measures the throughput of the move generation.
+ *
+ * Every move is one ply. Players without a possible move are skipped without using a ply, and a position in which no player can move
+ * has no leaves below it. The phase of the start position is never changed, i.e., the building phase never ends.
+ * The moves of the last ply are only counted, not executed.
+ *
+ * Usage: java -cp swp2023_group5.jar com.rwth.heuristicalgorithms.MoveChoosing.Perft -m maps/2023_comp_5_2p.map -d 4 [-t 8]
+ * or java -cp swp2023_group5.jar com.rwth.heuristicalgorithms.MoveChoosing.Perft --check maps/perft.txt [-t 8]
+ */
+public class Perft {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Table of the expected counts for all maps in maps/ and maps/reserve/.
+     * Every line is map;phase;player;depth;default;override;choice;bonus;bomb. Lines starting with # are comments.
+     */
+    public static final String TABLE = "maps/perft.txt";
+
+    /**
+     * The parallel perft creates at least this many tasks per thread if the tree is large enough, so that the threads are busy until the end.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Maps to count the leaves for.
+     */
+    @Parameter(names = { "--map", "-m" }, description = "Map file to count the leaves for. Can be used multiple times.")
+    public List<String> maps = new ArrayList<>();
+
+    /**
+     * Depth of the count.
+     */
+    @Parameter(names = { "--depth", "-d" }, description = "Number of plies to count the leaves for.")
+    public int depth = 3;
+
+    /**
+     * Player who makes the first move.
+     */
+    @Parameter(names = { "--player", "-pl" }, description = "Player who makes the first move.")
+    public int player = 1;
+
+    /**
+     * Is true when the count starts in the elimination phase. Set by -e or --elimination flag.
+     */
+    @Parameter(names = { "--elimination", "-e" }, description = "Starts the count in the elimination phase, i.e., counts bomb moves.")
+    public boolean elimination = false;
+
+    /**
+     * Number of threads of the fork-join pool. 0 counts on the calling thread.
+     */
+    @Parameter(names = { "--threads", "-t" }, description = "Counts in parallel on a fork-join pool with this many threads. 0 counts single-threaded.")
+    public int threads = 0;
+
+    /**
+     * Is true when the moves are made and taken back instead of executed on copies. Set by -mu or --makeunmake flag.
+     */
+    @Parameter(names = { "--makeunmake", "-mu" }, description = "Makes and takes back moves instead of executing them on copies")
+    public boolean makeUnmake = false;
+
+    /**
+     * Is true when the PlayingField uses a bitboard. Set by -bb or --bitboard flag.
+     */
+    @Parameter(names = { "--bitboard", "-bb" }, description = "Generates the moves with the bitboard")
+    public boolean bitBoard = false;
+
+    /**
+     * Is true when the PlayingField tracks the move candidates. Set by -mc or --movecandidates flag.
+     */
+    @Parameter(names = { "--movecandidates", "-mc" }, description = "Generates the moves from the tracked move candidates")
+    public boolean moveCandidates = false;
+
+    /**
+     * Table of expected counts to check. Null if no table is checked.
+     */
+    @Parameter(names = { "--check", "-c" }, description = "Counts all lines of a table of expected counts (e.g. maps/perft.txt) and reports the differences.")
+    public String check = null;
+
+    /**
+     * Is true when the results are printed as lines of the table of expected counts. Set by -tb or --table flag.
+     */
+    @Parameter(names = { "--table", "-tb" }, description = "Prints the results in the format of the table of expected counts")
+    public boolean table = false;
+
+    /**
+     * Is true when the help is displayed. Set by -h or --help flag.
+     */
+    @Parameter(names = { "--help", "-h" }, description = "Displays help.", help = true)
+    public boolean showHelp = false;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Counts the leaves below a position on the calling thread.
+     * @param pf the position. Is not changed
+     * @param player player who makes the first move
+     * @param depth number of plies, at least 1
+     * @param makeUnmake true if the moves are made and taken back instead of executed on copies
+     * @return the counts
+     */
+    public static PerftResult perft(PlayingField pf, byte player, int depth, boolean makeUnmake){
+        if(depth < 1) throw new IllegalArgumentException("the depth has to be at least 1, got " + depth);
+        PerftResult result = new PerftResult();
+        try{
+            perft(pf.copy(), player, depth, makeUnmake, result, -1, null, null);
+        } catch(TimeoutException e){
+            //not possible without checking for time
+        }
+        return result;
+    }
+
+    /**
+     * Counts the leaves below a position in parallel. The first plies are expanded on the calling thread until there are enough subtrees,
+     * which are then counted as tasks of a fork-join pool.
+     * @param pf the position. Is not changed
+     * @param player player who makes the first move
+     * @param depth number of plies, at least 1
+     * @param makeUnmake true if the moves are made and taken back instead of executed on copies
+     * @param threads number of threads of the pool
+     * @return the counts
+     */
+    public static PerftResult perftParallel(PlayingField pf, byte player, int depth, boolean makeUnmake, int threads){
+        if(depth < 1) throw new IllegalArgumentException("the depth has to be at least 1, got " + depth);
+        PerftResult result = new PerftResult();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try{
+            //expand one more ply until there are enough subtrees, but keep at least one ply for the tasks
+            int splitPlies = 0;
+            while(splitPlies < depth - 1 && countSubtrees(pf, player, depth, splitPlies) < TASKS_PER_THREAD * threads){
+                splitPlies++;
+            }
+            List<ForkJoinTask<PerftResult>> tasks = new ArrayList<>();
+            PerftResult expansion = new PerftResult();
+            perft(pf.copy(), player, depth, makeUnmake, expansion, splitPlies, pool, tasks);
+            result.add(expansion);
+
+            //wait for all tasks, even if one of them failed, so that no task is still running afterwards
+            Throwable failure = null;
+            for(ForkJoinTask<PerftResult> task : tasks){
+                try{
+                    result.add(task.get());
+                } catch(ExecutionException e){
+                    if(failure == null) failure = e.getCause();
+                } catch(InterruptedException e){
+                    Thread.currentThread().interrupt();
+                    if(failure == null) failure = e;
+                }
+            }
+            if(failure instanceof RuntimeException){
+                throw (RuntimeException) failure;
+            } else if(failure != null){
+                throw new IllegalStateException(failure);
+            }
+        } catch(TimeoutException e){
+            //not possible without checking for time
+        } finally{
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * @param pf the position. Is not changed
+     * @param player player who makes the first move
+     * @param depth number of plies, at least 1
+     * @param splitPlies number of plies that are expanded
+     * @return number of positions after the given number of plies, i.e., the number of tasks of the parallel perft
+     * @throws TimeoutException never, since no time limit is checked
+     */
+    private static int countSubtrees(PlayingField pf, byte player, int depth, int splitPlies) throws TimeoutException{
+        List<ForkJoinTask<PerftResult>> subtrees = new ArrayList<>();
+        perft(pf.copy(), player, depth, true, new PerftResult(), splitPlies, null, subtrees);
+        return subtrees.size();
+    }
+
+    /**
+     * Counts the leaves below a position. If splitPlies is 0, the subtree is counted as a task of the pool instead.
+     * @param pf the position. Is changed by makeMove and unmakeMove, but restored when returning
+     * @param player player whose turn it is
+     * @param depth number of plies, at least 1
+     * @param makeUnmake true if the moves are made and taken back instead of executed on copies
+     * @param result the counts of this thread are added here
+     * @param splitPlies number of plies until the subtrees are counted as tasks. Negative for no tasks
+     * @param pool pool for the tasks. Null to only collect the subtrees, then the tasks list only holds null entries
+     * @param tasks the created tasks are added here
+     * @throws TimeoutException never, since no time limit is checked
+     */
+    private static void perft(PlayingField pf, byte player, int depth, boolean makeUnmake, PerftResult result,
+            int splitPlies, ForkJoinPool pool, List<ForkJoinTask<PerftResult>> tasks) throws TimeoutException{
+        if(splitPlies == 0){
+            if(pool != null){
+                PlayingField copy = pf.copy();
+                tasks.add(pool.submit(() -> {
+                    PerftResult subtree = new PerftResult();
+                    perft(copy, player, depth, makeUnmake, subtree, -1, null, null);
+                    return subtree;
+                }));
+            } else {
+                tasks.add(null);
+            }
+            return;
+        }
+
+        //players without a possible move are skipped
+        MoveList moves = new MoveList();
+        byte current = player;
+        for(int i = 0; i < pf.getPlayerCount(); i++){
+            if(i > 0) current = Minimax.getNextPlayer(pf, current);
+            result.countPosition();
+            if(Minimax.generateMoves(pf, current, null, moves) > 0) break;
+        }
+        if(moves.isEmpty()) return;
+
+        if(depth == 1){
+            for(int i = 0; i < moves.size(); i++){
+                result.countLeaf(Move.getPackedType(moves.get(i)));
+            }
+            return;
+        }
+
+        byte next = Minimax.getNextPlayer(pf, current);
+        for(int i = 0; i < moves.size(); i++){
+            int move = moves.get(i);
+            if(makeUnmake){
+                pf.makeMove(move, current);
+                perft(pf, next, depth - 1, true, result, splitPlies - 1, pool, tasks);
+                pf.unmakeMove();
+            } else {
+                PlayingField child = pf.copy();
+                child.executeMove(move, current);
+                perft(child, next, depth - 1, false, result, splitPlies - 1, pool, tasks);
+            }
+        }
+    }
+
+    /**
+     * Reads a map and counts the leaves below its start position.
+     * @param map path of the map file
+     * @param elimination true if the count starts in the elimination phase
+     * @param player player who makes the first move
+     * @param depth number of plies, at least 1
+     * @param threads number of threads of the fork-join pool. 0 counts on the calling thread
+     * @param makeUnmake true if the moves are made and taken back instead of executed on copies
+     * @return the counts
+     * @throws IOException if the map can not be read
+     */
+    public static PerftResult run(String map, boolean elimination, byte player, int depth, int threads, boolean makeUnmake) throws IOException{
+        return run(map, elimination, player, depth, threads, makeUnmake, false, true);
+    }
+
+    /**
+     * Reads a map and counts the leaves below its start position.
+     * @param map path of the map file
+     * @param elimination true if the count starts in the elimination phase
+     * @param player player who makes the first move
+     * @param depth number of plies, at least 1
+     * @param threads number of threads of the fork-join pool. 0 counts on the calling thread
+     * @param makeUnmake true if the moves are made and taken back instead of executed on copies
+     * @param bitBoard true if moves are generated with bitboards (see PlayingField.readMap)
+     * @param moveCandidates true if moves are generated with the move candidate sets when bitboards are disabled
+     * @return the counts
+     * @throws IOException if the map can not be read
+     */
+    public static PerftResult run(String map, boolean elimination, byte player, int depth, int threads, boolean makeUnmake, boolean bitBoard, boolean moveCandidates) throws IOException{
+        PlayingField pf = PlayingField.readMap(Files.readString(Path.of(map)), bitBoard, moveCandidates);
+        if(elimination) pf.startEliminationPhase();
+        return threads > 0 ? perftParallel(pf, player, depth, makeUnmake, threads) : perft(pf, player, depth, makeUnmake);
+    }
+
+    /**
+     * Counts all lines of a table of expected counts and prints the results.
+     * @param table path of the table (see TABLE)
+     * @param threads number of threads of the fork-join pool. 0 counts on the calling thread
+     * @param makeUnmake true if the moves are made and taken back instead of executed on copies
+     * @return number of lines whose counts differ from the expected counts
+     * @throws IOException if the table or a map can not be read
+     */
+    public static int check(String table, int threads, boolean makeUnmake) throws IOException{
+        return check(table, threads, makeUnmake, false, true);
+    }
+
+    /**
+     * Counts all lines of a table of expected counts and prints the results.
+     * @param table path of the table (see TABLE)
+     * @param threads number of threads of the fork-join pool. 0 counts on the calling thread
+     * @param makeUnmake true if the moves are made and taken back instead of executed on copies
+     * @param bitBoard true if moves are generated with bitboards (see PlayingField.readMap)
+     * @param moveCandidates true if moves are generated with the move candidate sets when bitboards are disabled
+     * @return number of lines whose counts differ from the expected counts
+     * @throws IOException if the table or a map can not be read
+     */
+    public static int check(String table, int threads, boolean makeUnmake, boolean bitBoard, boolean moveCandidates) throws IOException{
+        int mismatches = 0;
+        for(String line : Files.readAllLines(Path.of(table))){
+            if(line.isBlank() || line.startsWith("#")) continue;
+            String[] fields = line.split(";");
+            String map = fields[0];
+            boolean elimination = fields[1].equals("elimination");
+            byte player = Byte.parseByte(fields[2]);
+            int depth = Integer.parseInt(fields[3]);
+            long[] leaves = new long[MoveType.values().length];
+            for(int t = 0; t < leaves.length; t++){
+                leaves[t] = Long.parseLong(fields[4 + t]);
+            }
+            PerftResult expected = new PerftResult(leaves, 0);
+
+            long start = System.nanoTime();
+            PerftResult result = run(map, elimination, player, depth, threads, makeUnmake, bitBoard, moveCandidates);
+            long time = System.nanoTime() - start;
+            if(result.equals(expected)){
+                System.out.println("[PERFT] OK " + describe(map, elimination, player, depth, result, time));
+            } else {
+                mismatches++;
+                System.out.println("[PERFT] MISMATCH " + describe(map, elimination, player, depth, result, time) + ", expected " + expected);
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * @param map path of the map file
+     * @param elimination true if the count started in the elimination phase
+     * @param player player who made the first move
+     * @param depth number of plies
+     * @param result the counts
+     * @return the counts as a line of the table of expected counts
+     */
+    public static String toTableLine(String map, boolean elimination, byte player, int depth, PerftResult result){
+        StringBuilder sb = new StringBuilder(map).append(';').append(elimination ? "elimination" : "building")
+            .append(';').append(player).append(';').append(depth);
+        for(MoveType type : MoveType.values()){
+            sb.append(';').append(result.getLeaves(type));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param map path of the map file
+     * @param elimination true if the count started in the elimination phase
+     * @param player player who made the first move
+     * @param depth number of plies
+     * @param result the counts
+     * @param time time of the count in ns
+     * @return human-readable description of the counts and the throughput
+     */
+    private static String describe(String map, boolean elimination, byte player, int depth, PerftResult result, long time){
+        double seconds = Math.max(1, time) / 1e9;
+        return String.format(Locale.ROOT, "%s %s player %d depth %d: %s in %d ms, %.0f leaves/s, %.0f positions/s",
+            map, elimination ? "elimination" : "building", player, depth, result, time / 1_000_000, result.getLeaves() / seconds, result.getPositions() / seconds);
+    }
+
+    /**
+     * Counts the leaves for all given maps or checks a table of expected counts.
+     * @throws IOException if a file can not be read
+     */
+    private void runPerft() throws IOException{
+        if(check != null){
+            int mismatches = check(check, threads, makeUnmake, bitBoard, moveCandidates);
+            System.out.println("[PERFT] " + mismatches + " mismatches");
+            if(mismatches > 0) System.exit(1);
+            return;
+        }
+        for(String map : maps){
+            long start = System.nanoTime();
+            PerftResult result = run(map, elimination, (byte) player, depth, threads, makeUnmake, bitBoard, moveCandidates);
+            long time = System.nanoTime() - start;
+            System.out.println(table ? toTableLine(map, elimination, (byte) player, depth, result) : "[PERFT] " + describe(map, elimination, (byte) player, depth, result, time));
+        }
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+
+
+
+    // -------------------------------------------------
+    // MAIN START
+
+    /**
+     * Main method of the perft tool.
+     * @param args command line arguments, see --help
+     * @throws IOException if a file can not be read
+     */
+    public static void main(String[] args) throws IOException{
+        Perft perft = new Perft();
+        JCommander jct = JCommander.newBuilder().addObject(perft).build();
+        jct.parse(args);
+        if(perft.showHelp || (perft.maps.isEmpty() && perft.check == null)){
+            jct.usage();
+        } else {
+            perft.runPerft();
+        }
+    }
+
+    // MAIN END
+    // -------------------------------------------------
+}
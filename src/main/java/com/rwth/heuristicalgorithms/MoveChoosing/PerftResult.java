@@ -0,0 +1,140 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.util.Arrays;
+
+import com.rwth.heuristicalgorithms.PlayingField.MoveType;
+
+/**
+ * Counts of a perft run (see Perft): the leaf nodes by the type of the move leading to them and the number of positions whose moves were generated.
+ */
+public class PerftResult {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * leaves[t] is the number of leaf nodes reached with a move of the MoveType with ordinal t.
+     */
+    private final long[] leaves = new long[MoveType.values().length];
+
+    /**
+     * Number of positions in which the possible moves were generated, including the positions of players without a possible move.
+     */
+    private long positions;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates an empty result.
+     */
+    public PerftResult(){
+    }
+
+    /**
+     * Creates a result with the given counts, e.g. the expected counts of a perft run.
+     * @param leaves leaves[t] is the number of leaf nodes reached with a move of the MoveType with ordinal t
+     * @param positions number of positions in which the possible moves were generated. Not compared by equals
+     */
+    public PerftResult(long[] leaves, long positions){
+        if(leaves.length != this.leaves.length) throw new IllegalArgumentException("expected " + this.leaves.length + " move types, got " + leaves.length);
+        System.arraycopy(leaves, 0, this.leaves, 0, leaves.length);
+        this.positions = positions;
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Counts a leaf node.
+     * @param type type of the move leading to the leaf
+     */
+    void countLeaf(MoveType type){
+        leaves[type.ordinal()]++;
+    }
+
+    /**
+     * Counts a position whose moves were generated.
+     */
+    void countPosition(){
+        positions++;
+    }
+
+    /**
+     * Adds the counts of another result to this one.
+     * @param other the result to add
+     */
+    void add(PerftResult other){
+        for(int i = 0; i < leaves.length; i++){
+            leaves[i] += other.leaves[i];
+        }
+        positions += other.positions;
+    }
+
+    /**
+     * @return total number of leaf nodes
+     */
+    public long getLeaves(){
+        long sum = 0;
+        for(long count : leaves){
+            sum += count;
+        }
+        return sum;
+    }
+
+    /**
+     * @param type a move type
+     * @return number of leaf nodes reached with a move of the type
+     */
+    public long getLeaves(MoveType type){
+        return leaves[type.ordinal()];
+    }
+
+    /**
+     * @return number of positions in which the possible moves were generated
+     */
+    public long getPositions(){
+        return positions;
+    }
+
+    /**
+     * Two results are equal if they have the same leaf counts for all move types. The number of positions is not compared.
+     */
+    @Override
+    public boolean equals(Object o){
+        if(this == o) return true;
+        if(!(o instanceof PerftResult)) return false;
+        return Arrays.equals(leaves, ((PerftResult) o).leaves);
+    }
+
+    @Override
+    public int hashCode(){
+        return Arrays.hashCode(leaves);
+    }
+
+    /**
+     * @return the total number of leaves followed by the leaves of every move type
+     */
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder().append(getLeaves()).append(" leaves (");
+        for(MoveType type : MoveType.values()){
+            if(type.ordinal() > 0) sb.append(", ");
+            sb.append(type.name().toLowerCase()).append(' ').append(leaves[type.ordinal()]);
+        }
+        return sb.append(')').toString();
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,245 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Pondering: searches on the time of the other players.
+ * While the opponents are moving, a background thread predicts their moves and runs the iterative deepening search
+ * on the predicted position in which it is our turn again. If all opponents play the predicted moves,
+ * the search for our move continues with the pondered worker (see takeResult) instead of starting at depth 1.
+ * Otherwise the search only profits from the entries the pondering left in the transposition table.
+ *
+ * The moves of the opponents are predicted paranoidly: every opponent plays the move that minimizes our heuristic value after one ply.
+ * Every Client has its own pondering, which searches with the settings of its SearchContext.
+ * All methods are called by the thread that handles the messages of the server.
+ */
+public class Pondering {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Background thread of the current pondering. Null if no pondering is running.
+     */
+    private Thread thread;
+
+    /**
+     * Worker of the current pondering. Contains the results of the completed iterations.
+     */
+    private SearchWorker worker;
+
+    /**
+     * Players of the predicted moves that have not been announced yet, in the order they are expected.
+     * Filled by the background thread, so it is only read after predicted has been set.
+     */
+    private List<Byte> predictedPlayers = new ArrayList<>();
+
+    /**
+     * Predicted moves belonging to predictedPlayers. Null if the player is expected to have no possible move.
+     */
+    private List<Move> predictedMoves = new ArrayList<>();
+
+    /**
+     * Is true when the background thread has finished predicting the moves of the opponents.
+     */
+    private volatile boolean predicted;
+
+    /**
+     * Hash of the predicted position the worker searches. Only valid if predicted is true.
+     */
+    private volatile long predictedHash;
+
+    /**
+     * Player we ponder for.
+     */
+    private byte ourPlayer;
+
+    /**
+     * Settings of the search. Its time limit is removed while pondering.
+     */
+    private final SearchContext context;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates the pondering of a Client.
+     * @param context settings of the search of the Client
+     */
+    public Pondering(SearchContext context){
+        this.context = context;
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Stops the current pondering and starts pondering on the given position. Nothing is started if it is our turn next.
+     * Removes the time limit of the last search (see SearchContext.setDeadline), so the pondering only ends when it is stopped.
+     * @param pf the current position. Is not changed
+     * @param lastPlayer player who made the last move
+     * @param player player we ponder for
+     * @param maxDepth depth limit of the search
+     * @param activateMoveSorting true if moves will be sorted
+     */
+    public void start(PlayingField pf, byte lastPlayer, byte player, int maxDepth, boolean activateMoveSorting){
+        stop();
+        if(Minimax.getNextPlayer(pf, lastPlayer) == player) return;
+
+        context.setDeadline(Long.MAX_VALUE);
+        ourPlayer = player;
+        predicted = false;
+        predictedPlayers = new ArrayList<>();
+        predictedMoves = new ArrayList<>();
+        SearchWorker ponderWorker = new SearchWorker(0, context);
+        worker = ponderWorker;
+        PlayingField copy = pf.copy();
+        List<Byte> players = predictedPlayers;
+        List<Move> moves = predictedMoves;
+        thread = new Thread(() -> ponder(copy, lastPlayer, player, maxDepth, activateMoveSorting, ponderWorker, players, moves), "pondering");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Checks an announced move against the prediction. If it was not predicted, the pondering is restarted on the new position.
+     * @param pf the position after the move
+     * @param move the announced move
+     * @param player player who made the move
+     * @param ourPlayer player we ponder for
+     * @param maxDepth depth limit of the search
+     * @param activateMoveSorting true if moves will be sorted
+     */
+    public void moveAnnounced(PlayingField pf, Move move, byte player, byte ourPlayer, int maxDepth, boolean activateMoveSorting){
+        if(player != ourPlayer && thread != null && predicted){
+            //players without a possible move are skipped by the server
+            while(!predictedPlayers.isEmpty() && predictedMoves.get(0) == null && predictedPlayers.get(0) != player){
+                predictedPlayers.remove(0);
+                predictedMoves.remove(0);
+            }
+            if(!predictedPlayers.isEmpty() && predictedPlayers.get(0) == player && move.equals(predictedMoves.get(0))){
+                predictedPlayers.remove(0);
+                predictedMoves.remove(0);
+                return;
+            }
+        }
+        start(pf, player, ourPlayer, maxDepth, activateMoveSorting);
+    }
+
+    /**
+     * Stops the pondering and waits until the background thread has finished. Does nothing if no pondering is running.
+     */
+    public void stop(){
+        if(thread == null) return;
+        worker.stop();
+        try{
+            thread.join();
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * @return true if the background thread is still predicting or searching
+     */
+    boolean isSearching(){
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Stops the pondering and returns its worker if it searched the given position.
+     * @param pf the position we have to move in
+     * @param player player whose turn it is
+     * @return the worker of the pondering, with at least one completed iteration and a fresh stop flag. Null if the prediction was wrong or no iteration was completed
+     */
+    public SearchWorker takeResult(PlayingField pf, byte player){
+        boolean running = thread != null;
+        stop();
+        if(!running || !predicted || player != ourPlayer || pf.getHash() != predictedHash || worker.getCompletedDepth() == 0){
+            return null;
+        }
+        worker.resume();
+        return worker;
+    }
+
+    /**
+     * Body of the background thread: predicts the moves of the opponents and searches the resulting position until it is stopped.
+     * @param pf the current position. Is changed
+     * @param lastPlayer player who made the last move
+     * @param player player we ponder for
+     * @param maxDepth depth limit of the search
+     * @param activateMoveSorting true if moves will be sorted
+     * @param worker state of the search. The results of the completed iterations are recorded here
+     * @param players list for the players of the predicted moves
+     * @param moves list for the predicted moves
+     */
+    private void ponder(PlayingField pf, byte lastPlayer, byte player, int maxDepth, boolean activateMoveSorting, SearchWorker worker, List<Byte> players, List<Move> moves){
+        byte current = Minimax.getNextPlayer(pf, lastPlayer);
+        while(current != player){
+            if(worker.isStopped()) return;
+            Move move = predictMove(pf, current, player, worker);
+            if(move != null) pf.executeMove(move, current);
+            players.add(current);
+            moves.add(move);
+            current = Minimax.getNextPlayer(pf, current);
+        }
+        predictedHash = pf.getHash();
+        predicted = true;
+
+        for(int depth = 1; depth <= maxDepth; depth++){
+            long nodes = worker.getNodes();
+            long start = System.nanoTime();
+            try{
+                Move move = Minimax.alphaBeta_getBestMove(pf, player, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, activateMoveSorting, worker);
+                if(move == null) return;
+                worker.completeIteration(move, depth, worker.getNodes() - nodes, System.nanoTime() - start);
+            } catch(TimeoutException e){
+                return;
+            }
+        }
+    }
+
+    /**
+     * Predicts the move of an opponent: the move after which our heuristic value is the lowest.
+     * @param pf the position
+     * @param opponent player whose turn it is
+     * @param player player we ponder for
+     * @param worker checked for a stop after every move
+     * @return the predicted move. Null if the opponent has no possible move or the pondering was stopped
+     */
+    static Move predictMove(PlayingField pf, byte opponent, byte player, SearchWorker worker){
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, opponent);
+        if(moves == null) return null;
+        Move best = null;
+        int bestValue = Integer.MAX_VALUE;
+        for(Move move : moves){
+            if(worker.isStopped()) return null;
+            PlayingField child = Move.simulateMove(move, opponent, pf);
+            if(child == null) continue;
+            int value = child.getIsEliminationPhase() ? MoveHeuristic.evalBoard_Elimination(child, player) : MoveHeuristic.evalBoard_Building(child, player);
+            if(best == null || value < bestValue){
+                best = move;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,321 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.rwth.heuristicalgorithms.PlayingField.MapTopology;
+
+/**
+ * State of the searches of one engine in one game: the settings of the search, the transposition table, the time limit of the current search
+ * and the counters that are printed at the end of the game.
+ * Shared by all threads searching for the engine (see SearchWorker.getContext), but never by two engines.
+ * Every Client and every engine of the Arena has its own context, so searches with different settings can run in the same JVM at the same time.
+ */
+public class SearchContext {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Transposition table used by alpha-beta pruning. Null if disabled.
+     */
+    private TranspositionTable transpositionTable = null;
+
+    /**
+     * Is true when the search executes moves in place and takes them back instead of copying the PlayingField for every node.
+     */
+    private boolean makeUnmake = false;
+
+    /**
+     * Is true when principal variation search (null windows for all but the first child) is used instead of plain alpha-beta pruning.
+     */
+    private boolean pvs = false;
+
+    /**
+     * Is true when the inner nodes are sorted with killer moves and the history table. Otherwise they are only sorted by move type.
+     */
+    private boolean history = true;
+
+    /**
+     * Is true when the principal variation and the root values of the previous iteration are searched first.
+     */
+    private boolean pvReuse = true;
+
+    /**
+     * Number of threads that search the moves at the root in parallel. 1 searches sequentially.
+     */
+    private int threads = 1;
+
+    /**
+     * Is true when the threads are used for a Lazy SMP search (see LazySMP) instead of the parallel root search.
+     */
+    private boolean lazySMP = false;
+
+    /**
+     * Pool for the parallel root search. Created when it is needed for the first time and whenever the number of threads changes.
+     */
+    private ForkJoinPool pool = null;
+
+    /**
+     * Killer moves and history table of every thread searching with this context. Kept for the whole game.
+     * Not static, so two engines searching on the same thread do not share their tables.
+     */
+    private final ThreadLocal<MoveOrdering> orderings = ThreadLocal.withInitial(MoveOrdering::new);
+
+    /**
+     * Is true when the search prints diagnostic output, e.g., the re-searches of the aspiration windows.
+     */
+    private boolean verbose = false;
+
+    /**
+     * Stream for the output of the search.
+     */
+    private PrintStream log = System.out;
+
+    /**
+     * Time limit of the current search. Replaced by setDeadline. Volatile, since it is read by all search threads.
+     */
+    private volatile Deadline deadline = new Deadline(Long.MAX_VALUE);
+
+    /**
+     * Used to counting the number of states evaluated when pruning. Primarly for -mt
+     * Incremented by all search threads, so it is an adder instead of an int.
+     */
+    public final LongAdder prunedEvalCount = new LongAdder();
+
+    /**
+     * Used to counting the number of states evaluated when not pruning. Primarly for -mt
+     */
+    public int unprunedEvalCount;
+
+    /**
+     * Logs the number of timeout exceptions. Value is printed at the end of the game.
+     */
+    public int numTimeoutExceptions = 0;
+
+    /**
+     * Logs the number of cases where our estimation stopped us from going into the next depth.
+     * Value is printed at the end of the game.
+     */
+    public int numEstimationAborted = 0;
+
+    /**
+     * Logs the number of iterations searched with an aspiration window. Value is printed at the end of the game.
+     */
+    public int numAspirationSearches = 0;
+
+    /**
+     * Logs the number of re-searches because the value was below the aspiration window. Value is printed at the end of the game.
+     */
+    public int numAspirationFailLow = 0;
+
+    /**
+     * Logs the number of re-searches because the value was above the aspiration window. Value is printed at the end of the game.
+     */
+    public int numAspirationFailHigh = 0;
+
+    /**
+     * Logs the number of moves for which the pondering had searched the right position. Value is printed at the end of the game.
+     */
+    public int numPonderHits = 0;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Starts a new time limit for the searches of this context. The timer of the previous time limit is cancelled.
+     * @param returnTime time in ms (System.nanoTime()/1_000_000) at which the search has to stop. Long.MAX_VALUE for no time limit
+     */
+    public synchronized void setDeadline(long returnTime){
+        Deadline previous = deadline;
+        deadline = new Deadline(returnTime);
+        previous.cancel();
+    }
+
+    /**
+     * @return true if the time of the current search is up
+     */
+    public boolean isExpired(){
+        return deadline.isExpired();
+    }
+
+    /**
+     * @return time in ms at which the current search has to stop. Long.MAX_VALUE for no time limit
+     */
+    public long getReturnTime(){
+        return deadline.getReturnTime();
+    }
+
+    /**
+     * @return the transposition table used by alpha-beta pruning, null if disabled
+     */
+    public TranspositionTable getTranspositionTable(){
+        return transpositionTable;
+    }
+
+    /**
+     * Sets the transposition table used by alpha-beta pruning.
+     * @param tt the table, null to disable it
+     */
+    public void setTranspositionTable(TranspositionTable tt){
+        transpositionTable = tt;
+    }
+
+    /**
+     * @return true if the search executes moves in place and takes them back
+     */
+    public boolean getMakeUnmake(){
+        return makeUnmake;
+    }
+
+    /**
+     * @param makeUnmake true if the search executes moves in place and takes them back instead of copying the PlayingField
+     */
+    public void setMakeUnmake(boolean makeUnmake){
+        this.makeUnmake = makeUnmake;
+    }
+
+    /**
+     * @return true if principal variation search is used
+     */
+    public boolean getPVS(){
+        return pvs;
+    }
+
+    /**
+     * @param pvs true if principal variation search is used instead of plain alpha-beta pruning
+     */
+    public void setPVS(boolean pvs){
+        this.pvs = pvs;
+    }
+
+    /**
+     * @return true if killer moves and the history table are used for move sorting
+     */
+    public boolean getHistory(){
+        return history;
+    }
+
+    /**
+     * @param history true if killer moves and the history table are used for move sorting
+     */
+    public void setHistory(boolean history){
+        this.history = history;
+    }
+
+    /**
+     * @return true if the principal variation and the root values of the previous iteration are searched first
+     */
+    public boolean getPVReuse(){
+        return pvReuse;
+    }
+
+    /**
+     * @param pvReuse true if the principal variation and the root values of the previous iteration are searched first
+     */
+    public void setPVReuse(boolean pvReuse){
+        this.pvReuse = pvReuse;
+    }
+
+    /**
+     * @return number of threads of the search
+     */
+    public int getThreads(){
+        return threads;
+    }
+
+    /**
+     * @param threads number of threads of the search. 1 searches sequentially
+     */
+    public void setThreads(int threads){
+        if(threads < 1) throw new IllegalArgumentException("[ERROR] a search needs at least one thread, not " + threads);
+        this.threads = threads;
+    }
+
+    /**
+     * @return true if the threads are used for a Lazy SMP search
+     */
+    public boolean getLazySMP(){
+        return lazySMP;
+    }
+
+    /**
+     * @param lazySMP true if the threads are used for a Lazy SMP search instead of the parallel root search
+     */
+    public void setLazySMP(boolean lazySMP){
+        this.lazySMP = lazySMP;
+    }
+
+    /**
+     * @return true if the root moves are searched in parallel, i.e., there are several threads that are not used for Lazy SMP
+     */
+    public boolean isParallelRoot(){
+        return threads > 1 && !lazySMP;
+    }
+
+    /**
+     * @return the pool for the parallel root search with as many threads as set in this context
+     */
+    synchronized ForkJoinPool getPool(){
+        if(pool == null || pool.getParallelism() != threads){
+            if(pool != null) pool.shutdown();
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    /**
+     * Shuts down the pool of the parallel root search. Called at the end of the game, the context can still search sequentially afterwards.
+     */
+    public synchronized void shutdown(){
+        if(pool != null) pool.shutdown();
+        pool = null;
+    }
+
+    /**
+     * @param topology the map that is searched
+     * @return killer moves and history table of the current thread in this context, with tables matching the given map
+     */
+    public MoveOrdering getOrdering(MapTopology topology){
+        MoveOrdering ordering = orderings.get();
+        ordering.fitMap(topology);
+        return ordering;
+    }
+
+    /**
+     * @return true if the search prints diagnostic output
+     */
+    public boolean isVerbose(){
+        return verbose;
+    }
+
+    /**
+     * @param verbose true if the search prints diagnostic output
+     */
+    public void setVerbose(boolean verbose){
+        this.verbose = verbose;
+    }
+
+    /**
+     * @return stream for the output of the search
+     */
+    public PrintStream getLog(){
+        return log;
+    }
+
+    /**
+     * @param log stream for the output of the search
+     */
+    public void setLog(PrintStream log){
+        this.log = log;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
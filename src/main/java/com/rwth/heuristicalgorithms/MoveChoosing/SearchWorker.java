@@ -0,0 +1,448 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.rwth.heuristicalgorithms.PlayingField.MapTopology;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.MoveList;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * State of a single search thread. Passed through the recursion of alpha-beta pruning, so it is never shared between threads.
+ * Worker 0 searches like the sequential search. Helper workers (id greater than 0) of the Lazy SMP search perturb the order of the root moves
+ * so that they explore different parts of the tree and fill the shared transposition table for the others.
+ */
+public class SearchWorker {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * The deadline is checked every POLL_INTERVAL nodes (a power of two). Move generation also checks it for every row of large maps.
+     */
+    private static final int POLL_INTERVAL = 256;
+
+    /**
+     * Number of the worker. 0 for the main search.
+     */
+    private final int id;
+
+    /**
+     * Settings, time limit and counters of the game this worker searches for. Shared with the other workers of the game.
+     */
+    private final SearchContext context;
+
+    /**
+     * Random numbers for the root move order of helper workers. Seeded with the id, so every helper uses a different but reproducible order.
+     */
+    private final Random random;
+
+    /**
+     * Set by another thread to abort the search of this worker. The search then throws a TimeoutException.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Number of nodes searched by this worker.
+     */
+    long nodes;
+
+    /**
+     * Number of nodes searched by this worker that were cut off.
+     */
+    long cutoffs;
+
+    /**
+     * Number of cutoffs caused by the first move that was searched in the node.
+     */
+    long firstMoveCutoffs;
+
+    /**
+     * Number of children that had to be searched again by principal variation search because the null window search failed high.
+     */
+    long researches;
+
+    /**
+     * Killer moves and history table of the thread executing this worker in its context. Fetched on first use.
+     */
+    private MoveOrdering ordering;
+
+    /**
+     * moveLists[depth] contains the moves of the node with this remaining depth that is searched at the moment.
+     * The recursion lowers the depth by one per node, so every node of the current line has its own list. Created on first use and reused.
+     */
+    private MoveList[] moveLists = new MoveList[0];
+
+    /**
+     * The map of the current iteration. Used to create the Move objects of the principal variation.
+     */
+    private MapTopology topology;
+
+    /**
+     * Triangular table of principal variations: pv[depth] contains the packed moves of the best line found for the last searched node
+     * with this remaining depth. A Move.NO_MOVE entry is a pass, i.e., the player to move has no possible move.
+     */
+    private int[][] pv = new int[0][];
+
+    /**
+     * Number of moves of the line in pv[depth].
+     */
+    private int[] pvLength = new int[0];
+
+    /**
+     * Remaining depth of the root of the current iteration.
+     */
+    private int rootDepth;
+
+    /**
+     * Principal variation of the last completed iteration. Its moves are searched first in the next iteration.
+     */
+    private int[] previousPV = new int[0];
+
+    /**
+     * Set before searching the move of the previous principal variation, so that the child node knows that it lies on it.
+     */
+    boolean followPV;
+
+    /**
+     * Packed root moves of the current iteration in the order they were generated, i.e., ascending (see Move).
+     */
+    private int[] rootMoves = new int[0];
+
+    /**
+     * Values of the root moves of the current iteration, in the order they were generated.
+     */
+    private int[] rootValues = new int[0];
+
+    /**
+     * Packed root moves of the last completed iteration in the order they were generated.
+     */
+    private int[] previousRootMoves = new int[0];
+
+    /**
+     * Values of the root moves of the last completed iteration, in the order they were generated.
+     */
+    private int[] previousRootValues = new int[0];
+
+    /**
+     * Best move of the deepest completed iteration.
+     */
+    private Move bestMove;
+
+    /**
+     * Deepest completed iteration.
+     */
+    private int completedDepth;
+
+    /**
+     * iterationNodes[d] is the number of nodes of the completed iteration with depth d. 0 if it was not completed.
+     */
+    private long[] iterationNodes = new long[0];
+
+    /**
+     * iterationTimes[d] is the time in ns of the completed iteration with depth d. 0 if it was not completed.
+     */
+    private long[] iterationTimes = new long[0];
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates a new worker with its own SearchContext, i.e., with the default settings and without a time limit.
+     * @param id number of the worker. 0 for the main search, greater than 0 for helpers
+     */
+    public SearchWorker(int id){
+        this(id, new SearchContext());
+    }
+
+    /**
+     * Creates a new worker.
+     * @param id number of the worker. 0 for the main search, greater than 0 for helpers
+     * @param context settings, time limit and counters of the game the worker searches for
+     */
+    public SearchWorker(int id, SearchContext context){
+        this.id = id;
+        this.context = context;
+        this.random = new Random(id);
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Shuffles all root moves except the first one (the best move so far) if this is a helper.
+     * @param moves the root moves in the order they are to be searched
+     */
+    void perturbRootMoves(MoveList moves){
+        if(id == 0) return;
+        for(int i = moves.size() - 1; i > 1; i--){
+            moves.swap(i, 1 + random.nextInt(i));
+        }
+    }
+
+    /**
+     * Returns the move list for a node. The list is only valid until the next node with the same remaining depth is searched.
+     * @param depth remaining depth of the node
+     * @return the emptied list
+     */
+    MoveList getMoveList(int depth){
+        if(depth >= moveLists.length){
+            moveLists = Arrays.copyOf(moveLists, Math.max(depth + 1, moveLists.length * 2));
+        }
+        if(moveLists[depth] == null) moveLists[depth] = new MoveList();
+        moveLists[depth].clear();
+        return moveLists[depth];
+    }
+
+    /**
+     * Starts a new iteration of the search from the root.
+     * @param pf the root position
+     * @param depth remaining depth of the root
+     * @param generated root moves in the order they were generated
+     */
+    void startIteration(PlayingField pf, int depth, MoveList generated){
+        topology = pf.getTopology();
+        rootDepth = depth;
+        followPV = false;
+        rootMoves = generated.toArray();
+        rootValues = new int[rootMoves.length];
+        //moves that are not searched because of a fail high of an aspiration window are sorted last
+        Arrays.fill(rootValues, Integer.MIN_VALUE);
+        clearPV(depth);
+    }
+
+    /**
+     * Sorts the root moves by their values in the last completed iteration, highest value first. Moves with the same value keep their order.
+     * Nothing happens if the last iteration generated other moves.
+     * @param moves the root moves of the current iteration (see startIteration), in any order. The scores of the list are overwritten
+     */
+    void sortRootMoves(MoveList moves){
+        if(!Arrays.equals(previousRootMoves, rootMoves)) return;
+        for(int i = 0; i < moves.size(); i++){
+            moves.setScore(i, previousRootValues[indexOf(moves.get(i))]);
+        }
+        moves.sortByScore();
+    }
+
+    /**
+     * @param move a packed root move of the current iteration
+     * @return its index in the order the root moves were generated
+     */
+    private int indexOf(int move){
+        //the root moves ascend in the generated order
+        int index = Arrays.binarySearch(rootMoves, move);
+        if(index < 0) throw new IllegalArgumentException("[ERROR] " + move + " is not a root move of the current iteration");
+        return index;
+    }
+
+    /**
+     * Records the value of a root move in the current iteration.
+     * @param move the packed root move
+     * @param value its value
+     */
+    void setRootValue(int move, int value){
+        rootValues[indexOf(move)] = value;
+    }
+
+    /**
+     * Stores the principal variation and the root values of the current iteration for the next one. Called when the iteration is completed.
+     */
+    void storeIteration(){
+        previousPV = Arrays.copyOf(pv[rootDepth], pvLength[rootDepth]);
+        previousRootMoves = rootMoves;
+        previousRootValues = rootValues;
+    }
+
+    /**
+     * Empties the principal variation of a node. Called when the search of a node starts.
+     * @param depth remaining depth of the node
+     */
+    void clearPV(int depth){
+        if(depth >= pv.length){
+            int length = Math.max(depth + 1, pv.length * 2);
+            pv = Arrays.copyOf(pv, length);
+            pvLength = Arrays.copyOf(pvLength, length);
+            for(int d = 0; d < length; d++){
+                if(pv[d] == null) pv[d] = new int[d];
+            }
+        }
+        pvLength[depth] = 0;
+    }
+
+    /**
+     * Sets the principal variation of a node to a move followed by the principal variation of the child that was searched last.
+     * @param depth remaining depth of the node, at least 1
+     * @param move the packed best move of the node so far, Move.NO_MOVE for a pass
+     */
+    void updatePV(int depth, int move){
+        int length = Math.min(pvLength[depth-1], depth - 1);
+        pv[depth][0] = move;
+        System.arraycopy(pv[depth-1], 0, pv[depth], 1, length);
+        pvLength[depth] = length + 1;
+    }
+
+    /**
+     * @param depth remaining depth of a node on the principal variation of the last iteration
+     * @return the packed move of the principal variation of the last iteration at this node, Move.NO_MOVE if there is none or it is a pass
+     */
+    int getPVMove(int depth){
+        int ply = rootDepth - depth;
+        return ply >= 0 && ply < previousPV.length ? previousPV[ply] : Move.NO_MOVE;
+    }
+
+    /**
+     * @return the principal variation of the last completed iteration, starting with the root move. Null entries are passes
+     */
+    public Move[] getPrincipalVariation(){
+        Move[] line = new Move[previousPV.length];
+        for(int i = 0; i < line.length; i++){
+            line[i] = Move.unpack(topology, previousPV[i]);
+        }
+        return line;
+    }
+
+    /**
+     * Records a completed iteration.
+     * @param move best move of the iteration
+     * @param depth depth of the iteration
+     * @param nodes number of nodes searched in the iteration
+     * @param time time of the iteration in ns
+     */
+    void completeIteration(Move move, int depth, long nodes, long time){
+        if(move != null && depth > completedDepth){
+            bestMove = move;
+            completedDepth = depth;
+            if(depth >= iterationNodes.length){
+                iterationNodes = Arrays.copyOf(iterationNodes, depth + 1);
+                iterationTimes = Arrays.copyOf(iterationTimes, depth + 1);
+            }
+            iterationNodes[depth] = nodes;
+            iterationTimes[depth] = time;
+        }
+    }
+
+    /**
+     * Aborts the search of this worker. Can be called from any thread.
+     */
+    public void stop(){
+        stopped = true;
+    }
+
+    /**
+     * Clears the stop flag, so that a stopped worker can continue searching the same position (see Pondering.takeResult).
+     */
+    void resume(){
+        stopped = false;
+    }
+
+    /**
+     * Checks if the search has to be aborted before the next node is searched.
+     * The deadline is only checked every POLL_INTERVAL nodes, a stop by another thread in every node.
+     * @return true if the worker was stopped or the time is up
+     */
+    boolean shouldStop(){
+        return stopped || ((nodes & (POLL_INTERVAL - 1)) == 0 && context.isExpired());
+    }
+
+    /**
+     * @return true if the search of this worker has been aborted
+     */
+    public boolean isStopped(){
+        return stopped;
+    }
+
+    /**
+     * @return number of the worker
+     */
+    public int getId(){
+        return id;
+    }
+
+    /**
+     * @param pf the searched position, determines the map of the tables
+     * @return killer moves and history table of the current thread in the context of this worker
+     */
+    MoveOrdering getOrdering(PlayingField pf){
+        if(ordering == null) ordering = context.getOrdering(pf.getTopology());
+        return ordering;
+    }
+
+    /**
+     * @return settings, time limit and counters of the game this worker searches for
+     */
+    public SearchContext getContext(){
+        return context;
+    }
+
+    /**
+     * @return number of nodes searched by this worker
+     */
+    public long getNodes(){
+        return nodes;
+    }
+
+    /**
+     * @return number of nodes searched by this worker that were cut off
+     */
+    public long getCutoffs(){
+        return cutoffs;
+    }
+
+    /**
+     * @return number of cutoffs caused by the first move searched in the node
+     */
+    public long getFirstMoveCutoffs(){
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * @return number of re-searches of principal variation search
+     */
+    public long getResearches(){
+        return researches;
+    }
+
+    /**
+     * @return best move of the deepest completed iteration, null if no iteration was completed
+     */
+    public Move getBestMove(){
+        return bestMove;
+    }
+
+    /**
+     * @return deepest completed iteration, 0 if no iteration was completed
+     */
+    public int getCompletedDepth(){
+        return completedDepth;
+    }
+
+    /**
+     * @param depth depth of an iteration
+     * @return number of nodes of the completed iteration with this depth. 0 if it was not completed
+     */
+    public long getIterationNodes(int depth){
+        return depth < iterationNodes.length ? iterationNodes[depth] : 0;
+    }
+
+    /**
+     * @param depth depth of an iteration
+     * @return time of the completed iteration with this depth in ns. 0 if it was not completed
+     */
+    public long getIterationTime(int depth){
+        return depth < iterationTimes.length ? iterationTimes[depth] : 0;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
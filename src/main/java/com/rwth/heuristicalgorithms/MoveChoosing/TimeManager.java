@@ -0,0 +1,249 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.rwth.heuristicalgorithms.Client.Client;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Decides how deep the iterative deepening search of a move goes.
+ * Every move has two deadlines: the search is aborted at the hard deadline (see Deadline), and no iteration is started after the soft deadline.
+ * Before the soft deadline, an iteration is only started if its predicted time fits before the hard deadline.
+ *
+ * The time of the next iteration is predicted from the time of the last one and the effective branching factor (EBF),
+ * i.e., the number of nodes of an iteration divided by the number of nodes of the iteration before.
+ * Alpha-beta pruning searches odd and even depths with different EBFs, so the ratio of the last two iterations of the same parity is used if possible.
+ * Otherwise the EBF is taken from the earlier moves of the same game phase (the elimination phase and ten ranges of PlayingField.getPercentageOccupied)
+ * and parity, then from the last two iterations. Without any measurement, the square root of the number of possible moves is used,
+ * the EBF of alpha-beta pruning with perfect move ordering.
+ */
+public class TimeManager {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Fraction of the time until the hard deadline after which no new iteration is started.
+     * An iteration that would start later would have to be at least this many times faster than all iterations before.
+     */
+    private static final double SOFT_FRACTION = 0.8;
+
+    /**
+     * Iterations with fewer nodes are too small for a meaningful EBF.
+     */
+    private static final long MIN_NODES = 64;
+
+    /**
+     * Number of game phases the EBF is learned for: ten for the building phase and one for the elimination phase.
+     */
+    private static final int PHASES = 11;
+
+    /**
+     * ebfLogSum[phase][getDepthClass(depth)] is the sum of the logarithms of the EBFs measured for iterations of a depth class in each game phase.
+     * The learned EBF is their geometric mean.
+     */
+    private final double[][] ebfLogSum = new double[PHASES][3];
+
+    /**
+     * Number of EBFs measured for each game phase and depth class.
+     */
+    private final int[][] ebfCount = new int[PHASES][3];
+
+    /**
+     * Game phase of the current move.
+     */
+    private int phase;
+
+    /**
+     * Number of possible moves in the current position.
+     */
+    private int moveCount;
+
+    /**
+     * Time in ms (System.nanoTime()/1_000_000) after which no new iteration is started. No limit before the first move.
+     */
+    private long softDeadline = Long.MAX_VALUE;
+
+    /**
+     * Time in ms at which the search is aborted. Also set as the deadline of the context. No limit before the first move.
+     */
+    private long hardDeadline = Long.MAX_VALUE;
+
+    /**
+     * Time in ns at which the current iteration was started.
+     */
+    private long iterationStart;
+
+    /**
+     * nodes[d] is the number of nodes of the iteration with depth d of the current move. 0 if it was not completed.
+     */
+    private final long[] nodes = new long[Client.maxDepth_TL + 1];
+
+    /**
+     * times[d] is the time in ns of the iteration with depth d of the current move. 0 if it was not completed.
+     */
+    private final long[] times = new long[Client.maxDepth_TL + 1];
+
+    /**
+     * The search whose deadline is set by startMove.
+     */
+    private final SearchContext context;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates a time manager.
+     * @param context the search whose deadline is set by startMove
+     */
+    public TimeManager(SearchContext context){
+        this.context = context;
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Prepares the search of a move: sets the deadlines and clears the iterations of the last move.
+     * The hard deadline keeps a buffer of 1% + 1000ms of the time limit.
+     * @param pf the PlayingField of the move
+     * @param player player whose move is searched
+     * @param timeLimit time limit of the move in ms
+     */
+    public void startMove(PlayingField pf, byte player, int timeLimit){
+        long start = System.nanoTime()/1_000_000;
+        hardDeadline = start + (long) (0.99*timeLimit) - 1000;
+        softDeadline = start + (long) (SOFT_FRACTION * (hardDeadline - start));
+        context.setDeadline(hardDeadline);
+
+        phase = pf.getIsEliminationPhase() ? PHASES - 1 : Math.min(PHASES - 2, (int) (pf.getPercentageOccupied() * (PHASES - 1)));
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, player);
+        moveCount = moves == null ? 0 : moves.size();
+        Arrays.fill(nodes, 0);
+        Arrays.fill(times, 0);
+    }
+
+    /**
+     * Decides if the next iteration is started and, if so, starts measuring its time.
+     * @param depth depth of the iteration
+     * @return true if the iteration should be searched
+     */
+    public boolean startIteration(int depth){
+        long now = System.nanoTime();
+        if(depth > 1){
+            if(now/1_000_000 >= softDeadline) return false;
+            if(now/1_000_000 + predictTime(depth)/1_000_000 >= hardDeadline) return false;
+        }
+        iterationStart = now;
+        return true;
+    }
+
+    /**
+     * Records a completed iteration and learns its EBF for the game phase of the move.
+     * @param depth depth of the iteration
+     * @param iterationNodes number of nodes searched in the iteration
+     */
+    public void completeIteration(int depth, long iterationNodes){
+        completeIteration(depth, iterationNodes, System.nanoTime() - iterationStart);
+    }
+
+    /**
+     * Records an iteration that was measured elsewhere, e.g., by the pondering (see SearchWorker.getIterationTime), and learns its EBF.
+     * Without it, the first iteration after a pondering hit could not be predicted.
+     * @param depth depth of the iteration
+     * @param iterationNodes number of nodes searched in the iteration
+     * @param time time of the iteration in ns
+     */
+    public void completeIteration(int depth, long iterationNodes, long time){
+        if(depth >= nodes.length) return;
+        nodes[depth] = iterationNodes;
+        times[depth] = time;
+        if(depth > 1 && nodes[depth-1] >= MIN_NODES){
+            ebfLogSum[phase][getDepthClass(depth)] += Math.log(Math.max(1.0, nodes[depth] / (double) nodes[depth-1]));
+            ebfCount[phase][getDepthClass(depth)]++;
+        }
+    }
+
+    /**
+     * Predicts the time of an iteration from the time of the iteration before and the EBF.
+     * @param depth depth of the iteration
+     * @return predicted time in ns. 0 if the iteration before was not completed in this move
+     */
+    public long predictTime(int depth){
+        if(depth < 2 || depth > nodes.length || times[depth-1] == 0) return 0;
+        return (long) (times[depth-1] * getBranchingFactor(depth));
+    }
+
+    /**
+     * @param depth depth of the iteration
+     * @return predicted EBF between the iterations with depth-1 and depth. At least 1
+     */
+    public double getBranchingFactor(int depth){
+        if(depth >= 5 && nodes[depth-3] >= MIN_NODES && nodes[depth-2] > 0){
+            //same parity as depth-1 to depth
+            return Math.max(1.0, nodes[depth-2] / (double) nodes[depth-3]);
+        }
+        int depthClass = getDepthClass(depth);
+        if(ebfCount[phase][depthClass] > 0){
+            return Math.exp(ebfLogSum[phase][depthClass] / ebfCount[phase][depthClass]);
+        }
+        if(depth >= 3 && nodes[depth-2] >= MIN_NODES && nodes[depth-1] > 0){
+            return Math.max(1.0, nodes[depth-1] / (double) nodes[depth-2]);
+        }
+        return Math.max(1.0, Math.sqrt(moveCount));
+    }
+
+    /**
+     * The first iteration only consists of the root and its children, so the EBF of depth 2 differs from the other even depths.
+     * @param depth depth of an iteration, at least 2
+     * @return 0 for depth 2, 1 for odd and 2 for larger even depths
+     */
+    private static int getDepthClass(int depth){
+        if(depth <= 2) return 0;
+        return depth % 2 == 1 ? 1 : 2;
+    }
+
+    /**
+     * @param depth depth of the iteration
+     * @return time of a completed iteration of the current move in ms
+     */
+    public long getIterationTime(int depth){
+        return depth < times.length ? times[depth] / 1_000_000 : 0;
+    }
+
+    /**
+     * @return the search whose deadline is set by startMove
+     */
+    public SearchContext getContext(){
+        return context;
+    }
+
+    /**
+     * @return time in ms (System.nanoTime()/1_000_000) after which no new iteration is started
+     */
+    public long getSoftDeadline(){
+        return softDeadline;
+    }
+
+    /**
+     * @return time in ms at which the search is aborted
+     */
+    public long getHardDeadline(){
+        return hardDeadline;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -3,6 +3,12 @@ package com.rwth.heuristicalgorithms.MoveChoosing;
  * Exception used for signalling and imminent timeout. Offers no Functionality
  */
 public class TimeoutException extends Exception {
+    /**
+     * Shared instance thrown by the search. It has no stack trace, so throwing it from a deep recursion costs nothing,
+     * and it is immutable, so all threads can throw it.
+     */
+    public static final TimeoutException INSTANCE = new TimeoutException(null, null, false, false);
+
     /**
      * standard constructor. Offers no custom Functionality
      */
@@ -34,5 +40,16 @@ public class TimeoutException extends Exception {
     public TimeoutException(String message,Throwable cause){
         super(message, cause);
     }
+
+    /**
+     * standard constructor. Offers no custom Functionality
+     * @param message passed to super
+     * @param cause passed to super
+     * @param enableSuppression passed to super
+     * @param writableStackTrace passed to super
+     */
+    protected TimeoutException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace){
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
     
 }
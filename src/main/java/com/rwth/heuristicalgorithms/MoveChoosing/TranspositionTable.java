@@ -0,0 +1,286 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size transposition table for the alpha-beta search.
+ * Entries are stored in two primitive arrays (keys and packed data). Each bucket consists of two entries:
+ * the first one is depth-preferred (only replaced by deeper searches or entries of older searches), the second one is always replaced.
+ *
+ * A data word contains (from the least significant bit): score (32 bits), depth (8 bits), bound (2 bits), best move index (16 bits) and generation (6 bits).
+ *
+ * The table is shared by all search threads without locks. An entry is stored as (key XOR data, data), so an entry that was torn by
+ * concurrent writes does not match its key anymore and is ignored by probe. Lost updates are harmless, they only cost a re-search.
+ */
+public class TranspositionTable {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Bound type: the score is the exact value.
+     */
+    public static final int EXACT = 0;
+
+    /**
+     * Bound type: the exact value is at most the score (the search failed low).
+     */
+    public static final int UPPER = 1;
+
+    /**
+     * Bound type: the exact value is at least the score (the search failed high).
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * Returned by getBestMoveIndex if no best move is known.
+     */
+    public static final int NO_MOVE = 0xFFFF;
+
+    /**
+     * Bytes per entry (key + data).
+     */
+    private static final int ENTRY_SIZE = 16;
+
+    /**
+     * Keys for the root player and the player whose turn it is. PLAYER_KEYS[player*9 + currentPlayer].
+     * The paranoid evaluation depends on both, so they are part of the key.
+     */
+    private static final long[] PLAYER_KEYS = new long[9*9];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x7AB1E);
+        for(int i = 0; i < PLAYER_KEYS.length; i++){
+            PLAYER_KEYS[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Keys of the entries XOR their data. Entry 2*i is the depth-preferred entry of bucket i, entry 2*i+1 the always-replace entry.
+     */
+    private final long[] keys;
+
+    /**
+     * Packed data of the entries (see class description).
+     */
+    private final long[] data;
+
+    /**
+     * Number of buckets - 1. The number of buckets is a power of 2.
+     */
+    private final int bucketMask;
+
+    /**
+     * Generation of the current search (1-63). Entries of older generations are replaced first.
+     * Never 0, so that a stored data word is never 0 (0 marks empty entries).
+     * Only changed between searches, before the search threads are started.
+     */
+    private int generation = 1;
+
+    /**
+     * Number of lookups since the last resetStatistics.
+     */
+    private final LongAdder probes = new LongAdder();
+
+    /**
+     * Number of lookups that found an entry since the last resetStatistics.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of lookups whose entry could be used instead of searching since the last resetStatistics.
+     */
+    private final LongAdder cutoffs = new LongAdder();
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates an empty transposition table.
+     * @param sizeMB size of the table in megabytes. Rounded down to a power of 2 number of buckets.
+     */
+    public TranspositionTable(int sizeMB){
+        long buckets = Math.max(1, ((long)sizeMB << 20) / (2 * ENTRY_SIZE));
+        int bucketCount = Integer.highestOneBit((int)Math.min(buckets, 1 << 29));
+        keys = new long[2 * bucketCount];
+        data = new long[2 * bucketCount];
+        bucketMask = bucketCount - 1;
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Computes the key of a search node.
+     * @param hash the hash of the PlayingField. Includes the disqualified players, so entries of earlier moves stay valid after a disqualification
+     * @param player the player the search is done for
+     * @param currentPlayer the player whose turn it is
+     * @return the key
+     */
+    public static long key(long hash, byte player, byte currentPlayer){
+        return hash ^ PLAYER_KEYS[player*9 + currentPlayer];
+    }
+
+    /**
+     * Looks up a key.
+     * @param key the key (see key)
+     * @return the data word of the entry, 0 if there is none. Use the static getters to decode it.
+     */
+    public long probe(long key){
+        probes.increment();
+        int index = bucketIndex(key);
+        for(int i = index; i < index + 2; i++){
+            //read data once, another thread may overwrite the entry in between
+            long entry = data[i];
+            if(entry != 0 && (keys[i] ^ entry) == key){
+                hits.increment();
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Counts a lookup whose entry was used instead of searching. Only needed for the statistics.
+     */
+    public void countCutoff(){
+        cutoffs.increment();
+    }
+
+    /**
+     * Stores a search result.
+     * @param key the key (see key)
+     * @param depth remaining depth of the search
+     * @param bound EXACT, UPPER or LOWER
+     * @param score the value returned by the search
+     * @param bestMoveIndex index of the best move in the move list as generated by Minimax.getAllPossibleMoves, NO_MOVE if unknown
+     */
+    public void store(long key, int depth, int bound, int score, int bestMoveIndex){
+        int index = bucketIndex(key);
+        long entry = (score & 0xFFFFFFFFL) | (long)(Math.min(depth, 255) & 0xFF) << 32 | (long)(bound & 0x3) << 40
+            | (long)(bestMoveIndex & 0xFFFF) << 42 | (long)generation << 58;
+
+        //the depth-preferred entry is replaced by deeper (or equally deep) searches, by the same position and by entries of newer searches
+        long old = data[index];
+        if(old == 0 || (keys[index] ^ old) == key || getGeneration(old) != generation || depth >= getDepth(old)){
+            keys[index] = key ^ entry;
+            data[index] = entry;
+        } else {
+            keys[index + 1] = key ^ entry;
+            data[index + 1] = entry;
+        }
+    }
+
+    /**
+     * Starts a new search. Entries of older searches will be replaced first.
+     */
+    public void newSearch(){
+        generation = generation % 63 + 1;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear(){
+        java.util.Arrays.fill(keys, 0);
+        java.util.Arrays.fill(data, 0);
+    }
+
+    /**
+     * Resets the hit statistics.
+     */
+    public void resetStatistics(){
+        probes.reset();
+        hits.reset();
+        cutoffs.reset();
+    }
+
+    /**
+     * @return a readable summary of the hit statistics since the last resetStatistics
+     */
+    public String getStatistics(){
+        long probes = this.probes.sum();
+        long hits = this.hits.sum();
+        long cutoffs = this.cutoffs.sum();
+        double hitRate = probes == 0 ? 0 : 100.0 * hits / probes;
+        double cutoffRate = probes == 0 ? 0 : 100.0 * cutoffs / probes;
+        return String.format("Transposition table: %d probes, %d hits (%.1f%%), %d cutoffs (%.1f%%)", probes, hits, hitRate, cutoffs, cutoffRate);
+    }
+
+    /**
+     * @return number of lookups since the last resetStatistics
+     */
+    public long getProbes(){
+        return probes.sum();
+    }
+
+    /**
+     * @return number of lookups that found an entry since the last resetStatistics
+     */
+    public long getHits(){
+        return hits.sum();
+    }
+
+    /**
+     * @param key the key
+     * @return the index of the depth-preferred entry of the bucket for this key
+     */
+    private int bucketIndex(long key){
+        //the low bits are used for the bucket, so mix in the high bits
+        return (int)((key ^ (key >>> 32)) & bucketMask) << 1;
+    }
+
+    /**
+     * @param entry data word
+     * @return the score
+     */
+    public static int getScore(long entry){
+        return (int)entry;
+    }
+
+    /**
+     * @param entry data word
+     * @return the remaining depth of the search that stored the entry
+     */
+    public static int getDepth(long entry){
+        return (int)(entry >>> 32) & 0xFF;
+    }
+
+    /**
+     * @param entry data word
+     * @return EXACT, UPPER or LOWER
+     */
+    public static int getBound(long entry){
+        return (int)(entry >>> 40) & 0x3;
+    }
+
+    /**
+     * @param entry data word
+     * @return index of the best move in the generated move list, NO_MOVE if unknown
+     */
+    public static int getBestMoveIndex(long entry){
+        return (int)(entry >>> 42) & 0xFFFF;
+    }
+
+    /**
+     * @param entry data word
+     * @return the generation of the search that stored the entry
+     */
+    private static int getGeneration(long entry){
+        return (int)(entry >>> 58) & 0x3F;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
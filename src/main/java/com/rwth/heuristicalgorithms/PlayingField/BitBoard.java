@@ -0,0 +1,333 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard representation of the map. Mirrors the nibble map of a PlayingField and is used for fast move generation.
+ * There is one occupancy set for every 4-bit tile encoding (see PlayingField.map), i.e., one set per stone (1-8)
+ * plus sets for empty tiles, holes, expansion, bonus, choice and inversion tiles.
+ * The sets store the physical stones on the board. The player using a stone is resolved by the PlayingField.
+ *
+ * Tile (y,x) is stored at bit index y*stride + x. Each row has one additional guard column (x = mapWidth) that is never set.
+ * This way, a shift in any of the 8 directions can never wrap around into the next row.
+ *
+ * Directional shifts only follow default transitions. Special transitions are patched in as exception edges:
+ * if a ray runs through enclosable stones up to a tile with a special transition, this direction is checked with
+ * PlayingField.isEnclosingInDirection instead.
+ */
+public class BitBoard {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Number of different tile encodings (see PlayingField.map).
+     */
+    private static final int NUM_SETS = 14;
+
+    /**
+     * Bit index delta for one step in direction k. Directions are ordered as in PlayingField.TRANSITIONS.
+     */
+    private static final int[] STEP_Y = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    /**
+     * See STEP_Y
+     */
+    private static final int[] STEP_X = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    /**
+     * Number of bits per row (mapWidth + 1 guard column).
+     * The layout (stride, words, shifts, fillSteps and specialTransitions) depends only on the map and is shared by all copies.
+     */
+    private final int stride;
+
+    /**
+     * Number of longs per set.
+     */
+    private final int words;
+
+    /**
+     * Bit index delta for one step in each of the 8 directions.
+     */
+    private final int[] shifts;
+
+    /**
+     * Number of doubling steps needed by the Kogge-Stone fill to cover the longest possible ray.
+     */
+    private final int fillSteps;
+
+    /**
+     * specialTransitions[k] contains all tiles whose transition in direction k is not the one a shift would produce.
+     * Null if there is no such tile for direction k.
+     */
+    private final long[][] specialTransitions;
+
+    /**
+     * sets[i] contains all tiles with the 4-bit encoding i.
+     */
+    private final long[][] sets;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates a bitboard mirroring the given PlayingField and computes the layout for its map.
+     * @param pf the PlayingField to mirror
+     */
+    BitBoard(PlayingField pf){
+        MapTopology topology = pf.getTopology();
+        byte mapHeight = topology.getMapHeight();
+        byte mapWidth = topology.getMapWidth();
+        stride = mapWidth + 1;
+        words = (mapHeight * stride + 63) >>> 6;
+        shifts = new int[8];
+        for(int k = 0; k < 8; k++){
+            shifts[k] = STEP_Y[k] * stride + STEP_X[k];
+        }
+        int steps = 0;
+        while((1 << steps) < Math.max(mapHeight, mapWidth)) steps++;
+        fillSteps = steps;
+
+        //find all (tile, direction) pairs that do not follow the default transition
+        specialTransitions = new long[8][];
+        for(byte y = 0; y < mapHeight; y++){
+            for(byte x = 0; x < mapWidth; x++){
+                for(byte k = 0; k < 8; k++){
+                    if(!isDefaultTransition(topology, y, x, k)){
+                        if(specialTransitions[k] == null) specialTransitions[k] = new long[words];
+                        int index = y*stride + x;
+                        specialTransitions[k][index >>> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+
+        sets = new long[NUM_SETS][words];
+        for(byte y = 0; y < mapHeight; y++){
+            for(byte x = 0; x < mapWidth; x++){
+                int index = y*stride + x;
+                sets[pf.getTileCode(y, x)][index >>> 6] |= 1L << index;
+            }
+        }
+    }
+
+    /**
+     * Constructor for copying a bitboard
+     * @param other bitboard to copy
+     */
+    private BitBoard(BitBoard other){
+        stride = other.stride;
+        words = other.words;
+        shifts = other.shifts;
+        fillSteps = other.fillSteps;
+        specialTransitions = other.specialTransitions;
+        sets = new long[NUM_SETS][];
+        for(int i = 0; i < NUM_SETS; i++){
+            sets[i] = Arrays.copyOf(other.sets[i], words);
+        }
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Checks whether the transition of (y,x) in direction k is the one a straight shift would produce.
+     * @param topology the map
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @param k direction
+     * @return true iff the transition leads to the adjacent tile (or nowhere if there is none)
+     */
+    private static boolean isDefaultTransition(MapTopology topology, byte y, byte x, byte k){
+        byte[] transition = topology.getTransition(y, x, k);
+        int ny = y + STEP_Y[k];
+        int nx = x + STEP_X[k];
+        if(transition[0] == -1){
+            //no transition. A shift will never leave the map or enter a hole, so this is fine.
+            return true;
+        }
+        return transition[0] == ny && transition[1] == nx && transition[2] == k;
+    }
+
+    /**
+     * copies this bitboard
+     * @return the copied bitboard
+     */
+    BitBoard copy(){
+        return new BitBoard(this);
+    }
+
+    /**
+     * Updates the bitboard when a tile changes. Called by PlayingField.setMapTile.
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @param oldCode 4-bit encoding the tile had before
+     * @param newCode 4-bit encoding the tile has now
+     */
+    void setTile(byte y, byte x, int oldCode, int newCode){
+        int index = y*stride + x;
+        long bit = 1L << index;
+        sets[oldCode][index >>> 6] &= ~bit;
+        sets[newCode][index >>> 6] |= bit;
+    }
+
+    /**
+     * @param code 4-bit encoding (see PlayingField.map)
+     * @return the set of all tiles with that encoding. Must not be modified.
+     */
+    public long[] getSet(int code){
+        return sets[code];
+    }
+
+    /**
+     * Computes all tiles that are a legal building phase move for the given player.
+     * Empty tiles (including bonus, choice and inversion) are returned iff they enclose at least one stone.
+     * If override moves are allowed, occupied tiles are returned iff they enclose at least one stone and expansion stones are always returned.
+     * @param pf the PlayingField this bitboard belongs to
+     * @param player the player to compute the moves for
+     * @param overrideAvailable whether occupied tiles should be considered
+     * @return the set of legal tiles
+     */
+    public long[] getMoveCandidates(PlayingField pf, byte player, boolean overrideAvailable){
+        byte stone = pf.getStone(player);
+        long[] own = sets[stone];
+        long[] opp = new long[words];
+        long[] targets = new long[words];
+        for(int w = 0; w < words; w++){
+            for(int s = 1; s <= 8; s++){
+                if(s != stone) opp[w] |= sets[s][w];
+            }
+            opp[w] |= sets[12][w];
+            targets[w] = sets[0][w] | sets[9][w] | sets[10][w] | sets[11][w];
+            if(overrideAvailable) targets[w] |= opp[w] | own[w];
+        }
+
+        long[] captures = new long[words];
+        long[][] exceptions = new long[8][];
+        long[] fill = new long[words];
+        long[] shifted = new long[words];
+        long[] shifted2 = new long[words];
+        for(int k = 0; k < 8; k++){
+            //tiles one step behind a chain of enclosable stones that ends in one of our stones enclose that chain in direction k
+            int delta = -shifts[k];
+            occludedFill(own, opp, delta, fill, shifted);
+            for(int w = 0; w < words; w++) fill[w] &= opp[w];
+            shift(fill, delta, shifted);
+
+            if(specialTransitions[k] != null){
+                //tiles whose ray in direction k reaches a special transition can not be handled by shifts
+                long[] exception = new long[words];
+                for(int w = 0; w < words; w++) exception[w] = specialTransitions[k][w] & opp[w];
+                occludedFill(exception, opp, delta, fill, shifted2);
+                for(int w = 0; w < words; w++) fill[w] &= opp[w];
+                shift(fill, delta, exception);
+                for(int w = 0; w < words; w++){
+                    exception[w] |= specialTransitions[k][w];
+                    shifted[w] &= ~exception[w];
+                }
+                exceptions[k] = exception;
+            }
+            for(int w = 0; w < words; w++) captures[w] |= shifted[w];
+        }
+
+        //check the exception edges for all tiles that are not already known to be legal
+        for(int k = 0; k < 8; k++){
+            if(exceptions[k] == null) continue;
+            for(int w = 0; w < words; w++){
+                long bits = exceptions[k][w] & targets[w] & ~captures[w];
+                while(bits != 0){
+                    int index = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    long bit = bits & -bits;
+                    bits &= bits - 1;
+                    if(pf.isEnclosingInDirection(getY(index), getX(index), player, (byte)k)){
+                        captures[w] |= bit;
+                    }
+                }
+            }
+        }
+
+        for(int w = 0; w < words; w++){
+            captures[w] &= targets[w];
+            if(overrideAvailable) captures[w] |= sets[12][w];
+        }
+        return captures;
+    }
+
+    /**
+     * Kogge-Stone occluded fill. Computes all tiles that are reachable from a generator tile by moving in one direction through propagator tiles.
+     * @param generator the tiles to start from
+     * @param propagator the tiles that can be passed
+     * @param delta bit index delta for one step
+     * @param result the generators and all reachable propagators
+     * @param scratch buffer of the same size
+     */
+    private void occludedFill(long[] generator, long[] propagator, int delta, long[] result, long[] scratch){
+        long[] prop = propagator.clone();
+        System.arraycopy(generator, 0, result, 0, words);
+        for(int step = 0; step < fillSteps; step++){
+            int distance = delta << step;
+            shift(result, distance, scratch);
+            for(int w = 0; w < words; w++) result[w] |= prop[w] & scratch[w];
+            shift(prop, distance, scratch);
+            for(int w = 0; w < words; w++) prop[w] &= scratch[w];
+        }
+    }
+
+    /**
+     * Shifts all bits of src by distance bit indices and writes the result to dst. Bits shifted out are lost.
+     * @param src the bits to shift
+     * @param distance positive values move bits towards higher indices
+     * @param dst the result. Must not be src.
+     */
+    private static void shift(long[] src, int distance, long[] dst){
+        int n = src.length;
+        if(distance >= 0){
+            int wordShift = distance >>> 6;
+            int bitShift = distance & 63;
+            for(int w = n-1; w >= 0; w--){
+                int from = w - wordShift;
+                long value = from >= 0 ? src[from] << bitShift : 0;
+                if(bitShift != 0 && from - 1 >= 0) value |= src[from - 1] >>> (64 - bitShift);
+                dst[w] = value;
+            }
+        } else {
+            int wordShift = (-distance) >>> 6;
+            int bitShift = (-distance) & 63;
+            for(int w = 0; w < n; w++){
+                int from = w + wordShift;
+                long value = from < n ? src[from] >>> bitShift : 0;
+                if(bitShift != 0 && from + 1 < n) value |= src[from + 1] << (64 - bitShift);
+                dst[w] = value;
+            }
+        }
+    }
+
+    /**
+     * @param index bit index
+     * @return y coordinate of the tile at the given index
+     */
+    public byte getY(int index){
+        return (byte)(index / stride);
+    }
+
+    /**
+     * @param index bit index
+     * @return x coordinate of the tile at the given index
+     */
+    public byte getX(int index){
+        return (byte)(index % stride);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
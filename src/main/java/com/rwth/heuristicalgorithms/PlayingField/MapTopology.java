@@ -0,0 +1,422 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything about a map that does not change during a game: the number of players, the bomb radius, the dimensions,
+ * the transitions and the tables derived from them (neighbours, tile types, cached bomb blasts and Zobrist keys).
+ * Created once by PlayingField.readMap and shared by the PlayingField and all of its copies.
+ * Immutable after construction, so any number of games and search threads can use their maps in the same JVM without synchronization.
+ */
+public final class MapTopology {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Stores the amount of players. Values between 2 and 8.
+     */
+    final int playerCount;
+
+    /**
+     * Radius of the bombs.
+     */
+    final short bombRadius;
+
+    /**
+     * Width (x-axis) of the map. Value between 1 and 50.
+     */
+    final byte mapWidth;
+
+    /**
+     * Height (y-axis) of the map. Value between 1 and 50.
+     */
+    final byte mapHeight;
+
+    /**
+     * Total number of tiles that can be occupied (i.e., all tiles except the holes of the original map)
+     */
+    final int numberOccupiableTiles;
+
+    /**
+     *  Contains the neighboring tiles for each tile.
+     *  Dimensions are [mapHeight][mapWidth][8][3]. transitions[2][3] contains the 8 [y,x,r] pairs of the tiles neighboring the tile with y = 2, x = 3.
+     *  See courseRules document for ordering of the neighbours.
+     *  The r bit in the [y,x,r] pair describes the direction since there may be a direction change involved when using a special transition.
+     *  For default transitions, transitions[_][_][k] will always = [_,_,k].
+     *  Special transitions are already considered here.
+     */
+    final byte[][][][] transitions;
+
+    /**
+     * Flat copy of transitions for the hot paths (getEnclosedStones, isEnclosingInDirection, changeFrontierStones).
+     * neighbours[getTileIndex(y,x) * 8 + k] yields getTileIndex(ny,nx) * 8 + r of the neighbour (ny,nx) in direction k,
+     * where r is the direction after the transition. The value thus directly is the index of the next step in direction r.
+     * Holes and map boundaries are marked with -1. Special transitions are already considered here.
+     * A single int array is far smaller than the 4-dimensional byte array and is read sequentially instead of through 3 references per step.
+     */
+    final int[] neighbours;
+
+    /**
+     * indexY[i] and indexX[i] yield the coordinates of the tile with the packed index i (see getTileIndex), so that no division is needed.
+     */
+    final byte[] indexY;
+
+    /**
+     * See indexY
+     */
+    final byte[] indexX;
+
+    /**
+     * bombBlasts[i] contains the packed indices (see getTileIndex) of all tiles hit by a bomb on the tile with the packed index i,
+     * in breadth-first order (the bombed tile first). Computed for the holes of the original map, null for holes.
+     * A cached blast is only used if none of its tiles has become a hole since (see PlayingField.getBombBlast).
+     * Null if the blasts of all tiles would contain more than MAX_CACHED_BLAST_TILES tiles.
+     */
+    final int[][] bombBlasts;
+
+    /**
+     * Upper bound for the total number of tiles in bombBlasts (16 MB). Only huge bomb radii on large maps exceed it.
+     */
+    private static final int MAX_CACHED_BLAST_TILES = 1 << 22;
+
+    /**
+     * Stores the type of each tile. Dimensions are [mapHeight][mapWidth].
+     * Holes are listed as default tiles.
+     * Corner tiles have a maximum of 3 neighbours.
+     * Edge tiles have a maximum of 5 neighbours.
+     * All other tiles are default tiles.
+     */
+    final TileType[][] tileType;
+
+    /**
+     * Zobrist keys for the tiles of this map (see Zobrist.tileKey).
+     */
+    final long[] tileKeys;
+
+    /**
+     * Per-thread distances for the breadth-first search of computeBombBlast. -1 for tiles that have not been reached.
+     * Every search resets the entries it has written, so the buffer never has to be cleared.
+     */
+    private static final ThreadLocal<int[]> BLAST_DISTANCE = ThreadLocal.withInitial(() -> new int[0]);
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates the topology of a map. This is called in the readMap function.
+     * @param playerCount number of players
+     * @param bombRadius radius of the bombs
+     * @param mapHeight height of the map
+     * @param mapWidth width of the map
+     * @param map the tiles of the original map in the 4-bit encoding of PlayingField.map. Only the holes are used
+     * @param specialTransitions the special transitions as {x1, y1, r1, x2, y2, r2}
+     */
+    MapTopology(int playerCount, short bombRadius, byte mapHeight, byte mapWidth, byte[][] map, List<byte[]> specialTransitions){
+        this.playerCount = playerCount;
+        this.bombRadius = bombRadius;
+        this.mapHeight = mapHeight;
+        this.mapWidth = mapWidth;
+
+        //create default transitions and insert -1,-1 pairs where there is no transition
+        this.transitions = generateTransitionMap(map, mapHeight, mapWidth);
+        for(byte[] t : specialTransitions){
+            byte x1 = t[0], y1 = t[1], r1 = t[2], x2 = t[3], y2 = t[4], r2 = t[5];
+            transitions[y1][x1][r1][0] = y2;
+            transitions[y1][x1][r1][1] = x2;
+            transitions[y1][x1][r1][2] = (byte)((r2+4) % 8);
+            transitions[y2][x2][r2][0] = y1;
+            transitions[y2][x2][r2][1] = x1;
+            transitions[y2][x2][r2][2] = (byte)((r1+4) % 8);
+        }
+
+        //flat neighbour table
+        int tiles = mapHeight * mapWidth;
+        this.neighbours = new int[tiles * 8];
+        this.indexY = new byte[tiles];
+        this.indexX = new byte[tiles];
+        this.tileType = new TileType[mapHeight][mapWidth];
+        int occupiable = 0;
+        for(byte y = 0; y < mapHeight; y++){
+            for(byte x = 0; x < mapWidth; x++){
+                int index = y * mapWidth + x;
+                indexY[index] = y;
+                indexX[index] = x;
+                for(int k = 0; k < 8; k++){
+                    byte[] t = transitions[y][x][k];
+                    neighbours[index * 8 + k] = t[0] == -1 ? -1 : (t[0] * mapWidth + t[1]) * 8 + t[2];
+                }
+                tileType[y][x] = computeTileType(y, x);
+                if(getTileCode(map, index) != 13) occupiable++;
+            }
+        }
+        this.numberOccupiableTiles = occupiable;
+        this.bombBlasts = generateBombBlasts(map);
+        this.tileKeys = Zobrist.createTileKeys(mapHeight, mapWidth);
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Creates the default transitions for every tile.
+     * Default transistions mean all transitions except special transitions.
+     * @param map the tiles of the map
+     * @param mapHeight height of the map
+     * @param mapWidth width of the map
+     * @return the transitions, {-1, -1, -1} where there is a hole or the map boundary
+     */
+    private static byte[][][][] generateTransitionMap(byte[][] map, byte mapHeight, byte mapWidth){
+        byte[][][][] transitions = new byte[mapHeight][mapWidth][8][3];
+        for(int i = 0; i < mapHeight; i++){
+            for(int j = 0; j < mapWidth; j++){
+                for(int k = 0; k < 8; k++){
+                    Arrays.fill(transitions[i][j][k], (byte)-1);
+                }
+            }
+        }
+
+        int[][] neighborOffsets = {
+            {-1, 0}, {-1, 1}, {0, 1}, {1, 1},
+            {1, 0}, {1, -1}, {0, -1}, {-1, -1}
+        };
+
+        // Include default transitions for all neighboring tiles.
+        for(int y = 0; y < mapHeight; y++){
+            for(int x = 0; x < mapWidth; x++){
+                // Neighbors are indexed as follows:
+                // 0: North, 1: Northeast, 2: East, 3: Southeast,
+                // 4: South, 5: Southwest, 6: West, 7: Northwest
+                for(int n = 0; n < 8; n++){
+                    int ny = y + neighborOffsets[n][0];
+                    int nx = x + neighborOffsets[n][1];
+
+                    // Check if there is a tile (= no hole) within the map bounds at the neighbor position.
+                    if(nx >= 0 && nx < mapWidth && ny >= 0 && ny < mapHeight && getTileCode(map, ny, nx) != 13){
+                        transitions[y][x][n][0] = (byte) ny;
+                        transitions[y][x][n][1] = (byte) nx;
+                        transitions[y][x][n][2] = (byte) n;
+                    }
+                }
+            }
+        }
+        return transitions;
+    }
+
+    /**
+     * Computes the type of a tile from its transitions.
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @return the type of a tile (see tileType)
+     */
+    private TileType computeTileType(byte y, byte x){
+        int numberOfNeighbours = 8;
+
+        //count number of neighbours
+        for(int k = 0; k < 8; k++){
+            byte[] neighbour = transitions[y][x][k];
+            if(neighbour[0] == -1 && neighbour[1] == -1){
+                //hole
+                numberOfNeighbours--;
+            }
+        }
+
+        return switch(numberOfNeighbours){
+            case 0 -> TileType.DEFAULT;
+            case 1,2,3 -> TileType.CORNER;
+            case 4,5 -> TileType.EDGE;
+            default -> TileType.DEFAULT;
+        };
+    }
+
+    /**
+     * Computes the blasts of all tiles of the original map. Needs the neighbour table.
+     * @param map the tiles of the original map
+     * @return the blasts (see bombBlasts). Null if they are too large to be cached
+     */
+    private int[][] generateBombBlasts(byte[][] map){
+        int tiles = mapHeight * mapWidth;
+        int[] queue = new int[tiles];
+        int[][] blasts = new int[tiles][];
+        long total = 0;
+        for(int i = 0; i < tiles; i++){
+            //holes can not be bombed
+            if(getTileCode(map, i) == 13) continue;
+            int count = computeBombBlast(map, i, queue);
+            total += count;
+            //every bomb will compute its blast instead
+            if(total > MAX_CACHED_BLAST_TILES) return null;
+            blasts[i] = Arrays.copyOf(queue, count);
+        }
+        return blasts;
+    }
+
+    /**
+     * Computes the tiles that are hit by a bomb with a breadth-first search over the given map (see PlayingField.getBombBlast).
+     * Every tile is visited at most once.
+     * @param map the tiles of the map the bomb is thrown on
+     * @param start packed index of the bombed tile
+     * @param queue receives the packed indices of the hit tiles in breadth-first order. Needs a size of at least mapHeight * mapWidth
+     * @return the number of hit tiles
+     */
+    int computeBombBlast(byte[][] map, int start, int[] queue){
+        int[] distance = BLAST_DISTANCE.get();
+        if(distance.length < mapHeight * mapWidth){
+            distance = new int[mapHeight * mapWidth];
+            Arrays.fill(distance, -1);
+            BLAST_DISTANCE.set(distance);
+        }
+        int count = 0;
+        queue[count++] = start;
+        distance[start] = 0;
+        for(int head = 0; head < count; head++){
+            int cur = queue[head];
+            if(distance[cur] >= bombRadius) continue;
+            for(int k = 0; k < 8; k++){
+                int neighbour = neighbours[cur * 8 + k];
+                if(neighbour < 0) continue;
+                neighbour >>= 3;
+                if(distance[neighbour] >= 0 || getTileCode(map, neighbour) == 13) continue;
+                distance[neighbour] = distance[cur] + 1;
+                queue[count++] = neighbour;
+            }
+        }
+        //reset the distances for the next search
+        for(int i = 0; i < count; i++){
+            distance[queue[i]] = -1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the 4-bit encoding of a tile of a nibble map (see PlayingField.map).
+     * @param map the tiles
+     * @param y coordinate
+     * @param x coordinate
+     * @return value between 0 and 13
+     */
+    static int getTileCode(byte[][] map, int y, int x){
+        return (x & 1) == 0 ? (map[y][x >> 1] >> 4) & 0x0F : map[y][x >> 1] & 0x0F;
+    }
+
+    /**
+     * Returns the 4-bit encoding of a tile of a nibble map of this topology.
+     * @param map the tiles
+     * @param index packed tile index (see getTileIndex)
+     * @return value between 0 and 13
+     */
+    int getTileCode(byte[][] map, int index){
+        return getTileCode(map, indexY[index], indexX[index]);
+    }
+
+    /**
+     * getter for player count
+     * @return the no. of players. Values between 2 and 8.
+     */
+    public int getPlayerCount(){
+        return playerCount;
+    }
+
+    /**
+     * getter for bombRadius
+     * @return the bomb's radius
+     */
+    public short getBombRadius(){
+        return bombRadius;
+    }
+
+    /**
+     * getter for map width
+     * @return map width
+     */
+    public byte getMapWidth(){
+        return mapWidth;
+    }
+
+    /**
+     * getter for map height
+     * @return map height
+     */
+    public byte getMapHeight(){
+        return mapHeight;
+    }
+
+    /**
+     * @return the number of occupiable tiles of the original map (i.e., tiles that are not holes)
+     */
+    public int getNumberOccupiableTiles(){
+        return numberOccupiableTiles;
+    }
+
+    /**
+     * getter for transition
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @param direction of neighbour
+     * @return array with y and x coordinate and new direction r of neighboring tile in given direction. Must not be modified.
+     * {-1, -1, -1} is returned when there is a hole/map boundary.
+     */
+    public byte[] getTransition(byte y, byte x, byte direction){
+        return transitions[y][x][direction];
+    }
+
+    /**
+     * Packs the coordinates of a tile into a single int, as used by PlayingField.getEnclosedStones.
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @return y * mapWidth + x
+     */
+    public int getTileIndex(byte y, byte x){
+        return y * mapWidth + x;
+    }
+
+    /**
+     * @param index packed tile index (see getTileIndex)
+     * @return y coordinate of the tile
+     */
+    public byte getTileIndexY(int index){
+        return indexY[index];
+    }
+
+    /**
+     * @param index packed tile index (see getTileIndex)
+     * @return x coordinate of the tile
+     */
+    public byte getTileIndexX(int index){
+        return indexX[index];
+    }
+
+    /**
+     * getter for the flat neighbour table
+     * @param index packed tile index (see getTileIndex)
+     * @param direction of neighbour
+     * @return packed index of the neighbouring tile times 8 plus the new direction r (see neighbours). -1 when there is a hole/map boundary.
+     */
+    public int getNeighbour(int index, int direction){
+        return neighbours[index * 8 + direction];
+    }
+
+    /**
+     * getter for Tile types
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @return the type of the given tile
+     */
+    public TileType getTileType(byte y, byte x){
+        return tileType[y][x];
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -1,10 +1,15 @@
 package com.rwth.heuristicalgorithms.PlayingField;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * class containing all the relevant information for our move implementation
+ *
+ * The search uses moves packed into an int instead (see pack): the packed tile index (see PlayingField.getTileIndex) above PACKED_INDEX_SHIFT,
+ * the ordinal of the MoveType above PACKED_TYPE_SHIFT and the choice player (choice moves) or 1 for a chosen bomb (bonus moves) in the lowest 4 bits.
+ * Minimax generates the moves of a position tile by tile in the order of the tile index, so the packed moves of a position ascend in the generated order.
+ * Move objects are only created for the moves that leave the search (see unpack).
  */
 public class Move {
 
@@ -47,6 +52,26 @@ public class Move {
      * stores this moves value
      */
     public int value = 0;
+
+    /**
+     * Packed move that is no move, e.g. an empty slot or a pass.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * The tile index of a packed move is stored above this bit.
+     */
+    private static final int PACKED_INDEX_SHIFT = 8;
+
+    /**
+     * The ordinal of the MoveType of a packed move is stored above this bit.
+     */
+    private static final int PACKED_TYPE_SHIFT = 4;
+
+    /**
+     * All move types, indexed by their ordinal.
+     */
+    private static final MoveType[] TYPES = MoveType.values();
     
     // ATTRIBUTES END
     //------------------------------------------------------------------------------
@@ -71,7 +96,8 @@ public class Move {
         this.choicePlayer = choicePlayer;
         this.bonusChooseBomb = bonusChooseBomb;
         this.type = type;
-        this.enclosed = (enclosed == null || enclosed.size() == 0) ? new ArrayList<>() : enclosed;
+        //moves without precomputed stones share the empty list, so that generating a move only allocates the move itself
+        this.enclosed = (enclosed == null || enclosed.size() == 0) ? Collections.emptyList() : enclosed;
     }
 
     /**
@@ -242,6 +268,75 @@ public class Move {
     //------------------------------------------------------------------------------
     // METHODS START
 
+    /**
+     * Packs a move into an int.
+     * @param tileIndex packed index of the tile (see PlayingField.getTileIndex)
+     * @param type the move type
+     * @param extra the choice player for choice moves, 1 if a bonus move chooses the bomb, 0 otherwise
+     * @return the packed move
+     */
+    public static int pack(int tileIndex, MoveType type, int extra){
+        return tileIndex << PACKED_INDEX_SHIFT | type.ordinal() << PACKED_TYPE_SHIFT | extra;
+    }
+
+    /**
+     * Packs this move into an int (see pack).
+     * @param pf a PlayingField of the map the move belongs to
+     * @return the packed move
+     */
+    public int pack(PlayingField pf){
+        int extra = switch(type){
+            case CHOICE -> choicePlayer;
+            case BONUS -> bonusChooseBomb ? 1 : 0;
+            default -> 0;
+        };
+        return pack(pf.getTileIndex(y, x), type, extra);
+    }
+
+    /**
+     * Creates the Move object of a packed move.
+     * @param topology the map the move belongs to
+     * @param move the packed move
+     * @return the move, null for NO_MOVE
+     */
+    public static Move unpack(MapTopology topology, int move){
+        if(move == NO_MOVE) return null;
+        int index = getPackedTileIndex(move);
+        return new Move(topology.indexY[index], topology.indexX[index], getPackedChoicePlayer(move), getPackedBonusChooseBomb(move), getPackedType(move), null);
+    }
+
+    /**
+     * @param move a packed move
+     * @return packed index of the tile of the move (see PlayingField.getTileIndex)
+     */
+    public static int getPackedTileIndex(int move){
+        return move >>> PACKED_INDEX_SHIFT;
+    }
+
+    /**
+     * @param move a packed move
+     * @return the type of the move
+     */
+    public static MoveType getPackedType(int move){
+        return TYPES[(move >>> PACKED_TYPE_SHIFT) & 0xF];
+    }
+
+    /**
+     * @param move a packed move
+     * @return the chosen player of a choice move, -1 for other moves
+     */
+    public static byte getPackedChoicePlayer(int move){
+        return getPackedType(move) == MoveType.CHOICE ? (byte)(move & 0xF) : -1;
+    }
+
+    /**
+     * @param move a packed move
+     * @return true if the move is a bonus move that chooses the bomb
+     */
+    public static boolean getPackedBonusChooseBomb(int move){
+        return getPackedType(move) == MoveType.BONUS && (move & 1) != 0;
+    }
+
     /**
      * Copies the given PlayingField, executes the move and returns the new PlayingField. 
      * @param move to be executed
@@ -0,0 +1,167 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+/**
+ * Incrementally updated sets of the tiles that can be the target of a building phase move. Used for move generation without bitboards.
+ * Only empty tiles (including bonus, choice and inversion) with at least one occupied neighbour can enclose a stone, these are the frontier empties.
+ * Override moves are only possible on occupied tiles, which are stored per physical stone (see PlayingField.map) plus one set for expansion stones.
+ *
+ * Tile (y,x) is stored at bit index PlayingField.getTileIndex(y,x), so iterating a set yields the tiles row by row, like a full scan of the map.
+ * The sets are updated by PlayingField.setMapTile (and thus by executeMove, bomb moves and unmakeMove) after the tile has changed.
+ */
+public class MoveCandidates {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * All empty tiles (including bonus, choice and inversion) with at least one occupied neighbour (a stone or an expansion stone).
+     */
+    private final long[] frontierEmpties;
+
+    /**
+     * occupied[s] contains all tiles with the stone s (1-8). occupied[0] contains all expansion stones.
+     */
+    private final long[][] occupied;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates the sets for the given PlayingField.
+     * @param pf the PlayingField
+     */
+    MoveCandidates(PlayingField pf){
+        int tiles = pf.getMapHeight() * pf.getMapWidth();
+        int words = (tiles + 63) >>> 6;
+        frontierEmpties = new long[words];
+        occupied = new long[9][words];
+        for(int index = 0; index < tiles; index++){
+            int code = pf.getTileCode(index);
+            if(isOccupied(code)){
+                occupied[code == 12 ? 0 : code][index >>> 6] |= 1L << index;
+            }
+            updateFrontierEmpty(pf, index);
+        }
+    }
+
+    /**
+     * Constructor for copying the sets
+     * @param other sets to copy
+     */
+    private MoveCandidates(MoveCandidates other){
+        frontierEmpties = other.frontierEmpties.clone();
+        occupied = new long[9][];
+        for(int i = 0; i < 9; i++){
+            occupied[i] = other.occupied[i].clone();
+        }
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * copies the sets
+     * @return the copied sets
+     */
+    MoveCandidates copy(){
+        return new MoveCandidates(this);
+    }
+
+    /**
+     * Updates the sets when a tile has changed. Called by PlayingField after the new code has been written to the map.
+     * Flipping a stone only moves the tile to another stone set. If a tile becomes occupied, empty or a hole,
+     * the frontier status of the tile and its 8 neighbours is checked again.
+     * @param pf the PlayingField these sets belong to
+     * @param index packed index of the tile (see PlayingField.getTileIndex)
+     * @param oldCode 4-bit encoding the tile had before
+     * @param newCode 4-bit encoding the tile has now
+     */
+    void setTile(PlayingField pf, int index, int oldCode, int newCode){
+        long bit = 1L << index;
+        boolean wasOccupied = isOccupied(oldCode);
+        boolean isOccupied = isOccupied(newCode);
+        if(wasOccupied) occupied[oldCode == 12 ? 0 : oldCode][index >>> 6] &= ~bit;
+        if(isOccupied) occupied[newCode == 12 ? 0 : newCode][index >>> 6] |= bit;
+
+        if(wasOccupied != isOccupied || isEmpty(oldCode) != isEmpty(newCode)){
+            updateFrontierEmpty(pf, index);
+            for(int k = 0; k < 8; k++){
+                //transitions are symmetric, so the neighbours of the tile are exactly the tiles that have it as a neighbour
+                int neighbour = pf.getNeighbour(index, k);
+                if(neighbour >= 0) updateFrontierEmpty(pf, neighbour >> 3);
+            }
+        }
+    }
+
+    /**
+     * Sets the frontier empty bit of a tile according to the current map.
+     * @param pf the PlayingField these sets belong to
+     * @param index packed index of the tile
+     */
+    private void updateFrontierEmpty(PlayingField pf, int index){
+        long bit = 1L << index;
+        if(isEmpty(pf.getTileCode(index))){
+            for(int k = 0; k < 8; k++){
+                int neighbour = pf.getNeighbour(index, k);
+                if(neighbour >= 0 && isOccupied(pf.getTileCode(neighbour >> 3))){
+                    frontierEmpties[index >>> 6] |= bit;
+                    return;
+                }
+            }
+        }
+        frontierEmpties[index >>> 6] &= ~bit;
+    }
+
+    /**
+     * @return number of longs per set
+     */
+    public int getWords(){
+        return frontierEmpties.length;
+    }
+
+    /**
+     * Returns one word of the set of all candidate tiles, i.e., the frontier empties and, if override moves are allowed, all occupied tiles.
+     * Candidates still have to be checked with PlayingField.hasEnclosedStones (except for expansion stones, which can always be overridden).
+     * @param w index of the word
+     * @param overrideAvailable whether occupied tiles should be included
+     * @return the candidate tiles with the bit indices w*64 to w*64+63
+     */
+    public long getCandidates(int w, boolean overrideAvailable){
+        long bits = frontierEmpties[w];
+        if(overrideAvailable){
+            for(int i = 0; i < 9; i++){
+                bits |= occupied[i][w];
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @param code 4-bit encoding (see PlayingField.map)
+     * @return true if the tile is occupied by a stone or an expansion stone
+     */
+    private static boolean isOccupied(int code){
+        return (code >= 1 && code <= 8) || code == 12;
+    }
+
+    /**
+     * @param code 4-bit encoding (see PlayingField.map)
+     * @return true if the tile is empty, a bonus, a choice or an inversion tile
+     */
+    private static boolean isEmpty(int code){
+        return code == 0 || (code >= 9 && code <= 11);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
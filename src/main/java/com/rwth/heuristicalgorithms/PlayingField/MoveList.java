@@ -0,0 +1,223 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable list of packed moves (see Move.pack) with a score per move. Used by the search instead of lists of Move objects.
+ * Every search worker keeps one list per depth (see SearchWorker.getMoveList), so the lists are filled again in every node without allocating.
+ * The arrays grow on demand and are reused afterwards.
+ */
+public class MoveList {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Initial capacity of a list.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The packed moves. Only the first size entries are valid.
+     */
+    private int[] moves;
+
+    /**
+     * scores[i] is the score of moves[i], used for sorting.
+     */
+    private int[] scores;
+
+    /**
+     * Number of moves in the list.
+     */
+    private int size;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates an empty list.
+     */
+    public MoveList(){
+        moves = new int[INITIAL_CAPACITY];
+        scores = new int[INITIAL_CAPACITY];
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Removes all moves. The arrays are kept.
+     */
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * Appends a move with the score 0.
+     * @param move the packed move
+     */
+    public void add(int move){
+        if(size == moves.length){
+            moves = Arrays.copyOf(moves, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        moves[size] = move;
+        scores[size] = 0;
+        size++;
+    }
+
+    /**
+     * @return number of moves in the list
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @return true if the list contains no moves
+     */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * @param i position in the list
+     * @return the packed move at the position
+     */
+    public int get(int i){
+        return moves[i];
+    }
+
+    /**
+     * @param i position in the list
+     * @return the score of the move at the position
+     */
+    public int getScore(int i){
+        return scores[i];
+    }
+
+    /**
+     * @param i position in the list
+     * @param score the new score of the move at the position
+     */
+    public void setScore(int i, int score){
+        scores[i] = score;
+    }
+
+    /**
+     * @param move a packed move
+     * @return the position of the move in the list, -1 if it is not contained
+     */
+    public int indexOf(int move){
+        for(int i = 0; i < size; i++){
+            if(moves[i] == move) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Moves generated for one position ascend in the generated order (see Move), so the position of a move in the generated order
+     * is the number of smaller moves, no matter how the list has been sorted since.
+     * @param move a packed move of the list
+     * @return position of the move in the order the moves were generated
+     */
+    public int generatedIndexOf(int move){
+        int index = 0;
+        for(int i = 0; i < size; i++){
+            if(moves[i] < move) index++;
+        }
+        return index;
+    }
+
+    /**
+     * Swaps two moves and their scores.
+     * @param i position of the first move
+     * @param j position of the second move
+     */
+    public void swap(int i, int j){
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    /**
+     * Moves the move at a position to the front and shifts the moves before it back by one.
+     * @param i position of the move. Nothing happens if it is negative
+     */
+    public void moveToFront(int i){
+        if(i <= 0) return;
+        int move = moves[i];
+        int score = scores[i];
+        System.arraycopy(moves, 0, moves, 1, i);
+        System.arraycopy(scores, 0, scores, 1, i);
+        moves[0] = move;
+        scores[0] = score;
+    }
+
+    /**
+     * Reverses the order of the moves.
+     */
+    public void reverse(){
+        for(int i = 0, j = size - 1; i < j; i++, j--){
+            swap(i, j);
+        }
+    }
+
+    /**
+     * Sorts the moves by descending score. Moves with the same score keep their order.
+     * Move lists are short, so a stable insertion sort is used.
+     */
+    public void sortByScore(){
+        for(int i = 1; i < size; i++){
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while(j >= 0 && scores[j] < score){
+                moves[j+1] = moves[j];
+                scores[j+1] = scores[j];
+                j--;
+            }
+            moves[j+1] = move;
+            scores[j+1] = score;
+        }
+    }
+
+    /**
+     * @return a copy of the moves
+     */
+    public int[] toArray(){
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * Creates the Move objects of all moves (see Move.unpack).
+     * @param topology the map the moves belong to
+     * @return the moves in the order of the list
+     */
+    public List<Move> toMoves(MapTopology topology){
+        List<Move> list = new ArrayList<>(size);
+        for(int i = 0; i < size; i++){
+            list.add(Move.unpack(topology, moves[i]));
+        }
+        return list;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -2,18 +2,19 @@ package com.rwth.heuristicalgorithms.PlayingField;
 
 import static java.util.Map.entry;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import com.rwth.heuristicalgorithms.Client.Client;
 import com.rwth.heuristicalgorithms.MoveChoosing.MoveHeuristic;
 
 
 /**
  * This class represents a playing field consisting of tiles (map) and all the nesseccary information about the players.
+ * Everything about the map that does not change during the game is stored in its MapTopology, which is created by readMap and shared by all copies.
+ * So several games on different maps can be played in the same JVM at the same time.
+ * Instances are not thread-safe, every search thread needs its own copy.
  */
 public class PlayingField {
 
@@ -22,46 +23,20 @@ public class PlayingField {
     // ATTRIBUTES START
     private int[] tileScores;
     /**
-     * Stores the amount of players. Values between 2 and 8.
+     * The map this PlayingField is played on (dimensions, transitions, players, bomb radius). Shared by all copies.
      */
-    private static int playerCount;
-
-    /**
-     * Our player number
-     */
-    private static int ourPlayerNum;
-
+    private final MapTopology topology;
 
     /**
      * Stores the amount of remaining bombs for each player. Values between 0 and 255.
      */
     private short playerBombCount[];
     
-    /**
-     * Radius of the bombs.
-     */
-    private static short bombRadius;
-
     /**
      * Stores the amount of remaining override stones for each player. Values between 0 and 255.
      */
     private short playerOverrideStoneCount[];
 
-    /**
-     * Width (x-axis) of the map. Value between 1 and 50. 
-     */
-    private static byte mapWidth;
-
-    /**
-     * Height (y-axis) of the map. Value between 1 and 50.
-     */
-    private static byte mapHeight;
-
-    /**
-     * Total number of tiles that can be occupied (i.e., all tiles except holes)
-     */
-    private static int numberOccupiableTiles;
-
     /**
      * Number of tiles currently occupied by players.
      * We do NOT count expansion stones here.
@@ -97,8 +72,9 @@ public class PlayingField {
     /**
      * Yields the Tile for a 4-bit encoding.
      * E.g: TILE_ENCODING[3] will yield OCCUPIED_3.
+     * Shared by all PlayingFields, must not be modified.
      */
-    public Tile[] TILE_ENCODING = {
+    public static final Tile[] TILE_ENCODING = {
         Tile.EMPTY,
         Tile.OCCUPIED_1, 
         Tile.OCCUPIED_2,
@@ -116,23 +92,38 @@ public class PlayingField {
     };
 
     /**
-     * Yields the 4-bit encoding for a Tile.
-     * E.g: TILE_DECODING.get(OCCUPIED_3) will yield 3.
+     * Yields the 4-bit encoding for a Tile, indexed by the ordinal of the Tile.
+     * E.g: TILE_DECODING[OCCUPIED_3.ordinal()] will yield 3.
+     * Shared by all PlayingFields, must not be modified.
      */
-    public HashMap<Tile, Byte> TILE_DECODING;
+    public static final byte[] TILE_DECODING = new byte[TILE_ENCODING.length];
 
+    static {
+        for(byte code = 0; code < TILE_ENCODING.length; code++){
+            TILE_DECODING[TILE_ENCODING[code].ordinal()] = code;
+        }
+    }
+
+
+    /**
+     * stones[X] will yield the stone (4-bit encoding) that player X currently uses. stones[0] is always 0 (empty).
+     * E.g. after players 2 and 3 swap stones, stones[2] will yield 3 and vice versa.
+     * Updated by executeChoiceMove (and thus by executeInversionMove).
+     */
+    private byte[] stones;
 
     /**
-     * TILE_TRANSLATOR.get(OCCUPIED_X) will yield the stone that player X currently uses.
-     * E.g. after players 2 and 3 swap stones, TILE_TRANSLATOR.get(OCCUPIED_2) will yield OCCUPIED_3 and vice versa.
+     * Inverse permutation of stones. stoneOwners[X] will yield the player that currently uses stone X.
+     * E.g. after players 2 and 3 swap stones, stoneOwners[2] will yield 3 since Player 3 uses the stone OCCUPIED_2.
      */
-    private HashMap<Tile, Tile> TILE_TRANSLATOR;
+    private byte[] stoneOwners;
 
     /**
-     * TILE_TRANSLATOR.get(OCCUPIED_X) will yield the player's stone that currently uses stone OCC_X.
-     * E.g. after players 2 and 3 swap stones, TILE_TRANSLATOR.get(OCCUPIED_2) will yield OCCUPIED_3 since Player 3 uses the stone OCCUPIED_3.
+     * stoneCounts[X] will yield the number of tiles with the stone X (1-8) on the map. stoneCounts[0] is not used.
+     * Counted per stone, not per player, so choice and inversion moves do not change it (see getStoneCount).
+     * Updated whenever a tile is written (setMapTile, unmakeMove).
      */
-    private HashMap<Tile, Tile> TILE_TRANSLATOR_INVERSE;
+    private int[] stoneCounts;
 
 
     /**
@@ -156,25 +147,6 @@ public class PlayingField {
     );
 
 
-    /**
-     *  Contains the neighboring tiles for each tile. 
-     *  Dimensions are [mapHeight][mapWidth][8][3]. transitions[2][3] contains the 8 [y,x,r] pairs of the tiles neighboring the tile with y = 2, x = 3.
-     *  See courseRules document for ordering of the neighbours.
-     *  The r bit in the [y,x,r] pair describes the direction since there may be a direction change involved when using a special transition.
-     *  For default transitions, transitions[_][_][k] will always = [_,_,k].
-     *  Special transitions are already considered here.
-     */
-    private static byte TRANSITIONS[][][][];
-
-    /**
-     * Stores the type of each tile. Dimensions are [mapHeight][mapWidth].
-     * Holes are listed as default tiles.
-     * Corner tiles have a maximum of 3 neighbours.
-     * Edge tiles have a maximum of 5 neighbours.
-     * All other tiles are default tiles.
-     */
-    private static TileType TILE_TYPE[][]; 
-
 
     /**
      * This array has the same size as the map and denotes whether a stone is a frontier stone or not.
@@ -189,6 +161,39 @@ public class PlayingField {
      */
     private int player_num_frontier_stones[]; 
 
+    /**
+     * Mirrors the map as bitboards. Null if bitboards are disabled.
+     */
+    private BitBoard bitBoard;
+
+    /**
+     * Frontier empties and occupied tiles for move generation (see MoveCandidates). Null if bitboards are used or the sets are disabled.
+     */
+    private MoveCandidates moveCandidates;
+
+    /**
+     * Undo stack for makeMove/unmakeMove. Created on the first call of makeMove and never copied.
+     */
+    private UndoStack undoStack;
+
+    /**
+     * Zobrist hash of this position (see Zobrist). Updated incrementally whenever the map, the stone permutation, 
+     * the bomb/override stone counts, the disqualified players or the game phase change.
+     */
+    private long hash;
+
+    /**
+     * If true, the hash is recomputed from scratch after every executed move and compared to the incremental hash.
+     * Only meant for debugging since it costs a full scan of the map per move. Copies inherit it.
+     */
+    private boolean hashVerification = false;
+
+    /**
+     * Per-thread buffer for the stones flipped by executeMove (see getEnclosedStones).
+     * The search copies PlayingFields for every node, so the buffer is not stored per instance.
+     */
+    private static final ThreadLocal<int[]> FLIP_BUFFER = ThreadLocal.withInitial(() -> new int[0]);
+
     // ATTRIBUTES END
     //------------------------------------------------------------------------------
 
@@ -199,130 +204,84 @@ public class PlayingField {
 
     /**
      * Constructor for PlayingField class. This is called in the readMap function.
-     * @param playerCount
-     * @param turn
-     * @param playerBombCount
-     * @param playerOverrideStoneCount
-     * @param mapWidth
-     * @param mapHeight
-     * @param map
-     */
-    private PlayingField(int playerCount, short[] playerBombCount, short bombRadius, 
-        short[] playerOverrideStoneCount, byte mapWidth, byte mapHeight, byte[][] map) {
-
-        PlayingField.playerCount = playerCount;
-        this.activePlayers = new boolean[playerCount];
-        for(int i = 0; i < playerCount;i++) activePlayers[i] = true;
+     * @param topology the map
+     * @param playerBombCount number of bombs of every player
+     * @param playerOverrideStoneCount number of override stones of every player
+     * @param map the tiles
+     */
+    private PlayingField(MapTopology topology, short[] playerBombCount, short[] playerOverrideStoneCount, byte[][] map) {
+
+        this.topology = topology;
+        this.activePlayers = new boolean[topology.playerCount];
+        for(int i = 0; i < topology.playerCount;i++) activePlayers[i] = true;
         this.isEliminationPhase = false;
-        this.player_num_frontier_stones = new int[playerCount];
-        this.is_frontier_stone = new boolean[mapHeight][mapWidth];
+        this.player_num_frontier_stones = new int[topology.playerCount];
+        this.is_frontier_stone = new boolean[topology.mapHeight][topology.mapWidth];
         
         this.playerBombCount = playerBombCount;
-        PlayingField.bombRadius = bombRadius;
         this.playerOverrideStoneCount = playerOverrideStoneCount;
-        PlayingField.mapWidth = mapWidth;
-        PlayingField.mapHeight = mapHeight;
         this.map = map;
 
-        //create Tile Decoding
-        TILE_DECODING = new HashMap<>();
-        TILE_DECODING.put(Tile.EMPTY, (byte) 0);
-        TILE_DECODING.put(Tile.OCCUPIED_1, (byte) 1);
-        TILE_DECODING.put(Tile.OCCUPIED_2, (byte) 2);
-        TILE_DECODING.put(Tile.OCCUPIED_3, (byte) 3);
-        TILE_DECODING.put(Tile.OCCUPIED_4, (byte) 4);
-        TILE_DECODING.put(Tile.OCCUPIED_5, (byte) 5);
-        TILE_DECODING.put(Tile.OCCUPIED_6, (byte) 6);
-        TILE_DECODING.put(Tile.OCCUPIED_7, (byte) 7);
-        TILE_DECODING.put(Tile.OCCUPIED_8, (byte) 8);
-        TILE_DECODING.put(Tile.CHOICE, (byte) 9);
-        TILE_DECODING.put(Tile.INVERSION, (byte) 10);
-        TILE_DECODING.put(Tile.BONUS, (byte) 11);
-        TILE_DECODING.put(Tile.EXPANSION, (byte) 12);
-        TILE_DECODING.put(Tile.HOLE, (byte) 13);
-
-        //create Tile translators
-        TILE_TRANSLATOR = new HashMap<>();
-        TILE_TRANSLATOR.put(Tile.EMPTY, Tile.EMPTY);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_1, Tile.OCCUPIED_1);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_2, Tile.OCCUPIED_2);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_3, Tile.OCCUPIED_3);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_4, Tile.OCCUPIED_4);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_5, Tile.OCCUPIED_5);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_6, Tile.OCCUPIED_6);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_7, Tile.OCCUPIED_7);
-        TILE_TRANSLATOR.put(Tile.OCCUPIED_8, Tile.OCCUPIED_8);
-        TILE_TRANSLATOR.put(Tile.CHOICE, Tile.CHOICE);
-        TILE_TRANSLATOR.put(Tile.INVERSION, Tile.INVERSION);
-        TILE_TRANSLATOR.put(Tile.BONUS, Tile.BONUS);
-        TILE_TRANSLATOR.put(Tile.EXPANSION, Tile.EXPANSION);
-        TILE_TRANSLATOR.put(Tile.HOLE, Tile.HOLE);      
-
-        TILE_TRANSLATOR_INVERSE = new HashMap<>();
-        TILE_TRANSLATOR_INVERSE.put(Tile.EMPTY, Tile.EMPTY);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_1, Tile.OCCUPIED_1);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_2, Tile.OCCUPIED_2);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_3, Tile.OCCUPIED_3);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_4, Tile.OCCUPIED_4);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_5, Tile.OCCUPIED_5);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_6, Tile.OCCUPIED_6);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_7, Tile.OCCUPIED_7);
-        TILE_TRANSLATOR_INVERSE.put(Tile.OCCUPIED_8, Tile.OCCUPIED_8);
-        TILE_TRANSLATOR_INVERSE.put(Tile.CHOICE, Tile.CHOICE);
-        TILE_TRANSLATOR_INVERSE.put(Tile.INVERSION, Tile.INVERSION);
-        TILE_TRANSLATOR_INVERSE.put(Tile.BONUS, Tile.BONUS);
-        TILE_TRANSLATOR_INVERSE.put(Tile.EXPANSION, Tile.EXPANSION);
-        TILE_TRANSLATOR_INVERSE.put(Tile.HOLE, Tile.HOLE);
-        tileScores = new int[playerCount];
-        
-        
+        //at the start, every player uses its own stone
+        this.stones = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8};
+        this.stoneOwners = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8};
+        this.stoneCounts = new int[9];
+        tileScores = new int[topology.playerCount];
     }
 
     /**
      * Constructor for copying a PlayingField
+     * @param topology the map, shared with the copy
      * @param playerBombCount number of bombs available
      * @param playerOverrideStoneCount number of override stones available
      * @param map the map
-     * @param tileEncoding static BYTE->TILE translation
-     * @param tileDecoding static TILE->BYTE translation
      * @param isElPh true when in elimination phase
      * @param actPl active player(not disqualified)
-     * @param TILE_TRANSLATOR used for keeping track of choice/inversion moves
-     * @param TILE_TRANSLATOR_INVERSE inverse of TILE_TRANSLATOR
+     * @param stones used for keeping track of choice/inversion moves
+     * @param stoneOwners inverse of stones
+     * @param stoneCounts number of tiles per stone
      * @param tileScores values for calcSumOccupiedTiles
-     */
-    private PlayingField(
+     * @param player_num_frontier_stones number of frontier stones per player
+     * @param is_frontier_stone frontier status of each tile
+     * @param numberOccupiedTiles number of tiles occupied by players
+     * @param bitBoard the bitboard, null if bitboards are disabled
+     * @param moveCandidates the move candidate sets, null if they are not used
+     * @param hash the Zobrist hash
+     */
+    private PlayingField(MapTopology topology,
         short[] playerBombCount, short[] playerOverrideStoneCount, byte[][] map, 
-        Tile[] tileEncoding, Map<Tile, Byte> tileDecoding, boolean isElPh, boolean[] actPl, 
-        HashMap<Tile,Tile> TILE_TRANSLATOR, HashMap<Tile,Tile> TILE_TRANSLATOR_INVERSE, 
+        boolean isElPh, boolean[] actPl, byte[] stones, byte[] stoneOwners, int[] stoneCounts,
         int[] tileScores, int[] player_num_frontier_stones, boolean[][]is_frontier_stone, 
-        int numberOccupiedTiles){
+        int numberOccupiedTiles, BitBoard bitBoard, MoveCandidates moveCandidates, long hash){
 
 
+        this.topology = topology;
         this.playerBombCount = Arrays.copyOf(playerBombCount, playerBombCount.length);
         this.playerOverrideStoneCount = Arrays.copyOf(playerOverrideStoneCount, playerOverrideStoneCount.length);
         this.isEliminationPhase = isElPh;
-        this.activePlayers = actPl;
-        this.map = new byte[map.length][map[0].length];
-        //copy map
+        //copied, since the disqualified players are part of the hash of each PlayingField
+        this.activePlayers = actPl.clone();
+        //copy map. The rows are allocated by clone, so no empty rows are created first
+        this.map = new byte[map.length][];
         for(int i = 0; i < map.length; i++){
-            this.map[i] = Arrays.copyOf(map[i], map[i].length);
-        }
-        //copy tile encoding
-        this.TILE_ENCODING = Arrays.copyOf(tileEncoding, tileEncoding.length);
-        //copy decoding
-        this.TILE_DECODING = new HashMap<>(tileDecoding);
-        this.TILE_TRANSLATOR = new HashMap<>(TILE_TRANSLATOR);
-        this.TILE_TRANSLATOR_INVERSE = new HashMap<>(TILE_TRANSLATOR_INVERSE);
+            this.map[i] = map[i].clone();
+        }
+        //the tile tables are shared in the topology, only the stone permutation has to be copied
+        this.stones = stones.clone();
+        this.stoneOwners = stoneOwners.clone();
+        this.stoneCounts = stoneCounts.clone();
         this.tileScores = Arrays.copyOf(tileScores,tileScores.length);
 
         //frontier stones
-        this.is_frontier_stone = new boolean[mapHeight][mapWidth];
-        for(int i = 0; i < mapHeight; i++){
-            this.is_frontier_stone[i] = Arrays.copyOf(is_frontier_stone[i], is_frontier_stone[i].length);
+        this.is_frontier_stone = new boolean[is_frontier_stone.length][];
+        for(int i = 0; i < is_frontier_stone.length; i++){
+            this.is_frontier_stone[i] = is_frontier_stone[i].clone();
         }
         this.player_num_frontier_stones = Arrays.copyOf(player_num_frontier_stones, player_num_frontier_stones.length);
         this.numberOccupiedTiles = numberOccupiedTiles;    
+        this.bitBoard = bitBoard == null ? null : bitBoard.copy();
+        this.moveCandidates = moveCandidates == null ? null : moveCandidates.copy();
+        this.hash = hash;
     }
 
     // CONTRSUCTORS END
@@ -339,21 +298,21 @@ public class PlayingField {
      */
     public String toString(){
         String res = "   ";
-        for(byte x = 0; x < mapWidth;x++){
+        for(byte x = 0; x < topology.mapWidth;x++){
             if(x<10) res += " ";
             res+=" "+ x;
         }
         res+="\n";
         res+="  /";
-        for(byte x = 0; x < mapWidth;x++){
+        for(byte x = 0; x < topology.mapWidth;x++){
             res+="---";
         }
         res+="\n";
-        for(byte y = 0; y < mapHeight;y++){
+        for(byte y = 0; y < topology.mapHeight;y++){
             res += y;
             if(y<10) res += " ";
             res+= "|";
-            for(byte x = 0; x < mapWidth;x++){
+            for(byte x = 0; x < topology.mapWidth;x++){
                 res+="  " +
                 switch(getMapTile(y, x)){
                     case HOLE -> "-";
@@ -380,12 +339,20 @@ public class PlayingField {
         return res;
     }
 
+    /**
+     * getter for the topology
+     * @return the map this PlayingField is played on. Shared by all copies
+     */
+    public MapTopology getTopology() {
+        return topology;
+    }
+
     /**
      * getter for player count
      * @return the current no. of players. Values between 2 and 8.
      */
-    public static int getPlayerCount() {
-        return playerCount;
+    public int getPlayerCount() {
+        return topology.playerCount;
     }
 
     /**
@@ -411,8 +378,8 @@ public class PlayingField {
      * getter for bombRadius
      * @return the bomb's radius
      */
-    public static short getBombRadius() {
-        return bombRadius;
+    public short getBombRadius() {
+        return topology.bombRadius;
     }
 
     /**
@@ -424,28 +391,20 @@ public class PlayingField {
         return playerOverrideStoneCount[player-1];
     }
 
-    /**
-     * getter for our player number
-     * @return our player number
-     */
-    public static int getOurPlayerNum() {
-        return ourPlayerNum;
-    }
-
     /**
      * getter for map width
      * @return map width
      */
-    public static byte getMapWidth() {
-        return mapWidth;
+    public byte getMapWidth() {
+        return topology.mapWidth;
     }
 
     /**
      * getter for map height
      * @return map height
      */
-    public static byte getMapHeight() {
-        return mapHeight;
+    public byte getMapHeight() {
+        return topology.mapHeight;
     }
 
     /**
@@ -472,8 +431,51 @@ public class PlayingField {
      * @return array with y and x coordinate and new direction r of neighboring tile in given direction. 
      * {-1, -1, -1} is returned when there is a hole/map boundary.
      */
-    public static byte[] getTransition(byte y, byte x, byte direction) {
-        return TRANSITIONS[y][x][direction];
+    public byte[] getTransition(byte y, byte x, byte direction) {
+        return topology.transitions[y][x][direction];
+    }
+
+    /**
+     * Packs the coordinates of a tile into a single int, as used by getEnclosedStones.
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @return y * mapWidth + x
+     */
+    public int getTileIndex(byte y, byte x){
+        return y * topology.mapWidth + x;
+    }
+
+    /**
+     * @param index packed tile index (see getTileIndex)
+     * @return y coordinate of the tile
+     */
+    public byte getTileIndexY(int index){
+        return topology.indexY[index];
+    }
+
+    /**
+     * @param index packed tile index (see getTileIndex)
+     * @return x coordinate of the tile
+     */
+    public byte getTileIndexX(int index){
+        return topology.indexX[index];
+    }
+
+    /**
+     * getter for the flat neighbour table
+     * @param index packed tile index (see getTileIndex)
+     * @param direction of neighbour
+     * @return packed index of the neighbouring tile times 8 plus the new direction r (see NEIGHBOURS). -1 when there is a hole/map boundary.
+     */
+    public int getNeighbour(int index, int direction){
+        return topology.neighbours[index * 8 + direction];
+    }
+
+    /**
+     * @return the size a buffer for getEnclosedStones needs to have for the current map (each of the 8 directions can enclose at most all tiles)
+     */
+    public int getFlipBufferSize(){
+        return 8 * topology.mapHeight * topology.mapWidth;
     }
 
     /**
@@ -487,19 +489,104 @@ public class PlayingField {
         if(y == -1 && x == -1){
             return Tile.HOLE;
         }
-        if(x < 0 || x >= mapWidth || y < 0 || y >= mapHeight){
+        if(x < 0 || x >= topology.mapWidth || y < 0 || y >= topology.mapHeight){
             throw new IllegalArgumentException("Invalid coordinates: x:" + x + " y: " + y + " for getMapTile");
         }
 
-        if(x % 2 == 0){
-            //even x coordinates are saved in the 4MSB 
-            return TILE_TRANSLATOR_INVERSE.get(TILE_ENCODING[(map[y][x/2] >> 4) & 0x0F]); 
-        } else {
-            //odd x coordinates are saved in the 4LSB (-> delete the 4MSB)
-            return TILE_TRANSLATOR_INVERSE.get(TILE_ENCODING[map[y][x/2] & 0b00001111]); 
-        }
+        //even x coordinates are saved in the 4MSB, odd x coordinates are saved in the 4LSB (-> delete the 4MSB)
+        int code = x % 2 == 0 ? (map[y][x/2] >> 4) & 0x0F : map[y][x/2] & 0b00001111;
+        //stones have to be translated to the player that currently uses them
+        return TILE_ENCODING[code < stoneOwners.length ? stoneOwners[code] : code];
+    }
+
+
+    /**
+     * Returns the 4-bit encoding of a tile as it is stored in the map (i.e., without translating swapped stones).
+     * @param y coordinate
+     * @param x coordinate
+     * @return value between 0 and 13 (see map)
+     */
+    int getTileCode(byte y, byte x){
+        return x % 2 == 0 ? (map[y][x/2] >> 4) & 0x0F : map[y][x/2] & 0x0F;
+    }
+
+    /**
+     * Returns the 4-bit encoding of a tile as it is stored in the map (i.e., without translating swapped stones).
+     * @param index packed tile index (see getTileIndex)
+     * @return value between 0 and 13 (see map)
+     */
+    int getTileCode(int index){
+        int x = topology.indexX[index];
+        byte b = map[topology.indexY[index]][x >> 1];
+        return (x & 1) == 0 ? (b >> 4) & 0x0F : b & 0x0F;
+    }
+
+    /**
+     * @param code 4-bit encoding of a tile (see map)
+     * @return true if the tile is occupied by a stone or an expansion stone (see isTileOccupied)
+     */
+    private static boolean isOccupiedCode(int code){
+        return (code >= 1 && code <= 8) || code == 12;
+    }
+
+    /**
+     * @param code 4-bit encoding of a tile (see map)
+     * @return true if the tile is empty, a bonus, a choice or an inversion tile (see Tile.isTileEmpty)
+     */
+    private static boolean isEmptyCode(int code){
+        return code == 0 || (code >= 9 && code <= 11);
+    }
+
+    /**
+     * Returns the stone the given player currently uses.
+     * This only differs from the player number after choice or inversion moves.
+     * @param player the player
+     * @return 4-bit encoding of the stone (1-8)
+     */
+    public byte getStone(byte player){
+        return stones[player];
+    }
+
+    /**
+     * Returns the number of stones the given player currently has on the map. Does not scan the map.
+     * @param player the player
+     * @return number of tiles occupied by the player (expansion stones are not counted)
+     */
+    public int getStoneCount(byte player){
+        return stoneCounts[stones[player]];
+    }
+
+    /**
+     * getter for the bitboard
+     * @return the bitboard mirroring this map. Null if bitboards are disabled.
+     */
+    public BitBoard getBitBoard(){
+        return bitBoard;
+    }
+
+    /**
+     * getter for the move candidate sets
+     * @return the frontier empties and occupied tiles of this map. Null if bitboards are used or the sets are disabled.
+     */
+    public MoveCandidates getMoveCandidates(){
+        return moveCandidates;
+    }
+
+    /**
+     * getter for the hash
+     * @return the Zobrist hash of this position. Does not include whose turn it is.
+     */
+    public long getHash(){
+        return hash;
     }
 
+    /**
+     * Enables or disables the verification of the incremental hash after every move of this PlayingField and its later copies. See hashVerification.
+     * @param enabled new value
+     */
+    public void setHashVerification(boolean enabled){
+        hashVerification = enabled;
+    }
 
     /**
      * getter for Tile types
@@ -507,8 +594,8 @@ public class PlayingField {
      * @param x coordinate of tile
      * @return the type of the given tile
      */
-    public static TileType getTileType(byte y, byte x){
-        return TILE_TYPE[y][x];
+    public TileType getTileType(byte y, byte x){
+        return topology.tileType[y][x];
     }
 
     /**
@@ -543,7 +630,7 @@ public class PlayingField {
      * @return the number of occupiable tiles (i.e., tiles that are not holes)
      */
     public int getNumberOccupiableTiles(){
-        return numberOccupiableTiles;
+        return topology.numberOccupiableTiles;
     }
 
     /**
@@ -559,7 +646,7 @@ public class PlayingField {
      * @return the percentage of occupied tiles (double between 0 and 1)
      */
     public double getPercentageOccupied(){
-        return numberOccupiedTiles/(double)numberOccupiableTiles;
+        return numberOccupiedTiles/(double)topology.numberOccupiableTiles;
     }
 
 
@@ -577,6 +664,9 @@ public class PlayingField {
      * @param value to be set
      */
     public void setFrontierStone(byte y, byte x, boolean value){
+        if(undoStack != null && undoStack.ply > 0){
+            undoStack.logFrontier(y, x, is_frontier_stone[y][x]);
+        }
         is_frontier_stone[y][x] = value;
     }
 
@@ -586,7 +676,7 @@ public class PlayingField {
      * @param delta to modify the value by. 1 for an increment of 1, -1 for a decrement of 1.
      */
     public void changePlayerFrontierCount(byte player, int delta){
-        if(player < 1 || player > playerCount){
+        if(player < 1 || player > topology.playerCount){
             throw new IllegalStateException("[ERROR] frontier count was changed for player " + player + " which does not exist.");
         }
         player_num_frontier_stones[player-1] += delta;
@@ -611,22 +701,46 @@ public class PlayingField {
      * @param tile value to be set
      */
     public void setMapTile(byte y, byte x, Tile tile) {
-        if(x < 0 || x >= mapWidth || y < 0 || y >= mapHeight){
+        if(x < 0 || x >= topology.mapWidth || y < 0 || y >= topology.mapHeight){
             throw new IllegalArgumentException("Invalid coordinates: x:" + x + "y: " + y + " for setMapTile");
         }
 
-        //for non-player tiles, tile_tranlation = tile. For tile = OCCUPIED_X, tile_translation is the tile that player X currently uses. 
-        Tile tile_translation = TILE_TRANSLATOR.get(tile);
+        //for non-player tiles, code = encoding of tile. For tile = OCCUPIED_X, code is the stone that player X currently uses. 
+        int code = TILE_DECODING[tile.ordinal()];
+        if(code < stones.length) code = stones[code];
+
+        int oldCode = getTileCode(y, x);
+        if(bitBoard != null){
+            bitBoard.setTile(y, x, oldCode, code);
+        }
+        if(undoStack != null && undoStack.ply > 0){
+            undoStack.logTile(y, x, oldCode);
+        }
+        hash ^= Zobrist.tileKey(topology, y, x, oldCode) ^ Zobrist.tileKey(topology, y, x, code);
 
         if(x % 2 == 0){
             //even x coordinates are saved in the 4MSB 
             //delete 4 MSB and override with the tile
-            map[y][x/2] = (byte) ((map[y][x/2] & 0b00001111) | (TILE_DECODING.get(tile_translation) << 4));
+            map[y][x/2] = (byte) ((map[y][x/2] & 0b00001111) | (code << 4));
         } else {
             //odd x coordinates are saved in the 4LSB 
             //delete the 4 LSB and override with the tile
-            map[y][x/2] = (byte) ((map[y][x/2] & 0b11110000) | TILE_DECODING.get(tile_translation));
+            map[y][x/2] = (byte) ((map[y][x/2] & 0b11110000) | code);
+        }
+        if(moveCandidates != null){
+            moveCandidates.setTile(this, getTileIndex(y, x), oldCode, code);
         }
+        changeStoneCounts(oldCode, code);
+    }
+
+    /**
+     * Updates stoneCounts when a tile changes from oldCode to newCode.
+     * @param oldCode 4-bit encoding the tile had before
+     * @param newCode 4-bit encoding the tile has now
+     */
+    private void changeStoneCounts(int oldCode, int newCode){
+        if(oldCode >= 1 && oldCode <= 8) stoneCounts[oldCode]--;
+        if(newCode >= 1 && newCode <= 8) stoneCounts[newCode]++;
     }
 
     /**
@@ -638,6 +752,7 @@ public class PlayingField {
         if(playerBombCount[player-1] + delta < 0){
             throw new IllegalStateException("Changed a player bomb count to < 0");
         }
+        hash ^= Zobrist.counterKey(player, false, playerBombCount[player-1]) ^ Zobrist.counterKey(player, false, playerBombCount[player-1] + delta);
         playerBombCount[player-1] += delta;
     }
 
@@ -650,15 +765,9 @@ public class PlayingField {
         if(playerOverrideStoneCount[player-1] + delta < 0){
             throw new IllegalStateException("Changed a player override stone count to < 0");
         }
+        hash ^= Zobrist.counterKey(player, true, playerOverrideStoneCount[player-1]) ^ Zobrist.counterKey(player, true, playerOverrideStoneCount[player-1] + delta);
         playerOverrideStoneCount[player-1] += delta;
     }
-    /**
-     * sets our player number
-     * @param ourPlayerNum the new value
-     */
-    public static void setOurPlayerNum(int ourPlayerNum) {
-        PlayingField.ourPlayerNum = ourPlayerNum;
-    }
 
 
     /**
@@ -666,6 +775,7 @@ public class PlayingField {
      * @param pl player to disqualify
      */
     public void disqualify(byte pl) {
+        if(activePlayers[pl-1]) hash ^= Zobrist.disqualifiedKey(pl);
         activePlayers[pl-1] = false;
     }
 
@@ -674,6 +784,7 @@ public class PlayingField {
      * 
      */
     public void startEliminationPhase() {
+        if(!isEliminationPhase) hash ^= Zobrist.phaseKey();
         isEliminationPhase = true;
     }
 
@@ -699,35 +810,35 @@ public class PlayingField {
     // METHODS START
 
     /**
-     * resets all the class' static attributes
+     * copies this playing field. primary use: simulateMove in Move
+     * @return the copied field
      */
-    public static void reset(){
-        playerCount = 0;
-        mapWidth = 0;
-        mapHeight = 0;
-        TRANSITIONS = null;
-        numberOccupiableTiles = 0;
-        ourPlayerNum = 0;
-        bombRadius = 0;
-        Client.prevTime = new int[Client.maxDepth_TL];
+    public PlayingField copy(){
+        PlayingField copy = new PlayingField(topology, playerBombCount, playerOverrideStoneCount, map, 
+        isEliminationPhase, activePlayers, stones, stoneOwners, stoneCounts, tileScores, player_num_frontier_stones, 
+        is_frontier_stone, numberOccupiedTiles, bitBoard, moveCandidates, hash);
+        copy.hashVerification = hashVerification;
+        return copy;
     }
 
     /**
-     * copies this playing field. primary use: simulateMove in Move
-     * @return the copied field
+     * Creates a PlayingField instance from a string describing the map. Uses the move candidate sets for move generation.
+     * @param mapString received from server. Line breaks are assumed to be \n or \r\n
+     * @return a PlayingField instance
      */
-    public PlayingField copy(){
-        return new PlayingField(playerBombCount, playerOverrideStoneCount, map, TILE_ENCODING, TILE_DECODING, 
-        isEliminationPhase, activePlayers, TILE_TRANSLATOR, TILE_TRANSLATOR_INVERSE,tileScores, player_num_frontier_stones, 
-        is_frontier_stone, numberOccupiedTiles);
+    public static PlayingField readMap(String mapString){
+        return readMap(mapString, false, true);
     }
 
     /**
      * Creates a PlayingField instance from a string describing the map.
      * @param mapString received from server. Line breaks are assumed to be \n or \r\n
+     * @param bitBoardEnabled if true, a bitboard is created which is then used for move generation (see BitBoard)
+     * @param moveCandidatesEnabled if true and no bitboard is created, the move candidate sets are created (see MoveCandidates). 
+     * If both are false, move generation scans the whole map
      * @return a PlayingField instance
      */
-    public static PlayingField readMap(String mapString){
+    public static PlayingField readMap(String mapString, boolean bitBoardEnabled, boolean moveCandidatesEnabled){
         if(mapString == null || mapString.equals("")) throw new IllegalArgumentException("readMap was provided with an empty String or null");
         //parse the easy inputs
         String[] lines = mapString.split("\r?\n"); //lines may end with \n or \r\n
@@ -744,49 +855,33 @@ public class PlayingField {
         byte mapHeight = Byte.parseByte(dimensions[0]);
         byte[][] map = new byte[mapHeight][mapWidth % 2 == 0 ? mapWidth/2 : mapWidth/2+1];
 
-
-        //this wil be returned
-        PlayingField pf = new PlayingField(playerCount, playerBombCount, bombRadius, playerOverrideStoneCount, mapWidth, mapHeight, map);
-        
         //map and transitions:
 
-        //parse map
+        //parse map. At the start, every player uses its own stone, so the stones are written as they are
         for (int i = 0; i < mapHeight; i++) {
             String[] row = lines[i + 4].trim().split(" ");
             for (int j = 0; j < mapWidth; j++) {
-                char tile = row[j].charAt(0);
-                pf.setMapTile((byte)i, (byte)j, CHAR_TILE_DECODING.get(tile));
+                int code = TILE_DECODING[CHAR_TILE_DECODING.get(row[j].charAt(0)).ordinal()];
+                map[i][j/2] |= (byte) (j % 2 == 0 ? code << 4 : code);
             }
         }
 
-        TRANSITIONS = new byte[mapHeight][mapWidth][8][3];
-        //create default transitions and insert -1,-1 pairs where there is no transition
-        generateTransitionMap(map, mapHeight, mapWidth);
-
         //special transitions
+        List<byte[]> specialTransitions = new ArrayList<>();
         for (int i = 4 + mapHeight; i < lines.length; i++) {
             String[] transition = lines[i].trim().split(" ");
-            byte x1 = Byte.parseByte(transition[0]);
-            byte y1 = Byte.parseByte(transition[1]);
-            byte r1 = Byte.parseByte(transition[2]);
             //3 is the <->
-            byte x2 = Byte.parseByte(transition[4]);
-            byte y2 = Byte.parseByte(transition[5]);
-            byte r2 = Byte.parseByte(transition[6]);
-
-            TRANSITIONS[y1][x1][r1][0] = y2;
-            TRANSITIONS[y1][x1][r1][1] = x2;
-            TRANSITIONS[y1][x1][r1][2] = (byte)((r2+4) % 8);
-            TRANSITIONS[y2][x2][r2][0] = y1;
-            TRANSITIONS[y2][x2][r2][1] = x1;
-            TRANSITIONS[y2][x2][r2][2] = (byte)((r1+4) % 8);
-        }
-
-        //set all the tile types
-        TILE_TYPE = new TileType[mapHeight][mapWidth];
-        for(byte i = 0; i < TILE_TYPE.length; i++){
-            for(byte j = 0; j < TILE_TYPE[i].length; j++){
-                TILE_TYPE[i][j] = computeTileType(i, j);
+            specialTransitions.add(new byte[]{
+                Byte.parseByte(transition[0]), Byte.parseByte(transition[1]), Byte.parseByte(transition[2]),
+                Byte.parseByte(transition[4]), Byte.parseByte(transition[5]), Byte.parseByte(transition[6])});
+        }
+
+        //this wil be returned
+        MapTopology topology = new MapTopology(playerCount, bombRadius, mapHeight, mapWidth, map, specialTransitions);
+        PlayingField pf = new PlayingField(topology, playerBombCount, playerOverrideStoneCount, map);
+        for(byte y = 0; y < mapHeight; y++){
+            for(byte x = 0; x < mapWidth; x++){
+                pf.changeStoneCounts(0, pf.getTileCode(y, x));
             }
         }
 
@@ -794,13 +889,20 @@ public class PlayingField {
             pf.tileScores[i] = MoveHeuristic.calcSumOccupiedTiles(pf, (byte) (i+1),true);
         }
 
-        //check the frontier stones and occupied/occupiable stones
+        if(bitBoardEnabled){
+            pf.bitBoard = new BitBoard(pf);
+        } else if(moveCandidatesEnabled){
+            pf.moveCandidates = new MoveCandidates(pf);
+        }
+
+        pf.hash = pf.computeHash();
+
+        //check the frontier stones and occupied stones
         for(byte y = 0; y < mapHeight; y++){ 
             for(byte x = 0; x < mapWidth; x++){
                 //a stone is a frontier if it is occupied and has at least one neighbour that is not occupied
                 byte player_occ;
                 Tile t = pf.getMapTile(y,x);
-                if(!t.equals(Tile.HOLE)) numberOccupiableTiles++;
                 switch(t){
                     case OCCUPIED_1 -> {pf.numberOccupiedTiles++; player_occ = 1;}
                     case OCCUPIED_2 -> {pf.numberOccupiedTiles++; player_occ = 2;}
@@ -816,7 +918,7 @@ public class PlayingField {
                 if(player_occ > 0){
                     byte[] neighbour = new byte[3];
                     for(byte k = 0; k < 8; k++){
-                        neighbour = getTransition(y, x, k);
+                        neighbour = topology.getTransition(y, x, k);
                         if(Tile.isTileEmpty(pf.getMapTile(neighbour[0], neighbour[1]))){
                             //now this is a frontier stone, no need to check the other directions
                             pf.setFrontierStone(y, x, true);
@@ -829,173 +931,140 @@ public class PlayingField {
             }
         }
 
-
-        
-
-
-
         return pf;
     }
 
-
     /**
-     * Creates the default transitions for every tile.
-     * Default transistions mean all transitions except special transitions.
-     * @param map 
-     */
-    private static void generateTransitionMap(byte[][] map, byte mapHeight, byte mapWidth) {
-    
-        // Initialize the transition array with -1 values.
-        for (int i = 0; i < mapHeight; i++) {
-            for (int j = 0; j < mapWidth; j++) {
-                for (int k = 0; k < 8; k++) {
-                    TRANSITIONS[i][j][k][0] = -1;
-                    TRANSITIONS[i][j][k][1] = -1;
-                    TRANSITIONS[i][j][k][2] = -1;
-                }
-            }
-        }
-    
-
-        int[][] neighborOffsets = {
-            {-1, 0}, {-1, 1}, {0, 1}, {1, 1},
-            {1, 0}, {1, -1}, {0, -1}, {-1, -1}
-        };
-        
-        // Include default transitions for all neighboring tiles.
-        for (int y = 0; y < mapHeight; y++) {
-            for (int x = 0; x < mapWidth; x++) {
-                // Neighbors are indexed as follows:
-                // 0: North, 1: Northeast, 2: East, 3: Southeast,
-                // 4: South, 5: Southwest, 6: West, 7: Northwest
-                
-    
-                for (int n = 0; n < 8; n++) {
-                    int ny = y + neighborOffsets[n][0];
-                    int nx = x + neighborOffsets[n][1];
-    
-                    // Check if the neighbor coordinates are within the map bounds.
-                    if (nx >= 0 && nx < mapWidth && ny >= 0 && ny < mapHeight) {
-                        // Get the tile value from the map byte array.
-                        byte tileValue = (byte) (((nx % 2 == 0) ? (map[ny][nx / 2] >> 4 & 0x0F) : map[ny][nx / 2] & 0x0F));
-    
-                        // Check if there is a tile (= no hole) at the neighbor position.
-                        if (tileValue != 13) {
-                            TRANSITIONS[y][x][n][0] = (byte) ny;
-                            TRANSITIONS[y][x][n][1] = (byte) nx;
-                            TRANSITIONS[y][x][n][2] = (byte) n;
-                        }
-                    }
-                }
-            }
+     * Executes the given move
+     * @param move the move to execute
+     * @param player player executing the moves
+     * @return false if the move is illegal. true otherwise
+     */ 
+    public boolean executeMove(Move move, byte player){
+        if(move == null){
+            throw new IllegalArgumentException("Illegal arguments for executeMove");
         }
+        return executeMove(move.getY(), move.getX(), move.getMoveType(), move.getChoicePlayer(), move.getBonusChooseBomb(), move.getEnclosed(), player);
     }
 
-    
     /**
-     * Computes the type of a tile. 
-     * Holes are listed as default tiles.
-     * Corner tiles have a maximum of 3 neighbours.
-     * Edge tiles have a maximum of 5 neighbours.
-     * All other tiles are default tiles.
-     * @param y coordinate of tile
-     * @param x coordinate of tile
-     * @return the type of a tile.
+     * Executes the given packed move (see Move.pack)
+     * @param move the packed move to execute
+     * @param player player executing the moves
+     * @return false if the move is illegal. true otherwise
      */
-    private static TileType computeTileType(byte y, byte x){
-        int numberOfNeighbours = 8;
-
-        //count number of neighbours
-        for(int k = 0; k < 8; k++){
-            byte[] neighbour = TRANSITIONS[y][x][k];
-            if(neighbour[0] == -1 && neighbour[1] == -1){
-                //hole 
-                numberOfNeighbours--;
-            }
+    public boolean executeMove(int move, byte player){
+        int index = Move.getPackedTileIndex(move);
+        if(move < 0 || index >= topology.indexY.length){
+            throw new IllegalArgumentException("Illegal arguments for executeMove");
         }
-
-        return switch(numberOfNeighbours){
-            case 0 -> TileType.DEFAULT;
-            case 1,2,3 -> TileType.CORNER;
-            case 4,5 -> TileType.EDGE;
-            default -> TileType.DEFAULT;
-        };
+        return executeMove(topology.indexY[index], topology.indexX[index], Move.getPackedType(move), Move.getPackedChoicePlayer(move),
+            Move.getPackedBonusChooseBomb(move), null, player);
     }
 
-    
+    /**
+     * Executes a move given by its parts. See executeMove
+     * @param y y-coordinate of the move
+     * @param x x-coordinate of the move
+     * @param type the move type
+     * @param choicePlayer the chosen player of a choice move
+     * @param bonusChooseBomb true if a bonus move chooses the bomb
+     * @param precomputed the tiles enclosed by the move, null or empty if they have to be computed
+     * @param player player executing the moves
+     * @return false if the move is illegal. true otherwise
+     */
+    private boolean executeMove(byte y, byte x, MoveType type, byte choicePlayer, boolean bonusChooseBomb, List<byte[]> precomputed, byte player){
+        boolean success = executeMove_Unverified(y, x, type, choicePlayer, bonusChooseBomb, precomputed, player);
+        if(hashVerification) verifyHash();
+        return success;
+    }
 
     /**
-     * Executes the given move
-     * @param move the move to execute
+     * Executes a move given by its parts. See executeMove
+     * @param y y-coordinate of the move
+     * @param x x-coordinate of the move
+     * @param type the move type
+     * @param choicePlayer the chosen player of a choice move
+     * @param bonusChooseBomb true if a bonus move chooses the bomb
+     * @param precomputed the tiles enclosed by the move, null or empty if they have to be computed
      * @param player player executing the moves
      * @return false if the move is illegal. true otherwise
-     */ 
-    public boolean executeMove(Move move, byte player){
-        if(move == null || player < 1 || player > playerCount || move.getY() < 0 || move.getY() >= mapHeight || move.getX() < 0 || move.getX() >= mapWidth){
+     */
+    private boolean executeMove_Unverified(byte y, byte x, MoveType type, byte choicePlayer, boolean bonusChooseBomb, List<byte[]> precomputed, byte player){
+        if(player < 1 || player > topology.playerCount || y < 0 || y >= topology.mapHeight || x < 0 || x >= topology.mapWidth){
             throw new IllegalArgumentException("Illegal arguments for executeMove");
         }
 
-        MoveType type = move.getMoveType();
         if(type.equals(MoveType.BOMB)){
             //player has to have at least 1 bomb
-            if(getPlayerBombCount(player) <= 0 || !isBombMoveValid(move)){
+            if(getPlayerBombCount(player) <= 0 || !isBombMoveValid(y, x)){
                 return false;
             }
             //execute bomb move
-            executeBombMove(move, player);
+            executeBombMove(y, x, player);
             return true;
         }
         
 
         //if it is a special move, the special field should be at the coords
-        if(type.equals(MoveType.BONUS) && !getMapTile(move.getY(), move.getX()).equals(Tile.BONUS)){
+        if(type.equals(MoveType.BONUS) && !getMapTile(y, x).equals(Tile.BONUS)){
              return false;
         }
-        if(type.equals(MoveType.CHOICE) && !getMapTile(move.getY(), move.getX()).equals(Tile.CHOICE)){
+        if(type.equals(MoveType.CHOICE) && !getMapTile(y, x).equals(Tile.CHOICE)){
             return false;
         }
 
         //player has to have at least 1 overriding stone for override move and ov. moves can only be performed on occupied tiles or exapansion
-        if(type.equals(MoveType.OVERRIDE) && (getPlayerOverrideStoneCount(player) <= 0 || Tile.isTileEmptyOrHole(getMapTile(move.getY(), move.getX())))){
+        if(type.equals(MoveType.OVERRIDE) && (getPlayerOverrideStoneCount(player) <= 0 || Tile.isTileEmptyOrHole(getMapTile(y, x)))){
             return false;
         }
         //compute the enclosed stones
-        List<byte[]> enclosed = (move.getEnclosed() == null || move.getEnclosed().size()==0)? getEnclosedStones(move.getY(), move.getX(), player) : move.getEnclosed();
-        if(enclosed == null){
+        int[] enclosed = getFlipBuffer();
+        int enclosedCount = 0;
+        if(precomputed == null || precomputed.size() == 0){
+            enclosedCount = getEnclosedStones(y, x, player, enclosed);
+        } else {
+            for(byte[] tile : precomputed){
+                enclosed[enclosedCount++] = getTileIndex(tile[0], tile[1]);
+            }
+        }
+        if(enclosedCount == 0){
             //for override moves, it's okay that no stone is enclosed IF an expansion stone is overriden
-            if(!(type.equals(MoveType.OVERRIDE) && getMapTile(move.getY(), move.getX()).equals(Tile.EXPANSION))){
+            if(!(type.equals(MoveType.OVERRIDE) && getMapTile(y, x).equals(Tile.EXPANSION))){
                 return false;
             }
         }
         //at this point, at least 1 stone is enclosed (or override with expansion stone).
         //flip the enclosed stones
-        if(enclosed != null){
+        if(enclosedCount > 0){
 
             //before flipping the stones, change frontier stones
-            changeFrontierStones(move.getY(), move.getX(), enclosed, player);
+            changeFrontierStones(y, x, enclosed, enclosedCount, player);
 
-            for(byte[] tile : enclosed){
-                int ovPl = TILE_DECODING.get(getMapTile(tile[0], tile[1]));
+            for(int i = 0; i < enclosedCount; i++){
+                byte tileY = getTileIndexY(enclosed[i]);
+                byte tileX = getTileIndexX(enclosed[i]);
+                int ovPl = TILE_DECODING[getMapTile(tileY, tileX).ordinal()];
                 if(ovPl<9 &&ovPl>0) {
 
-                    tileScores[ovPl-1] -= switch(PlayingField.getTileType(tile[0], tile[1])){
+                    tileScores[ovPl-1] -= switch(getTileType(tileY, tileX)){
                         case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
                         case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
                         case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
                     };
                 }
-                tileScores[player-1] += switch(PlayingField.getTileType(tile[0], tile[1])){
+                tileScores[player-1] += switch(getTileType(tileY, tileX)){
                     case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
                     case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
                     case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
                 };
-                setMapTile(tile[0], tile[1], TILE_ENCODING[player]);
+                setMapTile(tileY, tileX, TILE_ENCODING[player]);
                 
             }
         }
         //if it is a special move, execute the special event
         if(type.equals(MoveType.BONUS)){
-            if(move.getBonusChooseBomb()){
+            if(bonusChooseBomb){
                 changePlayerBombCount(player, (byte)1);
             } else {
                 changePlayerOverrideStoneCount(player, (byte)1);
@@ -1003,23 +1072,23 @@ public class PlayingField {
         }
         else if (type.equals(MoveType.CHOICE)){
             //for choice moves, the selected tile has to be placed here so that it will be switched
-            int ovPl = TILE_DECODING.get(getMapTile(move.getY(), move.getX()));
+            int ovPl = TILE_DECODING[getMapTile(y, x).ordinal()];
             if(ovPl<9 &&ovPl>0) {
-                tileScores[ovPl-1] -= switch(PlayingField.getTileType(move.getY(), move.getX())){
+                tileScores[ovPl-1] -= switch(getTileType(y, x)){
                     case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
                     case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
                     case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
                 };
             }
                 
-            tileScores[player-1] += switch(PlayingField.getTileType(move.getY(), move.getX())){
+            tileScores[player-1] += switch(getTileType(y, x)){
                 case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
                 case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
                 case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
             };
-            setMapTile(move.getY(), move.getX(), TILE_ENCODING[player]);
+            setMapTile(y, x, TILE_ENCODING[player]);
             numberOccupiedTiles++;
-            executeChoiceMove(player, move.getChoicePlayer());
+            executeChoiceMove(player, choicePlayer);
             return true;
         } else if (type.equals(MoveType.OVERRIDE)){
             //for overide moves, reduce the override stone count
@@ -1027,67 +1096,238 @@ public class PlayingField {
         }
         //at this point, the move is default or inversion or override
         //check for inversion
-        else if(getMapTile(move.getY(), move.getX()).equals(Tile.INVERSION)){
-            int ovPl = TILE_DECODING.get(getMapTile(move.getY(), move.getX()));
+        else if(getMapTile(y, x).equals(Tile.INVERSION)){
+            int ovPl = TILE_DECODING[getMapTile(y, x).ordinal()];
             if(ovPl<9 &&ovPl>0) {
-                tileScores[ovPl-1] -= switch(PlayingField.getTileType(move.getY(), move.getX())){
+                tileScores[ovPl-1] -= switch(getTileType(y, x)){
                     case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
                     case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
                     case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
                 };
             }
                 
-            tileScores[player-1] += switch(PlayingField.getTileType(move.getY(), move.getX())){
+            tileScores[player-1] += switch(getTileType(y, x)){
                 case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
                 case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
                 case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
             };  
             numberOccupiedTiles++;
-            setMapTile(move.getY(), move.getX(), TILE_ENCODING[player]);
+            setMapTile(y, x, TILE_ENCODING[player]);
             executeInversionMove();
             return true;
         }
         //execute the default move (or place the override)
-        int ovPl = TILE_DECODING.get(getMapTile(move.getY(), move.getX()));
+        int ovPl = TILE_DECODING[getMapTile(y, x).ordinal()];
         if(ovPl<9 &&ovPl>0) {
-            tileScores[ovPl-1] -= switch(PlayingField.getTileType(move.getY(), move.getX())){
+            tileScores[ovPl-1] -= switch(getTileType(y, x)){
                 case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
                 case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
                 case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
             };
         }
                 
-        tileScores[player-1] += switch(PlayingField.getTileType(move.getY(), move.getX())){
+        tileScores[player-1] += switch(getTileType(y, x)){
             case DEFAULT -> MoveHeuristic.RATING_OCCUPIED_DEFAULT_TILE;
             case EDGE -> MoveHeuristic.RATING_OCCUPIED_EGDE_TILE;
             case CORNER -> MoveHeuristic.RATING_OCCUPIED_CORNER_TILE;
         };
-        if(Tile.isTileEmpty(getMapTile(move.getY(), move.getX()))) numberOccupiedTiles++;
-        setMapTile(move.getY(), move.getX(), TILE_ENCODING[player]);
+        if(Tile.isTileEmpty(getMapTile(y, x))) numberOccupiedTiles++;
+        setMapTile(y, x, TILE_ENCODING[player]);
+        return true;
+    }
+
+    /**
+     * Executes the given move in place and remembers everything that is needed to take it back with unmakeMove.
+     * Unlike Move.simulateMove, this does not copy the PlayingField.
+     * Every successful call has to be matched by exactly one call of unmakeMove (in reverse order).
+     * @param move the move to execute
+     * @param player player executing the move
+     * @return false if the move is illegal (the PlayingField is unchanged in that case). true otherwise
+     */
+    public boolean makeMove(Move move, byte player){
+        if(move == null){
+            throw new IllegalArgumentException("Illegal arguments for makeMove");
+        }
+        return makeMove(move.getY(), move.getX(), move.getMoveType(), move.getChoicePlayer(), move.getBonusChooseBomb(), move.getEnclosed(), player);
+    }
+
+    /**
+     * Executes the given packed move (see Move.pack) in place. See makeMove
+     * @param move the packed move to execute
+     * @param player player executing the move
+     * @return false if the move is illegal (the PlayingField is unchanged in that case). true otherwise
+     */
+    public boolean makeMove(int move, byte player){
+        int index = Move.getPackedTileIndex(move);
+        if(move < 0 || index >= topology.indexY.length){
+            throw new IllegalArgumentException("Illegal arguments for makeMove");
+        }
+        return makeMove(topology.indexY[index], topology.indexX[index], Move.getPackedType(move), Move.getPackedChoicePlayer(move),
+            Move.getPackedBonusChooseBomb(move), null, player);
+    }
+
+    /**
+     * Executes a move given by its parts in place. See makeMove
+     * @param y y-coordinate of the move
+     * @param x x-coordinate of the move
+     * @param type the move type
+     * @param choicePlayer the chosen player of a choice move
+     * @param bonusChooseBomb true if a bonus move chooses the bomb
+     * @param precomputed the tiles enclosed by the move, null or empty if they have to be computed
+     * @param player player executing the move
+     * @return false if the move is illegal (the PlayingField is unchanged in that case). true otherwise
+     */
+    private boolean makeMove(byte y, byte x, MoveType type, byte choicePlayer, boolean bonusChooseBomb, List<byte[]> precomputed, byte player){
+        if(undoStack == null){
+            undoStack = new UndoStack();
+        }
+        int ply = undoStack.push(4*topology.playerCount + 1);
+
+        //the per-player counters are small, so they are stored as a whole
+        int[] counters = undoStack.counters[ply];
+        for(int i = 0; i < topology.playerCount; i++){
+            counters[i] = playerBombCount[i];
+            counters[topology.playerCount + i] = playerOverrideStoneCount[i];
+            counters[2*topology.playerCount + i] = tileScores[i];
+            counters[3*topology.playerCount + i] = player_num_frontier_stones[i];
+        }
+        counters[4*topology.playerCount] = numberOccupiedTiles;
+        undoStack.hashes[ply] = hash;
+
+        //choice and inversion moves swap stones
+        if(type.equals(MoveType.CHOICE) || (!type.equals(MoveType.BOMB) && getMapTile(y, x).equals(Tile.INVERSION))){
+            if(undoStack.stones[ply] == null){
+                undoStack.stones[ply] = new byte[stones.length];
+            }
+            System.arraycopy(stones, 0, undoStack.stones[ply], 0, stones.length);
+            undoStack.stonesSaved[ply] = true;
+        }
+
+        if(!executeMove(y, x, type, choicePlayer, bonusChooseBomb, precomputed, player)){
+            unmakeMove();
+            return false;
+        }
         return true;
     }
 
+    /**
+     * Takes back the last move executed with makeMove.
+     */
+    public void unmakeMove(){
+        if(undoStack == null || undoStack.ply == 0){
+            throw new IllegalStateException("[ERROR] unmakeMove was called without a matching makeMove.");
+        }
+        int ply = --undoStack.ply;
+
+        //restore the tiles in reverse order, tiles may have been changed several times
+        int[] tileLog = undoStack.tileLog;
+        for(int i = undoStack.tileLogSize - 1; i >= undoStack.tileLogStart[ply]; i--){
+            restoreTileCode((byte)(tileLog[i] >> 16), (byte)(tileLog[i] >> 8), tileLog[i] & 0xFF);
+        }
+        undoStack.tileLogSize = undoStack.tileLogStart[ply];
+
+        int[] frontierLog = undoStack.frontierLog;
+        for(int i = undoStack.frontierLogSize - 1; i >= undoStack.frontierLogStart[ply]; i--){
+            is_frontier_stone[(byte)(frontierLog[i] >> 16)][(byte)(frontierLog[i] >> 8)] = (frontierLog[i] & 1) == 1;
+        }
+        undoStack.frontierLogSize = undoStack.frontierLogStart[ply];
+
+        int[] counters = undoStack.counters[ply];
+        for(int i = 0; i < topology.playerCount; i++){
+            playerBombCount[i] = (short)counters[i];
+            playerOverrideStoneCount[i] = (short)counters[topology.playerCount + i];
+            tileScores[i] = counters[2*topology.playerCount + i];
+            player_num_frontier_stones[i] = counters[3*topology.playerCount + i];
+        }
+        numberOccupiedTiles = counters[4*topology.playerCount];
+        hash = undoStack.hashes[ply];
+
+        if(undoStack.stonesSaved[ply]){
+            byte[] savedStones = undoStack.stones[ply];
+            for(byte p = 1; p < stones.length; p++){
+                stones[p] = savedStones[p];
+                stoneOwners[savedStones[p]] = p;
+            }
+        }
+        if(hashVerification) verifyHash();
+    }
+
+    /**
+     * Computes the Zobrist hash of this position from scratch (see Zobrist).
+     * @return the hash
+     */
+    public long computeHash(){
+        long h = 0;
+        for(byte y = 0; y < topology.mapHeight; y++){
+            for(byte x = 0; x < topology.mapWidth; x++){
+                h ^= Zobrist.tileKey(topology, y, x, getTileCode(y, x));
+            }
+        }
+        for(byte p = 1; p <= topology.playerCount; p++){
+            h ^= Zobrist.stoneKey(p, stones[p]);
+            h ^= Zobrist.counterKey(p, false, playerBombCount[p-1]);
+            h ^= Zobrist.counterKey(p, true, playerOverrideStoneCount[p-1]);
+            if(!activePlayers[p-1]) h ^= Zobrist.disqualifiedKey(p);
+        }
+        if(isEliminationPhase) h ^= Zobrist.phaseKey();
+        return h;
+    }
+
+    /**
+     * Compares the incremental hash with a hash computed from scratch. Used if hashVerification is enabled.
+     */
+    private void verifyHash(){
+        long expected = computeHash();
+        if(expected != hash){
+            throw new IllegalStateException("[ERROR] incremental hash " + Long.toHexString(hash) + " differs from the recomputed hash " + Long.toHexString(expected) + ".");
+        }
+    }
+
+    /**
+     * Writes the 4-bit encoding of a tile directly into the map (i.e., without translating swapped stones).
+     * Only used by unmakeMove.
+     * @param y coordinate
+     * @param x coordinate
+     * @param code value between 0 and 13 (see map)
+     */
+    private void restoreTileCode(byte y, byte x, int code){
+        int oldCode = getTileCode(y, x);
+        if(bitBoard != null){
+            bitBoard.setTile(y, x, oldCode, code);
+        }
+        if(x % 2 == 0){
+            map[y][x/2] = (byte) ((map[y][x/2] & 0b00001111) | (code << 4));
+        } else {
+            map[y][x/2] = (byte) ((map[y][x/2] & 0b11110000) | code);
+        }
+        if(moveCandidates != null){
+            moveCandidates.setTile(this, getTileIndex(y, x), oldCode, code);
+        }
+        changeStoneCounts(oldCode, code);
+    }
+
     /**
      * This method is called when a move is executed and changes the frontier stones accordingly.
      * Note that this method has to be called BEFORE the move has been executed (and thus the board changed)
      * @param y coordinate of tile where stone is placed
      * @param x coordinate of tile where stone is placed
-     * @param enclosed array of enclosed stones
+     * @param enclosed packed indices of the enclosed stones (see getEnclosedStones)
+     * @param enclosedCount number of enclosed stones
      * @param player that executed the move
      */
-    private void changeFrontierStones(byte y, byte x, List<byte[]> enclosed, byte player){
+    private void changeFrontierStones(byte y, byte x, int[] enclosed, int enclosedCount, byte player){
+        int index = getTileIndex(y, x);
         if(isFrontierStone(y, x)){
             //if the tile was a frontier stone before, it still is a frontier. However, the player might have changed
             //remove from the old player count
-            changePlayerFrontierCount(TILE_DECODING.get(getMapTile(y, x)), -1);
+            changePlayerFrontierCount(TILE_DECODING[getMapTile(y, x).ordinal()], -1);
             //add to new player count
             changePlayerFrontierCount(player, 1);
         } else {
             //if the stone was not a frontier before, then check if it is a frontier now
-            byte[] neighbour = new byte[3];
-            for(byte k = 0; k < 8; k++){
-                neighbour = getTransition(y, x, k);
-                if(Tile.isTileEmpty(getMapTile(neighbour[0], neighbour[1]))){
+            for(int k = 0; k < 8; k++){
+                int neighbour = topology.neighbours[index * 8 + k];
+                if(neighbour >= 0 && isEmptyCode(getTileCode(neighbour >> 3))){
                     //now this is a frontier stone, no need to check the other directions
                     setFrontierStone(y, x, true);
                     //increment the frontier counter for the respective player
@@ -1097,34 +1337,38 @@ public class PlayingField {
             }
         }
         //now we deal with all 8 neighbours. they might no longer be frontiers since we might have surrounded them now.
-        byte[] neighbour = new byte[3];
-        for(byte k = 0; k < 8; k++){
-            neighbour = getTransition(y, x, k);
-            if(isFrontierStone(neighbour[0], neighbour[1])){
+        for(int k = 0; k < 8; k++){
+            int neighbour = topology.neighbours[index * 8 + k];
+            if(neighbour < 0) continue;
+            int neighbourIndex = neighbour >> 3;
+            byte nY = topology.indexY[neighbourIndex];
+            byte nX = topology.indexX[neighbourIndex];
+            if(isFrontierStone(nY, nX)){
                 //check if they are still frontiers
-                byte[] neighbour2 = new byte[3];
                 boolean stillFrontier = false;
-                for(byte i = 0; i < 8 && !stillFrontier; i++){
-                    neighbour2 = getTransition(neighbour[0], neighbour[1], i);
-                    if(Tile.isTileEmpty(getMapTile(neighbour2[0], neighbour2[1]))){
+                for(int i = 0; i < 8 && !stillFrontier; i++){
+                    int neighbour2 = topology.neighbours[neighbourIndex * 8 + i];
+                    if(neighbour2 >= 0 && isEmptyCode(getTileCode(neighbour2 >> 3))){
                         //this stone is still a frontier.
                         stillFrontier = true;
                     }
                 }
                 if(!stillFrontier){
                      //no empty neighbours were found -> no longer a frontier
-                    setFrontierStone(neighbour[0], neighbour[1], false);
+                    setFrontierStone(nY, nX, false);
                     //change the count
-                    changePlayerFrontierCount(TILE_DECODING.get(getMapTile(neighbour[0], neighbour[1])), -1);
+                    changePlayerFrontierCount(TILE_DECODING[getMapTile(nY, nX).ordinal()], -1);
                 }
             }
         }
         //now we handle all the enclosed stones.
         //if an enclosed stone is a frontier, the player counts have to change occordingly.
-        for(byte[] enc : enclosed){
-            if(isFrontierStone(enc[0], enc[1])){
+        for(int i = 0; i < enclosedCount; i++){
+            byte encY = topology.indexY[enclosed[i]];
+            byte encX = topology.indexX[enclosed[i]];
+            if(isFrontierStone(encY, encX)){
                 //change the counts
-                changePlayerFrontierCount(TILE_DECODING.get(getMapTile(enc[0], enc[1])), -1);
+                changePlayerFrontierCount(TILE_DECODING[getMapTile(encY, encX).ordinal()], -1);
                 changePlayerFrontierCount(player, 1);
             }
         }
@@ -1133,11 +1377,12 @@ public class PlayingField {
 
     /**
      * Bomb moves are valid iff the targeted tile is not a hole.
-     * @param move
+     * @param y y-coordinate of the bomb move
+     * @param x x-coordinate of the bomb move
      * @return whether the given bomb move is valid.
      */
-    private boolean isBombMoveValid(Move move){
-        return !getMapTile(move.getY(), move.getX()).equals(Tile.HOLE);
+    private boolean isBombMoveValid(byte y, byte x){
+        return !getMapTile(y, x).equals(Tile.HOLE);
     }
 
     /**
@@ -1148,67 +1393,126 @@ public class PlayingField {
      * @return a list of enclosed stones. null if there are none
      */
     public List<byte[]> getEnclosedStones(byte y, byte x, byte player){
-        //LinkedList is best since we only need to access the first and last item
-        LinkedList<byte[]> enclosed = new LinkedList<>();
-        //has entries {y,x,r} for the current observed tile and the direction r
-        byte[] cur;
+        int[] buffer = getFlipBuffer();
+        int count = getEnclosedStones(y, x, player, buffer);
+        if(count == 0) return null;
+        List<byte[]> enclosed = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            enclosed.add(new byte[]{getTileIndexY(buffer[i]), getTileIndexX(buffer[i])});
+        }
+        return enclosed;
+    }
+
+    /**
+     * calculates the tiles enclosed by a move without allocating anything.
+     * @param y y-coordinate of the move
+     * @param x x-coordinate of the move
+     * @param player player for which to calculate the moves
+     * @param buffer receives the packed indices (see getTileIndex) of the enclosed stones. Needs a size of at least getFlipBufferSize()
+     * @return the number of enclosed stones written to the buffer. 0 if there are none
+     */
+    public int getEnclosedStones(byte y, byte x, byte player, int[] buffer){
+        int count = 0;
+        int origin = getTileIndex(y, x);
+        //stones are compared physically, so the stone the player currently uses is needed
+        int own = stones[player];
         //check all 8 directions
         for(int k = 0; k < 8; k++){
-            //counter of logged enclosed stones for this direction
-            int counter = 0;
-            //set starting point
-            cur = TRANSITIONS[y][x][k];
+            //the stones of this direction start here. If the direction does not enclose anything, they are discarded by resetting count
+            int start = count;
+            //set starting point. cur is the tile index times 8 plus the direction to continue in
+            int cur = topology.neighbours[origin * 8 + k];
             //check type of adjacent tile. enclosement only possible if it is occupied by another player or an expansion stone
-            if(!isTileOccupiedByAnother(cur[0], cur[1], player)){
+            if(cur < 0) continue;
+            int code = getTileCode(cur >> 3);
+            if(code == own || !isOccupiedCode(code)){
                 continue;
             }
-            enclosed.add(new byte[]{cur[0], cur[1]});
-            counter++;
-            cur = TRANSITIONS[cur[0]][cur[1]][cur[2]];
+            buffer[count++] = cur >> 3;
+            cur = topology.neighbours[cur];
             //check type of all other tiles. stop when there is an empty/hole tile or an own tile. 
             // avoid infinite loops by stopping when the original tile was reached
             while(true){
-                if(cur[0] == y && cur[1] == x) {
-                    for(int i = 0; i < counter; i++){
-                        enclosed.removeLast();
-                    }
+                if(cur < 0 || (cur >> 3) == origin) {
+                    count = start;
                     break;
                 }
-                Tile t = getMapTile(cur[0], cur[1]);
+                code = getTileCode(cur >> 3);
                 //if it is an own tile, all the enclosed tiles are logged. Continue with the next direction
-                if(t.equals(TILE_ENCODING[player])){
+                if(code == own){
                     break;
                 }
-                //if there is an empty tile or a hole, stop looking in this direction. Also remove all the logged enclosed stones for this direction
-                if(!isTileOccupied(cur[0], cur[1])){
-                    //remove all the logged stones for this direction
-                    for(int i = 0; i < counter; i++){
-                        enclosed.removeLast();
-                    }
+                //if there is an empty tile, stop looking in this direction. Also discard the logged stones for this direction
+                if(!isOccupiedCode(code)){
+                    count = start;
                     break;
                 }
-                enclosed.add(new byte[]{cur[0], cur[1]});
-                counter++;
-                cur = TRANSITIONS[cur[0]][cur[1]][cur[2]];
+                buffer[count++] = cur >> 3;
+                cur = topology.neighbours[cur];
             }
         }
-        //if all directions are checked
-        return enclosed.isEmpty() ? null : enclosed;
+        return count;
     }
 
     /**
-     * checls if a tiles is occupied(expansion or player other than specified player)
-     * @param y coordinate of the tile
-     * @param x coordinate of the tile
-     * @param player the exception to the occupied status
-     * @return true if the (y,x) tile is an expansion stone or occupied by anyone other than player  
+     * checks if a move on (y,x) encloses at least one stone. Stops at the first direction that encloses a stone.
+     * @param y y-coordinate of the move
+     * @param x x-coordinate of the move
+     * @param player player for which to check the move
+     * @return true iff getEnclosedStones would find at least one stone
      */
-    private boolean isTileOccupiedByAnother(byte y, byte x, byte player){
-        Tile t = getMapTile(y, x);
-        if(t.equals(Tile.EMPTY) || t.equals(Tile.HOLE) || t.equals(TILE_ENCODING[player]) || t.equals(Tile.BONUS) || t.equals(Tile.CHOICE) || t.equals(Tile.INVERSION)){
+    public boolean hasEnclosedStones(byte y, byte x, byte player){
+        for(byte k = 0; k < 8; k++){
+            if(isEnclosingInDirection(y, x, player, k)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the flip buffer of the current thread, large enough for the current map
+     */
+    private int[] getFlipBuffer(){
+        int[] buffer = FLIP_BUFFER.get();
+        if(buffer.length < getFlipBufferSize()){
+            buffer = new int[getFlipBufferSize()];
+            FLIP_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * checks if a move on (y,x) encloses stones in direction k. Follows the same rules as getEnclosedStones but does not log the stones.
+     * @param y y-coordinate of the move
+     * @param x x-coordinate of the move
+     * @param player player for which to check the move
+     * @param k direction
+     * @return true iff at least one stone is enclosed in direction k
+     */
+    boolean isEnclosingInDirection(byte y, byte x, byte player, byte k){
+        int origin = getTileIndex(y, x);
+        int own = stones[player];
+        int cur = topology.neighbours[origin * 8 + k];
+        //enclosement only possible if the adjacent tile is occupied by another player or an expansion stone
+        if(cur < 0) return false;
+        int code = getTileCode(cur >> 3);
+        if(code == own || !isOccupiedCode(code)){
             return false;
         }
-        return true;
+        cur = topology.neighbours[cur];
+        while(true){
+            //avoid infinite loops by stopping when the original tile was reached
+            if(cur < 0 || (cur >> 3) == origin) {
+                return false;
+            }
+            code = getTileCode(cur >> 3);
+            if(code == own){
+                return true;
+            }
+            if(!isOccupiedCode(code)){
+                return false;
+            }
+            cur = topology.neighbours[cur];
+        }
     }
 
     /**
@@ -1235,67 +1539,94 @@ public class PlayingField {
 
     /**
      * Executes a bomb move for the given player at the given tile.
-     * @param move
-     * @param player
+     * @param y y-coordinate of the bomb move
+     * @param x x-coordinate of the bomb move
+     * @param player player executing the move
      */
-    private void executeBombMove(Move move, byte player){
+    private void executeBombMove(byte y, byte x, byte player){
         //decrease bomb count
         changePlayerBombCount(player, (byte)-1);
-        short r = getBombRadius();
-        LinkedList<byte[]> hit = executeBombMove(move.getX(), move.getY(), (short) (r));
-        for(byte[] t:hit) {
-            setMapTile(t[1], t[0], Tile.HOLE);
+        int start = getTileIndex(y, x);
+        int[] blast = getCachedBombBlast(start);
+        int count;
+        if(blast == null){
+            blast = getFlipBuffer();
+            count = computeBombBlast(start, blast);
+        } else {
+            count = blast.length;
         }
-        
-    }
-    private LinkedList<byte[]> executeBombMove(byte x, byte y, short r){ 
-        if((x<0 || y<0 || x>=getMapWidth() || y>=getMapHeight())) {
-            return new LinkedList<>();
-        }
-        LinkedList<byte[]> hit = new LinkedList<>();
-        if(r>0) {
-            for(int i = 0; i < 8; i++) {
-                byte newY = TRANSITIONS[y][x][i][0];
-                byte newX = TRANSITIONS[y][x][i][1];
-                if(!getMapTile(newY, newX).equals(Tile.HOLE)) {
-                    hit.addAll(executeBombMove(newX,newY, (short)(r-1)));
-                    
-                }
-            } 
+        for(int i = 0; i < count; i++) {
+            setMapTile(topology.indexY[blast[i]], topology.indexX[blast[i]], Tile.HOLE);
         }
-        hit.add(new byte[]{x,y});
-        return hit;
     }
-    
 
+    /**
+     * Computes the tiles that are hit by a bomb on (y,x), i.e., all tiles that can be reached from (y,x) with at most bombRadius steps 
+     * without passing a hole. Uses the cached blast of the tile if it is still valid.
+     * @param y coordinate of the bombed tile. Must not be a hole
+     * @param x coordinate of the bombed tile. Must not be a hole
+     * @param buffer receives the packed indices (see getTileIndex) of the hit tiles, the bombed tile first. Needs a size of at least mapHeight * mapWidth
+     * @return the number of hit tiles written to the buffer
+     */
+    public int getBombBlast(byte y, byte x, int[] buffer){
+        int start = getTileIndex(y, x);
+        int[] blast = getCachedBombBlast(start);
+        if(blast == null) return computeBombBlast(start, buffer);
+        System.arraycopy(blast, 0, buffer, 0, blast.length);
+        return blast.length;
+    }
 
+    /**
+     * Returns the cached blast of a tile if it is still valid for this PlayingField.
+     * Every path of at most bombRadius steps only visits tiles of the cached blast. So if none of them has become a hole 
+     * (holes of the original map are never part of it), the blast is the same as on the original map.
+     * Otherwise, an earlier bomb may have cut off some of the tiles and the blast has to be computed again.
+     * @param start packed index of the bombed tile
+     * @return the cached blast, null if there is none or it is no longer valid
+     */
+    private int[] getCachedBombBlast(int start){
+        int[][] blasts = topology.bombBlasts;
+        if(blasts == null || blasts[start] == null) return null;
+        int[] blast = blasts[start];
+        for(int i = 1; i < blast.length; i++){
+            if(getTileCode(blast[i]) == 13) return null;
+        }
+        return blast;
+    }
 
+    /**
+     * Computes the tiles that are hit by a bomb with a breadth-first search over the current map (see getBombBlast).
+     * Every tile is visited at most once.
+     * @param start packed index of the bombed tile
+     * @param queue receives the packed indices of the hit tiles in breadth-first order. Needs a size of at least mapHeight * mapWidth
+     * @return the number of hit tiles
+     */
+    private int computeBombBlast(int start, int[] queue){
+        return topology.computeBombBlast(map, start, queue);
+    }
 
     /**
      * Swaps the stones of both players. 
-     * This is done by swapping the encoding of the tiles OCCUPIED_player1 and OCCUPIED_player2.
+     * This is done by swapping the stones of both players in the stone permutation. The map itself is not changed.
      * @param player1
      * @param player2
      */
     private void executeChoiceMove(byte player1, byte player2){
         //up to this, p1 used this stone:
-        Tile p1_old_tile = TILE_TRANSLATOR.get(TILE_ENCODING[player1]);
+        byte p1_old_stone = stones[player1];
 
         //up to this, p2 used this stone:
-        Tile p2_old_tile = TILE_TRANSLATOR.get(TILE_ENCODING[player2]);
-
+        byte p2_old_stone = stones[player2];
 
-        //the stone that p2 used before is now used by p1
-        TILE_TRANSLATOR_INVERSE.put(p2_old_tile, TILE_ENCODING[player1]);
-        //the stone that p1 used before is now used by p2
-        TILE_TRANSLATOR_INVERSE.put(p1_old_tile, TILE_ENCODING[player2]);
+        //the map does not change, so only the stone keys of both players have to be updated in the hash
+        hash ^= Zobrist.stoneKey(player1, p1_old_stone) ^ Zobrist.stoneKey(player2, p2_old_stone)
+            ^ Zobrist.stoneKey(player1, p2_old_stone) ^ Zobrist.stoneKey(player2, p1_old_stone);
 
-
-        
-        //P1 now uses the stone that p2 used before
-        TILE_TRANSLATOR.put(TILE_ENCODING[player1], p2_old_tile);
-        //P2 now uses the stone that p1 used before
-        TILE_TRANSLATOR.put(TILE_ENCODING[player2], p1_old_tile);
+        //P1 now uses the stone that p2 used before and vice versa
+        stones[player1] = p2_old_stone;
+        stones[player2] = p1_old_stone;
+        stoneOwners[p2_old_stone] = player1;
+        stoneOwners[p1_old_stone] = player2;
 
         int temp = tileScores[player1-1];
         tileScores[player1-1] = tileScores[player2-1];
@@ -1323,7 +1654,7 @@ public class PlayingField {
         */
     private void executeInversionMove(){
         //do choice moves for all players
-        for(byte i = 1; i < playerCount; i++){
+        for(byte i = 1; i < topology.playerCount; i++){
             executeChoiceMove((byte)1, (byte)(i+1));
         } 
     }
@@ -0,0 +1,142 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import java.util.Arrays;
+
+/**
+ * Preallocated undo stack used by PlayingField.makeMove and PlayingField.unmakeMove.
+ * Every made move opens a ply. While a ply is open, PlayingField logs every tile and frontier flag it changes.
+ * The per-player counters are small, so they are stored as a whole when the ply is opened.
+ * All arrays grow on demand and are reused afterwards, so no allocation happens once the search reached its maximum depth.
+ */
+class UndoStack {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Initial number of plies.
+     */
+    private static final int INITIAL_PLIES = 32;
+
+    /**
+     * Initial number of log entries.
+     */
+    private static final int INITIAL_LOG_SIZE = 1024;
+
+    /**
+     * Log of changed tiles. Each entry is y << 16 | x << 8 | old 4-bit encoding.
+     */
+    int[] tileLog = new int[INITIAL_LOG_SIZE];
+
+    /**
+     * Number of used entries in tileLog.
+     */
+    int tileLogSize;
+
+    /**
+     * Log of changed frontier flags. Each entry is y << 16 | x << 8 | old value (0 or 1).
+     */
+    int[] frontierLog = new int[INITIAL_LOG_SIZE];
+
+    /**
+     * Number of used entries in frontierLog.
+     */
+    int frontierLogSize;
+
+    /**
+     * Number of open plies.
+     */
+    int ply;
+
+    /**
+     * tileLogStart[i] is the size of tileLog when ply i was opened.
+     */
+    int[] tileLogStart = new int[INITIAL_PLIES];
+
+    /**
+     * frontierLogStart[i] is the size of frontierLog when ply i was opened.
+     */
+    int[] frontierLogStart = new int[INITIAL_PLIES];
+
+    /**
+     * counters[i] contains the bomb counts, override stone counts, tile scores and frontier counts of all players
+     * followed by the number of occupied tiles at the time ply i was opened.
+     */
+    int[][] counters = new int[INITIAL_PLIES][];
+
+    /**
+     * hashes[i] is the hash of the PlayingField when ply i was opened.
+     */
+    long[] hashes = new long[INITIAL_PLIES];
+
+    /**
+     * stones[i] is the stone permutation of the PlayingField when ply i was opened. Only valid if stonesSaved[i] is true.
+     */
+    byte[][] stones = new byte[INITIAL_PLIES][];
+
+    /**
+     * stonesSaved[i] is true iff the move of ply i may have swapped stones.
+     */
+    boolean[] stonesSaved = new boolean[INITIAL_PLIES];
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Opens a new ply and makes sure that all the per-ply arrays are large enough.
+     * @param counterSize number of counters to store
+     * @return the index of the new ply
+     */
+    int push(int counterSize){
+        if(ply == tileLogStart.length){
+            int size = 2 * ply;
+            tileLogStart = Arrays.copyOf(tileLogStart, size);
+            frontierLogStart = Arrays.copyOf(frontierLogStart, size);
+            counters = Arrays.copyOf(counters, size);
+            hashes = Arrays.copyOf(hashes, size);
+            stones = Arrays.copyOf(stones, size);
+            stonesSaved = Arrays.copyOf(stonesSaved, size);
+        }
+        if(counters[ply] == null){
+            counters[ply] = new int[counterSize];
+        }
+        tileLogStart[ply] = tileLogSize;
+        frontierLogStart[ply] = frontierLogSize;
+        stonesSaved[ply] = false;
+        return ply++;
+    }
+
+    /**
+     * Logs the old value of a tile.
+     * @param y coordinate of the tile
+     * @param x coordinate of the tile
+     * @param oldCode 4-bit encoding of the tile before the change
+     */
+    void logTile(byte y, byte x, int oldCode){
+        if(tileLogSize == tileLog.length){
+            tileLog = Arrays.copyOf(tileLog, 2 * tileLogSize);
+        }
+        tileLog[tileLogSize++] = y << 16 | x << 8 | oldCode;
+    }
+
+    /**
+     * Logs the old value of a frontier flag.
+     * @param y coordinate of the tile
+     * @param x coordinate of the tile
+     * @param oldValue the frontier flag before the change
+     */
+    void logFrontier(byte y, byte x, boolean oldValue){
+        if(frontierLogSize == frontierLog.length){
+            frontierLog = Arrays.copyOf(frontierLog, 2 * frontierLogSize);
+        }
+        frontierLog[frontierLogSize++] = y << 16 | x << 8 | (oldValue ? 1 : 0);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
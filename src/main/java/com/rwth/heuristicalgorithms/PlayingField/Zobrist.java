@@ -0,0 +1,139 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for the Zobrist hash of a PlayingField (see PlayingField.getHash).
+ * The hash is the XOR of
+ * - one key per tile and 4-bit encoding (the physical stones as stored in the map),
+ * - one key per player and the stone this player currently uses,
+ * - one key per player and bomb/override stone count,
+ * - one key per disqualified player,
+ * - one key if the elimination phase has started.
+ * Since the map stores physical stones, choice and inversion moves only change the stone keys and not the tile keys.
+ * Whose turn it is, is not part of the hash.
+ */
+class Zobrist {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Seed for the keys. Fixed so that hashes are reproducible between runs.
+     */
+    private static final long SEED = 0x5EED_2023_CAFEL;
+
+    /**
+     * Number of different tile encodings (see PlayingField.map).
+     */
+    private static final int NUM_CODES = 14;
+
+    /**
+     * Keys for the stone permutation. STONE_KEYS[player*9 + stone].
+     */
+    private static final long[] STONE_KEYS = new long[9*9];
+
+    /**
+     * Keys for the disqualified players. DISQUALIFIED_KEYS[player].
+     * Disqualified players are skipped and can not be chosen by choice moves, so the same map has a different value for the search.
+     */
+    private static final long[] DISQUALIFIED_KEYS = new long[9];
+
+    /**
+     * Key that is added once the elimination phase has started.
+     */
+    private static final long PHASE_KEY;
+
+    /**
+     * Offset that distinguishes override stone counts from bomb counts in counterKey.
+     */
+    private static final long OVERRIDE_OFFSET = 0x9E37_79B9_7F4A_7C15L;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for(int i = 0; i < STONE_KEYS.length; i++){
+            STONE_KEYS[i] = random.nextLong();
+        }
+        PHASE_KEY = random.nextLong();
+        for(int i = 0; i < DISQUALIFIED_KEYS.length; i++){
+            DISQUALIFIED_KEYS[i] = random.nextLong();
+        }
+    }
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Creates the tile keys for a map. Stored in its MapTopology.
+     * @param mapHeight height of the map
+     * @param mapWidth width of the map
+     * @return the keys, indexed by (y*mapWidth + x)*NUM_CODES + code
+     */
+    static long[] createTileKeys(byte mapHeight, byte mapWidth){
+        //the keys only depend on the seed and the map size, so they are identical for all clients on the same map
+        SplittableRandom random = new SplittableRandom(SEED ^ (mapHeight << 8 | mapWidth));
+        long[] keys = new long[mapHeight * mapWidth * NUM_CODES];
+        for(int i = 0; i < keys.length; i++){
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    /**
+     * @param topology the map the tile belongs to
+     * @param y coordinate of tile
+     * @param x coordinate of tile
+     * @param code 4-bit encoding of the tile
+     * @return the key for this tile with this encoding
+     */
+    static long tileKey(MapTopology topology, byte y, byte x, int code){
+        return topology.tileKeys[(y * topology.mapWidth + x) * NUM_CODES + code];
+    }
+
+    /**
+     * @param player the player
+     * @param stone the stone (1-8) the player uses
+     * @return the key for this player using this stone
+     */
+    static long stoneKey(int player, int stone){
+        return STONE_KEYS[player*9 + stone];
+    }
+
+    /**
+     * Key for a bomb or override stone count. Counts are not bounded, so the key is computed instead of looked up.
+     * @param player the player
+     * @param override true for override stones, false for bombs
+     * @param count the count
+     * @return the key for this player having count bombs/override stones
+     */
+    static long counterKey(int player, boolean override, int count){
+        //SplitMix64 finalizer
+        long z = SEED + (override ? OVERRIDE_OFFSET : 0) + ((long)player << 32 | count) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param player the player
+     * @return the key for this player being disqualified
+     */
+    static long disqualifiedKey(int player){
+        return DISQUALIFIED_KEYS[player];
+    }
+
+    /**
+     * @return the key for the elimination phase
+     */
+    static long phaseKey(){
+        return PHASE_KEY;
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
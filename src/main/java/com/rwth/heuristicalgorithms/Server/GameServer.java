@@ -0,0 +1,502 @@
+package com.rwth.heuristicalgorithms.Server;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.rwth.heuristicalgorithms.Client.Client;
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Local game server for end-to-end tests of the Client. Speaks the binary protocol of the competition server over loopback sockets:
+ * it receives the group numbers (1) and the moves (5) and sends the map (2), the player numbers (3), the move requests (4),
+ * the move announcements (6), the disqualifications (7) and the ends of the building (8) and the elimination phase (9).
+ *
+ * The server checks every move against Minimax.getAllPossibleMoves and disqualifies players that send an invalid move,
+ * answer after the time limit or lose the connection. The response latency of every move request is recorded (see PlayerConnection).
+ * Players without a possible move are skipped. The building phase ends when no player can move, the elimination phase ends when no player can bomb.
+ *
+ * Every Client instance has its own options and search state, so the server hosts its Clients in this JVM, each on its own thread.
+ * Players that are not hosted have to connect to the port themselves.
+ *
+ * Usage: java -cp swp2023_group5.jar com.rwth.heuristicalgorithms.Server.GameServer -m maps/2023_comp_5_2p.map -t 2000 [-c "-tt 64"]
+ */
+public class GameServer {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Time in ms the server waits for all players to connect.
+     */
+    private static final int CONNECT_TIMEOUT = 60_000;
+
+    /**
+     * Time in ms the server waits for each hosted Client to terminate after the game. Clients that take longer are left to their daemon threads.
+     */
+    private static final int SHUTDOWN_TIMEOUT = 5_000;
+
+    /**
+     * Path of the map file.
+     */
+    @Parameter(names = { "--map", "-m" }, description = "Map file of the game.", required = true)
+    public String map;
+
+    /**
+     * Port of the server. 0 uses a free port.
+     */
+    @Parameter(names = { "--port", "-p" }, description = "Server port number. 0 uses a free port.")
+    public int port = 7777;
+
+    /**
+     * Time limit of every move in ms. 0 for no time limit.
+     */
+    @Parameter(names = { "--timelimit", "-t" }, description = "Time limit of every move in ms. 0 for no time limit.")
+    public int timeLimit = 2000;
+
+    /**
+     * Depth limit sent with every move request. 0 for no depth limit.
+     */
+    @Parameter(names = { "--depthlimit", "-d" }, description = "Depth limit of every move. 0 for no depth limit.")
+    public int depthLimit = 0;
+
+    /**
+     * Time in ms an answer may arrive after the time limit without a disqualification.
+     */
+    @Parameter(names = { "--grace", "-g" }, description = "Time in ms an answer may arrive after the time limit without a disqualification.")
+    public int grace = 0;
+
+    /**
+     * Number of Clients started by the server. -1 starts one for every player.
+     */
+    @Parameter(names = { "--clients", "-n" }, description = "Number of Clients started by the server. -1 starts one for every player.")
+    public int clients = -1;
+
+    /**
+     * Command line arguments of the hosted Clients, separated by spaces.
+     */
+    @Parameter(names = { "--clientargs", "-c" }, description = "Command line arguments of the hosted Clients, e.g. \"-tt 64 -pd\".")
+    public String clientArgs = "";
+
+    /**
+     * Directory for the output of the hosted Clients. Null discards it.
+     */
+    @Parameter(names = { "--logs", "-l" }, description = "Directory for the output of the hosted Clients. The output is discarded if not set.")
+    public String logDirectory = null;
+
+    /**
+     * Is true when the help is displayed. Set by -h or --help flag.
+     */
+    @Parameter(names = { "--help", "-h" }, description = "Displays help.", help = true)
+    public boolean showHelp = false;
+
+    /**
+     * Socket the players connect to.
+     */
+    private ServerSocket serverSocket;
+
+    /**
+     * The map sent to the players.
+     */
+    private String mapString;
+
+    /**
+     * State of the game, updated with every valid move.
+     */
+    private PlayingField pf;
+
+    /**
+     * Connections of the players. players.get(i) belongs to player i+1.
+     */
+    private final List<PlayerConnection> players = new ArrayList<>();
+
+    /**
+     * Threads of the hosted Clients.
+     */
+    private final List<Thread> clientThreads = new ArrayList<>();
+
+    /**
+     * Outputs of the hosted Clients. Closed when the Clients have terminated.
+     */
+    private final List<PrintStream> clientLogs = new ArrayList<>();
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Reads the map, opens the server socket and starts the hosted Clients.
+     * @throws IOException if the map can not be read, the port is not available or a Client can not be started
+     */
+    public void start() throws IOException{
+        mapString = Files.readString(Path.of(map));
+        pf = PlayingField.readMap(mapString);
+        serverSocket = new ServerSocket(port, pf.getPlayerCount(), InetAddress.getLoopbackAddress());
+        serverSocket.setSoTimeout(CONNECT_TIMEOUT);
+
+        int hosted = clients < 0 ? pf.getPlayerCount() : Math.min(clients, pf.getPlayerCount());
+        for(int i = 0; i < hosted; i++){
+            startClient(i);
+        }
+    }
+
+    /**
+     * Starts a Client on a new daemon thread. The Client is configured with clientArgs, like a Client started from the command line.
+     * @param index number of the hosted Client, used for the name of its thread and its log file
+     * @throws IOException if the log file can not be created
+     */
+    private void startClient(int index) throws IOException{
+        List<String> args = new ArrayList<>();
+        if(!clientArgs.isBlank()){
+            args.addAll(Arrays.asList(clientArgs.trim().split("\\s+")));
+        }
+        args.add("-s");
+        args.add(serverSocket.getInetAddress().getHostAddress());
+        args.add("-p");
+        args.add(String.valueOf(getPort()));
+        Client client = new Client();
+        JCommander.newBuilder().addObject(client).build().parse(args.toArray(new String[0]));
+
+        PrintStream log;
+        if(logDirectory == null){
+            log = new PrintStream(OutputStream.nullOutputStream());
+        } else {
+            Files.createDirectories(Path.of(logDirectory));
+            log = new PrintStream(new FileOutputStream(new File(logDirectory, "client-" + (index + 1) + ".log")), true, StandardCharsets.UTF_8);
+        }
+        client.setOutput(log);
+        clientLogs.add(log);
+
+        Thread thread = new Thread(() -> {
+            try{
+                client.run();
+            } catch(RuntimeException e){
+                //the connection is closed by the Client, so the server disqualifies it
+                e.printStackTrace(log);
+            }
+        }, "client-" + (index + 1));
+        thread.setDaemon(true);
+        clientThreads.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Waits for all players, plays the game and closes all connections. start has to be called first.
+     * @throws IOException if not all players connect in time
+     */
+    public void play() throws IOException{
+        try{
+            connectPlayers();
+            playGame();
+        } finally{
+            close();
+        }
+    }
+
+    /**
+     * Accepts the connections of all players, receives their group numbers and sends them the map and their player numbers.
+     * The players get their numbers in the order they connect.
+     * @throws IOException if not all players connect in time
+     */
+    private void connectPlayers() throws IOException{
+        byte[] mapMessage = mapString.getBytes(StandardCharsets.UTF_8);
+        for(byte player = 1; player <= pf.getPlayerCount(); player++){
+            PlayerConnection connection = new PlayerConnection(serverSocket.accept(), player);
+            players.add(connection);
+            try{
+                byte[] group = connection.receive(1, CONNECT_TIMEOUT);
+                connection.setGroupNumber(group.length > 0 ? group[0] : -1);
+            } catch(IOException e){
+                disqualify(connection, "no group number: " + e.getMessage());
+                continue;
+            }
+            connection.send(2, mapMessage);
+            connection.send(3, new byte[]{player});
+        }
+    }
+
+    /**
+     * Plays both phases of the game and sends their ends.
+     */
+    private void playGame(){
+        byte current = 1;
+        while(true){
+            byte mover = findMover(current);
+            if(mover != 0){
+                requestMove(mover);
+                if(!hasActivePlayer()) break;
+                current = Minimax.getNextPlayer(pf, mover);
+            } else if(!pf.getIsEliminationPhase()){
+                broadcast(8, new byte[0]);
+                pf.startEliminationPhase();
+            } else {
+                break;
+            }
+        }
+        broadcast(9, new byte[0]);
+    }
+
+    /**
+     * Finds the next player with a possible move.
+     * @param player the first player to check
+     * @return the first active player from the given player on that has a possible move. 0 if no player can move
+     */
+    private byte findMover(byte player){
+        if(!hasActivePlayer()) return 0;
+        byte current = pf.isDisqualified(player) ? Minimax.getNextPlayer(pf, player) : player;
+        for(int i = 0; i < pf.getPlayerCount(); i++){
+            if(getPossibleMoves(current) != null) return current;
+            current = Minimax.getNextPlayer(pf, current);
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if at least one player is not disqualified
+     */
+    private boolean hasActivePlayer(){
+        for(byte player = 1; player <= pf.getPlayerCount(); player++){
+            if(!pf.isDisqualified(player)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param player a player
+     * @return the possible moves of the player. Null if there are none
+     */
+    private List<Move> getPossibleMoves(byte player){
+        return Minimax.getAllPossibleMoves(pf, player);
+    }
+
+    /**
+     * Requests a move from a player, checks and executes it and announces it to all players.
+     * Disqualifies the player if the answer is late, invalid or missing.
+     * @param player player whose turn it is
+     */
+    private void requestMove(byte player){
+        PlayerConnection connection = players.get(player - 1);
+        List<Move> possible = getPossibleMoves(player);
+        byte[] request = ByteBuffer.allocate(5).putInt(timeLimit).put((byte) depthLimit).array();
+
+        long start = System.nanoTime();
+        connection.send(4, request);
+        byte[] answer;
+        try{
+            answer = connection.receive(5, timeLimit > 0 ? timeLimit + grace + 1 : 0);
+        } catch(SocketTimeoutException e){
+            connection.addLatency(System.nanoTime() - start);
+            disqualify(connection, "no answer within " + (timeLimit + grace) + "ms");
+            return;
+        } catch(IOException e){
+            disqualify(connection, "connection lost: " + e.getMessage());
+            return;
+        }
+        long latency = System.nanoTime() - start;
+        connection.addLatency(latency);
+
+        if(timeLimit > 0 && latency > (timeLimit + grace) * 1_000_000L){
+            disqualify(connection, "answer after " + latency / 1_000_000 + "ms, time limit " + timeLimit + "ms");
+            return;
+        }
+        if(answer.length != 5){
+            disqualify(connection, "move message of length " + answer.length);
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(answer);
+        short x = buffer.getShort();
+        short y = buffer.getShort();
+        byte special = buffer.get();
+        Move move = decodeMove(x, y, special);
+        if(move == null || !possible.contains(move)){
+            disqualify(connection, "invalid move x " + x + " y " + y + " special " + special);
+            return;
+        }
+
+        pf.executeMove(move, player);
+        byte[] announcement = ByteBuffer.allocate(6).putShort(x).putShort(y).put(special).put(player).array();
+        broadcast(6, announcement);
+    }
+
+    /**
+     * Converts a received move into a Move, like Client.rcvMoveAnnouncement.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param special choice player (1-8), bonus choice (20 for a bomb, 21 for an override stone) or 0
+     * @return the move. Null if the coordinates are outside of the map
+     */
+    private Move decodeMove(short x, short y, byte special){
+        if(x < 0 || y < 0 || x >= pf.getMapWidth() || y >= pf.getMapHeight()) return null;
+        if(pf.getIsEliminationPhase()) return Move.createBombMove((byte) y, (byte) x);
+        if(special > 0 && special < 10) return Move.createChoiceMove((byte) y, (byte) x, special);
+        if(special == 20) return Move.createBonusMove((byte) y, (byte) x, true);
+        if(special == 21) return Move.createBonusMove((byte) y, (byte) x, false);
+        if(pf.isTileOccupied((byte) y, (byte) x)) return Move.createOverrideMove((byte) y, (byte) x);
+        return Move.createDefaultMove((byte) y, (byte) x);
+    }
+
+    /**
+     * Disqualifies a player, announces it to all players and closes its connection.
+     * @param connection connection of the player
+     * @param reason reason of the disqualification
+     */
+    private void disqualify(PlayerConnection connection, String reason){
+        connection.disqualify(reason);
+        pf.disqualify(connection.getPlayer());
+        broadcast(7, new byte[]{connection.getPlayer()});
+        connection.close();
+    }
+
+    /**
+     * Sends a message to all players whose connection is open.
+     * @param type message type
+     * @param payload payload of the message
+     */
+    private void broadcast(int type, byte[] payload){
+        for(PlayerConnection connection : players){
+            connection.send(type, payload);
+        }
+    }
+
+    /**
+     * Closes all connections and the server socket and waits for the hosted Clients to terminate.
+     */
+    private void close(){
+        for(PlayerConnection connection : players){
+            connection.close();
+        }
+        try{
+            serverSocket.close();
+        } catch(IOException e){
+            //already closed
+        }
+        for(Thread thread : clientThreads){
+            try{
+                thread.join(SHUTDOWN_TIMEOUT);
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        for(PrintStream log : clientLogs){
+            log.close();
+        }
+    }
+
+    /**
+     * Computes a percentile of latencies with the nearest-rank method.
+     * @param latencies latencies in ns
+     * @param percentile percentile between 0 (exclusive) and 100 (inclusive)
+     * @return the latency in ms. 0 if there are no latencies
+     */
+    public static double percentile(List<Long> latencies, double percentile){
+        if(latencies.isEmpty()) return 0;
+        long[] sorted = new long[latencies.size()];
+        for(int i = 0; i < sorted.length; i++){
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(1, Math.min(sorted.length, rank)) - 1] / 1e6;
+    }
+
+    /**
+     * @return the report of the game: the stones, latency percentiles and disqualifications of every player and the latency percentiles of all players
+     */
+    public String getReport(){
+        StringBuilder sb = new StringBuilder();
+        List<Long> all = new ArrayList<>();
+        for(PlayerConnection connection : players){
+            byte player = connection.getPlayer();
+            all.addAll(connection.getLatencies());
+            sb.append(String.format(Locale.ROOT, "Player %d (group %d): %d stones, %d moves, latency %s",
+                player, connection.getGroupNumber(), pf.getStoneCount(player), connection.getMoveCount(), formatLatencies(connection.getLatencies())));
+            if(connection.getDisqualification() != null){
+                sb.append(", disqualified: ").append(connection.getDisqualification());
+            }
+            sb.append('\n');
+        }
+        sb.append("All players: ").append(all.size()).append(" moves, latency ").append(formatLatencies(all)).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * @param latencies latencies in ns
+     * @return the 50th, 90th, 99th percentile and the maximum of the latencies
+     */
+    private static String formatLatencies(List<Long> latencies){
+        return String.format(Locale.ROOT, "p50 %.1fms p90 %.1fms p99 %.1fms max %.1fms",
+            percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), percentile(latencies, 100));
+    }
+
+    /**
+     * @return the connections of the players, in the order of the player numbers
+     */
+    public List<PlayerConnection> getPlayers(){
+        return players;
+    }
+
+    /**
+     * @return the state of the game
+     */
+    public PlayingField getPlayingField(){
+        return pf;
+    }
+
+    /**
+     * @return the port the server listens on. Only valid after start
+     */
+    public int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+
+
+
+    // -------------------------------------------------
+    // MAIN START
+
+    /**
+     * Starts the server, plays one game and prints the report.
+     * @param args command line arguments, see --help
+     * @throws IOException if the map can not be read or the players do not connect
+     */
+    public static void main(String[] args) throws IOException{
+        GameServer server = new GameServer();
+        JCommander jct = JCommander.newBuilder().addObject(server).build();
+        jct.parse(args);
+        if(server.showHelp){
+            jct.usage();
+            return;
+        }
+        server.start();
+        System.out.println("Waiting for " + server.getPlayingField().getPlayerCount() + " players on port " + server.getPort());
+        server.play();
+        System.out.print(server.getReport());
+    }
+
+    // MAIN END
+    // -------------------------------------------------
+}
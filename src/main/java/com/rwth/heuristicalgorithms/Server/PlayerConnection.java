@@ -0,0 +1,207 @@
+package com.rwth.heuristicalgorithms.Server;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Connection of the GameServer to one player. Sends and receives the messages of the binary protocol
+ * (1 byte type, 4 bytes payload length, payload) and records the response latencies of the player.
+ */
+public class PlayerConnection {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Socket of the player.
+     */
+    private final Socket socket;
+
+    /**
+     * Stream for receiving messages.
+     */
+    private final DataInputStream input;
+
+    /**
+     * Buffered stream for sending messages. Every message is flushed as a whole.
+     */
+    private final DataOutputStream output;
+
+    /**
+     * Player number of the player.
+     */
+    private final byte player;
+
+    /**
+     * Group number sent by the player when connecting.
+     */
+    private int groupNumber = -1;
+
+    /**
+     * Response latencies of the move requests in ns, including the answers that exceeded the time limit.
+     */
+    private final List<Long> latencies = new ArrayList<>();
+
+    /**
+     * Reason of the disqualification. Null if the player was not disqualified.
+     */
+    private String disqualification = null;
+
+    /**
+     * Is true when the connection was closed or broken. No messages are sent anymore.
+     */
+    private boolean closed = false;
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // CONTRSUCTORS START
+
+    /**
+     * Creates the connection of an accepted socket.
+     * @param socket the socket of the player
+     * @param player player number of the player
+     * @throws IOException if the streams of the socket can not be opened
+     */
+    PlayerConnection(Socket socket, byte player) throws IOException{
+        this.socket = socket;
+        this.player = player;
+        socket.setTcpNoDelay(true);
+        input = new DataInputStream(socket.getInputStream());
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    // CONTRSUCTORS END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * Sends a message. Does nothing if the connection is closed. A broken connection is closed.
+     * @param type message type
+     * @param payload payload of the message, may be empty
+     */
+    void send(int type, byte[] payload){
+        if(closed) return;
+        try{
+            output.writeByte(type);
+            output.writeInt(payload.length);
+            output.write(payload);
+            output.flush();
+        } catch(IOException e){
+            close();
+        }
+    }
+
+    /**
+     * Receives a message of the given type.
+     * @param type expected message type
+     * @param timeout maximum time in ms to wait for every read. 0 waits forever
+     * @return payload of the message
+     * @throws java.net.SocketTimeoutException if the message did not arrive in time
+     * @throws IOException if the connection is broken or the message has another type
+     */
+    byte[] receive(int type, int timeout) throws IOException{
+        socket.setSoTimeout(timeout);
+        int received = input.readUnsignedByte();
+        int length = input.readInt();
+        if(received != type) throw new IOException("expected a message of type " + type + " but got type " + received);
+        if(length < 0 || length > 1 << 20) throw new IOException("invalid message length " + length);
+        byte[] payload = new byte[length];
+        input.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * Closes the socket. No messages are sent afterwards.
+     */
+    void close(){
+        closed = true;
+        try{
+            socket.close();
+        } catch(IOException e){
+            //already closed
+        }
+    }
+
+    /**
+     * Records the response latency of a move request.
+     * @param latency latency in ns
+     */
+    void addLatency(long latency){
+        latencies.add(latency);
+    }
+
+    /**
+     * Disqualifies the player.
+     * @param reason reason of the disqualification
+     */
+    void disqualify(String reason){
+        disqualification = reason;
+    }
+
+    /**
+     * @param groupNumber group number sent by the player
+     */
+    void setGroupNumber(int groupNumber){
+        this.groupNumber = groupNumber;
+    }
+
+    /**
+     * @return player number of the player
+     */
+    public byte getPlayer(){
+        return player;
+    }
+
+    /**
+     * @return group number sent by the player. -1 before the player sent it
+     */
+    public int getGroupNumber(){
+        return groupNumber;
+    }
+
+    /**
+     * @return number of move requests answered by the player, including answers after the time limit
+     */
+    public int getMoveCount(){
+        return latencies.size();
+    }
+
+    /**
+     * @return reason of the disqualification. Null if the player was not disqualified
+     */
+    public String getDisqualification(){
+        return disqualification;
+    }
+
+    /**
+     * @return the response latencies of the move requests in ns
+     */
+    public List<Long> getLatencies(){
+        return Collections.unmodifiableList(latencies);
+    }
+
+    /**
+     * @param percentile percentile between 0 (exclusive) and 100 (inclusive)
+     * @return the percentile of the response latencies in ms, see GameServer.percentile
+     */
+    public double getLatencyPercentile(double percentile){
+        return GameServer.percentile(latencies, percentile);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
@@ -0,0 +1,111 @@
+package com.rwth.heuristicalgorithms.Arena;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchContext;
+import com.rwth.heuristicalgorithms.MoveChoosing.TestMaps;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Parses engine configurations and plays a short tournament in the Arena.
+ */
+public class ArenaTest {
+
+    /**
+     * Settings that are not given keep their default, unknown keys and invalid values are rejected.
+     */
+    @Test
+    public void parseTest(){
+        EngineConfig config = EngineConfig.parse("asp:time=50,asp=0.25,sort=false");
+        assertEquals("asp", config.getName());
+        assertEquals(50, config.getTimeLimit());
+        assertEquals(0.25, config.getAspiration(), 0);
+        assertFalse(config.getMoveSorting());
+        assertEquals(new EngineConfig("x").getDepthLimit(), config.getDepthLimit());
+        assertEquals(config.toString(), EngineConfig.parse(config.toString()).toString());
+
+        //the switches of the search are applied to the context of the engine
+        SearchContext context = EngineConfig.parse("x:pvs=true,tt=1,mu=true,threads=2,history=false,pvreuse=false").createContext();
+        assertTrue(context.getPVS() && context.getMakeUnmake() && context.getTranspositionTable() != null && context.getThreads() == 2);
+        assertFalse(context.getHistory() || context.getPVReuse());
+        context = EngineConfig.parse("plain").createContext();
+        assertTrue(!context.getPVS() && context.getTranspositionTable() == null && context.getThreads() == 1 && context.getHistory());
+
+        assertEquals(100, EngineConfig.parse("plain").getTimeLimit());
+        assertInvalid("x:speed=1");
+        assertInvalid("x:depth=two");
+        assertInvalid("x:depth=0");
+        assertInvalid(":time=1");
+        assertInvalid("x:threads=0");
+        assertInvalid("x:tt=-1");
+    }
+
+    /**
+     * Two engines with a depth limit play four games on each of two maps of different size and player count, all in parallel.
+     * Every game is won by someone and no search goes deeper than the limit.
+     * @throws IOException if the map can not be read
+     */
+    @Test
+    public void tournamentTest() throws IOException{
+        Arena arena = new Arena();
+        arena.maps = List.of("maps/reserve/Map_4v4_9x9_#01.map", "maps/reserve/Map_3v3_17x17_#3xReversi.map");
+        arena.engineSpecs = List.of("d1:time=0,depth=1", "d2:time=0,depth=2,asp=0.5,pvs=true,tt=1,mu=true");
+        arena.gamesPerMap = 4;
+        arena.threads = 2;
+        arena.run();
+        System.out.print("[TESTS] " + arena.getReport());
+
+        EngineStats[] total = arena.getTotal();
+        int games = arena.maps.size() * arena.gamesPerMap;
+        assertEquals(games, total[0].getWins() + total[1].getWins(), 1e-9);
+        assertEquals(1, total[0].getAverageDepth(), 0);
+        assertTrue(total[1].getAverageDepth() <= 2);
+        for(EngineStats stats : total){
+            assertEquals(games, stats.getGames());
+            assertTrue(stats.getMoves() > 0);
+            assertTrue(stats.getNodesPerSecond() > 0);
+        }
+    }
+
+    /**
+     * Games with the same seats only repeat each other if they start from the same opening.
+     * @throws IOException if the map can not be read
+     */
+    @Test
+    public void openingTest() throws IOException{
+        PlayingField start = PlayingField.readMap(TestMaps.readMap(TestMaps.RESERVE_4V4));
+        List<EngineConfig> engines = List.of(EngineConfig.parse("d1:time=0,depth=1"), EngineConfig.parse("d2:time=0,depth=2"));
+        int[] seats = {0, 1, 0, 1};
+        String[] results = new String[3];
+        long[] seeds = {1, 1, 2};
+        for(int i = 0; i < results.length; i++){
+            ArenaGame game = new ArenaGame(start, seats, engines, seeds[i], 4);
+            game.play();
+            results[i] = game.getPlayingField().toString();
+        }
+        assertEquals(results[0], results[1]);
+        assertNotEquals(results[0], results[2]);
+    }
+
+    /**
+     * Asserts that parsing a configuration fails.
+     * @param spec the invalid configuration
+     */
+    private static void assertInvalid(String spec){
+        try{
+            EngineConfig.parse(spec);
+            fail("accepted " + spec);
+        } catch(IllegalArgumentException e){
+            //expected
+        }
+    }
+}
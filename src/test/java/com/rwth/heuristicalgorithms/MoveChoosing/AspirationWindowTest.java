@@ -0,0 +1,94 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the aspiration windows of iterative deepening (see Minimax.alphaBeta_aspiration).
+ */
+public class AspirationWindowTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * Whatever the window is, the re-searches have to end with the exact value of the full window search.
+     * Windows that are far too narrow or centered on a wrong value have to fail and be searched again.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void aspirationTest() throws IOException, TimeoutException{
+        SearchContext context = new SearchContext();
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.COMP_4P, TestMaps.RESERVE_4V4)){
+            for(boolean tt : new boolean[]{false, true}){
+                PlayingField pf = PlayingField.readMap(map);
+                context.setTranspositionTable(tt ? new TranspositionTable(16) : null);
+                for(int depth = 1; depth <= 4; depth++){
+                    Move full = Minimax.alphaBeta_getBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, new SearchWorker(0, context));
+                    for(int center : new int[]{full.value, full.value - 1000, full.value + 1000, 0}){
+                        for(int delta : new int[]{1, 10, 1_000_000}){
+                            Move move = Minimax.alphaBeta_aspiration(pf, (byte)1, depth, center, delta, true, new SearchWorker(0, context));
+                            assertEquals(full.value, move.value);
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(context.numAspirationFailLow > 0);
+        assertTrue(context.numAspirationFailHigh > 0);
+    }
+
+    /**
+     * Compares the number of evaluated states of an iterative deepening search with the full window
+     * and with the aspiration windows of Client.experimental 1-3 on all maps, and reports the re-searches.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void aspirationPerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        double[] fractions = {0, 0.5, 0.25, 0.75};
+        for(Path file : TestMaps.listMaps()){
+            String map = Files.readString(file);
+            int depth = TestMaps.probeDepth(map, 1000);
+            StringBuilder result = new StringBuilder("[TESTS] " + file + " depth " + depth + ":");
+            for(int mode = 0; mode < fractions.length; mode++){
+                PlayingField pf = PlayingField.readMap(map);
+                SearchContext context = new SearchContext();
+                context.setMakeUnmake(true);
+                SearchWorker worker = new SearchWorker(0, context);
+                long start = System.nanoTime();
+                Move move = null;
+                for(int i = 1; i <= depth; i++){
+                    if(mode == 0 || move == null){
+                        move = Minimax.alphaBeta_getBestMove(pf, (byte)1, i, Integer.MIN_VALUE, Integer.MAX_VALUE, true, worker);
+                    } else {
+                        int delta = (int) Math.max(1, Math.abs(move.value) * fractions[mode]);
+                        move = Minimax.alphaBeta_aspiration(pf, (byte)1, i, move.value, delta, true, worker);
+                    }
+                    if(move == null) break;
+                }
+                long time = (System.nanoTime() - start) / 1_000_000;
+                result.append(mode == 0 ? " full window " : " | exp " + mode + " ").append(context.prunedEvalCount.sum()).append(" states, ").append(time).append("ms");
+                if(mode > 0){
+                    result.append(", ").append(context.numAspirationFailLow).append("/").append(context.numAspirationFailHigh)
+                        .append(" fail low/high in ").append(context.numAspirationSearches).append(" searches");
+                }
+            }
+            System.out.println(result);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the timer based time limit of the search.
+ */
+public class DeadlineTest {
+
+    /**
+     * The deadline expires when its time is up and a new deadline is never expired by the timer of an older one.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void expireTest() throws InterruptedException{
+        SearchContext context = new SearchContext();
+        context.setDeadline(System.nanoTime()/1_000_000 - 1);
+        assertTrue(context.isExpired());
+        context.setDeadline(Long.MAX_VALUE);
+        assertFalse(context.isExpired());
+        assertEquals(Long.MAX_VALUE, context.getReturnTime());
+
+        context.setDeadline(System.nanoTime()/1_000_000 + 50);
+        assertFalse(context.isExpired());
+        Thread.sleep(300);
+        assertTrue(context.isExpired());
+
+        context.setDeadline(System.nanoTime()/1_000_000 + 20);
+        context.setDeadline(Long.MAX_VALUE);
+        Thread.sleep(200);
+        assertFalse(context.isExpired());
+    }
+
+    /**
+     * A search that runs into the deadline has to be aborted soon after it, with the shared exception that has no stack trace.
+     * @throws IOException if the map can not be read
+     */
+    @Test
+    public void searchTest() throws IOException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.RESERVE_4V4));
+        long start = System.nanoTime()/1_000_000;
+        SearchContext context = new SearchContext();
+        context.setDeadline(start + 100);
+        try{
+            Minimax.alphaBeta_getBestMove(pf, (byte)1, 20, Integer.MIN_VALUE, Integer.MAX_VALUE, true, new SearchWorker(0, context));
+            fail("the search has to run into the deadline");
+        } catch(TimeoutException e){
+            assertSame(TimeoutException.INSTANCE, e);
+            assertEquals(0, e.getStackTrace().length);
+        }
+        assertTrue(System.nanoTime()/1_000_000 - start < 1000);
+    }
+}
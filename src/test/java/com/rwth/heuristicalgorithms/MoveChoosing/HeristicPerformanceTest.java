@@ -1,7 +1,6 @@
 package com.rwth.heuristicalgorithms.MoveChoosing;
 
 
-import org.junit.Before;
 //import org.junit.Test;
 
 import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
@@ -11,14 +10,6 @@ import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
  * Focuses on the performance of the computation of stable tiles.
  */
 public class HeristicPerformanceTest {
-    /**
-     * executed before each test
-     */
-    @Before
-    public void setUp(){ 
-        //clean up all the static values in pf
-        PlayingField.reset();
-    }
     
     /**
      * Tests the evalBoard_Building method numerous times and measures the time.
@@ -102,8 +93,7 @@ public class HeristicPerformanceTest {
 
         total += durationInMilliseconds;
 
-        //clean up and next map
-        setUp();
+        //next map
         mapString = "3\n" +
         "6\n"+
         "4 2\r\n"+
@@ -142,9 +132,7 @@ public class HeristicPerformanceTest {
 
 
 
-        //clean up and next map
-
-        setUp();
+        //next map
         mapString = "3\n" +
         "6\n"+
         "4 2\r\n"+
@@ -5,13 +5,15 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.junit.Before;
 import org.junit.Test;
 
+import com.rwth.heuristicalgorithms.PlayingField.BitBoardTest;
 import com.rwth.heuristicalgorithms.PlayingField.Move;
 import com.rwth.heuristicalgorithms.PlayingField.MoveType;
 import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
@@ -22,13 +24,10 @@ import com.rwth.heuristicalgorithms.PlayingField.Tile;
 public class HeuristicTest {
 
     /**
-     * executed before each test
+     * The performance test will be skipped if this is set to false.
      */
-    @Before
-    public void setUp(){ 
-        //clean up all the static values in pf
-        PlayingField.reset();
-    }
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
     /**
      * tests evaluation during Building Phase
      */
@@ -442,7 +441,7 @@ public class HeuristicTest {
         pf.startEliminationPhase();
 
         //p3 should be able to bomb every non-hole on the map
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, (byte)3, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, (byte)3);
         //log every bomb move
 
         //bombedHoles[x][y] = true means that getAllPossibleMoves returned this move
@@ -471,7 +470,7 @@ public class HeuristicTest {
 
         //p1 should not be able to bomb anything if p1 has no bombs
         pf.changePlayerBombCount((byte)1, (byte)-4);
-        assertNull(Minimax.getAllPossibleMoves(pf, (byte)1, false));
+        assertNull(Minimax.getAllPossibleMoves(pf, (byte)1));
 
     }
 
@@ -508,10 +507,10 @@ public class HeuristicTest {
         
 
         //get possible moves for every player. They should all be equal.
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, (byte)1, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, (byte)1);
 
         for(byte player = 2; player <= 8; player++){
-            List<Move> moves2 = Minimax.getAllPossibleMoves(pf, (byte)player, false);
+            List<Move> moves2 = Minimax.getAllPossibleMoves(pf, (byte)player);
             //assert both-sided inclusion
             for(Move m : moves){
                 assertTrue(moves2.contains(m));
@@ -620,7 +619,7 @@ public class HeuristicTest {
         moves.add(Move.createDefaultMove((byte)13, (byte)8));
 
         //getAllMoves should yield the exact same results
-        List<Move> moves2 = Minimax.getAllPossibleMoves(pf, (byte)1, false);
+        List<Move> moves2 = Minimax.getAllPossibleMoves(pf, (byte)1);
         for(Move m : moves){
             assertTrue("Y: " + m.getY() + ", X: " + m.getX() + ", Type: " + m.getMoveType(), moves2.contains(m));
         }
@@ -677,8 +676,38 @@ public class HeuristicTest {
         assertEquals(1, Minimax.getNextPlayer(pf, (byte)1));
     }
 
-
-
-
+    /**
+     * Measures evalBoard_Elimination and a depth 1 elimination phase search (one bomb per tile, every leaf evaluated) on all maps.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void evalBoard_EliminationPerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int runs = 20000;
+        for(String map : TestMaps.readAllMaps()){
+            String[] lines = map.split("\\r?\\n");
+            //every player gets bombs, the map's bomb radius is kept
+            lines[2] = "3 " + lines[2].trim().split(" ")[1];
+            PlayingField pf = PlayingField.readMap(String.join("\n", lines));
+            pf.startEliminationPhase();
+
+            int checksum = 0;
+            //first half is warm up
+            long start = 0;
+            for(int run = 0; run < 2*runs; run++){
+                if(run == runs) start = System.nanoTime();
+                checksum += MoveHeuristic.evalBoard_Elimination(pf, (byte)(run % pf.getPlayerCount() + 1));
+            }
+            long evalTime = (System.nanoTime() - start)/runs;
+
+            Minimax.selectBestMove(pf, (byte)1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true);
+            start = System.nanoTime();
+            Minimax.selectBestMove(pf, (byte)1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true);
+            long searchTime = System.nanoTime() - start;
+            System.out.println("[TESTS] " + pf.getMapHeight() + "x" + pf.getMapWidth() + " map with "
+                + pf.getPlayerCount() + " players. evalBoard_Elimination: " + evalTime + "ns per call, depth 1 search: "
+                + searchTime/1000 + "us (checksum " + checksum + ")");
+        }
+    }
 }
-
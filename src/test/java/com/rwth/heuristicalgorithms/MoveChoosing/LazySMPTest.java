@@ -0,0 +1,139 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.Client.Client;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the Lazy SMP search and the lock-free transposition table it relies on.
+ */
+public class LazySMPTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * Several threads write and read the same small table. Every entry that is found has to be the one stored for its key,
+     * i.e., entries torn by concurrent writes must never be returned.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void concurrentTableTest() throws InterruptedException{
+        TranspositionTable tt = new TranspositionTable(1);
+        AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++){
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for(int i = 0; i < 200_000; i++){
+                    //few different keys, so that the threads write the same buckets all the time
+                    long key = random.nextLong(4096) * 0x9E37_79B9_7F4A_7C15L;
+                    int score = (int)(key >>> 40);
+                    if(random.nextBoolean()){
+                        tt.store(key, (int)(key & 0x3F), TranspositionTable.EXACT, score, (int)(key & 0xFF));
+                    } else {
+                        long entry = tt.probe(key);
+                        if(entry != 0 && (TranspositionTable.getScore(entry) != score || TranspositionTable.getBestMoveIndex(entry) != (int)(key & 0xFF))){
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertEquals(0, errors.get());
+        assertTrue(tt.getHits() > 0);
+    }
+
+    /**
+     * Lazy SMP has to find a legal move, complete the depth limit and leave the PlayingField unchanged.
+     * @throws IOException if the maps can not be read
+     */
+    @Test
+    public void lazySMPTest() throws IOException{
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.RESERVE_4V4)){
+            PlayingField pf = PlayingField.readMap(map);
+            String original = pf.toString();
+            SearchContext context = new SearchContext();
+            context.setTranspositionTable(new TranspositionTable(16));
+            context.setThreads(4);
+            context.setLazySMP(true);
+
+            Move move = LazySMP.search(pf, (byte)1, 3, 4, true, new TimeManager(context), null);
+            assertNotNull(move);
+            assertNotNull(Move.simulateMove(move, (byte)1, pf));
+            assertEquals(original, pf.toString());
+        }
+    }
+
+    /**
+     * The main thread continues with the next iteration of a pondered worker instead of starting at depth 1.
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void ponderedTest() throws IOException, TimeoutException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.RESERVE_4V4));
+        SearchContext context = new SearchContext();
+        context.setTranspositionTable(new TranspositionTable(16));
+        context.setThreads(2);
+        context.setLazySMP(true);
+        SearchWorker pondered = new SearchWorker(0, context);
+        for(int depth = 1; depth <= 2; depth++){
+            long nodes = pondered.getNodes();
+            Move move = Minimax.alphaBeta_getBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, pondered);
+            pondered.completeIteration(move, depth, pondered.getNodes() - nodes, 1);
+        }
+
+        //the depth limit is already reached, the main thread does not search again
+        long nodes = pondered.getNodes();
+        assertEquals(pondered.getBestMove(), LazySMP.search(pf, (byte)1, 2, 2, true, new TimeManager(context), pondered));
+        assertEquals(nodes, pondered.getNodes());
+
+        Move move = LazySMP.search(pf, (byte)1, 3, 2, true, new TimeManager(context), pondered);
+        assertEquals(3, pondered.getCompletedDepth());
+        assertNotNull(Move.simulateMove(move, (byte)1, pf));
+    }
+
+    /**
+     * Compares the depth that is reached within a fixed time by 1 thread and by all available threads on the 4p and 8p competition maps.
+     * @throws IOException if the maps can not be read
+     */
+    @Test
+    public void lazySMPPerformanceTest() throws IOException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int timeLimit = 5000;
+        for(String file : new String[]{"maps/2023_comp_5_4p.map", "maps/2023_comp_5_8p.map"}){
+            for(int threads : new int[]{1, Runtime.getRuntime().availableProcessors()}){
+                PlayingField pf = PlayingField.readMap(Files.readString(Path.of(file)), true, false);
+                SearchContext context = new SearchContext();
+                context.setMakeUnmake(true);
+                context.setTranspositionTable(new TranspositionTable(256));
+                context.setThreads(threads);
+                context.setLazySMP(true);
+                context.setDeadline(System.nanoTime()/1_000_000 + timeLimit);
+                System.out.println("[TESTS] " + file + " with " + threads + " threads:");
+                LazySMP.search(pf, (byte)1, Client.maxDepth_TL, threads, true, new TimeManager(context), null);
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.MoveList;
+import com.rwth.heuristicalgorithms.PlayingField.MoveType;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the killer moves and the history table used for move sorting.
+ * The effect on the first-move cutoff rate is analysed in MoveSortingAnalysis.firstMoveCutoffAnalysis.
+ */
+public class MoveOrderingTest {
+
+    /**
+     * Killers come first, the other moves are sorted by move type and history value. Moves with the same score keep their order.
+     * @throws IOException if the map can not be read
+     */
+    @Test
+    public void sortTest() throws IOException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.RESERVE_4V4));
+        MoveOrdering ordering = new SearchContext().getOrdering(pf.getTopology());
+        ordering.newSearch();
+        int a = Move.createDefaultMove((byte)1, (byte)1).pack(pf);
+        int b = Move.createOverrideMove((byte)1, (byte)2).pack(pf);
+        int c = Move.createChoiceMove((byte)1, (byte)3, (byte)2).pack(pf);
+        int d = Move.createDefaultMove((byte)1, (byte)4).pack(pf);
+        int e = Move.createDefaultMove((byte)1, (byte)5).pack(pf);
+
+        //without any cutoffs, choice moves first and override moves last in max nodes, the other way round in min nodes
+        MoveList moves = list(a, b, c, d, e);
+        ordering.sort(moves, (byte)1, 3, true);
+        assertArrayEquals(new int[]{c, a, d, e, b}, moves.toArray());
+        moves = list(a, b, c, d, e);
+        ordering.sort(moves, (byte)1, 3, false);
+        assertArrayEquals(new int[]{b, a, d, e, c}, moves.toArray());
+
+        //e is the newest killer and comes before d. The history of d is larger, so it still comes before a at other depths
+        ordering.recordCutoff(d, (byte)1, 3);
+        ordering.recordCutoff(e, (byte)1, 3);
+        moves = list(a, b, c, d, e);
+        ordering.sort(moves, (byte)1, 3, true);
+        assertArrayEquals(new int[]{e, d, c, a, b}, moves.toArray());
+        ordering.recordCutoff(d, (byte)1, 2);
+        moves = list(a, b, c, d, e);
+        ordering.sort(moves, (byte)1, 4, true);
+        assertArrayEquals(new int[]{c, d, e, a, b}, moves.toArray());
+
+        //the history is kept per player and the killers are cleared by a new search
+        moves = list(a, b, c, d, e);
+        ordering.sort(moves, (byte)2, 4, true);
+        assertArrayEquals(new int[]{c, a, d, e, b}, moves.toArray());
+        ordering.newSearch();
+        moves = list(a, b, c, d, e);
+        ordering.sort(moves, (byte)1, 3, true);
+        assertEquals(c, moves.get(0));
+        assertEquals(d, moves.get(1));
+    }
+
+    /**
+     * Every context keeps its own tables, even on the same thread, so the engines of an ArenaGame do not learn from each other.
+     * @throws IOException if the map can not be read
+     */
+    @Test
+    public void contextTest() throws IOException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.RESERVE_4V4));
+        SearchContext first = new SearchContext();
+        SearchContext second = new SearchContext();
+        assertSame(first.getOrdering(pf.getTopology()), first.getOrdering(pf.getTopology()));
+        assertNotSame(first.getOrdering(pf.getTopology()), second.getOrdering(pf.getTopology()));
+
+        int a = Move.createDefaultMove((byte)1, (byte)1).pack(pf);
+        int b = Move.createDefaultMove((byte)1, (byte)4).pack(pf);
+        first.getOrdering(pf.getTopology()).recordCutoff(b, (byte)1, 3);
+        MoveList moves = list(a, b);
+        second.getOrdering(pf.getTopology()).sort(moves, (byte)1, 3, true);
+        assertArrayEquals(new int[]{a, b}, moves.toArray());
+        moves = list(a, b);
+        first.getOrdering(pf.getTopology()).sort(moves, (byte)1, 3, true);
+        assertArrayEquals(new int[]{b, a}, moves.toArray());
+    }
+
+    /**
+     * sortStatic has to yield the order of the former sorting with a stable sort by MoveSortHeuristic.evaluateMove_MoveSorting
+     * that was reversed for max nodes.
+     */
+    @Test
+    public void sortStaticTest(){
+        int a = Move.pack(10, MoveType.DEFAULT, 0);
+        int b = Move.pack(11, MoveType.OVERRIDE, 0);
+        int c = Move.pack(12, MoveType.CHOICE, 2);
+        int d = Move.pack(13, MoveType.DEFAULT, 0);
+
+        MoveList moves = list(a, b, c, d);
+        MoveOrdering.sortStatic(moves, true);
+        assertArrayEquals(new int[]{c, d, a, b}, moves.toArray());
+        moves = list(a, b, c, d);
+        MoveOrdering.sortStatic(moves, false);
+        assertArrayEquals(new int[]{b, a, d, c}, moves.toArray());
+    }
+
+    /**
+     * Packing keeps all information of a move, and the packed moves of a position ascend in the order they are generated.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void packTest() throws IOException, TimeoutException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.RESERVE_4V4));
+        Random rand = new Random(5);
+        byte player = 1;
+        //a random game reaches bonus, choice and override moves
+        for(int ply = 0; ply < 60; ply++){
+            List<Move> moves = Minimax.getAllPossibleMoves(pf, player);
+            if(moves != null){
+                int previous = Move.NO_MOVE;
+                for(Move move : moves){
+                    int packed = move.pack(pf);
+                    assertTrue(packed > previous);
+                    assertEquals(move, Move.unpack(pf.getTopology(), packed));
+                    previous = packed;
+                }
+                pf.executeMove(moves.get(rand.nextInt(moves.size())).pack(pf), player);
+            }
+            player = Minimax.getNextPlayer(pf, player);
+        }
+    }
+
+    /**
+     * @param moves packed moves
+     * @return a list with the moves in the given order
+     */
+    private static MoveList list(int... moves){
+        MoveList list = new MoveList();
+        for(int move : moves){
+            list.add(move);
+        }
+        return list;
+    }
+
+    /**
+     * Killer moves and the history table only change the order of the moves, so the value of the best move has to stay the same.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void valueTest() throws IOException, TimeoutException{
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.RESERVE_4V4, TestMaps.RESERVE_REVERSI)){
+            for(boolean makeUnmake : new boolean[]{false, true}){
+                int[][] values = new int[2][4];
+                for(int run = 0; run < 2; run++){
+                    PlayingField pf = PlayingField.readMap(map);
+                    SearchContext context = new SearchContext();
+                    context.setMakeUnmake(makeUnmake);
+                    context.setHistory(run == 1);
+                    for(int depth = 1; depth < values[run].length; depth++){
+                        values[run][depth] = Minimax.alphaBeta_getBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, new SearchWorker(0, context)).value;
+                    }
+                }
+                assertArrayEquals(values[0], values[1]);
+            }
+        }
+    }
+}
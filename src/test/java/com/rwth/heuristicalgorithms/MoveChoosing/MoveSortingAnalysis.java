@@ -9,7 +9,6 @@ import java.util.Map;
 
 import org.junit.Test;
 
-import com.rwth.heuristicalgorithms.Client.Client;
 import com.rwth.heuristicalgorithms.PlayingField.Move;
 import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
 
@@ -123,6 +122,54 @@ public class MoveSortingAnalysis {
 
 
 
+    /**
+     * Compares the move sorting by move type only (before killer moves and history table were added, see SearchContext.setHistory)
+     * with the sorting by killer moves and history table.
+     * Reports the nodes searched and the first-move cutoff rate, i.e., how often the first move searched in a node caused the cutoff.
+     * The closer the rate is to 100%, the closer the order is to the best order for alpha-beta pruning.
+     * Every map is searched with iterative deepening up to the given depth, so that the history table is filled like in a game.
+     */
+    @Test
+    public void firstMoveCutoffAnalysis(){
+        assumeTrue(ACTIVATE_ANALYSIS);
+
+        //map1 is left out, since it takes several minutes even for depth 3
+        String[] maps = {map2, map3, map4, map5, map6, map7, map14, map8, map15, map9, map10, map11};
+        int[] depths = {3, 2, 5, 4, 3, 4, 4, 7, 5, 5, 6, 7};
+
+        for(int i = 0; i < maps.length; i++){
+            System.out.println("----------------------------------------");
+            System.out.println("Now analysing map" + (i+1) + " of the list with depth " + depths[i]);
+            for(boolean noHistory : new boolean[]{true, false}){
+                PlayingField pf = PlayingField.readMap(maps[i]);
+                SearchContext context = new SearchContext();
+                context.setHistory(!noHistory);
+                long nodes = 0;
+                long cutoffs = 0;
+                long firstMoveCutoffs = 0;
+                long start = System.nanoTime();
+                try{
+                    for(int depth = 1; depth <= depths[i]; depth++){
+                        SearchWorker worker = new SearchWorker(0, context);
+                        Minimax.alphaBeta_getBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, worker);
+                        nodes += worker.getNodes();
+                        cutoffs += worker.getCutoffs();
+                        firstMoveCutoffs += worker.getFirstMoveCutoffs();
+                    }
+                } catch (TimeoutException e){
+                    e.printStackTrace();
+                }
+                long time = (System.nanoTime() - start) / 1_000_000;
+                System.out.println((noHistory ? "Move type only:       " : "Killers and history:  ") + nodes + " nodes, " + cutoffs + " cutoffs, "
+                    + String.format("%.1f", 100.0 * firstMoveCutoffs / Math.max(1, cutoffs)) + "% first-move cutoffs, " + time + "ms");
+            }
+        }
+    }
+
+
+
+
+
     private static int maxMetric = 9;
 
     private static int evaluateMove_MoveSorting(Move m, byte player, int sortingMetric){
@@ -244,7 +291,7 @@ public class MoveSortingAnalysis {
         int beta = Integer.MAX_VALUE;
 
         //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, player, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, player);
 
         
         if(moves == null) return null;
@@ -296,7 +343,6 @@ public class MoveSortingAnalysis {
     private static int ab_value_with_sorting(PlayingField pf, byte player, byte currentPlayer, int depth, int timeLimit, int pAlpha, int pBeta, int sortingMetric, boolean activateMoveSorting) throws TimeoutException{
         
         if(depth <= 0){
-            if(Client.measureTime) Client.prunedEvalCount++;
             //since this is paranoid, we will consider the heuristic rating for player (not currentPlayer)
             return pf.getIsEliminationPhase() ? MoveHeuristic.evalBoard_Elimination(pf, player) : MoveHeuristic.evalBoard_Building(pf, player);
         }
@@ -308,7 +354,7 @@ public class MoveSortingAnalysis {
         boolean isMax = player == currentPlayer;
 
         //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, currentPlayer, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, currentPlayer);
          
 
         //Calculate turn of next player
@@ -388,7 +434,7 @@ public class MoveSortingAnalysis {
         int beta = Integer.MAX_VALUE;
 
         //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, player, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, player);
 
         
         if(moves == null) return null;
@@ -433,7 +479,6 @@ public class MoveSortingAnalysis {
     private static int ab_value_reverse_sorting(PlayingField pf, byte player, byte currentPlayer, int depth, int timeLimit, int pAlpha, int pBeta, int sortingMetric) throws TimeoutException{
         
         if(depth <= 0){
-            if(Client.measureTime) Client.prunedEvalCount++;
             //since this is paranoid, we will consider the heuristic rating for player (not currentPlayer)
             return pf.getIsEliminationPhase() ? MoveHeuristic.evalBoard_Elimination(pf, player) : MoveHeuristic.evalBoard_Building(pf, player);
         }
@@ -445,7 +490,7 @@ public class MoveSortingAnalysis {
         boolean isMax = player == currentPlayer;
 
         //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, currentPlayer, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, currentPlayer);
          
 
         //Calculate turn of next player
@@ -532,7 +577,7 @@ public class MoveSortingAnalysis {
         int beta = Integer.MAX_VALUE;
 
         //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, player, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, player);
 
         
         if(moves == null) return null;
@@ -575,7 +620,6 @@ public class MoveSortingAnalysis {
     private static int ab_value_no_sorting(PlayingField pf, byte player, byte currentPlayer, int depth, int timeLimit, int pAlpha, int pBeta) throws TimeoutException{
         
         if(depth <= 0){
-            if(Client.measureTime) Client.prunedEvalCount++;
             //since this is paranoid, we will consider the heuristic rating for player (not currentPlayer)
             return pf.getIsEliminationPhase() ? MoveHeuristic.evalBoard_Elimination(pf, player) : MoveHeuristic.evalBoard_Building(pf, player);
         }
@@ -587,7 +631,7 @@ public class MoveSortingAnalysis {
         boolean isMax = player == currentPlayer;
 
         //Get all possible moves
-        List<Move> moves = Minimax.getAllPossibleMoves(pf, currentPlayer, false);
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, currentPlayer);
          
 
         //Calculate turn of next player
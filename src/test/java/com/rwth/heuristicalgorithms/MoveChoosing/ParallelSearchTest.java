@@ -0,0 +1,115 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the parallel root search of alpha-beta pruning.
+ */
+public class ParallelSearchTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * The parallel search has to find the same move with the same value as the sequential search.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void parallelSearchTest() throws IOException, TimeoutException{
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.COMP_4P, TestMaps.RESERVE_4V4)){
+            for(boolean makeUnmake : new boolean[]{false, true}){
+                PlayingField pf = PlayingField.readMap(map);
+                String original = pf.toString();
+                SearchContext context = new SearchContext();
+                context.setMakeUnmake(makeUnmake);
+
+                context.setThreads(1);
+                Move sequential = Minimax.selectBestMove(pf, (byte)1, 3, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+
+                context.setThreads(4);
+                Move parallel = Minimax.selectBestMove(pf, (byte)1, 3, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+
+                assertEquals(sequential, parallel);
+                assertEquals(sequential.value, parallel.value);
+                //the given PlayingField is not changed
+                assertEquals(original, pf.toString());
+            }
+        }
+    }
+
+    /**
+     * The parallel search stores the root in the transposition table like the sequential search, so the next iteration starts with its best move.
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void parallelTableTest() throws IOException, TimeoutException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.COMP_4P));
+        SearchContext context = new SearchContext();
+        context.setTranspositionTable(new TranspositionTable(16));
+        context.setThreads(4);
+        Move parallel = Minimax.selectBestMove(pf, (byte)1, 3, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+
+        long entry = context.getTranspositionTable().probe(TranspositionTable.key(pf.getHash(), (byte)1, (byte)1));
+        assertEquals(3, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.EXACT, TranspositionTable.getBound(entry));
+        assertEquals(parallel.value, TranspositionTable.getScore(entry));
+        assertEquals(parallel, Minimax.getAllPossibleMoves(pf, (byte)1).get(TranspositionTable.getBestMoveIndex(entry)));
+    }
+
+    /**
+     * A timeout in one of the workers is thrown by the root search.
+     * @throws IOException if the maps can not be read
+     */
+    @Test(expected = TimeoutException.class)
+    public void parallelTimeoutTest() throws IOException, TimeoutException{
+        PlayingField pf = PlayingField.readMap(Files.readString(Path.of("maps/2023_comp_5_8p.map")));
+        SearchContext context = new SearchContext();
+        context.setThreads(4);
+        context.setDeadline(System.nanoTime()/1_000_000 + 50);
+        Minimax.selectBestMove(pf, (byte)1, 20, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+    }
+
+    /**
+     * Compares the time of the sequential and the parallel search per depth on the competition maps and prints the speedup.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void parallelSearchPerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int threads = Runtime.getRuntime().availableProcessors();
+        SearchContext context = new SearchContext();
+        context.setMakeUnmake(true);
+        for(String file : new String[]{"maps/2023_comp_5_2p.map", "maps/2023_comp_5_4p.map", "maps/2023_comp_5_8p.map"}){
+            PlayingField pf = PlayingField.readMap(Files.readString(Path.of(file)), true, false);
+            for(int depth = 1; depth <= 4; depth++){
+                long[] times = new long[2];
+                //first run is warm up
+                for(int run = 0; run < 2; run++){
+                    for(int mode = 0; mode < 2; mode++){
+                        context.setThreads(mode == 0 ? 1 : threads);
+                        long start = System.nanoTime();
+                        Minimax.selectBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+                        times[mode] = System.nanoTime() - start;
+                    }
+                }
+                System.out.println("[TESTS] " + file + " depth " + depth + ". 1 thread: " + times[0]/1_000_000 + "ms, " + threads + " threads: "
+                    + times[1]/1_000_000 + "ms, speedup " + String.format("%.2f", (double)times[0]/times[1]));
+            }
+        }
+    }
+}
@@ -12,8 +12,6 @@ public class PerformanceTest{
     String map;
     @Before
     public void setUp(){ //executed before each test
-        //clean up all the static values in pf
-        PlayingField.reset();
          map = Maps.map1;
         
     }
@@ -32,7 +30,6 @@ public class PerformanceTest{
         assumeTrue(ACTIVATE_TEST);
 
         PlayingField pf = PlayingField.readMap(map);
-        PlayingField.setOurPlayerNum((byte) 6);
 
         long start;
         long end;
@@ -47,8 +44,7 @@ public class PerformanceTest{
        
         for(int i = 0; i < 2; i++){
             start = System.nanoTime();
-            Client.prevTime = new int[Client.maxDepth_TL];
-            Client.calcMove(pf, 8, 2989, 10);
+            new Client().calcMove(pf, 8, 2989, 10);
 
             end = System.nanoTime();
             time = (long)((end-start)/1_000_000.0);
@@ -63,9 +59,9 @@ public class PerformanceTest{
         System.out.println("\naspiartion windows\n");
         for(int i = 0; i < 1; i++){
             start = System.nanoTime();
-            Client.prevTime = new int[Client.maxDepth_TL];
-            Client.experimental = 1;
-            Client.calcMove(pf, 8, 2989, 10);
+            Client client = new Client();
+            client.experimental = 1;
+            client.calcMove(pf, 8, 2989, 10);
 
             end = System.nanoTime();
             time = (long)((end-start)/1_000_000.0);
@@ -0,0 +1,56 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.MoveType;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Checks the move generation against the table of expected perft counts in maps/perft.txt.
+ */
+public class PerftTest {
+
+    /**
+     * The counts of the default move generation, executing the moves on copies, have to match the table.
+     * @throws IOException if the table or a map can not be read
+     */
+    @Test
+    public void tableTest() throws IOException{
+        assertEquals(0, Perft.check(Perft.TABLE, 0, false));
+    }
+
+    /**
+     * The bitboard move generation with make/unmake, counted in parallel, has to yield the same counts.
+     * @throws IOException if the table or a map can not be read
+     */
+    @Test
+    public void parallelBitBoardTest() throws IOException{
+        assertEquals(0, Perft.check(Perft.TABLE, 3, true, true, false));
+    }
+
+    /**
+     * A perft of depth 1 counts the possible moves by their type.
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void depthOneTest() throws IOException, TimeoutException{
+        PlayingField pf = PlayingField.readMap(Files.readString(Path.of("maps/reserve/group2_chaos.map")));
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, (byte)1);
+        PerftResult result = Perft.perft(pf, (byte)1, 1, false);
+        assertEquals(moves.size(), result.getLeaves());
+        assertEquals(1, result.getPositions());
+        for(MoveType type : MoveType.values()){
+            assertEquals(moves.stream().filter(m -> m.getMoveType() == type).count(), result.getLeaves(type));
+        }
+        assertEquals(result, Perft.perftParallel(pf, (byte)1, 1, false, 2));
+    }
+}
@@ -0,0 +1,149 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the search on the time of the other players.
+ */
+public class PonderingTest {
+
+    /**
+     * The pondering of the test. Searches without a time limit.
+     */
+    private final Pondering pondering = new Pondering(new SearchContext());
+
+    /**
+     * executed after each test
+     */
+    @After
+    public void tearDown(){
+        pondering.stop();
+    }
+
+    /**
+     * If the opponent plays the predicted move, the pondering has searched our next position and its results are the ones of a normal search.
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void hitTest() throws IOException, TimeoutException, InterruptedException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.COMP_2P));
+        pf.executeMove(Minimax.selectFirstMove(pf, (byte)1), (byte)1);
+        pondering.start(pf, (byte)1, (byte)1, 4, true);
+        waitForPondering();
+
+        Move predicted = Pondering.predictMove(pf, (byte)2, (byte)1, new SearchWorker(0));
+        pf.executeMove(predicted, (byte)2);
+        pondering.moveAnnounced(pf, predicted, (byte)2, (byte)1, 4, true);
+        SearchWorker worker = pondering.takeResult(pf, (byte)1);
+        assertNotNull(worker);
+        assertEquals(4, worker.getCompletedDepth());
+        //the time manager predicts the next iteration from the pondered ones
+        assertTrue(worker.getIterationNodes(4) > 0 && worker.getIterationTime(4) > 0);
+        assertEquals(Minimax.alphaBeta_getBestMove(pf, (byte)1, 4, Integer.MIN_VALUE, Integer.MAX_VALUE, true).value, worker.getBestMove().value);
+        //the worker can continue with the next depth
+        assertNotNull(Minimax.alphaBeta_getBestMove(pf, (byte)1, 5, Integer.MIN_VALUE, Integer.MAX_VALUE, true, worker));
+    }
+
+    /**
+     * If the opponent plays another move, the result of the pondering must not be used.
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void missTest() throws IOException, TimeoutException, InterruptedException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.COMP_2P));
+        pf.executeMove(Minimax.selectFirstMove(pf, (byte)1), (byte)1);
+        pondering.start(pf, (byte)1, (byte)1, 4, true);
+        waitForPondering();
+
+        Move predicted = Pondering.predictMove(pf, (byte)2, (byte)1, new SearchWorker(0));
+        List<Move> moves = Minimax.getAllPossibleMoves(pf, (byte)2);
+        Move other = moves.get(0).equals(predicted) ? moves.get(1) : moves.get(0);
+        pf.executeMove(other, (byte)2);
+        pondering.moveAnnounced(pf, other, (byte)2, (byte)1, 4, true);
+        assertNull(pondering.takeResult(pf, (byte)1));
+    }
+
+    /**
+     * An opponent without a possible move is predicted to pass. The pondering has to go on with the next opponent,
+     * and the pass must not count as a wrong prediction when the server skips the player.
+     * @throws TimeoutException never, since no time limit is used
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void passTest() throws TimeoutException, InterruptedException{
+        //the stone of player 2 is surrounded by holes, so player 2 can never move
+        PlayingField pf = PlayingField.readMap("""
+            3
+            0
+            0 0
+            6 8
+            0 0 0 0 0 0 - -
+            0 0 0 0 0 0 - -
+            0 0 1 3 0 0 - 2
+            0 0 3 1 0 0 - -
+            0 0 0 0 0 0 - -
+            0 0 0 0 0 0 - -
+            """);
+        Move first = Minimax.selectFirstMove(pf, (byte)1);
+        pf.executeMove(first, (byte)1);
+        assertNull(Minimax.getAllPossibleMoves(pf, (byte)2));
+        assertNull(Pondering.predictMove(pf, (byte)2, (byte)1, new SearchWorker(0)));
+
+        pondering.start(pf, (byte)1, (byte)1, 3, true);
+        waitForPondering();
+
+        Move predicted = Pondering.predictMove(pf, (byte)3, (byte)1, new SearchWorker(0));
+        assertNotNull(predicted);
+        pf.executeMove(predicted, (byte)3);
+        pondering.moveAnnounced(pf, predicted, (byte)3, (byte)1, 3, true);
+        SearchWorker worker = pondering.takeResult(pf, (byte)1);
+        assertNotNull(worker);
+        assertEquals(3, worker.getCompletedDepth());
+        assertNotNull(worker.getBestMove());
+    }
+
+    /**
+     * Stopping has to end a deep search quickly and no search may be running afterwards.
+     * @throws IOException if the map can not be read
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void stopTest() throws IOException, InterruptedException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.COMP_4P));
+        pf.executeMove(Minimax.selectFirstMove(pf, (byte)1), (byte)1);
+        pondering.start(pf, (byte)1, (byte)1, 20, true);
+        Thread.sleep(300);
+        assertTrue(pondering.isSearching());
+        long start = System.nanoTime();
+        pondering.stop();
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertTrue(!pondering.isSearching());
+    }
+
+    /**
+     * Waits until the pondering has finished all iterations.
+     * @throws InterruptedException if the test is interrupted
+     */
+    private void waitForPondering() throws InterruptedException{
+        long start = System.nanoTime();
+        while(pondering.isSearching() && System.nanoTime() - start < 30_000_000_000L){
+            Thread.sleep(10);
+        }
+    }
+}
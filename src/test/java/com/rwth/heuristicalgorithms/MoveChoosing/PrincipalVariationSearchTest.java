@@ -0,0 +1,84 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests principal variation search (see SearchContext.setPVS).
+ */
+public class PrincipalVariationSearchTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * The null windows only decide which moves have to be searched exactly, so the value of the best move has to be the same as with alpha-beta pruning.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void valueTest() throws IOException, TimeoutException{
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.COMP_4P, TestMaps.RESERVE_4V4, TestMaps.RESERVE_REVERSI)){
+            for(int mode = 0; mode < 3; mode++){
+                int[][] values = new int[2][5];
+                for(int run = 0; run < 2; run++){
+                    PlayingField pf = PlayingField.readMap(map);
+                    SearchContext context = new SearchContext();
+                    context.setMakeUnmake(mode == 1);
+                    context.setTranspositionTable(mode == 2 ? new TranspositionTable(16) : null);
+                    context.setPVS(run == 1);
+                    SearchWorker worker = new SearchWorker(0, context);
+                    for(int depth = 1; depth < values[run].length; depth++){
+                        values[run][depth] = Minimax.selectBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, worker).value;
+                    }
+                }
+                assertArrayEquals(values[0], values[1]);
+            }
+        }
+    }
+
+    /**
+     * Compares the number of evaluated states (SearchContext.prunedEvalCount) and the time of an iterative deepening search
+     * with alpha-beta pruning and with principal variation search on all maps.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void pvsPerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        for(Path file : TestMaps.listMaps()){
+            String map = Files.readString(file);
+            int depth = TestMaps.probeDepth(map, 1000);
+            long[] count = new long[2];
+            long[] time = new long[2];
+            long researches = 0;
+            for(int run = 0; run < 2; run++){
+                PlayingField pf = PlayingField.readMap(map);
+                SearchContext context = new SearchContext();
+                context.setMakeUnmake(true);
+                context.setPVS(run == 1);
+                SearchWorker worker = new SearchWorker(0, context);
+                long start = System.nanoTime();
+                for(int i = 1; i <= depth; i++){
+                    Minimax.selectBestMove(pf, (byte)1, i, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, worker);
+                }
+                time[run] = (System.nanoTime() - start) / 1_000_000;
+                count[run] = context.prunedEvalCount.sum();
+                researches = worker.getResearches();
+            }
+            System.out.println("[TESTS] " + file + " depth " + depth + ": states evaluated " + count[0] + " -> " + count[1] + " ("
+                + String.format("%.1f", 100.0 * (count[0] - count[1]) / Math.max(1, count[0])) + "% less), time " + time[0] + "ms -> " + time[1]
+                + "ms, " + researches + " re-searches");
+        }
+    }
+}
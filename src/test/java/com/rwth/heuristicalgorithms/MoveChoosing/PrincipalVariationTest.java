@@ -0,0 +1,99 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the reuse of the principal variation and the root values of the previous iteration of iterative deepening.
+ */
+public class PrincipalVariationTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * The principal variation has to start with the best move and the next move has to be possible after it.
+     * Reusing it only changes the order of the moves, so the values of all iterations have to stay the same.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void principalVariationTest() throws IOException, TimeoutException{
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.RESERVE_4V4, TestMaps.RESERVE_REVERSI)){
+            for(int mode = 0; mode < 3; mode++){
+                int[][] values = new int[2][5];
+                for(int run = 0; run < 2; run++){
+                    PlayingField pf = PlayingField.readMap(map);
+                    SearchContext context = new SearchContext();
+                    context.setMakeUnmake(mode == 1);
+                    context.setThreads(mode == 2 ? 2 : 1);
+                    context.setPVReuse(run == 1);
+                    SearchWorker worker = new SearchWorker(0, context);
+                    for(int depth = 1; depth < values[run].length; depth++){
+                        Move best = Minimax.selectBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, worker);
+                        values[run][depth] = best.value;
+
+                        Move[] pv = worker.getPrincipalVariation();
+                        assertTrue(pv.length >= 1 && pv.length <= depth);
+                        assertEquals(best, pv[0]);
+                        PlayingField next = Move.simulateMove(pv[0], (byte)1, pf);
+                        assertNotNull(next);
+                        if(pv.length > 1 && pv[1] != null){
+                            assertNotNull(Move.simulateMove(pv[1], Minimax.getNextPlayer(pf, (byte)1), next));
+                        }
+                    }
+                }
+                assertArrayEquals(values[0], values[1]);
+            }
+        }
+    }
+
+    /**
+     * Compares the nodes searched per depth of iterative deepening with and without reusing the principal variation on the competition maps.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void principalVariationPerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        String[] files = {"maps/2023_comp_5_2p.map", "maps/2023_comp_5_4p.map", "maps/2023_comp_5_8p.map"};
+        int[] maxDepths = {8, 6, 5};
+        for(int m = 0; m < files.length; m++){
+            long[][] nodes = new long[2][maxDepths[m] + 1];
+            long[] time = new long[2];
+            for(int run = 0; run < 2; run++){
+                PlayingField pf = PlayingField.readMap(Files.readString(Path.of(files[m])));
+                SearchContext context = new SearchContext();
+                context.setMakeUnmake(true);
+                context.setPVReuse(run == 1);
+                SearchWorker worker = new SearchWorker(0, context);
+                long start = System.nanoTime();
+                for(int depth = 1; depth <= maxDepths[m]; depth++){
+                    long before = worker.getNodes();
+                    Minimax.selectBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, worker);
+                    nodes[run][depth] = worker.getNodes() - before;
+                }
+                time[run] = (System.nanoTime() - start) / 1_000_000;
+            }
+            System.out.println("[TESTS] " + files[m] + " (" + time[0] + "ms without, " + time[1] + "ms with principal variation):");
+            for(int depth = 1; depth <= maxDepths[m]; depth++){
+                System.out.println("[TESTS]   depth " + depth + ": " + nodes[0][depth] + " -> " + nodes[1][depth] + " nodes ("
+                    + String.format("%.1f", 100.0 * (nodes[0][depth] - nodes[1][depth]) / Math.max(1, nodes[0][depth])) + "% saved)");
+            }
+        }
+    }
+}
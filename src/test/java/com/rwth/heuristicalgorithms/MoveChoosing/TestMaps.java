@@ -0,0 +1,123 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Maps and search depths shared by the tests, so that every test searches the same positions.
+ * The small maps keep the correctness tests fast, the performance comparisons run on all maps (see listMaps).
+ */
+public class TestMaps {
+
+    //------------------------------------------------------------------------------
+    // ATTRIBUTES START
+
+    /**
+     * Competition map with 2 players.
+     */
+    public static final String COMP_2P = "maps/2023_comp_5_2p.map";
+
+    /**
+     * Competition map with 4 players.
+     */
+    public static final String COMP_4P = "maps/2023_comp_5_4p.map";
+
+    /**
+     * Small 9x9 map with 4 players.
+     */
+    public static final String RESERVE_4V4 = "maps/reserve/Map_4v4_9x9_#01.map";
+
+    /**
+     * 17x17 map with 3 players and three Reversi starting positions.
+     */
+    public static final String RESERVE_REVERSI = "maps/reserve/Map_3v3_17x17_#3xReversi.map";
+
+    // ATTRIBUTES END
+    //------------------------------------------------------------------------------
+
+
+
+    //------------------------------------------------------------------------------
+    // METHODS START
+
+    /**
+     * @param path path of the map file, e.g. COMP_2P
+     * @return the map string
+     * @throws IOException if the map can not be read
+     */
+    public static String readMap(String path) throws IOException{
+        return Files.readString(Path.of(path));
+    }
+
+    /**
+     * @param paths paths of the map files
+     * @return the map strings in the given order
+     * @throws IOException if a map can not be read
+     */
+    public static List<String> readMaps(String... paths) throws IOException{
+        List<String> maps = new ArrayList<>();
+        for(String path : paths){
+            maps.add(readMap(path));
+        }
+        return maps;
+    }
+
+    /**
+     * Lists all maps in the maps folder and its subfolders.
+     * @return the paths of the map files, sorted
+     * @throws IOException if the folders can not be read
+     */
+    public static List<Path> listMaps() throws IOException{
+        try(Stream<Path> paths = Files.walk(Path.of("maps"))){
+            return paths.filter(p -> p.toString().endsWith(".map")).sorted().toList();
+        }
+    }
+
+    /**
+     * Reads all maps from the maps folder and its subfolders.
+     * @return the map strings, in the order of listMaps
+     * @throws IOException if the maps can not be read
+     */
+    public static List<String> readAllMaps() throws IOException{
+        List<String> maps = new ArrayList<>();
+        for(Path path : listMaps()){
+            maps.add(Files.readString(path));
+        }
+        return maps;
+    }
+
+    /**
+     * Determines the depth of the iterative deepening search for a map, so that alpha-beta pruning with make/unmake takes about the given time.
+     * Used by the performance comparisons to search every map as deep as the time allows.
+     * @param map the map
+     * @param timeLimit time in ms after which no new iteration is started
+     * @return the deepest iteration that was started before the time limit and completed within ten times the time limit, at most 10
+     */
+    public static int probeDepth(String map, int timeLimit){
+        PlayingField pf = PlayingField.readMap(map);
+        long start = System.nanoTime()/1_000_000;
+        SearchContext context = new SearchContext();
+        context.setMakeUnmake(true);
+        context.setDeadline(start + 10L * timeLimit);
+        int depth = 0;
+        try{
+            SearchWorker worker = new SearchWorker(0, context);
+            while(depth < 10 && System.nanoTime()/1_000_000 - start < timeLimit){
+                Minimax.selectBestMove(pf, (byte)1, depth + 1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, worker);
+                depth++;
+            }
+        } catch(TimeoutException e){
+            //the last iteration took too long
+        }
+        return Math.max(depth, 1);
+    }
+
+    // METHODS END
+    //------------------------------------------------------------------------------
+}
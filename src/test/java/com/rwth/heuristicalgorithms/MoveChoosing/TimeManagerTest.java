@@ -0,0 +1,128 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.Client.Client;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the prediction of the iteration times and the deadlines of the TimeManager.
+ */
+public class TimeManagerTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * The hard deadline is the time limit minus the buffer and the soft deadline lies before it.
+     * @throws IOException if the map can not be read
+     */
+    @Test
+    public void deadlineTest() throws IOException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.COMP_2P));
+        SearchContext context = new SearchContext();
+        TimeManager manager = new TimeManager(context);
+        long start = System.nanoTime()/1_000_000;
+        manager.startMove(pf, (byte)1, 11000);
+        assertEquals(manager.getHardDeadline(), context.getReturnTime());
+        assertTrue(Math.abs(manager.getHardDeadline() - (start + 9890)) < 50);
+        assertTrue(manager.getSoftDeadline() > start && manager.getSoftDeadline() < manager.getHardDeadline());
+        assertTrue(manager.startIteration(1));
+
+        //after the soft deadline only the first iteration is started
+        manager.startMove(pf, (byte)1, 1000);
+        assertFalse(manager.startIteration(2));
+        assertTrue(manager.startIteration(1));
+    }
+
+    /**
+     * Iterations measured elsewhere (by the pondering) are used to predict the next iteration like the ones measured by startIteration.
+     * @throws IOException if the map can not be read
+     */
+    @Test
+    public void recordedIterationTest() throws IOException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.COMP_2P));
+        TimeManager manager = new TimeManager(new SearchContext());
+        manager.startMove(pf, (byte)1, 100000);
+        assertEquals(0, manager.predictTime(3));
+        manager.completeIteration(1, 100, 1_000_000);
+        manager.completeIteration(2, 1000, 5_000_000);
+        assertEquals(5, manager.getIterationTime(2));
+        assertTrue(manager.predictTime(3) >= 5_000_000);
+    }
+
+    /**
+     * The EBF is taken from the iterations of the same parity, then from earlier moves of the same phase, then from the last two iterations.
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void branchingFactorTest() throws IOException, TimeoutException{
+        PlayingField pf = PlayingField.readMap(TestMaps.readMap(TestMaps.COMP_2P));
+        TimeManager manager = new TimeManager(new SearchContext());
+        manager.startMove(pf, (byte)1, 100000);
+        int moves = Minimax.getAllPossibleMoves(pf, (byte)1).size();
+        assertEquals(Math.sqrt(moves), manager.getBranchingFactor(2), 1e-9);
+
+        long[] nodes = {0, 100, 400, 8000, 32000};
+        for(int depth = 1; depth < nodes.length; depth++){
+            manager.startIteration(depth);
+            manager.completeIteration(depth, nodes[depth]);
+        }
+        assertEquals(20.0, manager.getBranchingFactor(5), 1e-9);
+        assertTrue(manager.predictTime(5) > 0);
+
+        //the next move learned the EBFs of depth 2, odd and even depths
+        manager.startMove(pf, (byte)1, 100000);
+        assertEquals(4.0, manager.getBranchingFactor(2), 1e-9);
+        assertEquals(20.0, manager.getBranchingFactor(3), 1e-9);
+        assertEquals(4.0, manager.getBranchingFactor(4), 1e-9);
+        assertEquals(0, manager.predictTime(2));
+    }
+
+    /**
+     * Plays the first moves on all maps with Client.calcMove and reports the iterations that ran into the time limit
+     * and the time that was spent on them.
+     * @throws IOException if the maps can not be read
+     */
+    @Test
+    public void timeManagementPerformanceTest() throws IOException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int timeLimit = 1500;
+        for(Path file : TestMaps.listMaps()){
+            PlayingField pf = PlayingField.readMap(Files.readString(file));
+            Client client = new Client();
+            long used = 0;
+            long wasted = 0;
+            byte player = 1;
+            for(int i = 0; i < 8; i++){
+                long start = System.nanoTime();
+                Move move = client.calcMove(pf, player, timeLimit, Client.maxDepth_TL);
+                long time = (System.nanoTime() - start) / 1_000_000;
+                if(move == null) break;
+                long completed = 0;
+                for(int depth = 1; depth <= Client.maxDepth_TL; depth++){
+                    completed += client.timeManager.getIterationTime(depth);
+                }
+                used += time;
+                wasted += Math.max(0, time - completed);
+                pf.executeMove(move, player);
+                player = Minimax.getNextPlayer(pf, player);
+            }
+            System.out.println("[TESTS] " + file + ": " + client.searchContext.numTimeoutExceptions + " timeouts, " + client.searchContext.numEstimationAborted
+                + " estimation aborts, " + used + "ms used, " + wasted + "ms in aborted iterations");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.rwth.heuristicalgorithms.MoveChoosing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.PlayingField.BitBoardTest;
+import com.rwth.heuristicalgorithms.PlayingField.Move;
+import com.rwth.heuristicalgorithms.PlayingField.PlayingField;
+
+/**
+ * Tests the transposition table and its use in alpha-beta pruning.
+ */
+public class TranspositionTableTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * Stored entries can be found again and are decoded correctly.
+     */
+    @Test
+    public void storeProbeTest(){
+        TranspositionTable tt = new TranspositionTable(1);
+        assertEquals(0, tt.probe(42));
+
+        tt.store(42, 3, TranspositionTable.UPPER, -1234, 17);
+        long entry = tt.probe(42);
+        assertNotEquals(0, entry);
+        assertEquals(-1234, TranspositionTable.getScore(entry));
+        assertEquals(3, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.getBound(entry));
+        assertEquals(17, TranspositionTable.getBestMoveIndex(entry));
+        assertEquals(0, tt.probe(43));
+
+        //an empty result is stored as well
+        tt.store(44, 0, TranspositionTable.EXACT, 0, TranspositionTable.NO_MOVE);
+        assertNotEquals(0, tt.probe(44));
+
+        assertEquals(4, tt.getProbes());
+        assertEquals(2, tt.getHits());
+
+        tt.clear();
+        assertEquals(0, tt.probe(42));
+    }
+
+    /**
+     * The depth-preferred entry of a bucket keeps the deepest result of the current search, the second entry is always replaced.
+     */
+    @Test
+    public void replacementTest(){
+        TranspositionTable tt = new TranspositionTable(1);
+        //these keys are all mapped to the same bucket
+        long deep = 7 | 1L << 50;
+        long shallow = 7 | 2L << 50;
+        long other = 7 | 3L << 50;
+
+        tt.store(deep, 5, TranspositionTable.EXACT, 1, 0);
+        tt.store(shallow, 2, TranspositionTable.EXACT, 2, 0);
+        assertEquals(1, TranspositionTable.getScore(tt.probe(deep)));
+        assertEquals(2, TranspositionTable.getScore(tt.probe(shallow)));
+
+        //the shallow entry is replaced, the deep one is kept
+        tt.store(other, 1, TranspositionTable.EXACT, 3, 0);
+        assertEquals(1, TranspositionTable.getScore(tt.probe(deep)));
+        assertEquals(0, tt.probe(shallow));
+        assertEquals(3, TranspositionTable.getScore(tt.probe(other)));
+
+        //in a new search, the deep entry is replaced as well
+        tt.newSearch();
+        tt.store(shallow, 2, TranspositionTable.EXACT, 2, 0);
+        assertEquals(0, tt.probe(deep));
+        assertEquals(2, TranspositionTable.getScore(tt.probe(shallow)));
+    }
+
+    /**
+     * An iterative deepening search with the transposition table has to find a move with the same value as a plain search
+     * and must not evaluate more states in the last iteration.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void searchTest() throws IOException, TimeoutException{
+        int depth = 4;
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.RESERVE_4V4)){
+            PlayingField pf = PlayingField.readMap(map);
+
+            SearchContext context = new SearchContext();
+            Move plain = Minimax.selectBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+            long plainCount = context.prunedEvalCount.sum();
+
+            TranspositionTable tt = new TranspositionTable(16);
+            context.setTranspositionTable(tt);
+            Move hashed = null;
+            for(int i = 1; i <= depth; i++){
+                context.prunedEvalCount.reset();
+                hashed = Minimax.selectBestMove(pf, (byte)1, i, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+            }
+
+            assertEquals(plain.value, hashed.value);
+            assertTrue(context.prunedEvalCount.sum() <= plainCount);
+            assertTrue(tt.getHits() > 0);
+        }
+    }
+
+    /**
+     * Compares the number of evaluated states and the time of an iterative deepening search with and without the transposition table on all maps.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void transpositionTablePerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int depth = 4;
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+            long[] times = new long[2];
+            long[] counts = new long[2];
+            String hitRate = "";
+            for(int mode = 0; mode < 2; mode++){
+                TranspositionTable tt = mode == 1 ? new TranspositionTable(64) : null;
+                SearchContext context = new SearchContext();
+                context.setTranspositionTable(tt);
+                long start = System.nanoTime();
+                for(int i = 1; i <= depth; i++){
+                    Minimax.selectBestMove(pf, (byte)1, i, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+                }
+                times[mode] = System.nanoTime() - start;
+                counts[mode] = context.prunedEvalCount.sum();
+                if(tt != null) hitRate = tt.getStatistics();
+            }
+            System.out.println("[TESTS] " + pf.getMapHeight() + "x" + pf.getMapWidth() + " map with "
+                + pf.getPlayerCount() + " players, depth 1-" + depth + ". Without table: " + times[0]/1_000_000 + "ms, " + counts[0]
+                + " states. With table: " + times[1]/1_000_000 + "ms, " + counts[1] + " states. " + hitRate);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.TestMaps;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+
+/**
+ * Compares the bitboard move generation with the move generation that scans the whole map.
+ */
+public class BitBoardTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * Plays random games on all maps in the maps folder and checks that both move generators yield the same moves in every position.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void moveGenerationTest() throws IOException, TimeoutException{
+        for(String map : TestMaps.readAllMaps()){
+            compareMoveGeneration(map, 2, 100);
+        }
+        //map from the courseRules.pdf, contains special transitions
+        compareMoveGeneration(COURSE_RULES_MAP, 10, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Compares the time used by both move generators on all maps in the maps folder.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void moveGenerationPerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int runs = 1000;
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField scan = PlayingField.readMap(map, false, false);
+            PlayingField bitBoard = PlayingField.readMap(map, true, false);
+
+            long timeScan = measure(scan, runs);
+            long timeBitBoard = measure(bitBoard, runs);
+            System.out.println("[TESTS] " + scan.getMapHeight() + "x" + scan.getMapWidth() + " map with "
+                + scan.getPlayerCount() + " players. Scan: " + timeScan/runs + "ns per call, bitboard: " + timeBitBoard/runs + "ns per call.");
+        }
+    }
+
+    /**
+     * Measures the time to generate all moves for every player.
+     * @param pf the PlayingField
+     * @param runs number of repetitions
+     * @return the time in nanoseconds
+     * @throws TimeoutException never
+     */
+    private long measure(PlayingField pf, int runs) throws TimeoutException{
+        //warm up
+        for(int i = 0; i < runs; i++){
+            Minimax.getAllPossibleMoves(pf, (byte)1);
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < runs; i++){
+            for(byte p = 1; p <= pf.getPlayerCount(); p++){
+                Minimax.getAllPossibleMoves(pf, p);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Plays random games and compares the moves of both move generators in every position.
+     * @param map the map string
+     * @param games number of random games
+     * @param maxMoves maximum number of moves per game
+     * @throws TimeoutException never
+     */
+    private void compareMoveGeneration(String map, int games, int maxMoves) throws TimeoutException{
+        Random rand = new Random(5);
+        for(int game = 0; game < games; game++){
+            PlayingField scan = PlayingField.readMap(map, false, false);
+            PlayingField bitBoard = PlayingField.readMap(map, true, false);
+
+            byte player = 1;
+            int skipped = 0;
+            for(int moves = 0; moves < maxMoves && skipped < scan.getPlayerCount(); moves++){
+                List<Move> expected = Minimax.getAllPossibleMoves(scan, player);
+                List<Move> actual = Minimax.getAllPossibleMoves(bitBoard, player);
+                assertEquals(expected, actual);
+
+                if(expected == null){
+                    skipped++;
+                } else {
+                    skipped = 0;
+                    Move m = expected.get(rand.nextInt(expected.size()));
+                    scan.executeMove(m, player);
+                    bitBoard.executeMove(m, player);
+                }
+                player = Minimax.getNextPlayer(scan, player);
+            }
+        }
+    }
+
+    /**
+     * Example map from the courseRules.pdf
+     */
+    private static final String COURSE_RULES_MAP = "3\n" +
+        "6\n"+
+        "4 2\r\n"+
+        "15 15\r\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 i 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "0 0 0 0 0 0 0 0 0 0 0 0 0 0 0\n" +
+        "0 c 0 0 0 0 1 2 3 0 i 0 0 0 0\n" +
+        "0 0 0 0 0 0 3 1 2 0 0 0 0 0 0\n" +
+        "0 0 0 b 0 0 2 3 1 0 0 0 0 0 0\n" +
+        "0 0 0 0 0 0 0 0 0 0 0 0 b 0 0\n" +
+        "- - - - - 0 0 x 0 0 - - - - -\n" +
+        "- - - - - 0 x x x 0 - - - - -\n" +
+        "- - - - - 0 0 x c 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "6 0 0 <-> 9 1 1\n" +
+        "7 14 4 <-> 7 0 0";
+}
@@ -0,0 +1,215 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchContext;
+import com.rwth.heuristicalgorithms.MoveChoosing.SearchWorker;
+import com.rwth.heuristicalgorithms.MoveChoosing.TestMaps;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+
+/**
+ * Tests makeMove/unmakeMove against executing moves on copies of the PlayingField.
+ */
+public class MakeUnmakeTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * Plays random games on all maps. In every position, every possible move is made and taken back again.
+     * The result of makeMove has to equal executeMove on a copy and unmakeMove has to restore the original state.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void makeUnmakeTest() throws IOException, TimeoutException{
+        Random rand = new Random(7);
+        for(String map : TestMaps.readAllMaps()){
+            for(boolean bitBoard : new boolean[]{false, true}){
+                PlayingField pf = PlayingField.readMap(map, bitBoard, true);
+
+                byte player = 1;
+                for(int moves = 0; moves < 10; moves++){
+                    //switch to the elimination phase for the last moves to test bomb moves
+                    if(moves == 8) pf.startEliminationPhase();
+
+                    List<Move> possible = Minimax.getAllPossibleMoves(pf, player);
+                    if(possible == null){
+                        player = Minimax.getNextPlayer(pf, player);
+                        continue;
+                    }
+                    PlayingField before = pf.copy();
+                    for(int i = 0; i < possible.size(); i += 1 + possible.size()/4){
+                        Move m = possible.get(i);
+                        PlayingField expected = Move.simulateMove(m, player, pf);
+                        assertTrue(pf.makeMove(m, player));
+                        assertSameState(expected, pf);
+
+                        //one more ply to test nested undo
+                        byte next = Minimax.getNextPlayer(pf, player);
+                        List<Move> replies = Minimax.getAllPossibleMoves(pf, next);
+                        if(replies != null){
+                            Move reply = replies.get(rand.nextInt(replies.size()));
+                            assertTrue(pf.makeMove(reply, next));
+                            pf.unmakeMove();
+                            assertSameState(expected, pf);
+                        }
+
+                        pf.unmakeMove();
+                        assertSameState(before, pf);
+                    }
+                    pf.executeMove(possible.get(rand.nextInt(possible.size())), player);
+                    player = Minimax.getNextPlayer(pf, player);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests choice and inversion moves, which swap the stones of players.
+     */
+    @Test
+    public void makeUnmakeSwapTest(){
+        PlayingField pf = PlayingField.readMap(SWAP_MAP);
+        PlayingField before = pf.copy();
+
+        //choice move on (7, 10) swapping with player 2
+        Move choice = Move.createChoiceMove((byte)7, (byte)10, (byte)2);
+        PlayingField expected = Move.simulateMove(choice, (byte)1, pf);
+        assertTrue(pf.makeMove(choice, (byte)1));
+        assertSameState(expected, pf);
+
+        //inversion move on (6, 10) on top of the choice move
+        Move inversion = Move.createDefaultMove((byte)6, (byte)10);
+        PlayingField expected2 = Move.simulateMove(inversion, (byte)3, pf);
+        assertTrue(pf.makeMove(inversion, (byte)3));
+        assertSameState(expected2, pf);
+
+        pf.unmakeMove();
+        assertSameState(expected, pf);
+        pf.unmakeMove();
+        assertSameState(before, pf);
+
+        //illegal moves do not change anything
+        assertTrue(!pf.makeMove(Move.createDefaultMove((byte)0, (byte)5), (byte)1));
+        assertSameState(before, pf);
+    }
+
+    /**
+     * The search has to yield the same results with and without make/unmake. Only uses small maps to keep the test fast.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void makeUnmakeSearchTest() throws IOException, TimeoutException{
+        for(String map : TestMaps.readMaps(TestMaps.COMP_2P, TestMaps.COMP_4P, TestMaps.RESERVE_4V4)){
+            PlayingField pf = PlayingField.readMap(map);
+            String original = pf.toString();
+
+            SearchContext copyContext = new SearchContext();
+            Move copyMove = Minimax.selectBestMove(pf, (byte)1, 2, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, copyContext));
+            long copyCount = copyContext.prunedEvalCount.sum();
+
+            SearchContext makeContext = new SearchContext();
+            makeContext.setMakeUnmake(true);
+            Move makeMove = Minimax.selectBestMove(pf, (byte)1, 2, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, makeContext));
+
+            assertEquals(copyMove, makeMove);
+            if(copyMove == null) continue;
+            assertEquals(copyMove.value, makeMove.value);
+            assertEquals(copyCount, makeContext.prunedEvalCount.sum());
+            //the given PlayingField is not changed
+            assertEquals(original, pf.toString());
+        }
+    }
+
+    /**
+     * Compares the search time with and without make/unmake on all maps.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void makeUnmakePerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int depth = 2;
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+            long[] times = new long[2];
+            for(int run = 0; run < 3; run++){
+                for(int mode = 0; mode < 2; mode++){
+                    SearchContext context = new SearchContext();
+                    context.setMakeUnmake(mode == 1);
+                    long start = System.nanoTime();
+                    Minimax.selectBestMove(pf, (byte)1, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, true, true, new SearchWorker(0, context));
+                    //only the last run counts, the others are warm up
+                    times[mode] = System.nanoTime() - start;
+                }
+            }
+            System.out.println("[TESTS] " + pf.getMapHeight() + "x" + pf.getMapWidth() + " map with "
+                + pf.getPlayerCount() + " players, depth " + depth + ". Copy: " + times[0]/1_000_000 + "ms, make/unmake: " + times[1]/1_000_000 + "ms.");
+        }
+    }
+
+    /**
+     * Asserts that two PlayingFields have the same state.
+     * @param expected the expected state
+     * @param actual the actual state
+     */
+    private static void assertSameState(PlayingField expected, PlayingField actual){
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getNumberOccupiedTiles(), actual.getNumberOccupiedTiles());
+        for(byte p = 1; p <= expected.getPlayerCount(); p++){
+            assertEquals(expected.getPlayerBombCount(p), actual.getPlayerBombCount(p));
+            assertEquals(expected.getPlayerOverrideStoneCount(p), actual.getPlayerOverrideStoneCount(p));
+            assertEquals(expected.getTileScore(p), actual.getTileScore(p));
+            assertEquals(expected.getFrontierCount(p), actual.getFrontierCount(p));
+            assertEquals(expected.getStone(p), actual.getStone(p));
+        }
+        for(byte y = 0; y < expected.getMapHeight(); y++){
+            for(byte x = 0; x < expected.getMapWidth(); x++){
+                assertEquals(expected.isFrontierStone(y, x), actual.isFrontierStone(y, x));
+                assertEquals(expected.getTileCode(y, x), actual.getTileCode(y, x));
+            }
+        }
+        if(expected.getBitBoard() != null){
+            for(int code = 0; code < 14; code++){
+                assertArrayEquals(expected.getBitBoard().getSet(code), actual.getBitBoard().getSet(code));
+            }
+        }
+    }
+
+    /**
+     * Map with choice and inversion tiles next to the stones of all players
+     */
+    private static final String SWAP_MAP = "3\n" +
+        "6\n"+
+        "4 2\r\n"+
+        "15 15\r\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 i 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "0 0 0 0 0 0 1 0 0 0 0 0 0 0 0\n" +
+        "0 c 0 0 0 2 2 2 3 1 i 0 0 0 0\n" +
+        "0 0 0 0 3 3 3 1 2 2 c 0 0 0 0\n" +
+        "0 0 0 b 0 2 3 3 1 b b 0 0 0 0\n" +
+        "0 0 0 0 2 0 3 0 0 0 0 0 b 0 0\n" +
+        "- - - - - 0 0 x 0 0 - - - - -\n" +
+        "- - - - - 0 x x x 0 - - - - -\n" +
+        "- - - - - 0 0 x c 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n";
+}
@@ -0,0 +1,129 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.TestMaps;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+
+/**
+ * Compares the move generation with the incrementally updated move candidates with the move generation that scans the whole map.
+ */
+public class MoveCandidatesTest {
+
+    /**
+     * The performance comparison will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * Plays random games on all maps with executeMove and makeMove/unmakeMove, followed by some bomb moves,
+     * and checks that both move generators yield the same moves in every position.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void moveGenerationTest() throws IOException, TimeoutException{
+        Random rand = new Random(3);
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField scan = PlayingField.readMap(map, false, false);
+            PlayingField candidates = PlayingField.readMap(map, false, true);
+
+            byte player = 1;
+            int skipped = 0;
+            for(int moves = 0; moves < 100 && skipped < scan.getPlayerCount(); moves++){
+                List<Move> expected = Minimax.getAllPossibleMoves(scan, player);
+                List<Move> actual = Minimax.getAllPossibleMoves(candidates, player);
+                assertEquals(expected, actual);
+
+                if(expected == null){
+                    skipped++;
+                } else {
+                    skipped = 0;
+                    //make/unmake a move first, the candidates have to be restored
+                    candidates.makeMove(expected.get(rand.nextInt(expected.size())), player);
+                    candidates.unmakeMove();
+                    assertEquals(expected, Minimax.getAllPossibleMoves(candidates, player));
+
+                    Move m = expected.get(rand.nextInt(expected.size()));
+                    scan.executeMove(m, player);
+                    candidates.makeMove(m, player);
+                }
+                player = Minimax.getNextPlayer(scan, player);
+            }
+
+            //bombs create holes next to frontier empties. Bombs are only used in the elimination phase, so no other moves are executed afterwards
+            for(int bomb = 0; bomb < scan.getPlayerBombCount((byte)1); bomb++){
+                Move m = Move.createBombMove((byte)rand.nextInt(scan.getMapHeight()), (byte)rand.nextInt(scan.getMapWidth()));
+                assertEquals(scan.executeMove(m, (byte)1), candidates.makeMove(m, (byte)1));
+                for(byte p = 1; p <= scan.getPlayerCount(); p++){
+                    assertEquals(Minimax.getAllPossibleMoves(scan, p), Minimax.getAllPossibleMoves(candidates, p));
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the time used by both move generators on all maps, at the start and after 30 moves of a random game.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void moveGenerationPerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        int runs = 1000;
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField scan = PlayingField.readMap(map, false, false);
+            PlayingField candidates = PlayingField.readMap(map, false, true);
+
+            StringBuilder result = new StringBuilder();
+            Random rand = new Random(1);
+            byte player = 1;
+            for(int moves = 0; moves <= 30; moves++){
+                if(moves == 0 || moves == 30){
+                    long timeScan = measure(scan, runs);
+                    long timeCandidates = measure(candidates, runs);
+                    result.append(" after ").append(moves).append(" moves: scan ").append(timeScan/runs)
+                        .append("ns, candidates ").append(timeCandidates/runs).append("ns per call.");
+                }
+                List<Move> possible = Minimax.getAllPossibleMoves(scan, player);
+                if(possible != null){
+                    Move m = possible.get(rand.nextInt(possible.size()));
+                    scan.executeMove(m, player);
+                    candidates.executeMove(m, player);
+                }
+                player = Minimax.getNextPlayer(scan, player);
+            }
+            System.out.println("[TESTS] " + scan.getMapHeight() + "x" + scan.getMapWidth() + " map with "
+                + scan.getPlayerCount() + " players." + result);
+        }
+    }
+
+    /**
+     * Measures the time to generate all moves for every player.
+     * @param pf the PlayingField
+     * @param runs number of repetitions
+     * @return the time in nanoseconds
+     * @throws TimeoutException never
+     */
+    private long measure(PlayingField pf, int runs) throws TimeoutException{
+        //warm up
+        for(int i = 0; i < runs; i++){
+            Minimax.getAllPossibleMoves(pf, (byte)1);
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < runs; i++){
+            for(byte p = 1; p <= pf.getPlayerCount(); p++){
+                Minimax.getAllPossibleMoves(pf, p);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
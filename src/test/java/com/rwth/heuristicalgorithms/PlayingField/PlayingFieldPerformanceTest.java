@@ -0,0 +1,230 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.TestMaps;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+
+/**
+ * Measures the cost of the basic PlayingField operations (copying and tile access) on all maps.
+ */
+public class PlayingFieldPerformanceTest {
+
+    /**
+     * The performance tests will be skipped if this is set to false.
+     */
+    private static final boolean ACTIVATE_PERFORMANCE_TEST = false;
+
+    /**
+     * Number of repetitions per map.
+     */
+    private static final int RUNS = 2000;
+
+
+    /**
+     * Measures copy(), reading every tile with getMapTile and writing every occupied tile with setMapTile.
+     * @throws IOException if the maps can not be read
+     */
+    @Test
+    public void copyAndTileAccessPerformanceTest() throws IOException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+
+            long copyTime = 0;
+            long readTime = 0;
+            long writeTime = 0;
+            //the result is printed so that the JIT can not remove the reads
+            int checksum = 0;
+            //first half is warm up
+            for(int run = 0; run < 2*RUNS; run++){
+                long start = System.nanoTime();
+                PlayingField copy = pf.copy();
+                long afterCopy = System.nanoTime();
+                for(byte y = 0; y < pf.getMapHeight(); y++){
+                    for(byte x = 0; x < pf.getMapWidth(); x++){
+                        checksum += copy.getMapTile(y, x).ordinal();
+                    }
+                }
+                long afterRead = System.nanoTime();
+                for(byte y = 0; y < pf.getMapHeight(); y++){
+                    for(byte x = 0; x < pf.getMapWidth(); x++){
+                        Tile t = copy.getMapTile(y, x);
+                        if(Tile.isTileOccupiedByPlayer(t)) copy.setMapTile(y, x, t);
+                    }
+                }
+                long afterWrite = System.nanoTime();
+                if(run >= RUNS){
+                    copyTime += afterCopy - start;
+                    readTime += afterRead - afterCopy;
+                    writeTime += afterWrite - afterRead;
+                }
+            }
+            int tiles = pf.getMapHeight() * pf.getMapWidth();
+            System.out.println("[TESTS] " + pf.getMapHeight() + "x" + pf.getMapWidth() + " map with "
+                + pf.getPlayerCount() + " players. copy: " + copyTime/RUNS + "ns, getMapTile: " + readTime/RUNS/tiles
+                + "ns per tile, getMapTile+setMapTile: " + writeTime/RUNS/tiles + "ns per tile (checksum " + checksum + ")");
+        }
+    }
+
+    /**
+     * Measures the bytes allocated per call of the list and the buffer variant of getEnclosedStones and of hasEnclosedStones,
+     * and per generated move of Minimax.getAllPossibleMoves (without bitboards), on all maps.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void enclosedStonesAllocationTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+            int[] buffer = new int[pf.getFlipBufferSize()];
+            long[] bytes = new long[4];
+            long calls = 0;
+            long moves = 0;
+            int checksum = 0;
+            //first half is warm up
+            for(int run = 0; run < 2*RUNS/10; run++){
+                boolean measure = run >= RUNS/10;
+                for(byte y = 0; y < pf.getMapHeight(); y++){
+                    for(byte x = 0; x < pf.getMapWidth(); x++){
+                        if(!Tile.isTileEmpty(pf.getMapTile(y, x))) continue;
+                        long start = threads.getCurrentThreadAllocatedBytes();
+                        List<byte[]> list = pf.getEnclosedStones(y, x, (byte)1);
+                        long afterList = threads.getCurrentThreadAllocatedBytes();
+                        checksum += pf.getEnclosedStones(y, x, (byte)1, buffer);
+                        long afterBuffer = threads.getCurrentThreadAllocatedBytes();
+                        checksum += pf.hasEnclosedStones(y, x, (byte)1) ? 1 : 0;
+                        long afterHas = threads.getCurrentThreadAllocatedBytes();
+                        checksum += list == null ? 0 : list.size();
+                        if(measure){
+                            //the measurement itself allocates nothing, see bytes[3]
+                            bytes[0] += afterList - start;
+                            bytes[1] += afterBuffer - afterList;
+                            bytes[2] += afterHas - afterBuffer;
+                            calls++;
+                        }
+                    }
+                }
+                long start = threads.getCurrentThreadAllocatedBytes();
+                List<Move> possible = Minimax.getAllPossibleMoves(pf, (byte)1);
+                long end = threads.getCurrentThreadAllocatedBytes();
+                if(measure && possible != null){
+                    bytes[3] += end - start;
+                    moves += possible.size();
+                }
+            }
+            System.out.println("[TESTS] " + pf.getMapHeight() + "x" + pf.getMapWidth() + " map with "
+                + pf.getPlayerCount() + " players. Bytes per call: list " + bytes[0]/Math.max(1, calls) + ", buffer " + bytes[1]/Math.max(1, calls)
+                + ", hasEnclosedStones " + bytes[2]/Math.max(1, calls) + ". Bytes per generated move (incl. the Move itself): " + bytes[3]/Math.max(1, moves)
+                + " (checksum " + checksum + ")");
+        }
+    }
+
+    /**
+     * Measures the time per call of getEnclosedStones (buffer variant) and hasEnclosedStones for all players and all empty tiles,
+     * and the time per executed move (copy included) on the largest map (50x50, 8 players).
+     * @throws IOException if the map can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void neighbourTablePerformanceTest() throws IOException, TimeoutException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        PlayingField pf = PlayingField.readMap(Files.readString(Path.of("maps/reserve/group8_seerinnitsche.map")));
+        int[] buffer = new int[pf.getFlipBufferSize()];
+        List<Move> possible = Minimax.getAllPossibleMoves(pf, (byte)1);
+        long enclosedTime = 0;
+        long hasTime = 0;
+        long moveTime = 0;
+        long calls = 0;
+        int checksum = 0;
+        //first half is warm up
+        for(int run = 0; run < 2*RUNS/10; run++){
+            boolean measure = run >= RUNS/10;
+            long start = System.nanoTime();
+            for(byte player = 1; player <= pf.getPlayerCount(); player++){
+                for(byte y = 0; y < pf.getMapHeight(); y++){
+                    for(byte x = 0; x < pf.getMapWidth(); x++){
+                        checksum += pf.getEnclosedStones(y, x, player, buffer);
+                    }
+                }
+            }
+            long afterEnclosed = System.nanoTime();
+            for(byte player = 1; player <= pf.getPlayerCount(); player++){
+                for(byte y = 0; y < pf.getMapHeight(); y++){
+                    for(byte x = 0; x < pf.getMapWidth(); x++){
+                        checksum += pf.hasEnclosedStones(y, x, player) ? 1 : 0;
+                    }
+                }
+            }
+            long afterHas = System.nanoTime();
+            for(Move move : possible){
+                PlayingField copy = pf.copy();
+                checksum += copy.executeMove(move, (byte)1) ? 1 : 0;
+            }
+            long afterMoves = System.nanoTime();
+            if(measure){
+                enclosedTime += afterEnclosed - start;
+                hasTime += afterHas - afterEnclosed;
+                moveTime += afterMoves - afterHas;
+                calls++;
+            }
+        }
+        long perRun = (long)pf.getPlayerCount() * pf.getMapHeight() * pf.getMapWidth();
+        System.out.println("[TESTS] " + pf.getMapHeight() + "x" + pf.getMapWidth() + " map with "
+            + pf.getPlayerCount() + " players. getEnclosedStones: " + enclosedTime/calls/perRun + "ns, hasEnclosedStones: "
+            + hasTime/calls/perRun + "ns per tile and player, copy+executeMove: " + moveTime/calls/Math.max(1, possible.size())
+            + "ns per move (checksum " + checksum + ")");
+    }
+
+    /**
+     * Measures the time per bomb move (copy included) for every tile of all maps with bomb radii 1 to 4.
+     * Every copy first receives a bomb radius+1 rows above, so that the second blast borders on the holes created by the first one.
+     * @throws IOException if the maps can not be read
+     */
+    @Test
+    public void bombPerformanceTest() throws IOException{
+        assumeTrue(ACTIVATE_PERFORMANCE_TEST);
+        for(String map : TestMaps.readAllMaps()){
+            String[] lines = map.split("\r?\n");
+            PlayingField original = PlayingField.readMap(map);
+            StringBuilder result = new StringBuilder();
+            for(int radius = 1; radius <= 4; radius++){
+                //2 bombs per player, the map's bomb radius is replaced
+                lines[2] = "2 " + radius;
+                PlayingField pf = PlayingField.readMap(String.join("\n", lines));
+                long time = 0;
+                long moves = 0;
+                int checksum = 0;
+                //first half is warm up
+                for(int run = 0; run < 2*RUNS/200; run++){
+                    long start = System.nanoTime();
+                    for(byte y = (byte)(radius+1); y < pf.getMapHeight(); y++){
+                        for(byte x = 0; x < pf.getMapWidth(); x++){
+                            PlayingField copy = pf.copy();
+                            if(!copy.executeMove(Move.createBombMove((byte)(y-radius-1), x), (byte)1)) continue;
+                            if(!copy.executeMove(Move.createBombMove(y, x), (byte)1)) continue;
+                            checksum += (int)copy.getHash();
+                            if(run >= RUNS/200) moves += 2;
+                        }
+                    }
+                    if(run >= RUNS/200) time += System.nanoTime() - start;
+                }
+                result.append(" radius ").append(radius).append(": ").append(time/Math.max(1, moves)).append("ns");
+                if(radius == 4) result.append(" (checksum ").append(checksum).append(")");
+            }
+            System.out.println("[TESTS] " + original.getMapHeight() + "x" + original.getMapWidth() + " map with "
+                + original.getPlayerCount() + " players. Time per bomb move:" + result);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
@@ -13,21 +14,14 @@ import java.util.Set;
 
 import static java.util.Map.entry;
 
-import org.junit.Before;
 import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.TestMaps;
 /**
  * testclass for everything to do with PlayingFields
  */
 public class PlayingFieldTest {
 
-    /**
-     * executed before each test
-     */
-    @Before
-    public void setUp(){ 
-        //clean up all the static values in pf
-        PlayingField.reset();
-    }
     
     /**
      * tests the readMap function
@@ -60,16 +54,16 @@ public class PlayingFieldTest {
         int playerCount = 3;
         PlayingField pf = PlayingField.readMap(mapString);
 
-        assertEquals(playerCount, PlayingField.getPlayerCount());
+        assertEquals(playerCount, pf.getPlayerCount());
         for(int i = 1; i <= playerCount; i++){
             assertEquals(4, pf.getPlayerBombCount((byte) i));
         }
-        assertEquals(2, PlayingField.getBombRadius());
+        assertEquals(2, pf.getBombRadius());
         for(int i = 1; i <= playerCount; i++){
             assertEquals(6, pf.getPlayerOverrideStoneCount((byte) i));
         }
-        assertEquals(15, PlayingField.getMapWidth());
-        assertEquals(15, PlayingField.getMapHeight());
+        assertEquals(15, pf.getMapWidth());
+        assertEquals(15, pf.getMapHeight());
 
         //assert correct map array
         //these are (y,x) coords
@@ -105,7 +99,7 @@ public class PlayingFieldTest {
         for(byte[] from : special_transitions.keySet()){
             byte[] to = special_transitions.get(from);
             //convert from (x,y) to (y,x)
-            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, PlayingField.getTransition(from[1], from[0], from[2]));
+            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, pf.getTransition(from[1], from[0], from[2]));
         }
 
         //asserting that transitions to hole lead to [-1,-1] coords
@@ -125,7 +119,7 @@ public class PlayingFieldTest {
 
         for(byte[] from : no_transitions){
             //convert from (x,y) to (y,x)
-            assertArrayEquals(new byte[]{-1, -1, -1}, PlayingField.getTransition(from[1], from[0], from[2]));
+            assertArrayEquals(new byte[]{-1, -1, -1}, pf.getTransition(from[1], from[0], from[2]));
         }
 
 
@@ -148,7 +142,7 @@ public class PlayingFieldTest {
             byte[] to = default_transitions.get(from);
             //convert from (x,y) to (y,x)
             //System.out.println("[TEST] default_transitions test: format (y,x,r) to (y,x); from (" + from[1] + "," + from[0] + "," + from[2] + ") to (" + to[1] + "," + to[0] + ")");
-            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, PlayingField.getTransition(from[1], from[0], from[2]));
+            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, pf.getTransition(from[1], from[0], from[2]));
         }
 
         //test the setter
@@ -191,15 +185,15 @@ public class PlayingFieldTest {
         int playerCount = 4;
         PlayingField pf = PlayingField.readMap(mapString);
 
-        assertEquals(playerCount, PlayingField.getPlayerCount());
+        assertEquals(playerCount, pf.getPlayerCount());
         for(int i = 1; i <= playerCount; i++){
             assertEquals(4, pf.getPlayerBombCount((byte) i));
         }
         for(int i = 1; i <= playerCount; i++){
             assertEquals(1, pf.getPlayerOverrideStoneCount((byte) i));
         }
-        assertEquals(15, PlayingField.getMapWidth());
-        assertEquals(10, PlayingField.getMapHeight());
+        assertEquals(15, pf.getMapWidth());
+        assertEquals(10, pf.getMapHeight());
 
         //assert correct map array
         //these are (y,x) coords
@@ -233,7 +227,7 @@ public class PlayingFieldTest {
         for(byte[] from : special_transitions.keySet()){
             byte[] to = special_transitions.get(from);
             //convert from (x,y) to (y,x)
-            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, PlayingField.getTransition(from[1], from[0], from[2]));
+            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, pf.getTransition(from[1], from[0], from[2]));
         }
 
         //asserting that transitions to hole lead to [-1,-1] coords
@@ -254,7 +248,7 @@ public class PlayingFieldTest {
 
         for(byte[] from : no_transitions){
             //convert from (x,y) to (y,x)
-            assertArrayEquals(new byte[]{-1, -1, -1}, PlayingField.getTransition(from[1], from[0], from[2]));
+            assertArrayEquals(new byte[]{-1, -1, -1}, pf.getTransition(from[1], from[0], from[2]));
         }
 
 
@@ -277,7 +271,7 @@ public class PlayingFieldTest {
             byte[] to = default_transitions.get(from);
             //convert from (x,y) to (y,x)
             //System.out.println("[TEST] default_transitions test: format (y,x,r) to (y,x); from (" + from[1] + "," + from[0] + "," + from[2] + ") to (" + to[1] + "," + to[0] + ")");
-            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, PlayingField.getTransition(from[1], from[0], from[2]));
+            assertArrayEquals(new byte[]{to[1], to[0], to[2]}, pf.getTransition(from[1], from[0], from[2]));
         }
 
 
@@ -794,32 +788,32 @@ public class PlayingFieldTest {
         //to remove warning message of unused attribute pf
         pf.changePlayerBombCount((byte)1, (byte)0);       
          
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)0, (byte)0));
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)1, (byte)1));
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)1, (byte)6));
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)1, (byte)8));
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)7, (byte)7));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)0, (byte)0));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)1, (byte)1));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)1, (byte)6));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)1, (byte)8));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)7, (byte)7));
 
         //special transition
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)0, (byte)6));
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)1, (byte)9));
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)14, (byte)7));
-        assertEquals(TileType.DEFAULT, PlayingField.getTileType((byte)0, (byte)7));
-
-        assertEquals(TileType.EDGE, PlayingField.getTileType((byte)0, (byte)8));
-        assertEquals(TileType.EDGE, PlayingField.getTileType((byte)7, (byte)0));
-        assertEquals(TileType.EDGE, PlayingField.getTileType((byte)8, (byte)0));
-        assertEquals(TileType.EDGE, PlayingField.getTileType((byte)7, (byte)14));
-        assertEquals(TileType.EDGE, PlayingField.getTileType((byte)14, (byte)8));
-
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)0, (byte)5));
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)0, (byte)9));
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)14, (byte)5));
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)14, (byte)9));
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)5, (byte)0));
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)5, (byte)14));
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)9, (byte)0));
-        assertEquals(TileType.CORNER, PlayingField.getTileType((byte)9, (byte)14));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)0, (byte)6));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)1, (byte)9));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)14, (byte)7));
+        assertEquals(TileType.DEFAULT, pf.getTileType((byte)0, (byte)7));
+
+        assertEquals(TileType.EDGE, pf.getTileType((byte)0, (byte)8));
+        assertEquals(TileType.EDGE, pf.getTileType((byte)7, (byte)0));
+        assertEquals(TileType.EDGE, pf.getTileType((byte)8, (byte)0));
+        assertEquals(TileType.EDGE, pf.getTileType((byte)7, (byte)14));
+        assertEquals(TileType.EDGE, pf.getTileType((byte)14, (byte)8));
+
+        assertEquals(TileType.CORNER, pf.getTileType((byte)0, (byte)5));
+        assertEquals(TileType.CORNER, pf.getTileType((byte)0, (byte)9));
+        assertEquals(TileType.CORNER, pf.getTileType((byte)14, (byte)5));
+        assertEquals(TileType.CORNER, pf.getTileType((byte)14, (byte)9));
+        assertEquals(TileType.CORNER, pf.getTileType((byte)5, (byte)0));
+        assertEquals(TileType.CORNER, pf.getTileType((byte)5, (byte)14));
+        assertEquals(TileType.CORNER, pf.getTileType((byte)9, (byte)0));
+        assertEquals(TileType.CORNER, pf.getTileType((byte)9, (byte)14));
     }
 
 
@@ -992,4 +986,203 @@ public class PlayingFieldTest {
         //this shouldn't change
         assertEquals(125, pf.getNumberOccupiableTiles());
     }
+
+    /**
+     * The buffer variant of getEnclosedStones has to find the same stones as the list variant, and hasEnclosedStones has to agree with both.
+     * Also checks that a move with precomputed enclosed stones has the same effect as a move without.
+     * @throws java.io.IOException if the maps can not be read
+     */
+    @Test
+    public void enclosedStonesBufferTest() throws java.io.IOException{
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+            int[] buffer = new int[pf.getFlipBufferSize()];
+            for(byte player = 1; player <= pf.getPlayerCount(); player++){
+                for(byte y = 0; y < pf.getMapHeight(); y++){
+                    for(byte x = 0; x < pf.getMapWidth(); x++){
+                        if(pf.getMapTile(y, x).equals(Tile.HOLE)) continue;
+                        java.util.List<byte[]> list = pf.getEnclosedStones(y, x, player);
+                        int count = pf.getEnclosedStones(y, x, player, buffer);
+                        assertEquals(count > 0, pf.hasEnclosedStones(y, x, player));
+                        if(list == null){
+                            assertEquals(0, count);
+                            continue;
+                        }
+                        assertEquals(list.size(), count);
+                        for(int i = 0; i < count; i++){
+                            assertEquals(list.get(i)[0], pf.getTileIndexY(buffer[i]));
+                            assertEquals(list.get(i)[1], pf.getTileIndexX(buffer[i]));
+                        }
+                        if(Tile.isTileEmpty(pf.getMapTile(y, x))){
+                            PlayingField computed = Move.simulateMove(Move.createDefaultMove(y, x), player, pf);
+                            PlayingField precomputed = Move.simulateMove(Move.createDefaultMove(y, x, list), player, pf);
+                            assertEquals(computed.toString(), precomputed.toString());
+                            assertEquals(computed.getHash(), precomputed.getHash());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The flat neighbour table has to contain the same transitions (including the special transitions) as getTransition.
+     * @throws java.io.IOException if the maps can not be read
+     */
+    @Test
+    public void neighbourTableTest() throws java.io.IOException{
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+            for(byte y = 0; y < pf.getMapHeight(); y++){
+                for(byte x = 0; x < pf.getMapWidth(); x++){
+                    int index = pf.getTileIndex(y, x);
+                    assertEquals(y, pf.getTileIndexY(index));
+                    assertEquals(x, pf.getTileIndexX(index));
+                    for(byte k = 0; k < 8; k++){
+                        byte[] transition = pf.getTransition(y, x, k);
+                        int neighbour = pf.getNeighbour(index, k);
+                        if(transition[0] == -1){
+                            assertEquals(-1, neighbour);
+                            continue;
+                        }
+                        assertEquals(transition[0], pf.getTileIndexY(neighbour >> 3));
+                        assertEquals(transition[1], pf.getTileIndexX(neighbour >> 3));
+                        assertEquals(transition[2], neighbour & 7);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The blast of a bomb has to contain exactly the tiles reached by the rules (at most bombRadius steps, never passing a hole),
+     * both on the original map (cached blasts) and after earlier bombs created new holes.
+     * @throws java.io.IOException if the maps can not be read
+     */
+    @Test
+    public void bombBlastTest() throws java.io.IOException{
+        Random random = new Random(0);
+        for(String map : TestMaps.readAllMaps()){
+            String[] lines = map.split("\r?\n");
+            for(int radius = 0; radius <= 3; radius++){
+                //enough bombs for all the bombs below, the map's bomb radius is replaced
+                lines[2] = "20 " + radius;
+                PlayingField pf = PlayingField.readMap(String.join("\n", lines));
+                int[] buffer = new int[pf.getMapHeight() * pf.getMapWidth()];
+                for(int bomb = 0; bomb < 20; bomb++){
+                    byte y = (byte)random.nextInt(pf.getMapHeight());
+                    byte x = (byte)random.nextInt(pf.getMapWidth());
+                    if(pf.getMapTile(y, x).equals(Tile.HOLE)) continue;
+
+                    Set<Integer> expected = new HashSet<>();
+                    collectBlast(pf, y, x, radius, expected);
+                    int count = pf.getBombBlast(y, x, buffer);
+                    Set<Integer> actual = new HashSet<>();
+                    for(int i = 0; i < count; i++) actual.add(buffer[i]);
+                    assertEquals(expected.size(), count);
+                    assertEquals(expected, actual);
+
+                    assertTrue(pf.executeMove(Move.createBombMove(y, x), (byte)1));
+                    for(int index : expected){
+                        assertEquals(Tile.HOLE, pf.getMapTile(pf.getTileIndexY(index), pf.getTileIndexX(index)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reference for bombBlastTest: the recursive definition of a blast.
+     * @param pf the PlayingField
+     * @param y coordinate of the current tile
+     * @param x coordinate of the current tile
+     * @param r remaining radius
+     * @param hit receives the packed indices of the hit tiles
+     */
+    private static void collectBlast(PlayingField pf, byte y, byte x, int r, Set<Integer> hit){
+        hit.add(pf.getTileIndex(y, x));
+        if(r == 0) return;
+        for(byte k = 0; k < 8; k++){
+            byte[] neighbour = pf.getTransition(y, x, k);
+            if(!pf.getMapTile(neighbour[0], neighbour[1]).equals(Tile.HOLE)){
+                collectBlast(pf, neighbour[0], neighbour[1], r - 1, hit);
+            }
+        }
+    }
+
+    /**
+     * The incrementally updated stone counts have to match a scan of the map during random games
+     * (including choice and inversion moves), after unmakeMove and after bomb moves.
+     * @throws java.io.IOException if the maps can not be read
+     * @throws com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void stoneCountTest() throws java.io.IOException, com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException{
+        Random random = new Random(2);
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+            byte player = 1;
+            for(int moves = 0; moves < 60; moves++){
+                java.util.List<Move> possible = com.rwth.heuristicalgorithms.MoveChoosing.Minimax.getAllPossibleMoves(pf, player);
+                if(possible != null){
+                    pf.makeMove(possible.get(random.nextInt(possible.size())), player);
+                    if(random.nextInt(4) == 0){
+                        pf.unmakeMove();
+                    }
+                }
+                assertStoneCounts(pf);
+                player = com.rwth.heuristicalgorithms.MoveChoosing.Minimax.getNextPlayer(pf, player);
+            }
+            for(int bomb = 0; bomb < 5; bomb++){
+                pf.changePlayerBombCount((byte)1, (byte)1);
+                pf.executeMove(Move.createBombMove((byte)random.nextInt(pf.getMapHeight()), (byte)random.nextInt(pf.getMapWidth())), (byte)1);
+                assertStoneCounts(pf);
+            }
+        }
+    }
+
+    /**
+     * Compares getStoneCount with a scan of the map for every player.
+     * @param pf the PlayingField
+     */
+    private static void assertStoneCounts(PlayingField pf){
+        for(byte p = 1; p <= pf.getPlayerCount(); p++){
+            int count = 0;
+            for(byte y = 0; y < pf.getMapHeight(); y++){
+                for(byte x = 0; x < pf.getMapWidth(); x++){
+                    if(pf.getMapTile(y, x).equals(PlayingField.TILE_ENCODING[p])) count++;
+                }
+            }
+            assertEquals(count, pf.getStoneCount(p));
+        }
+    }
+
+    /**
+     * Every map has its own MapTopology, so reading other maps does not change the PlayingFields of a map that was read before.
+     * Copies share the topology of their original.
+     * @throws java.io.IOException if the maps can not be read
+     */
+    @Test
+    public void independentTopologyTest() throws java.io.IOException{
+        java.util.List<String> maps = TestMaps.readAllMaps();
+        PlayingField[] fields = new PlayingField[maps.size()];
+        for(int i = 0; i < fields.length; i++){
+            fields[i] = PlayingField.readMap(maps.get(i));
+        }
+        for(int i = 0; i < fields.length; i++){
+            PlayingField pf = fields[i];
+            PlayingField fresh = PlayingField.readMap(maps.get(i));
+            assertSame(pf.getTopology(), pf.copy().getTopology());
+            assertEquals(fresh.getPlayerCount(), pf.getPlayerCount());
+            assertEquals(fresh.getMapHeight(), pf.getMapHeight());
+            assertEquals(fresh.getMapWidth(), pf.getMapWidth());
+            assertEquals(fresh.getNumberOccupiableTiles(), pf.getNumberOccupiableTiles());
+            assertEquals(fresh.toString(), pf.toString());
+            for(int index = 0; index < pf.getMapHeight() * pf.getMapWidth(); index++){
+                for(int k = 0; k < 8; k++){
+                    assertEquals(fresh.getNeighbour(index, k), pf.getNeighbour(index, k));
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package com.rwth.heuristicalgorithms.PlayingField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rwth.heuristicalgorithms.MoveChoosing.Minimax;
+import com.rwth.heuristicalgorithms.MoveChoosing.TestMaps;
+import com.rwth.heuristicalgorithms.MoveChoosing.TimeoutException;
+
+/**
+ * Tests the incremental Zobrist hash of PlayingField.
+ */
+public class ZobristTest {
+
+    /**
+     * Plays random games on all maps with hash verification enabled, i.e., every executed move compares the incremental hash with the recomputed one.
+     * Also checks that makeMove/unmakeMove restore the hash.
+     * @throws IOException if the maps can not be read
+     * @throws TimeoutException never, since no time limit is used
+     */
+    @Test
+    public void incrementalHashTest() throws IOException, TimeoutException{
+        Random rand = new Random(11);
+        for(String map : TestMaps.readAllMaps()){
+            PlayingField pf = PlayingField.readMap(map);
+            pf.setHashVerification(true);
+            assertEquals(pf.computeHash(), pf.getHash());
+
+            byte player = 1;
+            for(int moves = 0; moves < 40; moves++){
+                if(moves == 30) pf.startEliminationPhase();
+                List<Move> possible = Minimax.getAllPossibleMoves(pf, player);
+                if(possible != null){
+                    Move m = possible.get(rand.nextInt(possible.size()));
+                    long before = pf.getHash();
+                    assertTrue(pf.makeMove(m, player));
+                    pf.unmakeMove();
+                    assertEquals(before, pf.getHash());
+
+                    assertTrue(pf.executeMove(m, player));
+                }
+                player = Minimax.getNextPlayer(pf, player);
+            }
+        }
+    }
+
+    /**
+     * The same position reached by different move orders has the same hash, different positions have different hashes.
+     */
+    @Test
+    public void transpositionTest(){
+        PlayingField pf = PlayingField.readMap(MAP);
+        pf.setHashVerification(true);
+        Move a = Move.createDefaultMove((byte)5, (byte)7);
+        Move b = Move.createDefaultMove((byte)9, (byte)7);
+
+        PlayingField first = pf.copy();
+        assertTrue(first.executeMove(a, (byte)1));
+        assertTrue(first.executeMove(b, (byte)1));
+
+        PlayingField second = pf.copy();
+        assertTrue(second.executeMove(b, (byte)1));
+        assertTrue(second.executeMove(a, (byte)1));
+
+        assertEquals(first.toString(), second.toString());
+        assertEquals(first.getHash(), second.getHash());
+        assertNotEquals(pf.getHash(), first.getHash());
+
+        //the same stones with a different stone permutation are a different position
+        PlayingField choice = pf.copy();
+        assertTrue(choice.executeMove(Move.createChoiceMove((byte)7, (byte)10, (byte)1), (byte)1));
+        PlayingField choiceSwap = pf.copy();
+        assertTrue(choiceSwap.executeMove(Move.createChoiceMove((byte)7, (byte)10, (byte)2), (byte)1));
+        assertNotEquals(choice.getHash(), choiceSwap.getHash());
+
+        //bonus moves only differ in the counters. (6, 9) encloses (6, 8) after move a
+        assertTrue(pf.executeMove(a, (byte)1));
+        PlayingField bomb = pf.copy();
+        assertTrue(bomb.executeMove(Move.createBonusMove((byte)6, (byte)9, true), (byte)1));
+        PlayingField override = pf.copy();
+        assertTrue(override.executeMove(Move.createBonusMove((byte)6, (byte)9, false), (byte)1));
+        assertEquals(bomb.toString(), override.toString());
+        assertNotEquals(bomb.getHash(), override.getHash());
+    }
+
+    /**
+     * A disqualified player is skipped and can not be chosen by choice moves, so the same map is a different position.
+     * The incremental hash has to match the recomputed one, also for copies made before the disqualification.
+     */
+    @Test
+    public void disqualificationTest(){
+        PlayingField pf = PlayingField.readMap(MAP);
+        pf.setHashVerification(true);
+        PlayingField before = pf.copy();
+        pf.disqualify((byte)2);
+        assertEquals(before.toString(), pf.toString());
+        assertNotEquals(before.getHash(), pf.getHash());
+        assertEquals(pf.computeHash(), pf.getHash());
+        assertEquals(before.computeHash(), before.getHash());
+
+        //disqualifying twice does not change the hash, the moves of the other players still update it
+        long hash = pf.getHash();
+        pf.disqualify((byte)2);
+        assertEquals(hash, pf.getHash());
+        assertTrue(pf.executeMove(Move.createDefaultMove((byte)5, (byte)7), (byte)1));
+        assertEquals(pf.computeHash(), pf.getHash());
+
+        //the order of the disqualifications does not matter
+        PlayingField first = before.copy();
+        first.disqualify((byte)1);
+        first.disqualify((byte)3);
+        PlayingField second = before.copy();
+        second.disqualify((byte)3);
+        second.disqualify((byte)1);
+        assertEquals(first.getHash(), second.getHash());
+    }
+
+    /**
+     * Map with special tiles next to the stones of all players
+     */
+    private static final String MAP = "3\n" +
+        "6\n"+
+        "4 2\r\n"+
+        "15 15\r\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 i 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "0 0 0 0 0 0 1 0 0 0 0 0 0 0 0\n" +
+        "0 c 0 0 0 2 2 2 3 b i 0 0 0 0\n" +
+        "0 0 0 0 3 3 3 1 2 2 c 0 0 0 0\n" +
+        "0 0 0 b 0 2 3 3 1 b b 0 0 0 0\n" +
+        "0 0 0 0 2 0 3 0 0 0 0 0 b 0 0\n" +
+        "- - - - - 0 0 x 0 0 - - - - -\n" +
+        "- - - - - 0 x x x 0 - - - - -\n" +
+        "- - - - - 0 0 x c 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n" +
+        "- - - - - 0 0 0 0 0 - - - - -\n";
+}
@@ -0,0 +1,103 @@
+package com.rwth.heuristicalgorithms.Server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.Test;
+
+/**
+ * Plays games on the local game server with hosted Clients and with scripted players.
+ */
+public class GameServerTest {
+
+    /**
+     * Four hosted Clients play a whole game with a depth limit. Nobody may be disqualified and every player has to answer move requests.
+     * @throws IOException if the game can not be played
+     */
+    @Test
+    public void gameTest() throws IOException{
+        GameServer server = new GameServer();
+        server.map = "maps/reserve/Map_4v4_9x9_#01.map";
+        server.port = 0;
+        server.timeLimit = 5000;
+        server.depthLimit = 2;
+        server.start();
+        server.play();
+        System.out.print("[TESTS] " + server.getReport());
+
+        assertEquals(4, server.getPlayers().size());
+        for(PlayerConnection player : server.getPlayers()){
+            assertNull(player.getDisqualification());
+            assertEquals(5, player.getGroupNumber());
+            assertTrue(player.getMoveCount() > 0);
+            assertTrue(player.getLatencyPercentile(100) < server.timeLimit);
+        }
+        assertTrue(server.getPlayingField().getIsEliminationPhase());
+    }
+
+    /**
+     * A player that does not answer is disqualified for the timeout, a player that sends an impossible move for the invalid move.
+     * @throws Exception if the game can not be played
+     */
+    @Test
+    public void disqualificationTest() throws Exception{
+        GameServer server = new GameServer();
+        server.map = "maps/2023_comp_5_2p.map";
+        server.port = 0;
+        server.timeLimit = 300;
+        server.clients = 0;
+        server.start();
+
+        //the first player to connect never answers, the second one sends a move on (0, 0), which encloses no stones
+        Thread silent = new Thread(() -> scriptedPlayer(server.getPort(), false));
+        silent.start();
+        //the server accepts the connections in the order they were established
+        Thread.sleep(200);
+        Thread invalid = new Thread(() -> scriptedPlayer(server.getPort(), true));
+        invalid.start();
+        server.play();
+        silent.join();
+        invalid.join();
+        System.out.print("[TESTS] " + server.getReport());
+
+        assertNotNull(server.getPlayers().get(0).getDisqualification());
+        assertTrue(server.getPlayers().get(0).getDisqualification().startsWith("no answer"));
+        assertTrue(server.getPlayers().get(0).getLatencyPercentile(50) >= server.timeLimit);
+        assertNotNull(server.getPlayers().get(1).getDisqualification());
+        assertTrue(server.getPlayers().get(1).getDisqualification().startsWith("invalid move"));
+        assertEquals(1, server.getPlayers().get(1).getMoveCount());
+    }
+
+    /**
+     * Connects to the server, sends group number 5 and answers every move request with a move on (0, 0) or not at all.
+     * Returns when the connection is closed.
+     * @param port port of the server
+     * @param answer true if the move requests are answered
+     */
+    private static void scriptedPlayer(int port, boolean answer){
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)){
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            output.write(new byte[]{1, 0, 0, 0, 1, 5});
+            while(true){
+                int type = input.readUnsignedByte();
+                byte[] payload = new byte[input.readInt()];
+                input.readFully(payload);
+                if(type == 4 && answer){
+                    output.write(new byte[]{5, 0, 0, 0, 5, 0, 0, 0, 0, 0});
+                }
+                if(type == 9) return;
+            }
+        } catch(IOException e){
+            //closed by the server after the disqualification
+        }
+    }
+}